@@ -21,6 +21,7 @@ package org.macroing.geo4j.bv;
 import org.macroing.geo4j.common.Point3D;
 import org.macroing.geo4j.matrix.Matrix44D;
 import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.ray.TraversalRay3D;
 import org.macroing.java.lang.Doubles;
 
 /**
@@ -136,6 +137,25 @@ public interface BoundingVolume3D extends BoundingVolume {
 		return contains(boundingVolume.getClosestPointTo(midpoint()));
 	}
 	
+	/**
+	 * Performs an intersection test between {@code traversalRay} and this {@code BoundingVolume3D} instance.
+	 * <p>
+	 * Returns {@code t}, the parametric distance from {@code traversalRay} to this {@code BoundingVolume3D} instance, or {@code Double.NaN} if no intersection exists.
+	 * <p>
+	 * If {@code traversalRay} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * The default implementation calls {@link #intersection(Ray3D, double, double)} with {@code traversalRay.getRay()}. An implementation may override it to use the precomputed values of {@code traversalRay}.
+	 * 
+	 * @param traversalRay the {@link TraversalRay3D} to perform an intersection test against this {@code BoundingVolume3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code t}, the parametric distance from {@code traversalRay} to this {@code BoundingVolume3D} instance, or {@code Double.NaN} if no intersection exists
+	 * @throws NullPointerException thrown if, and only if, {@code traversalRay} is {@code null}
+	 */
+	default double intersectionTraversal(final TraversalRay3D traversalRay, final double tMinimum, final double tMaximum) {
+		return intersection(traversalRay.getRay(), tMinimum, tMaximum);
+	}
+	
 	/**
 	 * Performs an intersection test between {@code ray} and this {@code BoundingVolume3D} instance.
 	 * <p>
@@ -152,4 +172,21 @@ public interface BoundingVolume3D extends BoundingVolume {
 	default boolean intersects(final Ray3D ray, final double tMinimum, final double tMaximum) {
 		return !Doubles.isNaN(intersection(ray, tMinimum, tMaximum));
 	}
+	
+	/**
+	 * Performs an intersection test between {@code traversalRay} and this {@code BoundingVolume3D} instance.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code traversalRay} intersects this {@code BoundingVolume3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code traversalRay} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param traversalRay the {@link TraversalRay3D} to perform an intersection test against this {@code BoundingVolume3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code true} if, and only if, {@code traversalRay} intersects this {@code BoundingVolume3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code traversalRay} is {@code null}
+	 */
+	default boolean intersectsTraversal(final TraversalRay3D traversalRay, final double tMinimum, final double tMaximum) {
+		return !Doubles.isNaN(intersectionTraversal(traversalRay, tMinimum, tMaximum));
+	}
 }
\ No newline at end of file
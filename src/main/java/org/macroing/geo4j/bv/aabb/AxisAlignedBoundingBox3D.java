@@ -28,6 +28,7 @@ import org.macroing.geo4j.common.Point3D;
 import org.macroing.geo4j.common.Vector3D;
 import org.macroing.geo4j.matrix.Matrix44D;
 import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.ray.TraversalRay3D;
 import org.macroing.java.lang.Doubles;
 import org.macroing.java.lang.Ints;
 import org.macroing.java.util.Arrays;
@@ -322,21 +323,49 @@ public final class AxisAlignedBoundingBox3D implements BoundingVolume3D {
 	 */
 	@Override
 	public double intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
-		final Point3D max = max();
-		final Point3D min = min();
+		final Point3D max = this.max;
+		final Point3D min = this.min;
 		final Point3D origin = ray.getOrigin();
 		
 		final Vector3D direction = ray.getDirection();
-		final Vector3D directionReciprocal = Vector3D.reciprocal(direction);
-		final Vector3D directionA = Vector3D.hadamardProduct(Vector3D.direction(origin, max), directionReciprocal);
-		final Vector3D directionB = Vector3D.hadamardProduct(Vector3D.direction(origin, min), directionReciprocal);
 		
-		final double t0 = Doubles.max(Doubles.min(directionA.x, directionB.x), Doubles.min(directionA.y, directionB.y), Doubles.min(directionA.z, directionB.z));
-		final double t1 = Doubles.min(Doubles.max(directionA.x, directionB.x), Doubles.max(directionA.y, directionB.y), Doubles.max(directionA.z, directionB.z));
+		final double directionReciprocalX = 1.0D / direction.x;
+		final double directionReciprocalY = 1.0D / direction.y;
+		final double directionReciprocalZ = 1.0D / direction.z;
+		
+		final double tAX = (max.x - origin.x) * directionReciprocalX;
+		final double tAY = (max.y - origin.y) * directionReciprocalY;
+		final double tAZ = (max.z - origin.z) * directionReciprocalZ;
+		final double tBX = (min.x - origin.x) * directionReciprocalX;
+		final double tBY = (min.y - origin.y) * directionReciprocalY;
+		final double tBZ = (min.z - origin.z) * directionReciprocalZ;
+		
+		final double t0 = Doubles.max(Doubles.min(tAX, tBX), Doubles.min(tAY, tBY), Doubles.min(tAZ, tBZ));
+		final double t1 = Doubles.min(Doubles.max(tAX, tBX), Doubles.max(tAY, tBY), Doubles.max(tAZ, tBZ));
 		
 		return t0 > t1 ? Doubles.NaN : t0 > tMinimum && t0 < tMaximum ? t0 : t1 > tMinimum && t1 < tMaximum ? t1 : Doubles.NaN;
 	}
 	
+	/**
+	 * Performs an intersection test between {@code traversalRay} and this {@code AxisAlignedBoundingBox3D} instance.
+	 * <p>
+	 * Returns {@code t}, the parametric distance from {@code traversalRay} to this {@code AxisAlignedBoundingBox3D} instance, or {@code Double.NaN} if no intersection exists.
+	 * <p>
+	 * If {@code traversalRay} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * The result is the same as the result of {@link #intersection(Ray3D, double, double)} with {@code traversalRay.getRay()}, but the reciprocal of the direction and the signs of its components are not computed again.
+	 * 
+	 * @param traversalRay the {@link TraversalRay3D} to perform an intersection test against this {@code AxisAlignedBoundingBox3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code t}, the parametric distance from {@code traversalRay} to this {@code AxisAlignedBoundingBox3D} instance, or {@code Double.NaN} if no intersection exists
+	 * @throws NullPointerException thrown if, and only if, {@code traversalRay} is {@code null}
+	 */
+	@Override
+	public double intersectionTraversal(final TraversalRay3D traversalRay, final double tMinimum, final double tMaximum) {
+		return traversalRay.intersection(this.min.x, this.min.y, this.min.z, this.max.x, this.max.y, this.max.z, tMinimum, tMaximum);
+	}
+	
 	/**
 	 * Returns an {@code int} with the ID of this {@code AxisAlignedBoundingBox3D} instance.
 	 * 
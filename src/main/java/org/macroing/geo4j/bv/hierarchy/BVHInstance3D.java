@@ -0,0 +1,269 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.Objects;
+import java.util.Optional;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D;
+import org.macroing.geo4j.matrix.Matrix44D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.shape.SurfaceIntersection3D;
+import org.macroing.java.lang.Doubles;
+
+/**
+ * A {@code BVHInstance3D} is an instance of a {@code double}-based bounding volume hierarchy (BVH) structure that has been placed in world space using a {@link Matrix44D} instance.
+ * <p>
+ * The {@link BVHNode3D} instance is the bottom-level structure. It is built once in object space and may be shared by any number of {@code BVHInstance3D} instances. The object-to-world {@code Matrix44D} instance is inverted once, when the {@code BVHInstance3D} instance is constructed, and
+ * the inverse is cached together with the world space {@link AxisAlignedBoundingBox3D} instance that contains the instance.
+ * <p>
+ * The intersection methods transform the {@link Ray3D} instance and its parametric distances into object space, intersect the {@code BVHNode3D} instance and transform the result back into world space. All parametric distances, both given and returned, are in world space.
+ * <p>
+ * This class is immutable and therefore thread-safe, if, and only if, the {@code BVHNode3D} instance is.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class BVHInstance3D {
+	private final AxisAlignedBoundingBox3D boundingVolume;
+	private final BVHNode3D bVHNode;
+	private final Matrix44D objectToWorld;
+	private final Matrix44D worldToObject;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code BVHInstance3D} instance.
+	 * <p>
+	 * If either {@code bVHNode} or {@code objectToWorld} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code objectToWorld} cannot be inverted, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * Calling this constructor is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * new BVHInstance3D(bVHNode, objectToWorld, Matrix44D.inverse(objectToWorld));
+	 * }
+	 * </pre>
+	 * 
+	 * @param bVHNode the {@link BVHNode3D} instance in object space
+	 * @param objectToWorld the {@link Matrix44D} instance that transforms from object space to world space
+	 * @throws IllegalArgumentException thrown if, and only if, {@code objectToWorld} cannot be inverted
+	 * @throws NullPointerException thrown if, and only if, either {@code bVHNode} or {@code objectToWorld} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public BVHInstance3D(final BVHNode3D bVHNode, final Matrix44D objectToWorld) {
+		this(bVHNode, objectToWorld, Matrix44D.inverse(Objects.requireNonNull(objectToWorld, "objectToWorld == null")));
+	}
+	
+	/**
+	 * Constructs a new {@code BVHInstance3D} instance.
+	 * <p>
+	 * If either {@code bVHNode}, {@code objectToWorld} or {@code worldToObject} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * The {@link Matrix44D} instance {@code worldToObject} is assumed to be the inverse of {@code objectToWorld}. This is not checked.
+	 * 
+	 * @param bVHNode the {@link BVHNode3D} instance in object space
+	 * @param objectToWorld the {@code Matrix44D} instance that transforms from object space to world space
+	 * @param worldToObject the {@code Matrix44D} instance that transforms from world space to object space
+	 * @throws NullPointerException thrown if, and only if, either {@code bVHNode}, {@code objectToWorld} or {@code worldToObject} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public BVHInstance3D(final BVHNode3D bVHNode, final Matrix44D objectToWorld, final Matrix44D worldToObject) {
+		this.bVHNode = Objects.requireNonNull(bVHNode, "bVHNode == null");
+		this.objectToWorld = Objects.requireNonNull(objectToWorld, "objectToWorld == null");
+		this.worldToObject = Objects.requireNonNull(worldToObject, "worldToObject == null");
+		this.boundingVolume = doCreateBoundingVolume(bVHNode.getBoundingVolume(), objectToWorld);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns the {@link AxisAlignedBoundingBox3D} instance in world space that contains this {@code BVHInstance3D} instance.
+	 * 
+	 * @return the {@code AxisAlignedBoundingBox3D} instance in world space that contains this {@code BVHInstance3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public AxisAlignedBoundingBox3D getBoundingVolume() {
+		return this.boundingVolume;
+	}
+	
+	/**
+	 * Returns the {@link BVHNode3D} instance in object space that is associated with this {@code BVHInstance3D} instance.
+	 * 
+	 * @return the {@code BVHNode3D} instance in object space that is associated with this {@code BVHInstance3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public BVHNode3D getBVHNode() {
+		return this.bVHNode;
+	}
+	
+	/**
+	 * Returns the {@link Matrix44D} instance that transforms from object space to world space.
+	 * 
+	 * @return the {@code Matrix44D} instance that transforms from object space to world space
+	 */
+//	TODO: Add Unit Tests!
+	public Matrix44D getObjectToWorld() {
+		return this.objectToWorld;
+	}
+	
+	/**
+	 * Returns the {@link Matrix44D} instance that transforms from world space to object space.
+	 * 
+	 * @return the {@code Matrix44D} instance that transforms from world space to object space
+	 */
+//	TODO: Add Unit Tests!
+	public Matrix44D getWorldToObject() {
+		return this.worldToObject;
+	}
+	
+	/**
+	 * Performs an intersection test between {@code ray} and this {@code BVHInstance3D} instance.
+	 * <p>
+	 * Returns an {@code Optional} with an optional {@link SurfaceIntersection3D} instance in world space that contains information about the intersection, if it was found.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} in world space to perform an intersection test against this {@code BVHInstance3D} instance
+	 * @param tMinimum the minimum parametric distance in world space
+	 * @param tMaximum the maximum parametric distance in world space
+	 * @return an {@code Optional} with an optional {@code SurfaceIntersection3D} instance in world space that contains information about the intersection, if it was found
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public Optional<SurfaceIntersection3D> intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final Ray3D rayObjectSpace = this.worldToObject.transform(Objects.requireNonNull(ray, "ray == null"));
+		
+		final double tMinimumObjectSpace = this.worldToObject.transformT(ray, rayObjectSpace, tMinimum);
+		final double tMaximumObjectSpace = this.worldToObject.transformT(ray, rayObjectSpace, tMaximum);
+		
+		final Optional<SurfaceIntersection3D> optionalSurfaceIntersection = this.bVHNode.intersection(rayObjectSpace, tMinimumObjectSpace, tMaximumObjectSpace);
+		
+		if(optionalSurfaceIntersection.isPresent()) {
+			return Optional.of(SurfaceIntersection3D.transform(optionalSurfaceIntersection.get(), this.objectToWorld, this.worldToObject));
+		}
+		
+		return SurfaceIntersection3D.EMPTY;
+	}
+	
+	/**
+	 * Returns a {@code String} representation of this {@code BVHInstance3D} instance.
+	 * 
+	 * @return a {@code String} representation of this {@code BVHInstance3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public String toString() {
+		return String.format("new BVHInstance3D(%s, %s, %s)", this.bVHNode, this.objectToWorld, this.worldToObject);
+	}
+	
+	/**
+	 * Compares {@code object} to this {@code BVHInstance3D} instance for equality.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code object} is an instance of {@code BVHInstance3D}, and their respective values are equal, {@code false} otherwise.
+	 * 
+	 * @param object the {@code Object} to compare to this {@code BVHInstance3D} instance for equality
+	 * @return {@code true} if, and only if, {@code object} is an instance of {@code BVHInstance3D}, and their respective values are equal, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean equals(final Object object) {
+		if(object == this) {
+			return true;
+		} else if(!(object instanceof BVHInstance3D)) {
+			return false;
+		} else if(!Objects.equals(this.bVHNode, BVHInstance3D.class.cast(object).bVHNode)) {
+			return false;
+		} else if(!Objects.equals(this.objectToWorld, BVHInstance3D.class.cast(object).objectToWorld)) {
+			return false;
+		} else if(!Objects.equals(this.worldToObject, BVHInstance3D.class.cast(object).worldToObject)) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, {@code ray} intersects this {@code BVHInstance3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} in world space to perform an intersection test against this {@code BVHInstance3D} instance
+	 * @param tMinimum the minimum parametric distance in world space
+	 * @param tMaximum the maximum parametric distance in world space
+	 * @return {@code true} if, and only if, {@code ray} intersects this {@code BVHInstance3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public boolean intersects(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final Ray3D rayObjectSpace = this.worldToObject.transform(Objects.requireNonNull(ray, "ray == null"));
+		
+		final double tMinimumObjectSpace = this.worldToObject.transformT(ray, rayObjectSpace, tMinimum);
+		final double tMaximumObjectSpace = this.worldToObject.transformT(ray, rayObjectSpace, tMaximum);
+		
+		return this.bVHNode.intersects(rayObjectSpace, tMinimumObjectSpace, tMaximumObjectSpace);
+	}
+	
+	/**
+	 * Performs an intersection test between {@code ray} and this {@code BVHInstance3D} instance.
+	 * <p>
+	 * Returns {@code t}, the parametric distance in world space to the surface intersection point, or {@code Double.NaN} if no intersection exists.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} in world space to perform an intersection test against this {@code BVHInstance3D} instance
+	 * @param tMinimum the minimum parametric distance in world space
+	 * @param tMaximum the maximum parametric distance in world space
+	 * @return {@code t}, the parametric distance in world space to the surface intersection point, or {@code Double.NaN} if no intersection exists
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public double intersectionT(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final Ray3D rayObjectSpace = this.worldToObject.transform(Objects.requireNonNull(ray, "ray == null"));
+		
+		final double tMinimumObjectSpace = this.worldToObject.transformT(ray, rayObjectSpace, tMinimum);
+		final double tMaximumObjectSpace = this.worldToObject.transformT(ray, rayObjectSpace, tMaximum);
+		
+		final double tObjectSpace = this.bVHNode.intersectionT(rayObjectSpace, tMinimumObjectSpace, tMaximumObjectSpace);
+		
+		return Doubles.isNaN(tObjectSpace) ? Double.NaN : this.objectToWorld.transformT(rayObjectSpace, ray, tObjectSpace);
+	}
+	
+	/**
+	 * Returns a hash code for this {@code BVHInstance3D} instance.
+	 * 
+	 * @return a hash code for this {@code BVHInstance3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public int hashCode() {
+		return Objects.hash(this.bVHNode, this.objectToWorld, this.worldToObject);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static AxisAlignedBoundingBox3D doCreateBoundingVolume(final BoundingVolume3D boundingVolume, final Matrix44D objectToWorld) {
+		final AxisAlignedBoundingBox3D axisAlignedBoundingBox = boundingVolume instanceof AxisAlignedBoundingBox3D ? AxisAlignedBoundingBox3D.class.cast(boundingVolume) : new AxisAlignedBoundingBox3D(boundingVolume.max(), boundingVolume.min());
+		
+		return axisAlignedBoundingBox.transform(objectToWorld);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,724 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.shape.Shape3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+
+/**
+ * A {@code BVHMetrics3D} contains metrics that describe the quality of a bounding volume hierarchy (BVH) structure that is represented by a {@link BVHNode3D} instance.
+ * <p>
+ * The metrics are computed once, in the constructor, using an iterative walk of the {@code BVHNode3D} instance. They include the cost according to the surface area heuristic (SAH), node, leaf and {@link Shape3D} counts, histograms of leaf sizes and leaf depths, overlap estimates
+ * and an estimate of the memory footprint.
+ * <p>
+ * This class is immutable and therefore thread-safe.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class BVHMetrics3D {
+	private static final long BYTES_ARRAY_HEADER = 16L;
+	private static final long BYTES_ARRAY_LIST = 24L;
+	private static final long BYTES_AXIS_ALIGNED_BOUNDING_BOX = 24L + 2L * 40L;
+	private static final long BYTES_LEAF_BVH_NODE = 24L;
+	private static final long BYTES_REFERENCE = 4L;
+	private static final long BYTES_TREE_BVH_NODE = 32L;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final double cost;
+	private final double costIntersection;
+	private final double costTraversal;
+	private final double effectiveParallelOverlap;
+	private final double overlap;
+	private final int[] depthHistogram;
+	private final int[] leafSizeHistogram;
+	private final int leafCount;
+	private final int nodeCount;
+	private final int shapeCount;
+	private final int shapeReferenceCount;
+	private final long memoryFootprint;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code BVHMetrics3D} instance for {@code bVHNode}.
+	 * <p>
+	 * If {@code bVHNode} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code bVHNode}, or any of its descendants, is neither a {@link LeafBVHNode3D} nor a {@link TreeBVHNode3D}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * Calling this constructor is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * new BVHMetrics3D(bVHNode, SAHBVHBuilder3D.DEFAULT_COST_INTERSECTION, SAHBVHBuilder3D.DEFAULT_COST_TRAVERSAL);
+	 * }
+	 * </pre>
+	 * 
+	 * @param bVHNode the {@link BVHNode3D} instance to compute metrics for
+	 * @throws IllegalArgumentException thrown if, and only if, {@code bVHNode}, or any of its descendants, is neither a {@code LeafBVHNode3D} nor a {@code TreeBVHNode3D}
+	 * @throws NullPointerException thrown if, and only if, {@code bVHNode} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public BVHMetrics3D(final BVHNode3D bVHNode) {
+		this(bVHNode, SAHBVHBuilder3D.DEFAULT_COST_INTERSECTION, SAHBVHBuilder3D.DEFAULT_COST_TRAVERSAL);
+	}
+	
+	/**
+	 * Constructs a new {@code BVHMetrics3D} instance for {@code bVHNode}.
+	 * <p>
+	 * If {@code bVHNode} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code bVHNode}, or any of its descendants, is neither a {@link LeafBVHNode3D} nor a {@link TreeBVHNode3D}, or {@code costIntersection} or {@code costTraversal} are less than or equal to {@code 0.0D}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param bVHNode the {@link BVHNode3D} instance to compute metrics for
+	 * @param costIntersection the cost of intersecting a {@link Shape3D} instance
+	 * @param costTraversal the cost of traversing a tree node
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code bVHNode}, or any of its descendants, is neither a {@code LeafBVHNode3D} nor a {@code TreeBVHNode3D}, or {@code costIntersection} or {@code costTraversal} are less than or equal to {@code 0.0D}
+	 * @throws NullPointerException thrown if, and only if, {@code bVHNode} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public BVHMetrics3D(final BVHNode3D bVHNode, final double costIntersection, final double costTraversal) {
+		Objects.requireNonNull(bVHNode, "bVHNode == null");
+		
+		if(!(costIntersection > 0.0D)) {
+			throw new IllegalArgumentException(String.format("costIntersection <= 0.0D: costIntersection == %s", Double.toString(costIntersection)));
+		}
+		
+		if(!(costTraversal > 0.0D)) {
+			throw new IllegalArgumentException(String.format("costTraversal <= 0.0D: costTraversal == %s", Double.toString(costTraversal)));
+		}
+		
+		final Nodes nodes = new Nodes(bVHNode);
+		
+		this.costIntersection = costIntersection;
+		this.costTraversal = costTraversal;
+		this.cost = nodes.computeCost(costIntersection, costTraversal);
+		this.effectiveParallelOverlap = nodes.computeEffectiveParallelOverlap(costIntersection, costTraversal);
+		this.overlap = nodes.computeOverlap();
+		this.depthHistogram = nodes.computeDepthHistogram();
+		this.leafSizeHistogram = nodes.computeLeafSizeHistogram();
+		this.leafCount = nodes.leafCount;
+		this.nodeCount = nodes.nodeCount;
+		this.shapeCount = nodes.shapeLeaves.size();
+		this.shapeReferenceCount = nodes.shapeReferenceCount;
+		this.memoryFootprint = nodes.computeMemoryFootprint();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns a {@code String} with a report of all metrics in this {@code BVHMetrics3D} instance.
+	 * <p>
+	 * The report consists of one line for each metric and is intended to be read by humans. Its format may change.
+	 * 
+	 * @return a {@code String} with a report of all metrics in this {@code BVHMetrics3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public String getReport() {
+		final StringBuilder stringBuilder = new StringBuilder();
+		
+		stringBuilder.append(String.format("Cost (SAH):                      %.6f (intersection %s, traversal %s)%n", Double.valueOf(this.cost), Double.toString(this.costIntersection), Double.toString(this.costTraversal)));
+		stringBuilder.append(String.format("Effective Parallel Overlap:      %.6f%n", Double.valueOf(this.effectiveParallelOverlap)));
+		stringBuilder.append(String.format("Overlap:                         %.6f%n", Double.valueOf(this.overlap)));
+		stringBuilder.append(String.format("Nodes:                           %d (%d trees, %d leaves)%n", Integer.valueOf(this.nodeCount), Integer.valueOf(getTreeCount()), Integer.valueOf(this.leafCount)));
+		stringBuilder.append(String.format("Shapes:                          %d (%d references)%n", Integer.valueOf(this.shapeCount), Integer.valueOf(this.shapeReferenceCount)));
+		stringBuilder.append(String.format("Depth:                           %d maximum, %.3f average leaf%n", Integer.valueOf(getDepthMaximum()), Double.valueOf(getDepthAverage())));
+		stringBuilder.append(String.format("Leaf Size:                       %d maximum, %.3f average%n", Integer.valueOf(this.leafSizeHistogram.length - 1), Double.valueOf(getLeafSizeAverage())));
+		stringBuilder.append(String.format("Memory Footprint (estimated):    %d bytes%n", Long.valueOf(this.memoryFootprint)));
+		stringBuilder.append(String.format("Leaf Size Histogram:             %s%n", Arrays.toString(this.leafSizeHistogram)));
+		stringBuilder.append(String.format("Leaf Depth Histogram:            %s%n", Arrays.toString(this.depthHistogram)));
+		
+		return stringBuilder.toString();
+	}
+	
+	/**
+	 * Compares {@code object} to this {@code BVHMetrics3D} instance for equality.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code object} is an instance of {@code BVHMetrics3D}, and their respective values are equal, {@code false} otherwise.
+	 * 
+	 * @param object the {@code Object} to compare to this {@code BVHMetrics3D} instance for equality
+	 * @return {@code true} if, and only if, {@code object} is an instance of {@code BVHMetrics3D}, and their respective values are equal, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean equals(final Object object) {
+		if(object == this) {
+			return true;
+		} else if(!(object instanceof BVHMetrics3D)) {
+			return false;
+		} else if(!Doubles.equals(this.cost, BVHMetrics3D.class.cast(object).cost)) {
+			return false;
+		} else if(!Doubles.equals(this.costIntersection, BVHMetrics3D.class.cast(object).costIntersection)) {
+			return false;
+		} else if(!Doubles.equals(this.costTraversal, BVHMetrics3D.class.cast(object).costTraversal)) {
+			return false;
+		} else if(!Doubles.equals(this.effectiveParallelOverlap, BVHMetrics3D.class.cast(object).effectiveParallelOverlap)) {
+			return false;
+		} else if(!Doubles.equals(this.overlap, BVHMetrics3D.class.cast(object).overlap)) {
+			return false;
+		} else if(!Arrays.equals(this.depthHistogram, BVHMetrics3D.class.cast(object).depthHistogram)) {
+			return false;
+		} else if(!Arrays.equals(this.leafSizeHistogram, BVHMetrics3D.class.cast(object).leafSizeHistogram)) {
+			return false;
+		} else if(this.leafCount != BVHMetrics3D.class.cast(object).leafCount) {
+			return false;
+		} else if(this.nodeCount != BVHMetrics3D.class.cast(object).nodeCount) {
+			return false;
+		} else if(this.shapeCount != BVHMetrics3D.class.cast(object).shapeCount) {
+			return false;
+		} else if(this.shapeReferenceCount != BVHMetrics3D.class.cast(object).shapeReferenceCount) {
+			return false;
+		} else if(this.memoryFootprint != BVHMetrics3D.class.cast(object).memoryFootprint) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+	
+	/**
+	 * Returns the cost according to the surface area heuristic (SAH).
+	 * <p>
+	 * The cost is the sum of the surface area of each tree node multiplied by the cost of traversing a tree node and the surface area of each leaf node multiplied by its {@link Shape3D} count and the cost of intersecting a {@code Shape3D} instance, divided by the surface area of the
+	 * root node.
+	 * <p>
+	 * If the surface area of the root node is {@code 0.0D}, {@code 0.0D} will be returned.
+	 * 
+	 * @return the cost according to the surface area heuristic (SAH)
+	 */
+//	TODO: Add Unit Tests!
+	public double getCost() {
+		return this.cost;
+	}
+	
+	/**
+	 * Returns the cost of intersecting a {@link Shape3D} instance that was used to compute the metrics.
+	 * 
+	 * @return the cost of intersecting a {@code Shape3D} instance that was used to compute the metrics
+	 */
+//	TODO: Add Unit Tests!
+	public double getCostIntersection() {
+		return this.costIntersection;
+	}
+	
+	/**
+	 * Returns the cost of traversing a tree node that was used to compute the metrics.
+	 * 
+	 * @return the cost of traversing a tree node that was used to compute the metrics
+	 */
+//	TODO: Add Unit Tests!
+	public double getCostTraversal() {
+		return this.costTraversal;
+	}
+	
+	/**
+	 * Returns the average depth of the leaf nodes.
+	 * <p>
+	 * The depth of the root node is {@code 0}.
+	 * 
+	 * @return the average depth of the leaf nodes
+	 */
+//	TODO: Add Unit Tests!
+	public double getDepthAverage() {
+		long depthSum = 0L;
+		
+		for(int depth = 0; depth < this.depthHistogram.length; depth++) {
+			depthSum += (long)(depth) * this.depthHistogram[depth];
+		}
+		
+		return (double)(depthSum) / this.leafCount;
+	}
+	
+	/**
+	 * Returns an estimate of the effective parallel overlap (EPO).
+	 * <p>
+	 * The effective parallel overlap is the cost-weighted surface area of the {@link Shape3D} instances that lie inside a node without being referenced by that node or any of its descendants, divided by the total surface area of all {@code Shape3D} instances. A ray that hits such a
+	 * {@code Shape3D} instance has to traverse that node needlessly, so lower is better.
+	 * <p>
+	 * The surface area of a {@code Shape3D} instance is assumed to be distributed uniformly inside its bounding volume. The part of it that lies inside a node is estimated by the part of its bounding volume that lies inside the node, one axis at a time.
+	 * <p>
+	 * If the total surface area of all {@code Shape3D} instances is {@code 0.0D}, {@code 0.0D} will be returned. If it is infinite, {@code Double.NaN} may be returned.
+	 * 
+	 * @return an estimate of the effective parallel overlap (EPO)
+	 */
+//	TODO: Add Unit Tests!
+	public double getEffectiveParallelOverlap() {
+		return this.effectiveParallelOverlap;
+	}
+	
+	/**
+	 * Returns the average {@link Shape3D} count of the leaf nodes.
+	 * 
+	 * @return the average {@code Shape3D} count of the leaf nodes
+	 */
+//	TODO: Add Unit Tests!
+	public double getLeafSizeAverage() {
+		return (double)(this.shapeReferenceCount) / this.leafCount;
+	}
+	
+	/**
+	 * Returns the overlap between sibling nodes.
+	 * <p>
+	 * The overlap is the sum of the surface area of the intersection between the two children of each tree node, divided by the surface area of the root node.
+	 * <p>
+	 * If the surface area of the root node is {@code 0.0D}, {@code 0.0D} will be returned.
+	 * 
+	 * @return the overlap between sibling nodes
+	 */
+//	TODO: Add Unit Tests!
+	public double getOverlap() {
+		return this.overlap;
+	}
+	
+	/**
+	 * Returns the depth of the deepest node.
+	 * <p>
+	 * The depth of the root node is {@code 0}.
+	 * 
+	 * @return the depth of the deepest node
+	 */
+//	TODO: Add Unit Tests!
+	public int getDepthMaximum() {
+		return this.depthHistogram.length - 1;
+	}
+	
+	/**
+	 * Returns the leaf node count.
+	 * 
+	 * @return the leaf node count
+	 */
+//	TODO: Add Unit Tests!
+	public int getLeafCount() {
+		return this.leafCount;
+	}
+	
+	/**
+	 * Returns the node count.
+	 * <p>
+	 * The node count is the sum of the tree node count and the leaf node count.
+	 * 
+	 * @return the node count
+	 */
+//	TODO: Add Unit Tests!
+	public int getNodeCount() {
+		return this.nodeCount;
+	}
+	
+	/**
+	 * Returns the distinct {@link Shape3D} instance count.
+	 * <p>
+	 * {@code Shape3D} instances are compared by identity.
+	 * 
+	 * @return the distinct {@code Shape3D} instance count
+	 */
+//	TODO: Add Unit Tests!
+	public int getShapeCount() {
+		return this.shapeCount;
+	}
+	
+	/**
+	 * Returns the {@link Shape3D} reference count.
+	 * <p>
+	 * The {@code Shape3D} reference count is the sum of the {@code Shape3D} counts of all leaf nodes. It is greater than {@link #getShapeCount()} if a {@code Shape3D} instance is referenced by more than one leaf node.
+	 * 
+	 * @return the {@code Shape3D} reference count
+	 */
+//	TODO: Add Unit Tests!
+	public int getShapeReferenceCount() {
+		return this.shapeReferenceCount;
+	}
+	
+	/**
+	 * Returns the tree node count.
+	 * 
+	 * @return the tree node count
+	 */
+//	TODO: Add Unit Tests!
+	public int getTreeCount() {
+		return this.nodeCount - this.leafCount;
+	}
+	
+	/**
+	 * Returns a histogram of the leaf node depths.
+	 * <p>
+	 * The element at index {@code i} is the number of leaf nodes with a depth of {@code i}. The depth of the root node is {@code 0}. The length of the returned {@code int[]} is {@code getDepthMaximum() + 1}.
+	 * <p>
+	 * Modification to the returned {@code int[]} will not affect this {@code BVHMetrics3D} instance.
+	 * 
+	 * @return a histogram of the leaf node depths
+	 */
+//	TODO: Add Unit Tests!
+	public int[] getDepthHistogram() {
+		return this.depthHistogram.clone();
+	}
+	
+	/**
+	 * Returns a histogram of the leaf node sizes.
+	 * <p>
+	 * The element at index {@code i} is the number of leaf nodes with {@code i} {@link Shape3D} instances.
+	 * <p>
+	 * Modification to the returned {@code int[]} will not affect this {@code BVHMetrics3D} instance.
+	 * 
+	 * @return a histogram of the leaf node sizes
+	 */
+//	TODO: Add Unit Tests!
+	public int[] getLeafSizeHistogram() {
+		return this.leafSizeHistogram.clone();
+	}
+	
+	/**
+	 * Returns a hash code for this {@code BVHMetrics3D} instance.
+	 * 
+	 * @return a hash code for this {@code BVHMetrics3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public int hashCode() {
+		return Objects.hash(Double.valueOf(this.cost), Double.valueOf(this.costIntersection), Double.valueOf(this.costTraversal), Double.valueOf(this.effectiveParallelOverlap), Double.valueOf(this.overlap), Integer.valueOf(Arrays.hashCode(this.depthHistogram)), Integer.valueOf(Arrays.hashCode(this.leafSizeHistogram)), Integer.valueOf(this.leafCount), Integer.valueOf(this.nodeCount), Integer.valueOf(this.shapeCount), Integer.valueOf(this.shapeReferenceCount), Long.valueOf(this.memoryFootprint));
+	}
+	
+	/**
+	 * Returns an estimate of the memory footprint of the {@link BVHNode3D} instance, in bytes.
+	 * <p>
+	 * The estimate includes all nodes, their bounding volumes and their {@code List}s of {@link Shape3D} references, but not the {@code Shape3D} instances themselves. It assumes a 64-bit JVM with compressed object pointers.
+	 * 
+	 * @return an estimate of the memory footprint of the {@code BVHNode3D} instance, in bytes
+	 */
+//	TODO: Add Unit Tests!
+	public long getMemoryFootprint() {
+		return this.memoryFootprint;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static double doComputeSurfaceArea(final double[] bounds, final int nodeIndex) {
+		final double x = bounds[nodeIndex * 6 + 3] - bounds[nodeIndex * 6 + 0];
+		final double y = bounds[nodeIndex * 6 + 4] - bounds[nodeIndex * 6 + 1];
+		final double z = bounds[nodeIndex * 6 + 5] - bounds[nodeIndex * 6 + 2];
+		
+		return 2.0D * (x * y + y * z + z * x);
+	}
+	
+	private static double doComputeIntersection(final double minimumA, final double maximumA, final double minimumB, final double maximumB) {
+		return Doubles.min(maximumA, maximumB) - Doubles.max(minimumA, minimumB);
+	}
+	
+	private static double doComputeOverlap(final double minimumA, final double maximumA, final double minimumB, final double maximumB) {
+		return Doubles.max(doComputeIntersection(minimumA, maximumA, minimumB, maximumB), 0.0D);
+	}
+	
+	private static long doAlign(final long bytes) {
+		return (bytes + 7L) & ~7L;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Nodes {
+		private final Map<Shape3D, List<Integer>> shapeLeaves;
+		private final double[] bounds;
+		private final int[] childrenR;
+		private final int[] depths;
+		private final int[] ends;
+		private final int[] sizes;
+		private final int leafCount;
+		private final int nodeCount;
+		private final int shapeReferenceCount;
+		
+		public Nodes(final BVHNode3D bVHNode) {
+			final List<BVHNode3D> bVHNodes = new ArrayList<>();
+			final List<BVHNode3D> bVHNodeStack = new ArrayList<>();
+			
+			final List<Integer> depthStack = new ArrayList<>();
+			final List<Integer> parentStack = new ArrayList<>();
+			final List<Integer> parents = new ArrayList<>();
+			
+			bVHNodeStack.add(bVHNode);
+			
+			depthStack.add(Integer.valueOf(0));
+			
+			parentStack.add(Integer.valueOf(-1));
+			
+			this.shapeLeaves = new IdentityHashMap<>();
+			
+			int leafCount = 0;
+			int shapeReferenceCount = 0;
+			
+			final List<Integer> depths = new ArrayList<>();
+			final List<Integer> sizes = new ArrayList<>();
+			
+//			The nodes are visited in depth-first pre-order, so the left child of a tree node directly follows it and the descendants of a node form a contiguous range:
+			while(!bVHNodeStack.isEmpty()) {
+				final BVHNode3D currentBVHNode = bVHNodeStack.remove(bVHNodeStack.size() - 1);
+				
+				final int depth = depthStack.remove(depthStack.size() - 1).intValue();
+				final int parent = parentStack.remove(parentStack.size() - 1).intValue();
+				final int nodeIndex = bVHNodes.size();
+				
+				bVHNodes.add(currentBVHNode);
+				
+				depths.add(Integer.valueOf(depth));
+				
+				parents.add(Integer.valueOf(parent));
+				
+				if(currentBVHNode instanceof LeafBVHNode3D) {
+					final LeafBVHNode3D<?> leafBVHNode = LeafBVHNode3D.class.cast(currentBVHNode);
+					
+					for(final Shape3D shape : leafBVHNode.getShapes()) {
+						this.shapeLeaves.computeIfAbsent(shape, key -> new ArrayList<>()).add(Integer.valueOf(nodeIndex));
+					}
+					
+					sizes.add(Integer.valueOf(leafBVHNode.getShapeCount()));
+					
+					leafCount++;
+					
+					shapeReferenceCount += leafBVHNode.getShapeCount();
+				} else if(currentBVHNode instanceof TreeBVHNode3D) {
+					final TreeBVHNode3D treeBVHNode = TreeBVHNode3D.class.cast(currentBVHNode);
+					
+					sizes.add(Integer.valueOf(-1));
+					
+					bVHNodeStack.add(treeBVHNode.getBVHNodeR());
+					bVHNodeStack.add(treeBVHNode.getBVHNodeL());
+					
+					depthStack.add(Integer.valueOf(depth + 1));
+					depthStack.add(Integer.valueOf(depth + 1));
+					
+					parentStack.add(Integer.valueOf(nodeIndex));
+					parentStack.add(Integer.valueOf(nodeIndex));
+				} else {
+					throw new IllegalArgumentException(String.format("The BVHNode3D %s is not supported.", currentBVHNode.getClass().getName()));
+				}
+			}
+			
+			this.nodeCount = bVHNodes.size();
+			this.leafCount = leafCount;
+			this.shapeReferenceCount = shapeReferenceCount;
+			this.bounds = new double[this.nodeCount * 6];
+			this.childrenR = new int[this.nodeCount];
+			this.depths = new int[this.nodeCount];
+			this.ends = new int[this.nodeCount];
+			this.sizes = new int[this.nodeCount];
+			
+			for(int nodeIndex = 0; nodeIndex < this.nodeCount; nodeIndex++) {
+				final BoundingVolume3D boundingVolume = bVHNodes.get(nodeIndex).getBoundingVolume();
+				
+				final Point3D max = boundingVolume.max();
+				final Point3D min = boundingVolume.min();
+				
+				this.bounds[nodeIndex * 6 + 0] = min.x;
+				this.bounds[nodeIndex * 6 + 1] = min.y;
+				this.bounds[nodeIndex * 6 + 2] = min.z;
+				this.bounds[nodeIndex * 6 + 3] = max.x;
+				this.bounds[nodeIndex * 6 + 4] = max.y;
+				this.bounds[nodeIndex * 6 + 5] = max.z;
+				this.depths[nodeIndex] = depths.get(nodeIndex).intValue();
+				this.ends[nodeIndex] = nodeIndex + 1;
+				this.sizes[nodeIndex] = sizes.get(nodeIndex).intValue();
+			}
+			
+			for(int nodeIndex = this.nodeCount - 1; nodeIndex > 0; nodeIndex--) {
+				final int parent = parents.get(nodeIndex).intValue();
+				
+				this.ends[parent] = Ints.max(this.ends[parent], this.ends[nodeIndex]);
+				
+				if(parent + 1 != nodeIndex) {
+					this.childrenR[parent] = nodeIndex;
+				}
+			}
+		}
+		
+		public double computeCost(final double costIntersection, final double costTraversal) {
+			final double surfaceAreaRoot = doComputeSurfaceArea(this.bounds, 0);
+			
+			if(surfaceAreaRoot == 0.0D) {
+				return 0.0D;
+			}
+			
+			double cost = 0.0D;
+			
+			for(int nodeIndex = 0; nodeIndex < this.nodeCount; nodeIndex++) {
+				cost += doComputeSurfaceArea(this.bounds, nodeIndex) * doGetCost(nodeIndex, costIntersection, costTraversal);
+			}
+			
+			return cost / surfaceAreaRoot;
+		}
+		
+		public double computeEffectiveParallelOverlap(final double costIntersection, final double costTraversal) {
+			final int[] stack = new int[Ints.max(this.nodeCount, 1)];
+			
+			double surfaceAreaSum = 0.0D;
+			double surfaceAreaWeightedSum = 0.0D;
+			
+			for(final Map.Entry<Shape3D, List<Integer>> entry : this.shapeLeaves.entrySet()) {
+				final Shape3D shape = entry.getKey();
+				
+				final List<Integer> leaves = entry.getValue();
+				
+				final BoundingVolume3D boundingVolume = shape.getBoundingVolume();
+				
+				final Point3D max = boundingVolume.max();
+				final Point3D min = boundingVolume.min();
+				
+				final double surfaceArea = shape.getSurfaceArea();
+				
+				surfaceAreaSum += surfaceArea;
+				
+				int stackIndex = 0;
+				
+				stack[stackIndex++] = 0;
+				
+				while(stackIndex > 0) {
+					final int nodeIndex = stack[--stackIndex];
+					
+					final double overlapX = doComputeFraction(min.x, max.x, this.bounds[nodeIndex * 6 + 0], this.bounds[nodeIndex * 6 + 3]);
+					final double overlapY = doComputeFraction(min.y, max.y, this.bounds[nodeIndex * 6 + 1], this.bounds[nodeIndex * 6 + 4]);
+					final double overlapZ = doComputeFraction(min.z, max.z, this.bounds[nodeIndex * 6 + 2], this.bounds[nodeIndex * 6 + 5]);
+					
+					if(overlapX <= 0.0D || overlapY <= 0.0D || overlapZ <= 0.0D) {
+						continue;
+					}
+					
+					if(!doContains(nodeIndex, leaves)) {
+						surfaceAreaWeightedSum += surfaceArea * overlapX * overlapY * overlapZ * doGetCost(nodeIndex, costIntersection, costTraversal);
+					}
+					
+					if(this.sizes[nodeIndex] < 0) {
+						stack[stackIndex++] = this.childrenR[nodeIndex];
+						stack[stackIndex++] = nodeIndex + 1;
+					}
+				}
+			}
+			
+			return surfaceAreaSum == 0.0D ? 0.0D : surfaceAreaWeightedSum / surfaceAreaSum;
+		}
+		
+		public double computeOverlap() {
+			final double surfaceAreaRoot = doComputeSurfaceArea(this.bounds, 0);
+			
+			if(surfaceAreaRoot == 0.0D) {
+				return 0.0D;
+			}
+			
+			double surfaceAreaSum = 0.0D;
+			
+			for(int nodeIndex = 0; nodeIndex < this.nodeCount; nodeIndex++) {
+				if(this.sizes[nodeIndex] < 0) {
+					final int nodeIndexL = nodeIndex + 1;
+					final int nodeIndexR = this.childrenR[nodeIndex];
+					
+					final double x = doComputeIntersection(this.bounds[nodeIndexL * 6 + 0], this.bounds[nodeIndexL * 6 + 3], this.bounds[nodeIndexR * 6 + 0], this.bounds[nodeIndexR * 6 + 3]);
+					final double y = doComputeIntersection(this.bounds[nodeIndexL * 6 + 1], this.bounds[nodeIndexL * 6 + 4], this.bounds[nodeIndexR * 6 + 1], this.bounds[nodeIndexR * 6 + 4]);
+					final double z = doComputeIntersection(this.bounds[nodeIndexL * 6 + 2], this.bounds[nodeIndexL * 6 + 5], this.bounds[nodeIndexR * 6 + 2], this.bounds[nodeIndexR * 6 + 5]);
+					
+//					The children overlap if, and only if, their extents intersect on all axes. An axis on which they are disjoint has a negative extent:
+					if(x >= 0.0D && y >= 0.0D && z >= 0.0D) {
+						surfaceAreaSum += 2.0D * (x * y + y * z + z * x);
+					}
+				}
+			}
+			
+			return surfaceAreaSum / surfaceAreaRoot;
+		}
+		
+		public int[] computeDepthHistogram() {
+			int depthMaximum = 0;
+			
+			for(int nodeIndex = 0; nodeIndex < this.nodeCount; nodeIndex++) {
+				depthMaximum = Ints.max(depthMaximum, this.depths[nodeIndex]);
+			}
+			
+			final int[] depthHistogram = new int[depthMaximum + 1];
+			
+			for(int nodeIndex = 0; nodeIndex < this.nodeCount; nodeIndex++) {
+				if(this.sizes[nodeIndex] >= 0) {
+					depthHistogram[this.depths[nodeIndex]]++;
+				}
+			}
+			
+			return depthHistogram;
+		}
+		
+		public int[] computeLeafSizeHistogram() {
+			int sizeMaximum = 0;
+			
+			for(int nodeIndex = 0; nodeIndex < this.nodeCount; nodeIndex++) {
+				sizeMaximum = Ints.max(sizeMaximum, this.sizes[nodeIndex]);
+			}
+			
+			final int[] leafSizeHistogram = new int[sizeMaximum + 1];
+			
+			for(int nodeIndex = 0; nodeIndex < this.nodeCount; nodeIndex++) {
+				if(this.sizes[nodeIndex] >= 0) {
+					leafSizeHistogram[this.sizes[nodeIndex]]++;
+				}
+			}
+			
+			return leafSizeHistogram;
+		}
+		
+		public long computeMemoryFootprint() {
+			long memoryFootprint = 0L;
+			
+			for(int nodeIndex = 0; nodeIndex < this.nodeCount; nodeIndex++) {
+				if(this.sizes[nodeIndex] >= 0) {
+					memoryFootprint += BYTES_LEAF_BVH_NODE + BYTES_AXIS_ALIGNED_BOUNDING_BOX + BYTES_ARRAY_LIST + doAlign(BYTES_ARRAY_HEADER + BYTES_REFERENCE * this.sizes[nodeIndex]);
+				} else {
+					memoryFootprint += BYTES_TREE_BVH_NODE + BYTES_AXIS_ALIGNED_BOUNDING_BOX;
+				}
+			}
+			
+			return memoryFootprint;
+		}
+		
+		private boolean doContains(final int nodeIndex, final List<Integer> leaves) {
+			for(final Integer leaf : leaves) {
+				if(leaf.intValue() >= nodeIndex && leaf.intValue() < this.ends[nodeIndex]) {
+					return true;
+				}
+			}
+			
+			return false;
+		}
+		
+		private double doGetCost(final int nodeIndex, final double costIntersection, final double costTraversal) {
+			return this.sizes[nodeIndex] >= 0 ? costIntersection * this.sizes[nodeIndex] : costTraversal;
+		}
+		
+		private static double doComputeFraction(final double minimumShape, final double maximumShape, final double minimumNode, final double maximumNode) {
+			final double extent = maximumShape - minimumShape;
+			
+			if(extent > 0.0D) {
+				return doComputeOverlap(minimumShape, maximumShape, minimumNode, maximumNode) / extent;
+			}
+			
+			return minimumShape >= minimumNode && minimumShape <= maximumNode ? 1.0D : 0.0D;
+		}
+	}
+}
\ No newline at end of file
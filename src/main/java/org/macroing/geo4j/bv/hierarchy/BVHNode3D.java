@@ -80,6 +80,8 @@ public abstract class BVHNode3D implements Node {
 	 * Returns an {@code Optional} with an optional {@link SurfaceIntersection3D} instance that contains information about the intersection, if it was found.
 	 * <p>
 	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * The closest intersection is searched for using a {@link SurfaceIntersector3D} instance, so only the {@code Shape3D} instance that is closest to the origin of {@code ray} will compute a {@code SurfaceIntersection3D} instance.
 	 * 
 	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code BVHNode3D} instance
 	 * @param tMinimum the minimum parametric distance
@@ -89,7 +91,9 @@ public abstract class BVHNode3D implements Node {
 	 */
 //	TODO: Add Unit Tests!
 	public final Optional<SurfaceIntersection3D> intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
-		return intersection(Objects.requireNonNull(ray, "ray == null"), new double[] {tMinimum, tMaximum});
+		final SurfaceIntersector3D surfaceIntersector = new SurfaceIntersector3D(ray, tMinimum, tMaximum);
+		
+		return intersection(surfaceIntersector) ? surfaceIntersector.computeSurfaceIntersection() : SurfaceIntersection3D.EMPTY;
 	}
 	
 	/**
@@ -19,13 +19,11 @@
 package org.macroing.geo4j.bv.hierarchy;
 
 import java.lang.reflect.Field;//TODO: Add Unit Tests!
-import java.util.ArrayList;
 import java.util.List;
 
 import org.macroing.geo4j.bv.BoundingVolume3D;
 import org.macroing.geo4j.common.Point3D;
 import org.macroing.geo4j.shape.Shape3D;
-import org.macroing.java.lang.Doubles;
 
 /**
  * A class that consists exclusively of static methods that returns or performs various operations on {@link BVHNode3D} instances.
@@ -34,6 +32,10 @@ import org.macroing.java.lang.Doubles;
  * @author J&#246;rgen Lundgren
  */
 public final class BVHNode3Ds {
+	private static final SAHBVHBuilder3D BUILDER = new SAHBVHBuilder3D();
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
 	private BVHNode3Ds() {
 		
 	}
@@ -45,6 +47,8 @@ public final class BVHNode3Ds {
 	 * 
 	 * Returns a {@link BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure.
 	 * <p>
+	 * The bounding volume hierarchy (BVH) structure is built by a {@link SAHBVHBuilder3D} instance with its default settings.
+	 * <p>
 	 * If either {@code processableBVHItems}, at least one of its elements, {@code maximum} or {@code minimum} are {@code null}, a {@code NullPointerException} will be thrown.
 	 * <p>
 	 * If {@code depth} is less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
@@ -60,178 +64,6 @@ public final class BVHNode3Ds {
 	 */
 //	TODO: Add Unit Tests!
 	public static <T extends Shape3D> BVHNode3D create(final List<BVHItem3D<T>> processableBVHItems, final Point3D maximum, final Point3D minimum, final int depth) {
-		final int size = processableBVHItems.size();
-		final int sizeHalf = size / 2;
-		
-		if(size < 4) {
-			final List<T> shapes = new ArrayList<>(size);
-			
-			for(final BVHItem3D<T> processableBVHItem : processableBVHItems) {
-				shapes.add(processableBVHItem.getShape());
-			}
-			
-			return new LeafBVHNode3D<>(maximum, minimum, depth, shapes);
-		}
-		
-		final double sideX = maximum.x - minimum.x;
-		final double sideY = maximum.y - minimum.y;
-		final double sideZ = maximum.z - minimum.z;
-		
-		double minimumCost = size * (sideX * sideY + sideY * sideZ + sideZ * sideX);
-		double bestSplit = Doubles.MAX_VALUE;
-		
-		int bestAxis = -1;
-		
-		for(int axis = 0; axis < 3; axis++) {
-			final double start = minimum.getComponent(axis);
-			final double stop  = maximum.getComponent(axis);
-			
-			if(Doubles.abs(stop - start) < 1.0e-4D) {
-				continue;
-			}
-			
-			final double step = (stop - start) / (1024.0D / (depth + 1.0D));
-			
-			for(double oldSplit = 0.0D, newSplit = start + step; newSplit < stop - step; oldSplit = newSplit, newSplit += step) {
-//				The following test prevents an infinite loop from occurring (it might not be necessary anymore, due to a fix earlier):
-				if(Doubles.equals(oldSplit, newSplit)) {
-					break;
-				}
-				
-				double maximumLX = Doubles.MIN_VALUE;
-				double maximumLY = Doubles.MIN_VALUE;
-				double maximumLZ = Doubles.MIN_VALUE;
-				double minimumLX = Doubles.MAX_VALUE;
-				double minimumLY = Doubles.MAX_VALUE;
-				double minimumLZ = Doubles.MAX_VALUE;
-				double maximumRX = Doubles.MIN_VALUE;
-				double maximumRY = Doubles.MIN_VALUE;
-				double maximumRZ = Doubles.MIN_VALUE;
-				double minimumRX = Doubles.MAX_VALUE;
-				double minimumRY = Doubles.MAX_VALUE;
-				double minimumRZ = Doubles.MAX_VALUE;
-				
-				int countL = 0;
-				int countR = 0;
-				
-				for(final BVHItem3D<T> processableBVHItem : processableBVHItems) {
-					final BoundingVolume3D boundingVolume = processableBVHItem.getBoundingVolume();
-					
-					final Point3D max = boundingVolume.max();
-					final Point3D mid = boundingVolume.midpoint();
-					final Point3D min = boundingVolume.min();
-					
-					final double value = mid.getComponent(axis);
-					
-					if(value < newSplit) {
-						maximumLX = Doubles.max(maximumLX, max.x);
-						maximumLY = Doubles.max(maximumLY, max.y);
-						maximumLZ = Doubles.max(maximumLZ, max.z);
-						minimumLX = Doubles.min(minimumLX, min.x);
-						minimumLY = Doubles.min(minimumLY, min.y);
-						minimumLZ = Doubles.min(minimumLZ, min.z);
-						
-						countL++;
-					} else {
-						maximumRX = Doubles.max(maximumRX, max.x);
-						maximumRY = Doubles.max(maximumRY, max.y);
-						maximumRZ = Doubles.max(maximumRZ, max.z);
-						minimumRX = Doubles.min(minimumRX, min.x);
-						minimumRY = Doubles.min(minimumRY, min.y);
-						minimumRZ = Doubles.min(minimumRZ, min.z);
-						
-						countR++;
-					}
-				}
-				
-				if(countL <= 1 || countR <= 1) {
-					continue;
-				}
-				
-				final double sideLX = maximumLX - minimumLX;
-				final double sideLY = maximumLY - minimumLY;
-				final double sideLZ = maximumLZ - minimumLZ;
-				final double sideRX = maximumRX - minimumRX;
-				final double sideRY = maximumRY - minimumRY;
-				final double sideRZ = maximumRZ - minimumRZ;
-				
-				final double surfaceL = sideLX * sideLY + sideLY * sideLZ + sideLZ * sideLX;
-				final double surfaceR = sideRX * sideRY + sideRY * sideRZ + sideRZ * sideRX;
-				
-				final double cost = surfaceL * countL + surfaceR * countR;
-				
-				if(cost < minimumCost) {
-					minimumCost = cost;
-					bestSplit = newSplit;
-					bestAxis = axis;
-				}
-			}
-		}
-		
-		if(bestAxis == -1) {
-			final List<T> shapes = new ArrayList<>(size);
-			
-			for(final BVHItem3D<T> processableBVHItem : processableBVHItems) {
-				shapes.add(processableBVHItem.getShape());
-			}
-			
-			return new LeafBVHNode3D<>(maximum, minimum, depth, shapes);
-		}
-		
-		final List<BVHItem3D<T>> processableBVHItemsL = new ArrayList<>(sizeHalf);
-		final List<BVHItem3D<T>> processableBVHItemsR = new ArrayList<>(sizeHalf);
-		
-		double maximumLX = Doubles.MIN_VALUE;
-		double maximumLY = Doubles.MIN_VALUE;
-		double maximumLZ = Doubles.MIN_VALUE;
-		double minimumLX = Doubles.MAX_VALUE;
-		double minimumLY = Doubles.MAX_VALUE;
-		double minimumLZ = Doubles.MAX_VALUE;
-		double maximumRX = Doubles.MIN_VALUE;
-		double maximumRY = Doubles.MIN_VALUE;
-		double maximumRZ = Doubles.MIN_VALUE;
-		double minimumRX = Doubles.MAX_VALUE;
-		double minimumRY = Doubles.MAX_VALUE;
-		double minimumRZ = Doubles.MAX_VALUE;
-		
-		for(final BVHItem3D<T> processableBVHItem : processableBVHItems) {
-			final BoundingVolume3D boundingVolume = processableBVHItem.getBoundingVolume();
-			
-			final Point3D max = boundingVolume.max();
-			final Point3D mid = boundingVolume.midpoint();
-			final Point3D min = boundingVolume.min();
-			
-			final double value = mid.getComponent(bestAxis);
-			
-			if(value < bestSplit) {
-				processableBVHItemsL.add(processableBVHItem);
-				
-				maximumLX = Doubles.max(maximumLX, max.x);
-				maximumLY = Doubles.max(maximumLY, max.y);
-				maximumLZ = Doubles.max(maximumLZ, max.z);
-				minimumLX = Doubles.min(minimumLX, min.x);
-				minimumLY = Doubles.min(minimumLY, min.y);
-				minimumLZ = Doubles.min(minimumLZ, min.z);
-			} else {
-				processableBVHItemsR.add(processableBVHItem);
-				
-				maximumRX = Doubles.max(maximumRX, max.x);
-				maximumRY = Doubles.max(maximumRY, max.y);
-				maximumRZ = Doubles.max(maximumRZ, max.z);
-				minimumRX = Doubles.min(minimumRX, min.x);
-				minimumRY = Doubles.min(minimumRY, min.y);
-				minimumRZ = Doubles.min(minimumRZ, min.z);
-			}
-		}
-		
-		final Point3D maximumL = new Point3D(maximumLX, maximumLY, maximumLZ);
-		final Point3D minimumL = new Point3D(minimumLX, minimumLY, minimumLZ);
-		final Point3D maximumR = new Point3D(maximumRX, maximumRY, maximumRZ);
-		final Point3D minimumR = new Point3D(minimumRX, minimumRY, minimumRZ);
-		
-		final BVHNode3D bVHNodeL = create(processableBVHItemsL, maximumL, minimumL, depth + 1);
-		final BVHNode3D bVHNodeR = create(processableBVHItemsR, maximumR, minimumR, depth + 1);
-		
-		return new TreeBVHNode3D(maximum, minimum, depth, bVHNodeL, bVHNodeR);
+		return BUILDER.build(processableBVHItems, maximum, minimum, depth);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,356 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.shape.Shape3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+
+/**
+ * A class that consists exclusively of static methods that perform intersection tests between large batches of rays and a {@link CompiledBVH3D}, {@link BVHNode3D} or {@link Shape3D} instance.
+ * <p>
+ * The rays of a batch are given in primitive arrays. The ray with index {@code i} has its origin at {@code origins[i * 3 + 0]}, {@code origins[i * 3 + 1]} and {@code origins[i * 3 + 2]}, its direction at the same offsets in {@code directions} and its minimum and maximum parametric
+ * distances at {@code tRanges[i * 2 + 0]} and {@code tRanges[i * 2 + 1]}. The results are written to arrays provided by the caller.
+ * <p>
+ * The batches are split into ranges of {@code BatchIntersections3D.PARALLEL_THRESHOLD} rays, which are traced concurrently on {@code ForkJoinPool.commonPool()}. A {@code CompiledBVH3D} instance is traversed using the primitive origin and reciprocal direction of each ray. A
+ * {@link Ray3D} instance is only created for a ray that reaches a leaf node, because the {@code Shape3D} instances require one, and its direction is not normalized a second time. No {@code Optional}, {@code SurfaceIntersection3D} or {@code SurfaceIntersector3D} instances are
+ * created, and the traversal stack of a {@code CompiledBVH3D} instance is reused for all rays in a range.
+ * <p>
+ * The directions do not have to be normalized. As with {@code Ray3D}, they are normalized before they are traced, so the parametric distances are relative to the normalized directions.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class BatchIntersections3D {
+	/**
+	 * The number of rays below which a range of a batch is traced sequentially.
+	 */
+	public static final int PARALLEL_THRESHOLD = 1024;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private BatchIntersections3D() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Performs intersection tests between all rays of a batch and {@code bVHNode} and writes the closest intersections to {@code t} and {@code hitIndex}.
+	 * <p>
+	 * If either {@code bVHNode}, {@code origins}, {@code directions}, {@code tRanges}, {@code t} or {@code hitIndex} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code bVHNode}, or any of its descendants, is neither a {@link LeafBVHNode3D} nor a {@link TreeBVHNode3D}, {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to {@code origins.length}, {@code tRanges.length} is not equal to
+	 * {@code origins.length / 3 * 2}, or {@code t.length} or {@code hitIndex.length} are less than {@code origins.length / 3}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * The {@code BVHNode3D} instance is compiled into a {@link CompiledBVH3D} instance first. The index written to {@code hitIndex} is the index of the intersected {@link Shape3D} instance in the depth-first order of the leaf nodes, which is the order used by
+	 * {@code new CompiledBVH3D(bVHNode).getShapes()}. To trace several batches, compile the {@code BVHNode3D} instance once and call {@link #intersectAll(CompiledBVH3D, double[], double[], double[], double[], int[])} instead.
+	 * 
+	 * @param bVHNode the {@link BVHNode3D} instance to perform the intersection tests against
+	 * @param origins a {@code double[]} with the origins of the rays
+	 * @param directions a {@code double[]} with the directions of the rays
+	 * @param tRanges a {@code double[]} with the minimum and maximum parametric distances of the rays
+	 * @param t a {@code double[]} that receives the parametric distance of each ray, or {@code Double.NaN} if it does not intersect anything
+	 * @param hitIndex an {@code int[]} that receives the index of the intersected {@code Shape3D} instance of each ray, or {@code -1} if it does not intersect anything
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code bVHNode}, or any of its descendants, is neither a {@code LeafBVHNode3D} nor a {@code TreeBVHNode3D}, {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to
+	 *                                  {@code origins.length}, {@code tRanges.length} is not equal to {@code origins.length / 3 * 2}, or {@code t.length} or {@code hitIndex.length} are less than {@code origins.length / 3}
+	 * @throws NullPointerException thrown if, and only if, either {@code bVHNode}, {@code origins}, {@code directions}, {@code tRanges}, {@code t} or {@code hitIndex} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public static void intersectAll(final BVHNode3D bVHNode, final double[] origins, final double[] directions, final double[] tRanges, final double[] t, final int[] hitIndex) {
+		intersectAll(new CompiledBVH3D(bVHNode), origins, directions, tRanges, t, hitIndex);
+	}
+	
+	/**
+	 * Performs intersection tests between all rays of a batch and {@code compiledBVH} and writes the closest intersections to {@code t} and {@code hitIndex}.
+	 * <p>
+	 * If either {@code compiledBVH}, {@code origins}, {@code directions}, {@code tRanges}, {@code t} or {@code hitIndex} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to {@code origins.length}, {@code tRanges.length} is not equal to {@code origins.length / 3 * 2}, or {@code t.length} or {@code hitIndex.length} are less than
+	 * {@code origins.length / 3}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * The index written to {@code hitIndex} can be used together with {@link CompiledBVH3D#getShape(int)}.
+	 * 
+	 * @param compiledBVH the {@link CompiledBVH3D} instance to perform the intersection tests against
+	 * @param origins a {@code double[]} with the origins of the rays
+	 * @param directions a {@code double[]} with the directions of the rays
+	 * @param tRanges a {@code double[]} with the minimum and maximum parametric distances of the rays
+	 * @param t a {@code double[]} that receives the parametric distance of each ray, or {@code Double.NaN} if it does not intersect anything
+	 * @param hitIndex an {@code int[]} that receives the index of the intersected {@link Shape3D} instance of each ray, or {@code -1} if it does not intersect anything
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to {@code origins.length}, {@code tRanges.length} is not equal to {@code origins.length / 3 * 2}, or
+	 *                                  {@code t.length} or {@code hitIndex.length} are less than {@code origins.length / 3}
+	 * @throws NullPointerException thrown if, and only if, either {@code compiledBVH}, {@code origins}, {@code directions}, {@code tRanges}, {@code t} or {@code hitIndex} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public static void intersectAll(final CompiledBVH3D compiledBVH, final double[] origins, final double[] directions, final double[] tRanges, final double[] t, final int[] hitIndex) {
+		Objects.requireNonNull(compiledBVH, "compiledBVH == null");
+		
+		final int count = doRequireRays(origins, directions, tRanges);
+		
+		doRequireResults(t, hitIndex, count);
+		
+		ForkJoinPool.commonPool().invoke(new TraceTask(0, count, (start, end) -> {
+			final double[] direction = new double[3];
+			final double[] tBounds = new double[2];
+			
+			final int[] stack = new int[compiledBVH.getStackSize()];
+			
+			for(int i = start; i < end; i++) {
+				doNormalize(directions, i, direction);
+				
+				tBounds[0] = tRanges[i * 2 + 0];
+				tBounds[1] = tRanges[i * 2 + 1];
+				
+				final int shapeIndex = compiledBVH.doIntersection(origins[i * 3 + 0], origins[i * 3 + 1], origins[i * 3 + 2], direction[0], direction[1], direction[2], tBounds, stack);
+				
+				t[i] = shapeIndex >= 0 ? tBounds[1] : Double.NaN;
+				
+				hitIndex[i] = shapeIndex;
+			}
+		}));
+	}
+	
+	/**
+	 * Performs intersection tests between all rays of a batch and {@code shape} and writes the closest intersections to {@code t} and {@code hitIndex}.
+	 * <p>
+	 * If either {@code shape}, {@code origins}, {@code directions}, {@code tRanges}, {@code t} or {@code hitIndex} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to {@code origins.length}, {@code tRanges.length} is not equal to {@code origins.length / 3 * 2}, or {@code t.length} or {@code hitIndex.length} are less than
+	 * {@code origins.length / 3}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * The index written to {@code hitIndex} is {@code 0} if the ray intersects {@code shape}.
+	 * 
+	 * @param shape the {@link Shape3D} instance to perform the intersection tests against
+	 * @param origins a {@code double[]} with the origins of the rays
+	 * @param directions a {@code double[]} with the directions of the rays
+	 * @param tRanges a {@code double[]} with the minimum and maximum parametric distances of the rays
+	 * @param t a {@code double[]} that receives the parametric distance of each ray, or {@code Double.NaN} if it does not intersect {@code shape}
+	 * @param hitIndex an {@code int[]} that receives {@code 0} for each ray that intersects {@code shape}, or {@code -1} for each ray that does not
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to {@code origins.length}, {@code tRanges.length} is not equal to {@code origins.length / 3 * 2}, or
+	 *                                  {@code t.length} or {@code hitIndex.length} are less than {@code origins.length / 3}
+	 * @throws NullPointerException thrown if, and only if, either {@code shape}, {@code origins}, {@code directions}, {@code tRanges}, {@code t} or {@code hitIndex} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public static void intersectAll(final Shape3D shape, final double[] origins, final double[] directions, final double[] tRanges, final double[] t, final int[] hitIndex) {
+		Objects.requireNonNull(shape, "shape == null");
+		
+		final int count = doRequireRays(origins, directions, tRanges);
+		
+		doRequireResults(t, hitIndex, count);
+		
+		ForkJoinPool.commonPool().invoke(new TraceTask(0, count, (start, end) -> {
+			final double[] direction = new double[3];
+			
+			for(int i = start; i < end; i++) {
+				doNormalize(directions, i, direction);
+				
+				final double tShape = shape.intersectionT(doCreateRay(origins, direction, i), tRanges[i * 2 + 0], tRanges[i * 2 + 1]);
+				
+				t[i] = tShape;
+				
+				hitIndex[i] = Doubles.isNaN(tShape) ? -1 : 0;
+			}
+		}));
+	}
+	
+	/**
+	 * Performs intersection tests between all rays of a batch and {@code bVHNode} and writes whether each ray is occluded to {@code isOccluded}.
+	 * <p>
+	 * If either {@code bVHNode}, {@code origins}, {@code directions}, {@code tRanges} or {@code isOccluded} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code bVHNode}, or any of its descendants, is neither a {@link LeafBVHNode3D} nor a {@link TreeBVHNode3D}, {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to {@code origins.length}, {@code tRanges.length} is not equal to
+	 * {@code origins.length / 3 * 2}, or {@code isOccluded.length} is less than {@code origins.length / 3}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * The {@code BVHNode3D} instance is compiled into a {@link CompiledBVH3D} instance first. To trace several batches, compile the {@code BVHNode3D} instance once and call {@link #occludedAll(CompiledBVH3D, double[], double[], double[], boolean[])} instead.
+	 * 
+	 * @param bVHNode the {@link BVHNode3D} instance to perform the intersection tests against
+	 * @param origins a {@code double[]} with the origins of the rays
+	 * @param directions a {@code double[]} with the directions of the rays
+	 * @param tRanges a {@code double[]} with the minimum and maximum parametric distances of the rays
+	 * @param isOccluded a {@code boolean[]} that receives {@code true} for each ray that intersects anything, or {@code false} for each ray that does not
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code bVHNode}, or any of its descendants, is neither a {@code LeafBVHNode3D} nor a {@code TreeBVHNode3D}, {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to
+	 *                                  {@code origins.length}, {@code tRanges.length} is not equal to {@code origins.length / 3 * 2}, or {@code isOccluded.length} is less than {@code origins.length / 3}
+	 * @throws NullPointerException thrown if, and only if, either {@code bVHNode}, {@code origins}, {@code directions}, {@code tRanges} or {@code isOccluded} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public static void occludedAll(final BVHNode3D bVHNode, final double[] origins, final double[] directions, final double[] tRanges, final boolean[] isOccluded) {
+		occludedAll(new CompiledBVH3D(bVHNode), origins, directions, tRanges, isOccluded);
+	}
+	
+	/**
+	 * Performs intersection tests between all rays of a batch and {@code compiledBVH} and writes whether each ray is occluded to {@code isOccluded}.
+	 * <p>
+	 * If either {@code compiledBVH}, {@code origins}, {@code directions}, {@code tRanges} or {@code isOccluded} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to {@code origins.length}, {@code tRanges.length} is not equal to {@code origins.length / 3 * 2}, or {@code isOccluded.length} is less than {@code origins.length / 3}, an
+	 * {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param compiledBVH the {@link CompiledBVH3D} instance to perform the intersection tests against
+	 * @param origins a {@code double[]} with the origins of the rays
+	 * @param directions a {@code double[]} with the directions of the rays
+	 * @param tRanges a {@code double[]} with the minimum and maximum parametric distances of the rays
+	 * @param isOccluded a {@code boolean[]} that receives {@code true} for each ray that intersects anything, or {@code false} for each ray that does not
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to {@code origins.length}, {@code tRanges.length} is not equal to {@code origins.length / 3 * 2}, or
+	 *                                  {@code isOccluded.length} is less than {@code origins.length / 3}
+	 * @throws NullPointerException thrown if, and only if, either {@code compiledBVH}, {@code origins}, {@code directions}, {@code tRanges} or {@code isOccluded} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public static void occludedAll(final CompiledBVH3D compiledBVH, final double[] origins, final double[] directions, final double[] tRanges, final boolean[] isOccluded) {
+		Objects.requireNonNull(compiledBVH, "compiledBVH == null");
+		
+		final int count = doRequireRays(origins, directions, tRanges);
+		
+		Ints.requireRange(Objects.requireNonNull(isOccluded, "isOccluded == null").length, count, Integer.MAX_VALUE, "isOccluded.length");
+		
+		ForkJoinPool.commonPool().invoke(new TraceTask(0, count, (start, end) -> {
+			final double[] direction = new double[3];
+			
+			final int[] stack = new int[compiledBVH.getStackSize()];
+			
+			for(int i = start; i < end; i++) {
+				doNormalize(directions, i, direction);
+				
+				isOccluded[i] = compiledBVH.doIntersects(origins[i * 3 + 0], origins[i * 3 + 1], origins[i * 3 + 2], direction[0], direction[1], direction[2], tRanges[i * 2 + 0], tRanges[i * 2 + 1], stack);
+			}
+		}));
+	}
+	
+	/**
+	 * Performs intersection tests between all rays of a batch and {@code shape} and writes whether each ray is occluded to {@code isOccluded}.
+	 * <p>
+	 * If either {@code shape}, {@code origins}, {@code directions}, {@code tRanges} or {@code isOccluded} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to {@code origins.length}, {@code tRanges.length} is not equal to {@code origins.length / 3 * 2}, or {@code isOccluded.length} is less than {@code origins.length / 3}, an
+	 * {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param shape the {@link Shape3D} instance to perform the intersection tests against
+	 * @param origins a {@code double[]} with the origins of the rays
+	 * @param directions a {@code double[]} with the directions of the rays
+	 * @param tRanges a {@code double[]} with the minimum and maximum parametric distances of the rays
+	 * @param isOccluded a {@code boolean[]} that receives {@code true} for each ray that intersects {@code shape}, or {@code false} for each ray that does not
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to {@code origins.length}, {@code tRanges.length} is not equal to {@code origins.length / 3 * 2}, or
+	 *                                  {@code isOccluded.length} is less than {@code origins.length / 3}
+	 * @throws NullPointerException thrown if, and only if, either {@code shape}, {@code origins}, {@code directions}, {@code tRanges} or {@code isOccluded} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public static void occludedAll(final Shape3D shape, final double[] origins, final double[] directions, final double[] tRanges, final boolean[] isOccluded) {
+		Objects.requireNonNull(shape, "shape == null");
+		
+		final int count = doRequireRays(origins, directions, tRanges);
+		
+		Ints.requireRange(Objects.requireNonNull(isOccluded, "isOccluded == null").length, count, Integer.MAX_VALUE, "isOccluded.length");
+		
+		ForkJoinPool.commonPool().invoke(new TraceTask(0, count, (start, end) -> {
+			final double[] direction = new double[3];
+			
+			for(int i = start; i < end; i++) {
+				doNormalize(directions, i, direction);
+				
+				isOccluded[i] = shape.intersects(doCreateRay(origins, direction, i), tRanges[i * 2 + 0], tRanges[i * 2 + 1]);
+			}
+		}));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static Ray3D doCreateRay(final double[] origins, final double[] direction, final int index) {
+		return new Ray3D(new Point3D(origins[index * 3 + 0], origins[index * 3 + 1], origins[index * 3 + 2]), new Vector3D(direction[0], direction[1], direction[2]), false);
+	}
+	
+	private static int doRequireRays(final double[] origins, final double[] directions, final double[] tRanges) {
+		Objects.requireNonNull(origins, "origins == null");
+		Objects.requireNonNull(directions, "directions == null");
+		Objects.requireNonNull(tRanges, "tRanges == null");
+		
+		Ints.requireExact(origins.length % 3, 0, "origins.length % 3");
+		Ints.requireExact(directions.length, origins.length, "directions.length");
+		Ints.requireExact(tRanges.length, origins.length / 3 * 2, "tRanges.length");
+		
+		return origins.length / 3;
+	}
+	
+	private static void doNormalize(final double[] directions, final int index, final double[] direction) {
+		final double x = directions[index * 3 + 0];
+		final double y = directions[index * 3 + 1];
+		final double z = directions[index * 3 + 2];
+		
+		final double length = Doubles.sqrt(x * x + y * y + z * z);
+		
+		if(length >= Doubles.NEXT_DOWN_1_3 && length <= Doubles.NEXT_UP_1_1) {
+			direction[0] = x;
+			direction[1] = y;
+			direction[2] = z;
+		} else {
+			direction[0] = x / length;
+			direction[1] = y / length;
+			direction[2] = z / length;
+		}
+	}
+	
+	private static void doRequireResults(final double[] t, final int[] hitIndex, final int count) {
+		Objects.requireNonNull(t, "t == null");
+		Objects.requireNonNull(hitIndex, "hitIndex == null");
+		
+		Ints.requireRange(t.length, count, Integer.MAX_VALUE, "t.length");
+		Ints.requireRange(hitIndex.length, count, Integer.MAX_VALUE, "hitIndex.length");
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static interface Tracer {
+		void trace(final int start, final int end);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class TraceTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final Tracer tracer;
+		private final int end;
+		private final int start;
+		
+		public TraceTask(final int start, final int end, final Tracer tracer) {
+			this.tracer = tracer;
+			this.end = end;
+			this.start = start;
+		}
+		
+		@Override
+		protected void compute() {
+			if(this.end - this.start <= PARALLEL_THRESHOLD) {
+				this.tracer.trace(this.start, this.end);
+				
+				return;
+			}
+			
+			final int middle = (this.start + this.end) >>> 1;
+			
+			invokeAll(new TraceTask(this.start, middle, this.tracer), new TraceTask(middle, this.end, this.tracer));
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,869 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.ray.RayPacket3D;
+import org.macroing.geo4j.ray.TraversalRay3D;
+import org.macroing.geo4j.shape.Shape3D;
+import org.macroing.geo4j.shape.SurfaceIntersection3D;
+import org.macroing.geo4j.shape.SurfaceIntersector3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+
+/**
+ * A {@code CompiledBVH3D} is a {@code double}-based bounding volume hierarchy (BVH) structure that has been flattened into primitive arrays.
+ * <p>
+ * The nodes of the {@link BVHNode3D} instance it was compiled from are stored in depth-first order. The left child of a tree node is always the node that directly follows it, whereas the index of the right child is stored explicitly. The bounds of all nodes are stored in a single {@code double[]} and the
+ * child and {@link Shape3D} offsets in a single {@code int[]}. The traversal is performed iteratively using an explicit stack.
+ * <p>
+ * A {@code CompiledBVH3D} instance can be written to a {@code DataOutput} instance using {@link #write(DataOutput)} and read back using a {@link CompiledBVH3DReader} instance, without rebuilding the bounding volume hierarchy (BVH) structure. The {@code Shape3D} instances are written
+ * using their own {@code write(DataOutput)} methods.
+ * <p>
+ * Coherent {@link Ray3D} instances can be traced together using a {@link RayPacket3D} instance and {@link #intersectionT(RayPacket3D, double[], int[])} or {@link #intersects(RayPacket3D)}.
+ * <p>
+ * This class is immutable and therefore thread-safe, if, and only if, all {@code Shape3D} instances are.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class CompiledBVH3D {
+	/**
+	 * The ID of this {@code CompiledBVH3D} class.
+	 */
+	public static final int ID = 1;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final Shape3D[] shapes;
+	private final double[] bounds;
+	private final int[] offsets;
+	private final int stackSize;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code CompiledBVH3D} instance by flattening {@code bVHNode}.
+	 * <p>
+	 * If {@code bVHNode} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code bVHNode}, or any of its descendants, is neither a {@link LeafBVHNode3D} nor a {@link TreeBVHNode3D}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param bVHNode the {@link BVHNode3D} instance to flatten
+	 * @throws IllegalArgumentException thrown if, and only if, {@code bVHNode}, or any of its descendants, is neither a {@code LeafBVHNode3D} nor a {@code TreeBVHNode3D}
+	 * @throws NullPointerException thrown if, and only if, {@code bVHNode} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public CompiledBVH3D(final BVHNode3D bVHNode) {
+		Objects.requireNonNull(bVHNode, "bVHNode == null");
+		
+		final int[] counts = new int[3];
+		
+		doCount(bVHNode, 1, counts);
+		
+		final List<Shape3D> shapes = new ArrayList<>(counts[1]);
+		
+		this.bounds = new double[counts[0] * 6];
+		this.offsets = new int[counts[0] * 2];
+		
+		doFlatten(bVHNode, this.bounds, this.offsets, shapes, 0);
+		
+		this.shapes = shapes.toArray(new Shape3D[shapes.size()]);
+		this.stackSize = counts[2];
+	}
+	
+	CompiledBVH3D(final Shape3D[] shapes, final double[] bounds, final int[] offsets, final int stackSize) {
+		this.shapes = shapes;
+		this.bounds = bounds;
+		this.offsets = offsets;
+		this.stackSize = stackSize;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns the {@link BoundingVolume3D} instance that contains this {@code CompiledBVH3D} instance.
+	 * 
+	 * @return the {@code BoundingVolume3D} instance that contains this {@code CompiledBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public BoundingVolume3D getBoundingVolume() {
+		return new AxisAlignedBoundingBox3D(new Point3D(this.bounds[3], this.bounds[4], this.bounds[5]), new Point3D(this.bounds[0], this.bounds[1], this.bounds[2]));
+	}
+	
+	/**
+	 * Returns a {@code List} with all {@link Shape3D} instances associated with this {@code CompiledBVH3D} instance.
+	 * <p>
+	 * The {@code Shape3D} instances are returned in the order they are stored, so the index of a {@code Shape3D} instance in the returned {@code List} can be used together with {@link #getShape(int)}.
+	 * <p>
+	 * Modification to the returned {@code List} will not affect this {@code CompiledBVH3D} instance.
+	 * 
+	 * @return a {@code List} with all {@code Shape3D} instances associated with this {@code CompiledBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public List<Shape3D> getShapes() {
+		return new ArrayList<>(Arrays.asList(this.shapes));
+	}
+	
+	/**
+	 * Performs an intersection test between {@code ray} and this {@code CompiledBVH3D} instance.
+	 * <p>
+	 * Returns an {@code Optional} with an optional {@link SurfaceIntersection3D} instance that contains information about the intersection, if it was found.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * Only the {@link Shape3D} instance that is closest to the origin of {@code ray} will compute a {@code SurfaceIntersection3D} instance.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code CompiledBVH3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return an {@code Optional} with an optional {@code SurfaceIntersection3D} instance that contains information about the intersection, if it was found
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public Optional<SurfaceIntersection3D> intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final int shapeIndex = doIntersection(Objects.requireNonNull(ray, "ray == null"), new double[] {tMinimum, tMaximum});
+		
+		return shapeIndex >= 0 ? this.shapes[shapeIndex].intersection(ray, tMinimum, tMaximum) : SurfaceIntersection3D.EMPTY;
+	}
+	
+	/**
+	 * Returns the {@link Shape3D} instance at index {@code index}.
+	 * <p>
+	 * If {@code index} is less than {@code 0}, or greater than or equal to {@code getShapeCount()}, an {@code ArrayIndexOutOfBoundsException} will be thrown.
+	 * 
+	 * @param index the index of the {@code Shape3D} instance
+	 * @return the {@code Shape3D} instance at index {@code index}
+	 * @throws ArrayIndexOutOfBoundsException thrown if, and only if, {@code index} is less than {@code 0}, or greater than or equal to {@code getShapeCount()}
+	 */
+//	TODO: Add Unit Tests!
+	public Shape3D getShape(final int index) {
+		return this.shapes[index];
+	}
+	
+	/**
+	 * Compares {@code object} to this {@code CompiledBVH3D} instance for equality.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code object} is an instance of {@code CompiledBVH3D}, and their respective values are equal, {@code false} otherwise.
+	 * 
+	 * @param object the {@code Object} to compare to this {@code CompiledBVH3D} instance for equality
+	 * @return {@code true} if, and only if, {@code object} is an instance of {@code CompiledBVH3D}, and their respective values are equal, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean equals(final Object object) {
+		if(object == this) {
+			return true;
+		} else if(!(object instanceof CompiledBVH3D)) {
+			return false;
+		} else if(!Arrays.equals(this.shapes, CompiledBVH3D.class.cast(object).shapes)) {
+			return false;
+		} else if(!Arrays.equals(this.bounds, CompiledBVH3D.class.cast(object).bounds)) {
+			return false;
+		} else if(!Arrays.equals(this.offsets, CompiledBVH3D.class.cast(object).offsets)) {
+			return false;
+		} else if(this.stackSize != CompiledBVH3D.class.cast(object).stackSize) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+	
+	/**
+	 * Performs an intersection test between {@code surfaceIntersector} and this {@code CompiledBVH3D} instance.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code CompiledBVH3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code surfaceIntersector} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param surfaceIntersector a {@link SurfaceIntersector3D} instance
+	 * @return {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code CompiledBVH3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code surfaceIntersector} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public boolean intersection(final SurfaceIntersector3D surfaceIntersector) {
+		final Ray3D ray = surfaceIntersector.getRay();
+		
+		final Point3D origin = ray.getOrigin();
+		
+		final Vector3D direction = ray.getDirection();
+		
+		final double originX = origin.x;
+		final double originY = origin.y;
+		final double originZ = origin.z;
+		
+		final double directionReciprocalX = 1.0D / direction.x;
+		final double directionReciprocalY = 1.0D / direction.y;
+		final double directionReciprocalZ = 1.0D / direction.z;
+		
+		final int[] stack = new int[this.stackSize];
+		
+		boolean isIntersecting = false;
+		
+		int nodeIndex = 0;
+		int stackIndex = 0;
+		
+		while(true) {
+			if(doIntersects(nodeIndex, originX, originY, originZ, directionReciprocalX, directionReciprocalY, directionReciprocalZ, surfaceIntersector.getTMinimum(), surfaceIntersector.getTMaximum())) {
+				final int offset = this.offsets[nodeIndex * 2 + 0];
+				final int count = this.offsets[nodeIndex * 2 + 1];
+				
+				if(count < 0) {
+					stack[stackIndex++] = offset;
+					
+					nodeIndex++;
+					
+					continue;
+				}
+				
+				for(int i = offset; i < offset + count; i++) {
+					if(this.shapes[i].intersection(surfaceIntersector)) {
+						isIntersecting = true;
+					}
+				}
+			}
+			
+			if(stackIndex == 0) {
+				return isIntersecting;
+			}
+			
+			nodeIndex = stack[--stackIndex];
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, {@code ray} intersects this {@code CompiledBVH3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code CompiledBVH3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code true} if, and only if, {@code ray} intersects this {@code CompiledBVH3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public boolean intersects(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		return doIntersects(ray, tMinimum, tMaximum, new int[this.stackSize]);
+	}
+	
+	/**
+	 * Performs an intersection test between {@code ray} and this {@code CompiledBVH3D} instance.
+	 * <p>
+	 * Returns {@code t}, the parametric distance to the surface intersection point, or {@code Double.NaN} if no intersection exists.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code CompiledBVH3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code t}, the parametric distance to the surface intersection point, or {@code Double.NaN} if no intersection exists
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public double intersectionT(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final double[] tBounds = new double[] {tMinimum, tMaximum};
+		
+		return doIntersection(Objects.requireNonNull(ray, "ray == null"), tBounds) >= 0 ? tBounds[1] : Double.NaN;
+	}
+	
+	/**
+	 * Returns the node count of this {@code CompiledBVH3D} instance.
+	 * 
+	 * @return the node count of this {@code CompiledBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getNodeCount() {
+		return this.offsets.length / 2;
+	}
+	
+	/**
+	 * Returns the {@link Shape3D} instance count of this {@code CompiledBVH3D} instance.
+	 * 
+	 * @return the {@code Shape3D} instance count of this {@code CompiledBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getShapeCount() {
+		return this.shapes.length;
+	}
+	
+	/**
+	 * Returns a hash code for this {@code CompiledBVH3D} instance.
+	 * 
+	 * @return a hash code for this {@code CompiledBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public int hashCode() {
+		return Objects.hash(Integer.valueOf(Arrays.hashCode(this.shapes)), Integer.valueOf(Arrays.hashCode(this.bounds)), Integer.valueOf(Arrays.hashCode(this.offsets)), Integer.valueOf(this.stackSize));
+	}
+	
+	/**
+	 * Performs an intersection test between all active lanes of {@code rayPacket} and this {@code CompiledBVH3D} instance.
+	 * <p>
+	 * Returns a mask where bit {@code i} is set if, and only if, lane {@code i} of {@code rayPacket} is active and its {@link Ray3D} instance intersects this {@code CompiledBVH3D} instance.
+	 * <p>
+	 * If {@code rayPacket} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * A lane is removed from the traversal as soon as an intersection has been found for it, which makes this method suitable for packets of shadow rays.
+	 * 
+	 * @param rayPacket the {@link RayPacket3D} to perform an intersection test against this {@code CompiledBVH3D} instance
+	 * @return a mask where bit {@code i} is set if, and only if, lane {@code i} of {@code rayPacket} is active and its {@code Ray3D} instance intersects this {@code CompiledBVH3D} instance
+	 * @throws NullPointerException thrown if, and only if, {@code rayPacket} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public int intersects(final RayPacket3D rayPacket) {
+		final Packet packet = new Packet(Objects.requireNonNull(rayPacket, "rayPacket == null"));
+		
+		final int[] stack = new int[this.stackSize];
+		final int[] stackMasks = new int[this.stackSize];
+		
+		int mask = packet.getMask();
+		int maskIntersecting = 0;
+		int nodeIndex = 0;
+		int nodeMask = mask;
+		int stackIndex = 0;
+		
+		while(true) {
+			nodeMask = packet.intersects(this.bounds, nodeIndex * 6, nodeMask & mask);
+			
+			if(nodeMask != 0) {
+				final int offset = this.offsets[nodeIndex * 2 + 0];
+				final int count = this.offsets[nodeIndex * 2 + 1];
+				
+				if(count < 0) {
+					stack[stackIndex] = offset;
+					stackMasks[stackIndex++] = nodeMask;
+					
+					nodeIndex++;
+					
+					continue;
+				}
+				
+				for(int laneMask = nodeMask; laneMask != 0; laneMask &= laneMask - 1) {
+					final int lane = Integer.numberOfTrailingZeros(laneMask);
+					
+					for(int i = offset; i < offset + count; i++) {
+						if(this.shapes[i].intersects(packet.getRay(lane), packet.getTMinimum(lane), packet.getTMaximum(lane))) {
+							maskIntersecting |= 1 << lane;
+							
+							mask &= ~(1 << lane);
+							
+							break;
+						}
+					}
+				}
+				
+				if(mask == 0) {
+					return maskIntersecting;
+				}
+			}
+			
+			if(stackIndex == 0) {
+				return maskIntersecting;
+			}
+			
+			nodeIndex = stack[--stackIndex];
+			nodeMask = stackMasks[stackIndex];
+		}
+	}
+	
+	/**
+	 * Performs an intersection test between all active lanes of {@code rayPacket} and this {@code CompiledBVH3D} instance.
+	 * <p>
+	 * For each lane {@code i} of {@code rayPacket}, {@code t[i]} is set to the parametric distance to the closest surface intersection point and {@code shapeIndex[i]} to the index of the {@link Shape3D} instance that was intersected. If lane {@code i} is inactive or no intersection
+	 * exists, {@code t[i]} is set to {@code Double.NaN} and {@code shapeIndex[i]} to {@code -1}. The index of a {@code Shape3D} instance can be used together with {@link #getShape(int)}.
+	 * <p>
+	 * If either {@code rayPacket}, {@code t} or {@code shapeIndex} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code t.length} or {@code shapeIndex.length} are less than {@code rayPacket.getSize()}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * The {@code Ray3D} instances of the packet traverse the nodes together. The nodes are fetched once per packet and each node is first tested against the whole packet using interval arithmetic, if the directions of all active lanes have the same signs. Only if that test passes,
+	 * the lanes are tested individually, and the lanes that miss a node are masked out below it.
+	 * 
+	 * @param rayPacket the {@link RayPacket3D} to perform an intersection test against this {@code CompiledBVH3D} instance
+	 * @param t a {@code double[]} that receives the parametric distance of each lane
+	 * @param shapeIndex an {@code int[]} that receives the index of the intersected {@code Shape3D} instance of each lane
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code t.length} or {@code shapeIndex.length} are less than {@code rayPacket.getSize()}
+	 * @throws NullPointerException thrown if, and only if, either {@code rayPacket}, {@code t} or {@code shapeIndex} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public void intersectionT(final RayPacket3D rayPacket, final double[] t, final int[] shapeIndex) {
+		final Packet packet = new Packet(Objects.requireNonNull(rayPacket, "rayPacket == null"));
+		
+		Objects.requireNonNull(t, "t == null");
+		Objects.requireNonNull(shapeIndex, "shapeIndex == null");
+		
+		Ints.requireRange(t.length, rayPacket.getSize(), Integer.MAX_VALUE, "t.length");
+		Ints.requireRange(shapeIndex.length, rayPacket.getSize(), Integer.MAX_VALUE, "shapeIndex.length");
+		
+		Arrays.fill(t, 0, rayPacket.getSize(), Double.NaN);
+		Arrays.fill(shapeIndex, 0, rayPacket.getSize(), -1);
+		
+		final int[] stack = new int[this.stackSize];
+		final int[] stackMasks = new int[this.stackSize];
+		
+		int nodeIndex = 0;
+		int nodeMask = packet.getMask();
+		int stackIndex = 0;
+		
+		while(true) {
+			nodeMask = packet.intersects(this.bounds, nodeIndex * 6, nodeMask);
+			
+			if(nodeMask != 0) {
+				final int offset = this.offsets[nodeIndex * 2 + 0];
+				final int count = this.offsets[nodeIndex * 2 + 1];
+				
+				if(count < 0) {
+//					The child node that the first lane of the packet enters first is visited first:
+					final int nodeIndexL = nodeIndex + 1;
+					final int nodeIndexR = offset;
+					
+					final boolean isVisitingRFirst = packet.isBefore(Integer.numberOfTrailingZeros(nodeMask), this.bounds, nodeIndexR * 6, nodeIndexL * 6);
+					
+					stack[stackIndex] = isVisitingRFirst ? nodeIndexL : nodeIndexR;
+					stackMasks[stackIndex++] = nodeMask;
+					
+					nodeIndex = isVisitingRFirst ? nodeIndexR : nodeIndexL;
+					
+					continue;
+				}
+				
+				for(int laneMask = nodeMask; laneMask != 0; laneMask &= laneMask - 1) {
+					final int lane = Integer.numberOfTrailingZeros(laneMask);
+					
+					for(int i = offset; i < offset + count; i++) {
+						final double tLane = this.shapes[i].intersectionT(packet.getRay(lane), packet.getTMinimum(lane), packet.getTMaximum(lane));
+						
+						if(!Doubles.isNaN(tLane) && tLane < packet.getTMaximum(lane)) {
+							packet.setTMaximum(lane, tLane);
+							
+							t[lane] = tLane;
+							
+							shapeIndex[lane] = i;
+						}
+					}
+				}
+			}
+			
+			if(stackIndex == 0) {
+				return;
+			}
+			
+			nodeIndex = stack[--stackIndex];
+			nodeMask = stackMasks[stackIndex];
+		}
+	}
+	
+	/**
+	 * Writes this {@code CompiledBVH3D} instance to {@code dataOutput}.
+	 * <p>
+	 * If {@code dataOutput} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
+	 * <p>
+	 * The ID is written first, followed by the node count, the {@link Shape3D} instance count and the stack size. Then the bounds of all nodes, the child and {@code Shape3D} offsets of all nodes and finally all {@code Shape3D} instances, using their own {@code write(DataOutput)} methods,
+	 * are written.
+	 * 
+	 * @param dataOutput the {@code DataOutput} instance to write to
+	 * @throws NullPointerException thrown if, and only if, {@code dataOutput} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+//	TODO: Add Unit Tests!
+	public void write(final DataOutput dataOutput) {
+		Objects.requireNonNull(dataOutput, "dataOutput == null");
+		
+		try {
+			dataOutput.writeInt(ID);
+			dataOutput.writeInt(this.offsets.length / 2);
+			dataOutput.writeInt(this.shapes.length);
+			dataOutput.writeInt(this.stackSize);
+			
+			for(final double bound : this.bounds) {
+				dataOutput.writeDouble(bound);
+			}
+			
+			for(final int offset : this.offsets) {
+				dataOutput.writeInt(offset);
+			}
+			
+			for(final Shape3D shape : this.shapes) {
+				shape.write(dataOutput);
+			}
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	boolean doIntersects(final Ray3D ray, final double tMinimum, final double tMaximum, final int[] stack) {
+		final Point3D origin = ray.getOrigin();
+		
+		final Vector3D direction = ray.getDirection();
+		
+		return doIntersects(ray, origin.x, origin.y, origin.z, direction.x, direction.y, direction.z, tMinimum, tMaximum, stack);
+	}
+	
+	boolean doIntersects(final double originX, final double originY, final double originZ, final double directionX, final double directionY, final double directionZ, final double tMinimum, final double tMaximum, final int[] stack) {
+		return doIntersects(null, originX, originY, originZ, directionX, directionY, directionZ, tMinimum, tMaximum, stack);
+	}
+	
+	int doIntersection(final Ray3D ray, final double[] tBounds, final int[] stack) {
+		final Point3D origin = ray.getOrigin();
+		
+		final Vector3D direction = ray.getDirection();
+		
+		return doIntersection(ray, origin.x, origin.y, origin.z, direction.x, direction.y, direction.z, tBounds, stack);
+	}
+	
+	int doIntersection(final double originX, final double originY, final double originZ, final double directionX, final double directionY, final double directionZ, final double[] tBounds, final int[] stack) {
+		return doIntersection(null, originX, originY, originZ, directionX, directionY, directionZ, tBounds, stack);
+	}
+	
+	int getStackSize() {
+		return this.stackSize;
+	}
+	
+	private boolean doIntersects(final Ray3D ray, final double originX, final double originY, final double originZ, final double directionX, final double directionY, final double directionZ, final double tMinimum, final double tMaximum, final int[] stack) {
+		final double directionReciprocalX = 1.0D / directionX;
+		final double directionReciprocalY = 1.0D / directionY;
+		final double directionReciprocalZ = 1.0D / directionZ;
+		
+		Ray3D rayShape = ray;
+		
+		int nodeIndex = 0;
+		int stackIndex = 0;
+		
+		while(true) {
+			if(doIntersects(nodeIndex, originX, originY, originZ, directionReciprocalX, directionReciprocalY, directionReciprocalZ, tMinimum, tMaximum)) {
+				final int offset = this.offsets[nodeIndex * 2 + 0];
+				final int count = this.offsets[nodeIndex * 2 + 1];
+				
+				if(count < 0) {
+					stack[stackIndex++] = offset;
+					
+					nodeIndex++;
+					
+					continue;
+				}
+				
+				if(count > 0 && rayShape == null) {
+					rayShape = new Ray3D(new Point3D(originX, originY, originZ), new Vector3D(directionX, directionY, directionZ), false);
+				}
+				
+				for(int i = offset; i < offset + count; i++) {
+					if(this.shapes[i].intersects(rayShape, tMinimum, tMaximum)) {
+						return true;
+					}
+				}
+			}
+			
+			if(stackIndex == 0) {
+				return false;
+			}
+			
+			nodeIndex = stack[--stackIndex];
+		}
+	}
+	
+	private boolean doIntersects(final int nodeIndex, final double originX, final double originY, final double originZ, final double directionReciprocalX, final double directionReciprocalY, final double directionReciprocalZ, final double tMinimum, final double tMaximum) {
+		final int offset = nodeIndex * 6;
+		
+		return !Doubles.isNaN(TraversalRay3D.intersectionEntry(originX, originY, originZ, directionReciprocalX, directionReciprocalY, directionReciprocalZ, this.bounds[offset + 0], this.bounds[offset + 1], this.bounds[offset + 2], this.bounds[offset + 3], this.bounds[offset + 4], this.bounds[offset + 5], tMinimum, tMaximum));
+	}
+	
+	private int doIntersection(final Ray3D ray, final double originX, final double originY, final double originZ, final double directionX, final double directionY, final double directionZ, final double[] tBounds, final int[] stack) {
+		final double directionReciprocalX = 1.0D / directionX;
+		final double directionReciprocalY = 1.0D / directionY;
+		final double directionReciprocalZ = 1.0D / directionZ;
+		
+		final double tMinimum = tBounds[0];
+		
+		double tMaximum = tBounds[1];
+		
+		Ray3D rayShape = ray;
+		
+		int nodeIndex = 0;
+		int shapeIndex = -1;
+		int stackIndex = 0;
+		
+		while(true) {
+			if(doIntersects(nodeIndex, originX, originY, originZ, directionReciprocalX, directionReciprocalY, directionReciprocalZ, tMinimum, tMaximum)) {
+				final int offset = this.offsets[nodeIndex * 2 + 0];
+				final int count = this.offsets[nodeIndex * 2 + 1];
+				
+				if(count < 0) {
+					stack[stackIndex++] = offset;
+					
+					nodeIndex++;
+					
+					continue;
+				}
+				
+				if(count > 0 && rayShape == null) {
+					rayShape = new Ray3D(new Point3D(originX, originY, originZ), new Vector3D(directionX, directionY, directionZ), false);
+				}
+				
+				for(int i = offset; i < offset + count; i++) {
+					final double t = this.shapes[i].intersectionT(rayShape, tMinimum, tMaximum);
+					
+					if(!Doubles.isNaN(t) && t < tMaximum) {
+						tMaximum = t;
+						
+						shapeIndex = i;
+					}
+				}
+			}
+			
+			if(stackIndex == 0) {
+				break;
+			}
+			
+			nodeIndex = stack[--stackIndex];
+		}
+		
+		if(shapeIndex >= 0) {
+			tBounds[1] = tMaximum;
+		}
+		
+		return shapeIndex;
+	}
+	
+	private int doIntersection(final Ray3D ray, final double[] tBounds) {
+		return doIntersection(ray, tBounds, new int[this.stackSize]);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static int doFlatten(final BVHNode3D bVHNode, final double[] bounds, final int[] offsets, final List<Shape3D> shapes, final int nodeIndex) {
+		final BoundingVolume3D boundingVolume = bVHNode.getBoundingVolume();
+		
+		final Point3D max = boundingVolume.max();
+		final Point3D min = boundingVolume.min();
+		
+		bounds[nodeIndex * 6 + 0] = min.x;
+		bounds[nodeIndex * 6 + 1] = min.y;
+		bounds[nodeIndex * 6 + 2] = min.z;
+		bounds[nodeIndex * 6 + 3] = max.x;
+		bounds[nodeIndex * 6 + 4] = max.y;
+		bounds[nodeIndex * 6 + 5] = max.z;
+		
+		if(bVHNode instanceof LeafBVHNode3D) {
+			final LeafBVHNode3D<?> leafBVHNode = LeafBVHNode3D.class.cast(bVHNode);
+			
+			offsets[nodeIndex * 2 + 0] = shapes.size();
+			offsets[nodeIndex * 2 + 1] = leafBVHNode.getShapeCount();
+			
+			shapes.addAll(leafBVHNode.getShapes());
+			
+			return nodeIndex + 1;
+		}
+		
+		final TreeBVHNode3D treeBVHNode = TreeBVHNode3D.class.cast(bVHNode);
+		
+		final int nodeIndexR = doFlatten(treeBVHNode.getBVHNodeL(), bounds, offsets, shapes, nodeIndex + 1);
+		final int nodeIndexNext = doFlatten(treeBVHNode.getBVHNodeR(), bounds, offsets, shapes, nodeIndexR);
+		
+		offsets[nodeIndex * 2 + 0] = nodeIndexR;
+		offsets[nodeIndex * 2 + 1] = -1;
+		
+		return nodeIndexNext;
+	}
+	
+	private static void doCount(final BVHNode3D bVHNode, final int depth, final int[] counts) {
+		counts[0]++;
+		counts[2] = Ints.max(counts[2], depth);
+		
+		if(bVHNode instanceof LeafBVHNode3D) {
+			counts[1] += LeafBVHNode3D.class.cast(bVHNode).getShapeCount();
+		} else if(bVHNode instanceof TreeBVHNode3D) {
+			doCount(TreeBVHNode3D.class.cast(bVHNode).getBVHNodeL(), depth + 1, counts);
+			doCount(TreeBVHNode3D.class.cast(bVHNode).getBVHNodeR(), depth + 1, counts);
+		} else {
+			throw new IllegalArgumentException(String.format("The BVHNode3D %s is not supported.", bVHNode.getClass().getName()));
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Packet {
+		private final Ray3D[] rays;
+		private final boolean isCoherent;
+		private final double[] data;
+		private final double[] interval;
+		private final int mask;
+		
+		public Packet(final RayPacket3D rayPacket) {
+			final int size = rayPacket.getSize();
+			
+			this.rays = new Ray3D[size];
+			this.data = new double[size * 8];
+//			The interval contains the minimum and maximum origins, the minimum and maximum reciprocal directions, the minimum of the minimum parametric distances and the maximum of the maximum parametric distances of all active lanes:
+			this.interval = new double[] {Doubles.MAX_VALUE, Doubles.MAX_VALUE, Doubles.MAX_VALUE, Doubles.MIN_VALUE, Doubles.MIN_VALUE, Doubles.MIN_VALUE, Doubles.MAX_VALUE, Doubles.MAX_VALUE, Doubles.MAX_VALUE, Doubles.MIN_VALUE, Doubles.MIN_VALUE, Doubles.MIN_VALUE, Doubles.MAX_VALUE, Doubles.MIN_VALUE};
+			this.mask = rayPacket.getMask();
+			
+			boolean isCoherent = this.mask != 0;
+			
+			for(int laneMask = this.mask; laneMask != 0; laneMask &= laneMask - 1) {
+				final int lane = Integer.numberOfTrailingZeros(laneMask);
+				
+				final Ray3D ray = rayPacket.getRay(lane);
+				
+				final Point3D origin = ray.getOrigin();
+				
+				final Vector3D direction = ray.getDirection();
+				
+				final double[] values = new double[] {origin.x, origin.y, origin.z, 1.0D / direction.x, 1.0D / direction.y, 1.0D / direction.z, rayPacket.getTMinimum(lane), rayPacket.getTMaximum(lane)};
+				
+				this.rays[lane] = ray;
+				
+				System.arraycopy(values, 0, this.data, lane * 8, 8);
+				
+				for(int i = 0; i < 3; i++) {
+					this.interval[i + 0] = Doubles.min(this.interval[i + 0], values[i + 0]);
+					this.interval[i + 3] = Doubles.max(this.interval[i + 3], values[i + 0]);
+					this.interval[i + 6] = Doubles.min(this.interval[i + 6], values[i + 3]);
+					this.interval[i + 9] = Doubles.max(this.interval[i + 9], values[i + 3]);
+				}
+				
+				this.interval[12] = Doubles.min(this.interval[12], values[6]);
+				this.interval[13] = Doubles.max(this.interval[13], values[7]);
+				
+				for(int i = 3; i < 6; i++) {
+					if(Doubles.isInfinite(values[i]) || Doubles.isNaN(values[i])) {
+						isCoherent = false;
+					}
+				}
+			}
+			
+			for(int i = 6; i < 9; i++) {
+				if(!(this.interval[i] > 0.0D) && !(this.interval[i + 3] < 0.0D)) {
+					isCoherent = false;
+				}
+			}
+			
+			this.isCoherent = isCoherent;
+		}
+		
+		public Ray3D getRay(final int lane) {
+			return this.rays[lane];
+		}
+		
+		public boolean isBefore(final int lane, final double[] bounds, final int offsetA, final int offsetB) {
+			final double deltaX = (bounds[offsetA + 0] + bounds[offsetA + 3]) - (bounds[offsetB + 0] + bounds[offsetB + 3]);
+			final double deltaY = (bounds[offsetA + 1] + bounds[offsetA + 4]) - (bounds[offsetB + 1] + bounds[offsetB + 4]);
+			final double deltaZ = (bounds[offsetA + 2] + bounds[offsetA + 5]) - (bounds[offsetB + 2] + bounds[offsetB + 5]);
+			
+			final Vector3D direction = this.rays[lane].getDirection();
+			
+			return deltaX * direction.x + deltaY * direction.y + deltaZ * direction.z < 0.0D;
+		}
+		
+		public double getTMaximum(final int lane) {
+			return this.data[lane * 8 + 7];
+		}
+		
+		public double getTMinimum(final int lane) {
+			return this.data[lane * 8 + 6];
+		}
+		
+		public int getMask() {
+			return this.mask;
+		}
+		
+		public int intersects(final double[] bounds, final int offset, final int mask) {
+			if(mask == 0 || this.isCoherent && !doIntersectsInterval(bounds, offset)) {
+				return 0;
+			}
+			
+			int maskIntersecting = 0;
+			
+			for(int laneMask = mask; laneMask != 0; laneMask &= laneMask - 1) {
+				final int lane = Integer.numberOfTrailingZeros(laneMask);
+				
+				if(doIntersectsLane(bounds, offset, lane)) {
+					maskIntersecting |= 1 << lane;
+				}
+			}
+			
+			return maskIntersecting;
+		}
+		
+		public void setTMaximum(final int lane, final double tMaximum) {
+			this.data[lane * 8 + 7] = tMaximum;
+		}
+		
+		private boolean doIntersectsInterval(final double[] bounds, final int offset) {
+//			The parametric distances of all lanes to the planes of each slab are bounded using interval arithmetic, based on the bounds of the origins and the reciprocal directions of the lanes. If the lower bound of the entry distance is greater than the upper bound of the exit
+//			distance, no lane can intersect the node. The reciprocal directions are finite and have the same sign on each axis for all lanes, so the bounds are finite and tight:
+			double tNear = this.interval[12];
+			double tFar = this.interval[13];
+			
+			for(int i = 0; i < 3; i++) {
+				final double originMinimum = this.interval[i + 0];
+				final double originMaximum = this.interval[i + 3];
+				
+				final double directionReciprocalMinimum = this.interval[i + 6];
+				final double directionReciprocalMaximum = this.interval[i + 9];
+				
+				final double a0 = bounds[offset + i + 0] - originMaximum;
+				final double a1 = bounds[offset + i + 0] - originMinimum;
+				final double b0 = bounds[offset + i + 3] - originMaximum;
+				final double b1 = bounds[offset + i + 3] - originMinimum;
+				
+				final double tNearAxis = directionReciprocalMinimum > 0.0D ? Doubles.min(a0 * directionReciprocalMinimum, a0 * directionReciprocalMaximum) : Doubles.min(b1 * directionReciprocalMinimum, b1 * directionReciprocalMaximum);
+				final double tFarAxis = directionReciprocalMinimum > 0.0D ? Doubles.max(b1 * directionReciprocalMinimum, b1 * directionReciprocalMaximum) : Doubles.max(a0 * directionReciprocalMinimum, a0 * directionReciprocalMaximum);
+				
+				tNear = tNearAxis > tNear ? tNearAxis : tNear;
+				tFar = tFarAxis < tFar ? tFarAxis : tFar;
+			}
+			
+			return tNear <= tFar;
+		}
+		
+		private boolean doIntersectsLane(final double[] bounds, final int offset, final int lane) {
+			final int index = lane * 8;
+			
+			final double originX = this.data[index + 0];
+			final double originY = this.data[index + 1];
+			final double originZ = this.data[index + 2];
+			
+			final double directionReciprocalX = this.data[index + 3];
+			final double directionReciprocalY = this.data[index + 4];
+			final double directionReciprocalZ = this.data[index + 5];
+			
+			return !Doubles.isNaN(TraversalRay3D.intersectionEntry(originX, originY, originZ, directionReciprocalX, directionReciprocalY, directionReciprocalZ, bounds[offset + 0], bounds[offset + 1], bounds[offset + 2], bounds[offset + 3], bounds[offset + 4], bounds[offset + 5], this.data[index + 6], this.data[index + 7]));
+		}
+	}
+}
\ No newline at end of file
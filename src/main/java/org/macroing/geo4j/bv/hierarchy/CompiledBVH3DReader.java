@@ -0,0 +1,373 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Objects;
+
+import org.macroing.geo4j.shape.Shape3D;
+import org.macroing.geo4j.shape.Shape3DReader;
+import org.macroing.java.lang.Ints;
+
+/**
+ * A {@code CompiledBVH3DReader} is used for reading {@link CompiledBVH3D} instances from a {@code DataInput} or {@code FileChannel} instance.
+ * <p>
+ * The {@code CompiledBVH3D} instances are read in the format written by {@link CompiledBVH3D#write(java.io.DataOutput)}. The bounds and offsets of the nodes are read directly, so the bounding volume hierarchy (BVH) structure is not rebuilt. The {@link Shape3D} instances are read by a
+ * {@link Shape3DReader} instance.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class CompiledBVH3DReader {
+	private final Shape3DReader shape3DReader;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code CompiledBVH3DReader} instance.
+	 * <p>
+	 * If {@code shape3DReader} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param shape3DReader the {@link Shape3DReader} instance that is used for reading the {@link Shape3D} instances
+	 * @throws NullPointerException thrown if, and only if, {@code shape3DReader} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public CompiledBVH3DReader(final Shape3DReader shape3DReader) {
+		this.shape3DReader = Objects.requireNonNull(shape3DReader, "shape3DReader == null");
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Reads a {@link CompiledBVH3D} instance from {@code dataInput}.
+	 * <p>
+	 * Returns the {@code CompiledBVH3D} instance that was read.
+	 * <p>
+	 * If {@code dataInput} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either the ID or the data is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
+	 * 
+	 * @param dataInput the {@code DataInput} instance to read from
+	 * @return the {@code CompiledBVH3D} instance that was read
+	 * @throws IllegalArgumentException thrown if, and only if, either the ID or the data is invalid
+	 * @throws NullPointerException thrown if, and only if, {@code dataInput} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+//	TODO: Add Unit Tests!
+	public CompiledBVH3D read(final DataInput dataInput) {
+		try {
+			return read(dataInput, dataInput.readInt());
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Reads a {@link CompiledBVH3D} instance from {@code dataInput}.
+	 * <p>
+	 * Returns the {@code CompiledBVH3D} instance that was read.
+	 * <p>
+	 * If {@code dataInput} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code id} or the data is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
+	 * <p>
+	 * The ID of the {@code CompiledBVH3D} instance to read has already been read from {@code dataInput} when this method is called. It is passed to this method as a parameter argument.
+	 * 
+	 * @param dataInput the {@code DataInput} instance to read from
+	 * @param id the ID of the {@code CompiledBVH3D} to read
+	 * @return the {@code CompiledBVH3D} instance that was read
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code id} or the data is invalid
+	 * @throws NullPointerException thrown if, and only if, {@code dataInput} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+//	TODO: Add Unit Tests!
+	public CompiledBVH3D read(final DataInput dataInput, final int id) {
+		Objects.requireNonNull(dataInput, "dataInput == null");
+		
+		Ints.requireExact(id, CompiledBVH3D.ID, "id");
+		
+		try {
+			final int nodeCount = Ints.requireRange(dataInput.readInt(), 1, Integer.MAX_VALUE / 6, "nodeCount");
+			final int shapeCount = Ints.requireRange(dataInput.readInt(), 0, Integer.MAX_VALUE, "shapeCount");
+			final int stackSize = Ints.requireRange(dataInput.readInt(), 1, nodeCount, "stackSize");
+			
+			final double[] bounds = new double[nodeCount * 6];
+			
+			final int[] offsets = new int[nodeCount * 2];
+			
+			for(int i = 0; i < bounds.length; i++) {
+				bounds[i] = dataInput.readDouble();
+			}
+			
+			for(int i = 0; i < offsets.length; i++) {
+				offsets[i] = dataInput.readInt();
+			}
+			
+			return doRead(dataInput, bounds, offsets, shapeCount, stackSize);
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Reads a {@link CompiledBVH3D} instance from {@code fileChannel}.
+	 * <p>
+	 * Returns the {@code CompiledBVH3D} instance that was read.
+	 * <p>
+	 * If {@code fileChannel} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either the ID or the data is invalid, or the remaining size of {@code fileChannel} is greater than {@code Integer.MAX_VALUE}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
+	 * <p>
+	 * The region of {@code fileChannel} from its current position to its end is memory-mapped, so {@code fileChannel} has to be opened for reading. The bounds and offsets of the nodes are copied directly from the mapped region. After the {@code CompiledBVH3D} instance has been read, the
+	 * position of {@code fileChannel} is set to the byte that follows it.
+	 * 
+	 * @param fileChannel the {@code FileChannel} instance to read from
+	 * @return the {@code CompiledBVH3D} instance that was read
+	 * @throws IllegalArgumentException thrown if, and only if, either the ID or the data is invalid, or the remaining size of {@code fileChannel} is greater than {@code Integer.MAX_VALUE}
+	 * @throws NullPointerException thrown if, and only if, {@code fileChannel} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+//	TODO: Add Unit Tests!
+	public CompiledBVH3D read(final FileChannel fileChannel) {
+		Objects.requireNonNull(fileChannel, "fileChannel == null");
+		
+		try {
+			final long position = fileChannel.position();
+			final long size = fileChannel.size() - position;
+			
+			if(size > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException(String.format("The size %d is too large to be memory-mapped.", Long.valueOf(size)));
+			}
+			
+			final MappedByteBuffer mappedByteBuffer = fileChannel.map(MapMode.READ_ONLY, position, size);
+			
+			Ints.requireExact(mappedByteBuffer.getInt(), CompiledBVH3D.ID, "id");
+			
+			final int nodeCount = Ints.requireRange(mappedByteBuffer.getInt(), 1, Integer.MAX_VALUE / 6, "nodeCount");
+			final int shapeCount = Ints.requireRange(mappedByteBuffer.getInt(), 0, Integer.MAX_VALUE, "shapeCount");
+			final int stackSize = Ints.requireRange(mappedByteBuffer.getInt(), 1, nodeCount, "stackSize");
+			
+			final double[] bounds = new double[nodeCount * 6];
+			
+			final int[] offsets = new int[nodeCount * 2];
+			
+			if((long)(bounds.length) * Double.BYTES + (long)(offsets.length) * Integer.BYTES > mappedByteBuffer.remaining()) {
+				throw new IllegalArgumentException(String.format("The node count %d is too large for the size %d.", Integer.valueOf(nodeCount), Long.valueOf(size)));
+			}
+			
+			mappedByteBuffer.asDoubleBuffer().get(bounds);
+			mappedByteBuffer.position(mappedByteBuffer.position() + bounds.length * Double.BYTES);
+			mappedByteBuffer.asIntBuffer().get(offsets);
+			mappedByteBuffer.position(mappedByteBuffer.position() + offsets.length * Integer.BYTES);
+			
+			final CompiledBVH3D compiledBVH = doRead(new ByteBufferDataInput(mappedByteBuffer), bounds, offsets, shapeCount, stackSize);
+			
+			fileChannel.position(position + mappedByteBuffer.position());
+			
+			return compiledBVH;
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private CompiledBVH3D doRead(final DataInput dataInput, final double[] bounds, final int[] offsets, final int shapeCount, final int stackSize) {
+		final int nodeCount = offsets.length / 2;
+		
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++) {
+			final int offset = offsets[nodeIndex * 2 + 0];
+			final int count = offsets[nodeIndex * 2 + 1];
+			
+			if(count < 0 ? count != -1 || offset <= nodeIndex + 1 || offset >= nodeCount : offset < 0 || offset > shapeCount - count) {
+				throw new IllegalArgumentException(String.format("The node at index %d is invalid.", Integer.valueOf(nodeIndex)));
+			}
+		}
+		
+		final int depth = doComputeDepth(offsets);
+		
+		if(stackSize < depth) {
+			throw new IllegalArgumentException(String.format("The stack size %d is less than the depth %d.", Integer.valueOf(stackSize), Integer.valueOf(depth)));
+		}
+		
+		final Shape3D[] shapes = new Shape3D[shapeCount];
+		
+		for(int i = 0; i < shapeCount; i++) {
+			shapes[i] = this.shape3DReader.read(dataInput);
+		}
+		
+		return new CompiledBVH3D(shapes, bounds, offsets, stackSize);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static int doComputeDepth(final int[] offsets) {
+		final int nodeCount = offsets.length / 2;
+		
+		final int[] depths = new int[nodeCount];
+		
+		depths[0] = 1;
+		
+		int depth = 1;
+		
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++) {
+			final int offset = offsets[nodeIndex * 2 + 0];
+			final int count = offsets[nodeIndex * 2 + 1];
+			
+			if(count < 0 && depths[nodeIndex] > 0) {
+				depths[nodeIndex + 1] = Ints.max(depths[nodeIndex + 1], depths[nodeIndex] + 1);
+				depths[offset] = Ints.max(depths[offset], depths[nodeIndex] + 1);
+				
+				depth = Ints.max(depth, depths[nodeIndex] + 1);
+			}
+		}
+		
+		return depth;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class ByteBufferDataInput implements DataInput {
+		private final ByteBuffer byteBuffer;
+		
+		public ByteBufferDataInput(final ByteBuffer byteBuffer) {
+			this.byteBuffer = byteBuffer;
+		}
+		
+		@Override
+		public String readLine() {
+			throw new UnsupportedOperationException("Reading a line is not supported by a memory-mapped CompiledBVH3D.");
+		}
+		
+		@Override
+		public String readUTF() throws IOException {
+			return DataInputStream.readUTF(this);
+		}
+		
+		@Override
+		public boolean readBoolean() throws IOException {
+			return readByte() != 0;
+		}
+		
+		@Override
+		public byte readByte() throws IOException {
+			doRequireRemaining(Byte.BYTES);
+			
+			return this.byteBuffer.get();
+		}
+		
+		@Override
+		public char readChar() throws IOException {
+			doRequireRemaining(Character.BYTES);
+			
+			return this.byteBuffer.getChar();
+		}
+		
+		@Override
+		public double readDouble() throws IOException {
+			doRequireRemaining(Double.BYTES);
+			
+			return this.byteBuffer.getDouble();
+		}
+		
+		@Override
+		public float readFloat() throws IOException {
+			doRequireRemaining(Float.BYTES);
+			
+			return this.byteBuffer.getFloat();
+		}
+		
+		@Override
+		public int readInt() throws IOException {
+			doRequireRemaining(Integer.BYTES);
+			
+			return this.byteBuffer.getInt();
+		}
+		
+		@Override
+		public int readUnsignedByte() throws IOException {
+			return readByte() & 0xFF;
+		}
+		
+		@Override
+		public int readUnsignedShort() throws IOException {
+			return readShort() & 0xFFFF;
+		}
+		
+		@Override
+		public int skipBytes(final int n) {
+			final int count = Ints.max(Ints.min(n, this.byteBuffer.remaining()), 0);
+			
+			this.byteBuffer.position(this.byteBuffer.position() + count);
+			
+			return count;
+		}
+		
+		@Override
+		public long readLong() throws IOException {
+			doRequireRemaining(Long.BYTES);
+			
+			return this.byteBuffer.getLong();
+		}
+		
+		@Override
+		public short readShort() throws IOException {
+			doRequireRemaining(Short.BYTES);
+			
+			return this.byteBuffer.getShort();
+		}
+		
+		@Override
+		public void readFully(final byte[] bytes) throws IOException {
+			readFully(bytes, 0, bytes.length);
+		}
+		
+		@Override
+		public void readFully(final byte[] bytes, final int offset, final int length) throws IOException {
+			if(offset < 0 || length < 0 || offset > bytes.length - length) {
+				throw new IndexOutOfBoundsException(String.format("Range [%d, %d + %d) out of bounds for length %d", Integer.valueOf(offset), Integer.valueOf(offset), Integer.valueOf(length), Integer.valueOf(bytes.length)));
+			}
+			
+			doRequireRemaining(length);
+			
+			this.byteBuffer.get(bytes, offset, length);
+		}
+		
+		private void doRequireRemaining(final int length) throws EOFException {
+			if(this.byteBuffer.remaining() < length) {
+				throw new EOFException();
+			}
+		}
+	}
+}
\ No newline at end of file
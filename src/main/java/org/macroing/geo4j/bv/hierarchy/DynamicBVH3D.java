@@ -0,0 +1,1101 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.ray.TraversalRay3D;
+import org.macroing.geo4j.shape.Shape3D;
+import org.macroing.geo4j.shape.SurfaceIntersection3D;
+import org.macroing.geo4j.shape.SurfaceIntersector3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+import org.macroing.java.util.Lists;
+
+/**
+ * A {@code DynamicBVH3D} is a {@code double}-based bounding volume hierarchy (BVH) structure that can be updated when its {@link Shape3D} instances change.
+ * <p>
+ * Each leaf node contains exactly one {@code Shape3D} instance. The nodes are stored in primitive arrays and the traversal is performed iteratively, visiting the nearer child node first.
+ * <p>
+ * A {@code Shape3D} instance is changed by replacing it using {@link #setShape(int, Shape3D)}. This updates the bounds of its leaf node. The bounds of the tree nodes above it are updated by calling {@link #refit()} or {@link #refit(boolean)}. Until then, the intersection methods may miss the
+ * changed {@code Shape3D} instances. The refit operation may optionally perform tree rotations on the updated tree nodes, which recovers some of the quality that is lost when the {@code Shape3D} instances move.
+ * <p>
+ * A {@code Shape3D} instance is added using {@link #add(Shape3D)} and removed using {@link #remove(int)}, without rebuilding the hierarchy. When a {@code Shape3D} instance is added, the node that becomes its sibling is selected using the surface area heuristic (SAH) and a
+ * branch-and-bound search. When a {@code Shape3D} instance is removed, its parent node is collapsed and replaced by its sibling. The index of a removed {@code Shape3D} instance may be reused by a {@code Shape3D} instance that is added later.
+ * <p>
+ * The quality of the bounding volume hierarchy (BVH) structure is tracked using the surface area heuristic (SAH). If {@link #isRebuildRecommended()} returns {@code true}, the cost has grown so much compared to the last build that a call to {@link #rebuild()} is likely to pay off.
+ * <p>
+ * The traversal stacks and the {@link TraversalRay3D} instance used by the intersection methods are stored in the {@code DynamicBVH3D} instance and reused by every query, so a query does not allocate them. Because of this, the intersection methods must not be called
+ * concurrently either.
+ * <p>
+ * This class is mutable and not thread-safe.
+ * 
+ * @param <T> the generic {@code Shape3D} type to use
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class DynamicBVH3D<T extends Shape3D> {
+	/**
+	 * The default ratio between the current cost and the cost after the last build, above which a rebuild is recommended.
+	 */
+	public static final double DEFAULT_REBUILD_THRESHOLD = 1.5D;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final int NODE_FREE = -2;
+	private static final int NODE_NONE = -1;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final List<T> shapes;
+	private boolean[] isRefitting;
+	private TraversalRay3D traversalRay;
+	private double costAfterBuild;
+	private double surfaceAreaLeaves;
+	private double surfaceAreaTrees;
+	private double[] bounds;
+	private double[] stackT;
+	private int freeNodeCount;
+	private int freeShapeIndexCount;
+	private int nodeCount;
+	private int nodeLimit;
+	private int refitLeafCount;
+	private int root;
+	private int shapeCount;
+	private int[] childrenL;
+	private int[] childrenR;
+	private int[] freeNodes;
+	private int[] freeShapeIndices;
+	private int[] leaves;
+	private int[] parents;
+	private int[] refitLeaves;
+	private int[] stack;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new empty {@code DynamicBVH3D} instance.
+	 */
+//	TODO: Add Unit Tests!
+	public DynamicBVH3D() {
+		this(new ArrayList<>());
+	}
+	
+	/**
+	 * Constructs a new {@code DynamicBVH3D} instance that contains the {@link Shape3D} instances in {@code shapes}.
+	 * <p>
+	 * The index of a {@code Shape3D} instance in {@code shapes} is its index in this {@code DynamicBVH3D} instance.
+	 * <p>
+	 * If either {@code shapes} or at least one of its elements are {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param shapes a {@code List} of {@code Shape3D} instances
+	 * @throws NullPointerException thrown if, and only if, either {@code shapes} or at least one of its elements are {@code null}
+	 */
+	public DynamicBVH3D(final List<T> shapes) {
+		this.shapes = new ArrayList<>(Lists.requireNonNull(shapes, "shapes"));
+		this.freeShapeIndices = new int[0];
+		this.freeShapeIndexCount = 0;
+		this.stack = new int[64];
+		this.stackT = new double[64];
+		
+		rebuild();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns the {@link BoundingVolume3D} instance that contains this {@code DynamicBVH3D} instance.
+	 * 
+	 * @return the {@code BoundingVolume3D} instance that contains this {@code DynamicBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public BoundingVolume3D getBoundingVolume() {
+		if(this.root == NODE_NONE) {
+			return new AxisAlignedBoundingBox3D(new Point3D(), new Point3D());
+		}
+		
+		final int offset = this.root * 6;
+		
+		return new AxisAlignedBoundingBox3D(new Point3D(this.bounds[offset + 3], this.bounds[offset + 4], this.bounds[offset + 5]), new Point3D(this.bounds[offset + 0], this.bounds[offset + 1], this.bounds[offset + 2]));
+	}
+	
+	/**
+	 * Returns a {@code List} with all {@link Shape3D} instances associated with this {@code DynamicBVH3D} instance.
+	 * <p>
+	 * The {@code Shape3D} instances are returned in the order of their indices. Removed {@code Shape3D} instances are skipped, so the index of a {@code Shape3D} instance in the returned {@code List} is not necessarily its index in this {@code DynamicBVH3D} instance.
+	 * <p>
+	 * Modification to the returned {@code List} will not affect this {@code DynamicBVH3D} instance.
+	 * 
+	 * @return a {@code List} with all {@code Shape3D} instances associated with this {@code DynamicBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public List<T> getShapes() {
+		final List<T> shapes = new ArrayList<>(this.shapeCount);
+		
+		for(final T shape : this.shapes) {
+			if(shape != null) {
+				shapes.add(shape);
+			}
+		}
+		
+		return shapes;
+	}
+	
+	/**
+	 * Performs an intersection test between {@code ray} and this {@code DynamicBVH3D} instance.
+	 * <p>
+	 * Returns an {@code Optional} with an optional {@link SurfaceIntersection3D} instance that contains information about the intersection, if it was found.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code DynamicBVH3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return an {@code Optional} with an optional {@code SurfaceIntersection3D} instance that contains information about the intersection, if it was found
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public Optional<SurfaceIntersection3D> intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final int shapeIndex = doIntersection(Objects.requireNonNull(ray, "ray == null"), null, new double[] {tMinimum, tMaximum}, false);
+		
+		return shapeIndex >= 0 ? this.shapes.get(shapeIndex).intersection(ray, tMinimum, tMaximum) : SurfaceIntersection3D.EMPTY;
+	}
+	
+	/**
+	 * Returns the {@link Shape3D} instance at index {@code index}.
+	 * <p>
+	 * If there is no {@code Shape3D} instance at index {@code index}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param index the index of the {@code Shape3D} instance
+	 * @return the {@code Shape3D} instance at index {@code index}
+	 * @throws IllegalArgumentException thrown if, and only if, there is no {@code Shape3D} instance at index {@code index}
+	 */
+//	TODO: Add Unit Tests!
+	public T getShape(final int index) {
+		return this.shapes.get(doRequireShapeIndex(index));
+	}
+	
+	/**
+	 * Removes the {@link Shape3D} instance at index {@code index} from this {@code DynamicBVH3D} instance.
+	 * <p>
+	 * Returns the removed {@code Shape3D} instance.
+	 * <p>
+	 * The parent node of the leaf node of the removed {@code Shape3D} instance is replaced by its sibling node and the bounds of the tree nodes above it are updated.
+	 * <p>
+	 * Any pending refit is performed first, so the bounds of the tree nodes are up to date before the tree is modified.
+	 * <p>
+	 * If there is no {@code Shape3D} instance at index {@code index}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param index the index of the {@code Shape3D} instance
+	 * @return the removed {@code Shape3D} instance
+	 * @throws IllegalArgumentException thrown if, and only if, there is no {@code Shape3D} instance at index {@code index}
+	 */
+	public T remove(final int index) {
+		final T shape = this.shapes.get(doRequireShapeIndex(index));
+		
+		final int leaf = this.leaves[index];
+		
+		doRefitPending();
+		
+		doRemoveLeaf(leaf);
+		
+		this.surfaceAreaLeaves -= doComputeSurfaceArea(leaf);
+		
+		doFreeNode(leaf);
+		
+		this.shapes.set(index, null);
+		this.leaves[index] = NODE_NONE;
+		this.shapeCount--;
+		
+		if(this.freeShapeIndexCount == this.freeShapeIndices.length) {
+			this.freeShapeIndices = Arrays.copyOf(this.freeShapeIndices, Ints.max(this.freeShapeIndexCount * 2, 16));
+		}
+		
+		this.freeShapeIndices[this.freeShapeIndexCount++] = index;
+		
+		return shape;
+	}
+	
+	/**
+	 * Performs an intersection test between {@code surfaceIntersector} and this {@code DynamicBVH3D} instance.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code DynamicBVH3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code surfaceIntersector} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param surfaceIntersector a {@link SurfaceIntersector3D} instance
+	 * @return {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code DynamicBVH3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code surfaceIntersector} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public boolean intersection(final SurfaceIntersector3D surfaceIntersector) {
+		return doIntersection(surfaceIntersector.getRay(), surfaceIntersector, null, false) >= 0;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, {@code ray} intersects this {@code DynamicBVH3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code DynamicBVH3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code true} if, and only if, {@code ray} intersects this {@code DynamicBVH3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+	public boolean intersects(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		return doIntersection(Objects.requireNonNull(ray, "ray == null"), null, new double[] {tMinimum, tMaximum}, true) >= 0;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the cost of this {@code DynamicBVH3D} instance has grown so much that a rebuild is recommended, {@code false} otherwise.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * dynamicBVH.isRebuildRecommended(DynamicBVH3D.DEFAULT_REBUILD_THRESHOLD);
+	 * }
+	 * </pre>
+	 * 
+	 * @return {@code true} if, and only if, the cost of this {@code DynamicBVH3D} instance has grown so much that a rebuild is recommended, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	public boolean isRebuildRecommended() {
+		return isRebuildRecommended(DEFAULT_REBUILD_THRESHOLD);
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the cost of this {@code DynamicBVH3D} instance has grown so much that a rebuild is recommended, {@code false} otherwise.
+	 * <p>
+	 * A rebuild is recommended if the current cost is greater than the cost after the last build multiplied by {@code rebuildThreshold}.
+	 * 
+	 * @param rebuildThreshold the ratio between the current cost and the cost after the last build, above which a rebuild is recommended
+	 * @return {@code true} if, and only if, the cost of this {@code DynamicBVH3D} instance has grown so much that a rebuild is recommended, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	public boolean isRebuildRecommended(final double rebuildThreshold) {
+		return getCost() > this.costAfterBuild * rebuildThreshold;
+	}
+	
+	/**
+	 * Returns the cost of this {@code DynamicBVH3D} instance according to the surface area heuristic (SAH).
+	 * <p>
+	 * The cost is the expected cost of tracing a ray that intersects the root node, using {@link SAHBVHBuilder3D#DEFAULT_COST_INTERSECTION} and {@link SAHBVHBuilder3D#DEFAULT_COST_TRAVERSAL}. It is only accurate after a refit.
+	 * 
+	 * @return the cost of this {@code DynamicBVH3D} instance according to the surface area heuristic (SAH)
+	 */
+//	TODO: Add Unit Tests!
+	public double getCost() {
+		if(this.root == NODE_NONE) {
+			return 0.0D;
+		}
+		
+		final double surfaceArea = doComputeSurfaceArea(this.root);
+		
+		return surfaceArea > 0.0D ? (SAHBVHBuilder3D.DEFAULT_COST_TRAVERSAL * this.surfaceAreaTrees + SAHBVHBuilder3D.DEFAULT_COST_INTERSECTION * this.surfaceAreaLeaves) / surfaceArea : 0.0D;
+	}
+	
+	/**
+	 * Performs an intersection test between {@code ray} and this {@code DynamicBVH3D} instance.
+	 * <p>
+	 * Returns {@code t}, the parametric distance to the surface intersection point, or {@code Double.NaN} if no intersection exists.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code DynamicBVH3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code t}, the parametric distance to the surface intersection point, or {@code Double.NaN} if no intersection exists
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+	public double intersectionT(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final double[] tBounds = new double[] {tMinimum, tMaximum};
+		
+		return doIntersection(Objects.requireNonNull(ray, "ray == null"), null, tBounds, false) >= 0 ? tBounds[1] : Double.NaN;
+	}
+	
+	/**
+	 * Returns the node count of this {@code DynamicBVH3D} instance.
+	 * 
+	 * @return the node count of this {@code DynamicBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getNodeCount() {
+		return this.nodeCount;
+	}
+	
+	/**
+	 * Returns the {@link Shape3D} instance count of this {@code DynamicBVH3D} instance.
+	 * 
+	 * @return the {@code Shape3D} instance count of this {@code DynamicBVH3D} instance
+	 */
+	public int getShapeCount() {
+		return this.shapeCount;
+	}
+	
+	/**
+	 * Adds {@code shape} to this {@code DynamicBVH3D} instance.
+	 * <p>
+	 * Returns the index of {@code shape}.
+	 * <p>
+	 * The sibling node of the new leaf node is the node that minimizes the increase in cost according to the surface area heuristic (SAH). It is found using a branch-and-bound search, which skips all subtrees whose lower bound on the cost is not less than the best cost found so far. The
+	 * bounds of the tree nodes above the new leaf node are updated and tree rotations are performed on them.
+	 * <p>
+	 * Any pending refit is performed first, so the bounds of the tree nodes are up to date before the tree is modified.
+	 * <p>
+	 * If {@code shape} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param shape the {@link Shape3D} instance to add
+	 * @return the index of {@code shape}
+	 * @throws NullPointerException thrown if, and only if, {@code shape} is {@code null}
+	 */
+	public int add(final T shape) {
+		Objects.requireNonNull(shape, "shape == null");
+		
+		doRefitPending();
+		
+		final int index;
+		
+		if(this.freeShapeIndexCount > 0) {
+			index = this.freeShapeIndices[--this.freeShapeIndexCount];
+			
+			this.shapes.set(index, shape);
+		} else {
+			index = this.shapes.size();
+			
+			this.shapes.add(shape);
+			
+			if(index == this.leaves.length) {
+				this.leaves = Arrays.copyOf(this.leaves, Ints.max(index * 2, 16));
+				this.refitLeaves = Arrays.copyOf(this.refitLeaves, Ints.max(index * 2, 16));
+			}
+		}
+		
+		final int leaf = doAllocateNode();
+		
+		this.childrenL[leaf] = NODE_NONE;
+		this.childrenR[leaf] = index;
+		this.leaves[index] = leaf;
+		this.shapeCount++;
+		
+		doSetBounds(leaf, shape.getBoundingVolume());
+		
+		this.surfaceAreaLeaves += doComputeSurfaceArea(leaf);
+		
+		doInsertLeaf(leaf);
+		
+		return index;
+	}
+	
+	/**
+	 * Rebuilds this {@code DynamicBVH3D} instance from scratch using a {@link SAHBVHBuilder3D} instance.
+	 * <p>
+	 * Any pending refit is discarded, as the rebuild uses the current {@link Shape3D} instances. The indices of the {@code Shape3D} instances are retained.
+	 */
+//	TODO: Add Unit Tests!
+	public void rebuild() {
+		final int size = this.shapes.size();
+		
+		final List<BVHItem3D<T>> processableBVHItems = new ArrayList<>(size);
+		
+		final Map<Shape3D, Deque<Integer>> shapeIndices = new IdentityHashMap<>();
+		
+		for(int i = 0; i < size; i++) {
+			final T shape = this.shapes.get(i);
+			
+			if(shape != null) {
+				processableBVHItems.add(new BVHItem3D<>(shape.getBoundingVolume(), shape));
+				
+				shapeIndices.computeIfAbsent(shape, key -> new ArrayDeque<>()).add(Integer.valueOf(i));
+			}
+		}
+		
+		final int capacity = Ints.max(processableBVHItems.size() * 2 - 1, 16);
+		
+		this.isRefitting = new boolean[capacity];
+		this.bounds = new double[capacity * 6];
+		this.childrenL = new int[capacity];
+		this.childrenR = new int[capacity];
+		this.freeNodes = new int[0];
+		this.freeNodeCount = 0;
+		this.leaves = new int[Ints.max(size, 16)];
+		this.parents = new int[capacity];
+		this.refitLeaves = new int[Ints.max(size, 16)];
+		this.refitLeafCount = 0;
+		this.nodeCount = 0;
+		this.nodeLimit = 0;
+		this.root = NODE_NONE;
+		this.shapeCount = processableBVHItems.size();
+		
+		Arrays.fill(this.leaves, NODE_NONE);
+		
+		if(this.shapeCount > 0) {
+			final BVHNode3D bVHNode = new SAHBVHBuilder3D(SAHBVHBuilder3D.DEFAULT_BIN_COUNT, SAHBVHBuilder3D.DEFAULT_COST_INTERSECTION, SAHBVHBuilder3D.DEFAULT_COST_TRAVERSAL, 1).build(processableBVHItems);
+			
+			this.root = doConvert(bVHNode, shapeIndices, NODE_NONE);
+		}
+		
+		doComputeSurfaceAreas();
+		
+		this.costAfterBuild = getCost();
+	}
+	
+	/**
+	 * Updates the bounds of all tree nodes whose descendant {@link Shape3D} instances have changed since the last refit or build.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * dynamicBVH.refit(false);
+	 * }
+	 * </pre>
+	 */
+//	TODO: Add Unit Tests!
+	public void refit() {
+		refit(false);
+	}
+	
+	/**
+	 * Updates the bounds of all tree nodes whose descendant {@link Shape3D} instances have changed since the last refit or build.
+	 * <p>
+	 * The bounds are updated bottom-up, starting at the leaf nodes of the changed {@code Shape3D} instances and stopping at the first tree node whose bounds do not change.
+	 * <p>
+	 * If {@code isRotating} is {@code true}, tree rotations are performed on the updated tree nodes afterwards. A tree rotation swaps a child node with a grandchild node on the other side, if that reduces the surface area of the affected child node.
+	 * 
+	 * @param isRotating {@code true} if, and only if, tree rotations should be performed, {@code false} otherwise
+	 */
+	public void refit(final boolean isRotating) {
+		final int[] refitNodes = isRotating ? new int[this.nodeCount] : null;
+		
+		int refitNodeCount = 0;
+		
+		for(int i = 0; i < this.refitLeafCount; i++) {
+			final int leaf = this.refitLeaves[i];
+			
+			this.isRefitting[leaf] = false;
+			
+			int nodeIndex = this.parents[leaf];
+			
+			while(nodeIndex != NODE_NONE) {
+				final double surfaceArea = doComputeSurfaceArea(nodeIndex);
+				
+				final boolean isChanged = doUpdateBounds(nodeIndex);
+				
+				this.surfaceAreaTrees += doComputeSurfaceArea(nodeIndex) - surfaceArea;
+				
+				if(isRotating && !this.isRefitting[nodeIndex]) {
+					this.isRefitting[nodeIndex] = true;
+					
+					refitNodes[refitNodeCount++] = nodeIndex;
+				}
+				
+				if(!isChanged) {
+					break;
+				}
+				
+				nodeIndex = this.parents[nodeIndex];
+			}
+		}
+		
+		this.refitLeafCount = 0;
+		
+		for(int i = 0; i < refitNodeCount; i++) {
+			this.isRefitting[refitNodes[i]] = false;
+			
+			doRotate(refitNodes[i]);
+		}
+	}
+	
+	/**
+	 * Sets the {@link Shape3D} instance at index {@code index} to {@code shape}.
+	 * <p>
+	 * The bounds of the leaf node of {@code shape} are updated immediately, whereas the bounds of the tree nodes above it are updated by the next refit.
+	 * <p>
+	 * If {@code shape} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If there is no {@code Shape3D} instance at index {@code index}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param index the index of the {@code Shape3D} instance
+	 * @param shape the new {@code Shape3D} instance
+	 * @throws IllegalArgumentException thrown if, and only if, there is no {@code Shape3D} instance at index {@code index}
+	 * @throws NullPointerException thrown if, and only if, {@code shape} is {@code null}
+	 */
+	public void setShape(final int index, final T shape) {
+		Objects.requireNonNull(shape, "shape == null");
+		
+		this.shapes.set(doRequireShapeIndex(index), shape);
+		
+		final int leaf = this.leaves[index];
+		
+		final double surfaceArea = doComputeSurfaceArea(leaf);
+		
+		doSetBounds(leaf, shape.getBoundingVolume());
+		
+		this.surfaceAreaLeaves += doComputeSurfaceArea(leaf) - surfaceArea;
+		
+		if(!this.isRefitting[leaf]) {
+			this.isRefitting[leaf] = true;
+			
+			this.refitLeaves[this.refitLeafCount++] = leaf;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private TraversalRay3D doGetTraversalRay(final Ray3D ray) {
+		if(this.traversalRay == null) {
+			this.traversalRay = new TraversalRay3D(ray);
+		} else {
+			this.traversalRay.set(ray);
+		}
+		
+		return this.traversalRay;
+	}
+	
+	private boolean doUpdateBounds(final int nodeIndex) {
+		final int offset = nodeIndex * 6;
+		final int offsetL = this.childrenL[nodeIndex] * 6;
+		final int offsetR = this.childrenR[nodeIndex] * 6;
+		
+		final double minimumX = Doubles.min(this.bounds[offsetL + 0], this.bounds[offsetR + 0]);
+		final double minimumY = Doubles.min(this.bounds[offsetL + 1], this.bounds[offsetR + 1]);
+		final double minimumZ = Doubles.min(this.bounds[offsetL + 2], this.bounds[offsetR + 2]);
+		final double maximumX = Doubles.max(this.bounds[offsetL + 3], this.bounds[offsetR + 3]);
+		final double maximumY = Doubles.max(this.bounds[offsetL + 4], this.bounds[offsetR + 4]);
+		final double maximumZ = Doubles.max(this.bounds[offsetL + 5], this.bounds[offsetR + 5]);
+		
+		final boolean isChanged = minimumX != this.bounds[offset + 0] || minimumY != this.bounds[offset + 1] || minimumZ != this.bounds[offset + 2] || maximumX != this.bounds[offset + 3] || maximumY != this.bounds[offset + 4] || maximumZ != this.bounds[offset + 5];
+		
+		this.bounds[offset + 0] = minimumX;
+		this.bounds[offset + 1] = minimumY;
+		this.bounds[offset + 2] = minimumZ;
+		this.bounds[offset + 3] = maximumX;
+		this.bounds[offset + 4] = maximumY;
+		this.bounds[offset + 5] = maximumZ;
+		
+		return isChanged;
+	}
+	
+	private double doComputeSurfaceArea(final int nodeIndex) {
+		final int offset = nodeIndex * 6;
+		
+		return doComputeSurfaceArea(this.bounds[offset + 0], this.bounds[offset + 1], this.bounds[offset + 2], this.bounds[offset + 3], this.bounds[offset + 4], this.bounds[offset + 5]);
+	}
+	
+	private double doComputeSurfaceArea(final int nodeIndexA, final int nodeIndexB) {
+		final int offsetA = nodeIndexA * 6;
+		final int offsetB = nodeIndexB * 6;
+		
+		final double minimumX = Doubles.min(this.bounds[offsetA + 0], this.bounds[offsetB + 0]);
+		final double minimumY = Doubles.min(this.bounds[offsetA + 1], this.bounds[offsetB + 1]);
+		final double minimumZ = Doubles.min(this.bounds[offsetA + 2], this.bounds[offsetB + 2]);
+		final double maximumX = Doubles.max(this.bounds[offsetA + 3], this.bounds[offsetB + 3]);
+		final double maximumY = Doubles.max(this.bounds[offsetA + 4], this.bounds[offsetB + 4]);
+		final double maximumZ = Doubles.max(this.bounds[offsetA + 5], this.bounds[offsetB + 5]);
+		
+		return doComputeSurfaceArea(minimumX, minimumY, minimumZ, maximumX, maximumY, maximumZ);
+	}
+	
+	private double doIntersectionEntry(final int nodeIndex, final TraversalRay3D traversalRay, final double tMinimum, final double tMaximum) {
+		final int offset = nodeIndex * 6;
+		
+		return traversalRay.intersectionEntry(this.bounds[offset + 0], this.bounds[offset + 1], this.bounds[offset + 2], this.bounds[offset + 3], this.bounds[offset + 4], this.bounds[offset + 5], tMinimum, tMaximum);
+	}
+	
+	private int doConvert(final BVHNode3D bVHNode, final Map<Shape3D, Deque<Integer>> shapeIndices, final int parent) {
+		if(bVHNode instanceof TreeBVHNode3D) {
+			final TreeBVHNode3D treeBVHNode = TreeBVHNode3D.class.cast(bVHNode);
+			
+			final int nodeIndex = doAllocateNode();
+			
+			this.parents[nodeIndex] = parent;
+			this.childrenL[nodeIndex] = doConvert(treeBVHNode.getBVHNodeL(), shapeIndices, nodeIndex);
+			this.childrenR[nodeIndex] = doConvert(treeBVHNode.getBVHNodeR(), shapeIndices, nodeIndex);
+			
+			doUpdateBounds(nodeIndex);
+			
+			return nodeIndex;
+		}
+		
+		final LeafBVHNode3D<?> leafBVHNode = LeafBVHNode3D.class.cast(bVHNode);
+		
+		final List<? extends Shape3D> shapes = leafBVHNode.getShapes();
+		
+		final int[] indices = new int[shapes.size()];
+		
+		for(int i = 0; i < indices.length; i++) {
+			indices[i] = shapeIndices.get(shapes.get(i)).remove().intValue();
+		}
+		
+		return doConvert(indices, 0, indices.length, parent);
+	}
+	
+	private int doConvert(final int[] indices, final int start, final int end, final int parent) {
+		final int nodeIndex = doAllocateNode();
+		
+		this.parents[nodeIndex] = parent;
+		
+		if(end - start == 1) {
+			this.childrenL[nodeIndex] = NODE_NONE;
+			this.childrenR[nodeIndex] = indices[start];
+			
+			this.leaves[indices[start]] = nodeIndex;
+			
+			doSetBounds(nodeIndex, this.shapes.get(indices[start]).getBoundingVolume());
+			
+			return nodeIndex;
+		}
+		
+		final int middle = (start + end) >>> 1;
+		
+		this.childrenL[nodeIndex] = doConvert(indices, start, middle, nodeIndex);
+		this.childrenR[nodeIndex] = doConvert(indices, middle, end, nodeIndex);
+		
+		doUpdateBounds(nodeIndex);
+		
+		return nodeIndex;
+	}
+	
+	private int doAllocateNode() {
+		final int nodeIndex;
+		
+		if(this.freeNodeCount > 0) {
+			nodeIndex = this.freeNodes[--this.freeNodeCount];
+		} else {
+			nodeIndex = this.nodeLimit++;
+			
+			if(nodeIndex == this.parents.length) {
+				final int capacity = nodeIndex * 2;
+				
+				this.isRefitting = Arrays.copyOf(this.isRefitting, capacity);
+				this.bounds = Arrays.copyOf(this.bounds, capacity * 6);
+				this.childrenL = Arrays.copyOf(this.childrenL, capacity);
+				this.childrenR = Arrays.copyOf(this.childrenR, capacity);
+				this.parents = Arrays.copyOf(this.parents, capacity);
+			}
+		}
+		
+		this.nodeCount++;
+		
+		return nodeIndex;
+	}
+	
+	private int doIntersection(final Ray3D ray, final SurfaceIntersector3D surfaceIntersector, final double[] tBounds, final boolean isAnyHit) {
+		if(this.root == NODE_NONE) {
+			return -1;
+		}
+		
+		final TraversalRay3D traversalRay = surfaceIntersector != null ? surfaceIntersector.getTraversalRay() : doGetTraversalRay(ray);
+		
+		final double tMinimum = surfaceIntersector != null ? surfaceIntersector.getTMinimum() : tBounds[0];
+		
+		double tMaximum = surfaceIntersector != null ? surfaceIntersector.getTMaximum() : tBounds[1];
+		
+		if(Doubles.isNaN(doIntersectionEntry(this.root, traversalRay, tMinimum, tMaximum))) {
+			return -1;
+		}
+		
+		int[] stack = this.stack;
+		
+		double[] stackT = this.stackT;
+		
+		int nodeIndex = this.root;
+		int shapeIndex = -1;
+		int stackIndex = 0;
+		
+		while(true) {
+			if(this.childrenL[nodeIndex] == NODE_NONE) {
+				final int shapeIndexLeaf = this.childrenR[nodeIndex];
+				
+				final T shape = this.shapes.get(shapeIndexLeaf);
+				
+//				The leaf node is tested in one of three modes. A SurfaceIntersector3D instance records the closest intersection itself, an any-hit test returns at the first intersection and a closest-hit test shrinks tMaximum:
+				if(surfaceIntersector != null) {
+					if(shape.intersection(surfaceIntersector)) {
+						tMaximum = surfaceIntersector.getTMaximum();
+						
+						shapeIndex = shapeIndexLeaf;
+					}
+				} else if(isAnyHit) {
+					if(shape.intersects(ray, tMinimum, tMaximum)) {
+						return shapeIndexLeaf;
+					}
+				} else {
+					final double t = shape.intersectionT(ray, tMinimum, tMaximum);
+					
+					if(!Doubles.isNaN(t) && t < tMaximum) {
+						tMaximum = t;
+						
+						shapeIndex = shapeIndexLeaf;
+					}
+				}
+			} else {
+				final int nodeIndexL = this.childrenL[nodeIndex];
+				final int nodeIndexR = this.childrenR[nodeIndex];
+				
+				final double tL = doIntersectionEntry(nodeIndexL, traversalRay, tMinimum, tMaximum);
+				final double tR = doIntersectionEntry(nodeIndexR, traversalRay, tMinimum, tMaximum);
+				
+				final boolean isNearL = Doubles.isNaN(tR) || tL <= tR;
+				
+				final double tNear = isNearL ? tL : tR;
+				final double tFar = isNearL ? tR : tL;
+				
+				if(!Doubles.isNaN(tNear)) {
+					if(!Doubles.isNaN(tFar)) {
+						if(stackIndex == stack.length) {
+							this.stack = stack = Arrays.copyOf(stack, stackIndex * 2);
+							this.stackT = stackT = Arrays.copyOf(stackT, stackIndex * 2);
+						}
+						
+						stack[stackIndex] = isNearL ? nodeIndexR : nodeIndexL;
+						stackT[stackIndex] = tFar;
+						
+						stackIndex++;
+					}
+					
+					nodeIndex = isNearL ? nodeIndexL : nodeIndexR;
+					
+					continue;
+				}
+			}
+			
+			while(stackIndex > 0 && stackT[stackIndex - 1] > tMaximum) {
+				stackIndex--;
+			}
+			
+			if(stackIndex == 0) {
+				break;
+			}
+			
+			nodeIndex = stack[--stackIndex];
+		}
+		
+		if(shapeIndex >= 0 && tBounds != null) {
+			tBounds[1] = tMaximum;
+		}
+		
+		return shapeIndex;
+	}
+	
+	private int doRequireShapeIndex(final int index) {
+		if(index < 0 || index >= this.shapes.size() || this.shapes.get(index) == null) {
+			throw new IllegalArgumentException(String.format("There is no Shape3D at index %d.", Integer.valueOf(index)));
+		}
+		
+		return index;
+	}
+	
+	private void doComputeSurfaceAreas() {
+		this.surfaceAreaLeaves = 0.0D;
+		this.surfaceAreaTrees = 0.0D;
+		
+		for(int nodeIndex = 0; nodeIndex < this.nodeLimit; nodeIndex++) {
+			if(this.childrenL[nodeIndex] == NODE_FREE) {
+				continue;
+			} else if(this.childrenL[nodeIndex] == NODE_NONE) {
+				this.surfaceAreaLeaves += doComputeSurfaceArea(nodeIndex);
+			} else {
+				this.surfaceAreaTrees += doComputeSurfaceArea(nodeIndex);
+			}
+		}
+	}
+	
+	private void doFreeNode(final int nodeIndex) {
+		if(this.freeNodeCount == this.freeNodes.length) {
+			this.freeNodes = Arrays.copyOf(this.freeNodes, Ints.max(this.freeNodeCount * 2, 16));
+		}
+		
+		this.childrenL[nodeIndex] = NODE_FREE;
+		this.childrenR[nodeIndex] = NODE_FREE;
+		this.parents[nodeIndex] = NODE_FREE;
+		
+		this.freeNodes[this.freeNodeCount++] = nodeIndex;
+		
+		this.nodeCount--;
+	}
+	
+	private void doInsertLeaf(final int leaf) {
+		if(this.root == NODE_NONE) {
+			this.parents[leaf] = NODE_NONE;
+			
+			this.root = leaf;
+			
+			return;
+		}
+		
+		final double surfaceAreaLeaf = doComputeSurfaceArea(leaf);
+		
+		int[] stack = this.stack;
+		
+		double[] stackCost = this.stackT;
+		
+		double bestCost = Doubles.MAX_VALUE;
+		
+		int bestSibling = this.root;
+		int stackIndex = 0;
+		
+		stack[stackIndex] = this.root;
+		stackCost[stackIndex] = 0.0D;
+		
+		stackIndex++;
+		
+		while(stackIndex > 0) {
+			stackIndex--;
+			
+			final int nodeIndex = stack[stackIndex];
+			
+			final double inheritedCost = stackCost[stackIndex];
+			final double directCost = doComputeSurfaceArea(nodeIndex, leaf);
+			final double cost = directCost + inheritedCost;
+			
+			if(cost < bestCost) {
+				bestCost = cost;
+				bestSibling = nodeIndex;
+			}
+			
+			if(this.childrenL[nodeIndex] != NODE_NONE) {
+				final double inheritedCostChild = inheritedCost + directCost - doComputeSurfaceArea(nodeIndex);
+				
+//				The cost of any sibling below this node is at least the surface area of the leaf node plus the cost inherited from the nodes above:
+				if(surfaceAreaLeaf + inheritedCostChild < bestCost) {
+					if(stackIndex + 2 > stack.length) {
+						this.stack = stack = Arrays.copyOf(stack, stack.length * 2);
+						this.stackT = stackCost = Arrays.copyOf(stackCost, stackCost.length * 2);
+					}
+					
+					stack[stackIndex] = this.childrenL[nodeIndex];
+					stackCost[stackIndex] = inheritedCostChild;
+					
+					stackIndex++;
+					
+					stack[stackIndex] = this.childrenR[nodeIndex];
+					stackCost[stackIndex] = inheritedCostChild;
+					
+					stackIndex++;
+				}
+			}
+		}
+		
+		final int parentOld = this.parents[bestSibling];
+		final int parentNew = doAllocateNode();
+		
+		this.parents[parentNew] = parentOld;
+		this.childrenL[parentNew] = bestSibling;
+		this.childrenR[parentNew] = leaf;
+		this.parents[bestSibling] = parentNew;
+		this.parents[leaf] = parentNew;
+		
+		if(parentOld == NODE_NONE) {
+			this.root = parentNew;
+		} else if(this.childrenL[parentOld] == bestSibling) {
+			this.childrenL[parentOld] = parentNew;
+		} else {
+			this.childrenR[parentOld] = parentNew;
+		}
+		
+		doUpdateBounds(parentNew);
+		
+		this.surfaceAreaTrees += doComputeSurfaceArea(parentNew);
+		
+		int nodeIndex = parentOld;
+		
+		while(nodeIndex != NODE_NONE) {
+			final double surfaceArea = doComputeSurfaceArea(nodeIndex);
+			
+			final boolean isChanged = doUpdateBounds(nodeIndex);
+			
+			this.surfaceAreaTrees += doComputeSurfaceArea(nodeIndex) - surfaceArea;
+			
+			doRotate(nodeIndex);
+			
+			if(!isChanged) {
+				break;
+			}
+			
+			nodeIndex = this.parents[nodeIndex];
+		}
+	}
+	
+	private void doRefitPending() {
+		if(this.refitLeafCount > 0) {
+			refit(false);
+		}
+	}
+	
+	private void doRemoveLeaf(final int leaf) {
+		final int parent = this.parents[leaf];
+		
+		if(parent == NODE_NONE) {
+			this.root = NODE_NONE;
+			
+			return;
+		}
+		
+		final int grandparent = this.parents[parent];
+		final int sibling = this.childrenL[parent] == leaf ? this.childrenR[parent] : this.childrenL[parent];
+		
+		this.parents[sibling] = grandparent;
+		
+		if(grandparent == NODE_NONE) {
+			this.root = sibling;
+		} else if(this.childrenL[grandparent] == parent) {
+			this.childrenL[grandparent] = sibling;
+		} else {
+			this.childrenR[grandparent] = sibling;
+		}
+		
+		this.surfaceAreaTrees -= doComputeSurfaceArea(parent);
+		
+		doFreeNode(parent);
+		
+		int nodeIndex = grandparent;
+		
+		while(nodeIndex != NODE_NONE) {
+			final double surfaceArea = doComputeSurfaceArea(nodeIndex);
+			
+			final boolean isChanged = doUpdateBounds(nodeIndex);
+			
+			this.surfaceAreaTrees += doComputeSurfaceArea(nodeIndex) - surfaceArea;
+			
+			if(!isChanged) {
+				break;
+			}
+			
+			nodeIndex = this.parents[nodeIndex];
+		}
+	}
+	
+	private void doRotate(final int nodeIndex) {
+		final int nodeIndexL = this.childrenL[nodeIndex];
+		final int nodeIndexR = this.childrenR[nodeIndex];
+		
+		double bestSurfaceAreaReduction = 0.0D;
+		
+		int bestNodeIndexA = NODE_NONE;
+		int bestNodeIndexB = NODE_NONE;
+		
+		if(this.childrenL[nodeIndexR] != NODE_NONE) {
+			final int nodeIndexRL = this.childrenL[nodeIndexR];
+			final int nodeIndexRR = this.childrenR[nodeIndexR];
+			
+			final double surfaceAreaR = doComputeSurfaceArea(nodeIndexR);
+			final double surfaceAreaReductionLRL = surfaceAreaR - doComputeSurfaceArea(nodeIndexL, nodeIndexRR);
+			final double surfaceAreaReductionLRR = surfaceAreaR - doComputeSurfaceArea(nodeIndexL, nodeIndexRL);
+			
+			if(surfaceAreaReductionLRL > bestSurfaceAreaReduction) {
+				bestSurfaceAreaReduction = surfaceAreaReductionLRL;
+				bestNodeIndexA = nodeIndexL;
+				bestNodeIndexB = nodeIndexRL;
+			}
+			
+			if(surfaceAreaReductionLRR > bestSurfaceAreaReduction) {
+				bestSurfaceAreaReduction = surfaceAreaReductionLRR;
+				bestNodeIndexA = nodeIndexL;
+				bestNodeIndexB = nodeIndexRR;
+			}
+		}
+		
+		if(this.childrenL[nodeIndexL] != NODE_NONE) {
+			final int nodeIndexLL = this.childrenL[nodeIndexL];
+			final int nodeIndexLR = this.childrenR[nodeIndexL];
+			
+			final double surfaceAreaL = doComputeSurfaceArea(nodeIndexL);
+			final double surfaceAreaReductionRLL = surfaceAreaL - doComputeSurfaceArea(nodeIndexR, nodeIndexLR);
+			final double surfaceAreaReductionRLR = surfaceAreaL - doComputeSurfaceArea(nodeIndexR, nodeIndexLL);
+			
+			if(surfaceAreaReductionRLL > bestSurfaceAreaReduction) {
+				bestSurfaceAreaReduction = surfaceAreaReductionRLL;
+				bestNodeIndexA = nodeIndexR;
+				bestNodeIndexB = nodeIndexLL;
+			}
+			
+			if(surfaceAreaReductionRLR > bestSurfaceAreaReduction) {
+				bestSurfaceAreaReduction = surfaceAreaReductionRLR;
+				bestNodeIndexA = nodeIndexR;
+				bestNodeIndexB = nodeIndexLR;
+			}
+		}
+		
+		if(bestNodeIndexA != NODE_NONE) {
+			doSwap(bestNodeIndexA, bestNodeIndexB);
+		}
+	}
+	
+	private void doSetBounds(final int nodeIndex, final BoundingVolume3D boundingVolume) {
+		final Point3D max = boundingVolume.max();
+		final Point3D min = boundingVolume.min();
+		
+		this.bounds[nodeIndex * 6 + 0] = min.x;
+		this.bounds[nodeIndex * 6 + 1] = min.y;
+		this.bounds[nodeIndex * 6 + 2] = min.z;
+		this.bounds[nodeIndex * 6 + 3] = max.x;
+		this.bounds[nodeIndex * 6 + 4] = max.y;
+		this.bounds[nodeIndex * 6 + 5] = max.z;
+	}
+	
+	private void doSwap(final int nodeIndexA, final int nodeIndexB) {
+		final int parentA = this.parents[nodeIndexA];
+		final int parentB = this.parents[nodeIndexB];
+		
+		if(this.childrenL[parentA] == nodeIndexA) {
+			this.childrenL[parentA] = nodeIndexB;
+		} else {
+			this.childrenR[parentA] = nodeIndexB;
+		}
+		
+		if(this.childrenL[parentB] == nodeIndexB) {
+			this.childrenL[parentB] = nodeIndexA;
+		} else {
+			this.childrenR[parentB] = nodeIndexA;
+		}
+		
+		this.parents[nodeIndexA] = parentB;
+		this.parents[nodeIndexB] = parentA;
+		
+		final double surfaceArea = doComputeSurfaceArea(parentB);
+		
+		doUpdateBounds(parentB);
+		
+		this.surfaceAreaTrees += doComputeSurfaceArea(parentB) - surfaceArea;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static double doComputeSurfaceArea(final double minimumX, final double minimumY, final double minimumZ, final double maximumX, final double maximumY, final double maximumZ) {
+		final double sideX = maximumX - minimumX;
+		final double sideY = maximumY - minimumY;
+		final double sideZ = maximumZ - minimumZ;
+		
+		return 2.0D * (sideX * sideY + sideY * sideZ + sideZ * sideX);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,641 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.matrix.Matrix44D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.ray.TraversalRay3D;
+import org.macroing.geo4j.shape.SurfaceIntersection3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+import org.macroing.java.util.Lists;
+
+/**
+ * An {@code InstanceBVH3D} is a {@code double}-based top-level bounding volume hierarchy (BVH) structure over {@link BVHInstance3D} instances.
+ * <p>
+ * Together with the {@link BVHNode3D} instances of the {@code BVHInstance3D} instances, it forms a two-level structure. The bottom-level structures are built once in object space and may be shared by several {@code BVHInstance3D} instances, whereas the top-level structure only contains
+ * one leaf node per {@code BVHInstance3D} instance. The top-level structure is therefore small and cheap to update when the {@code BVHInstance3D} instances move.
+ * <p>
+ * The nodes are stored in depth-first order in primitive arrays. The left child of a tree node is always the node that directly follows it, whereas the index of the right child is stored explicitly. The traversal is performed iteratively, visiting the nearer child node first.
+ * <p>
+ * A {@code BVHInstance3D} instance is moved by replacing it using {@link #setInstance(int, BVHInstance3D)} or {@link #setObjectToWorld(int, Matrix44D)}. The tree nodes are then updated by calling either {@link #refit()}, which only updates their bounds, or {@link #rebuild()}, which
+ * rebuilds the top-level structure using a binned surface area heuristic (SAH). The rebuild reuses the arrays of this {@code InstanceBVH3D} instance and does not rebuild any bottom-level structure. Until then, the intersection methods may miss the moved {@code BVHInstance3D} instances.
+ * <p>
+ * This class is mutable and not thread-safe.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class InstanceBVH3D {
+	private static final int BIN_COUNT = 16;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final BVHInstance3D[] instances;
+	private final double[] binBounds;
+	private final double[] binBoundsL;
+	private final double[] binBoundsR;
+	private final double[] binSurfaceAreasR;
+	private final double[] bounds;
+	private final double[] centroids;
+	private final double[] instanceBounds;
+	private final int[] binCounts;
+	private final int[] children;
+	private final int[] instanceIndices;
+	private int stackSize;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code InstanceBVH3D} instance that contains the {@link BVHInstance3D} instances in {@code instances}.
+	 * <p>
+	 * The index of a {@code BVHInstance3D} instance in {@code instances} is its index in this {@code InstanceBVH3D} instance.
+	 * <p>
+	 * If either {@code instances} or at least one of its elements are {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param instances a {@code List} of {@code BVHInstance3D} instances
+	 * @throws NullPointerException thrown if, and only if, either {@code instances} or at least one of its elements are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public InstanceBVH3D(final List<BVHInstance3D> instances) {
+		this.instances = Lists.requireNonNull(instances, "instances").toArray(new BVHInstance3D[instances.size()]);
+		this.binBounds = new double[BIN_COUNT * 6];
+		this.binBoundsL = new double[6];
+		this.binBoundsR = new double[6];
+		this.binSurfaceAreasR = new double[BIN_COUNT];
+		this.bounds = new double[Ints.max(this.instances.length * 2 - 1, 0) * 6];
+		this.centroids = new double[this.instances.length * 3];
+		this.instanceBounds = new double[this.instances.length * 6];
+		this.binCounts = new int[BIN_COUNT];
+		this.children = new int[Ints.max(this.instances.length * 2 - 1, 0)];
+		this.instanceIndices = new int[this.instances.length];
+		
+		for(int i = 0; i < this.instances.length; i++) {
+			doSetInstanceBounds(i);
+		}
+		
+		rebuild();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns the {@link BoundingVolume3D} instance that contains this {@code InstanceBVH3D} instance.
+	 * <p>
+	 * If this {@code InstanceBVH3D} instance is empty, an {@link AxisAlignedBoundingBox3D} instance at the origin is returned.
+	 * 
+	 * @return the {@code BoundingVolume3D} instance that contains this {@code InstanceBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public BoundingVolume3D getBoundingVolume() {
+		if(this.children.length == 0) {
+			return new AxisAlignedBoundingBox3D(new Point3D(), new Point3D());
+		}
+		
+		return new AxisAlignedBoundingBox3D(new Point3D(this.bounds[3], this.bounds[4], this.bounds[5]), new Point3D(this.bounds[0], this.bounds[1], this.bounds[2]));
+	}
+	
+	/**
+	 * Returns the {@link BVHInstance3D} instance at index {@code index}.
+	 * <p>
+	 * If {@code index} is less than {@code 0}, or greater than or equal to {@code getInstanceCount()}, an {@code ArrayIndexOutOfBoundsException} will be thrown.
+	 * 
+	 * @param index the index of the {@code BVHInstance3D} instance
+	 * @return the {@code BVHInstance3D} instance at index {@code index}
+	 * @throws ArrayIndexOutOfBoundsException thrown if, and only if, {@code index} is less than {@code 0}, or greater than or equal to {@code getInstanceCount()}
+	 */
+//	TODO: Add Unit Tests!
+	public BVHInstance3D getInstance(final int index) {
+		return this.instances[index];
+	}
+	
+	/**
+	 * Returns a {@code List} with all {@link BVHInstance3D} instances associated with this {@code InstanceBVH3D} instance.
+	 * <p>
+	 * Modification to the returned {@code List} will not affect this {@code InstanceBVH3D} instance.
+	 * 
+	 * @return a {@code List} with all {@code BVHInstance3D} instances associated with this {@code InstanceBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public List<BVHInstance3D> getInstances() {
+		return new ArrayList<>(Arrays.asList(this.instances));
+	}
+	
+	/**
+	 * Performs an intersection test between {@code ray} and this {@code InstanceBVH3D} instance.
+	 * <p>
+	 * Returns an {@code Optional} with an optional {@link SurfaceIntersection3D} instance in world space that contains information about the intersection, if it was found.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * Only the {@link BVHInstance3D} instance that is closest to the origin of {@code ray} will compute a {@code SurfaceIntersection3D} instance.
+	 * 
+	 * @param ray the {@link Ray3D} in world space to perform an intersection test against this {@code InstanceBVH3D} instance
+	 * @param tMinimum the minimum parametric distance in world space
+	 * @param tMaximum the maximum parametric distance in world space
+	 * @return an {@code Optional} with an optional {@code SurfaceIntersection3D} instance in world space that contains information about the intersection, if it was found
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public Optional<SurfaceIntersection3D> intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final int instanceIndex = doIntersection(Objects.requireNonNull(ray, "ray == null"), new double[] {tMinimum, tMaximum});
+		
+		return instanceIndex >= 0 ? this.instances[instanceIndex].intersection(ray, tMinimum, tMaximum) : SurfaceIntersection3D.EMPTY;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, {@code ray} intersects this {@code InstanceBVH3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} in world space to perform an intersection test against this {@code InstanceBVH3D} instance
+	 * @param tMinimum the minimum parametric distance in world space
+	 * @param tMaximum the maximum parametric distance in world space
+	 * @return {@code true} if, and only if, {@code ray} intersects this {@code InstanceBVH3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public boolean intersects(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final Point3D origin = ray.getOrigin();
+		
+		final Vector3D direction = ray.getDirection();
+		
+		final double originX = origin.x;
+		final double originY = origin.y;
+		final double originZ = origin.z;
+		
+		final double directionReciprocalX = 1.0D / direction.x;
+		final double directionReciprocalY = 1.0D / direction.y;
+		final double directionReciprocalZ = 1.0D / direction.z;
+		
+		if(this.children.length == 0 || Doubles.isNaN(doIntersect(0, originX, originY, originZ, directionReciprocalX, directionReciprocalY, directionReciprocalZ, tMinimum, tMaximum))) {
+			return false;
+		}
+		
+		final int[] stack = new int[this.stackSize];
+		
+		int nodeIndex = 0;
+		int stackIndex = 0;
+		
+		while(true) {
+			final int child = this.children[nodeIndex];
+			
+			if(child < 0) {
+				if(this.instances[-child - 1].intersects(ray, tMinimum, tMaximum)) {
+					return true;
+				}
+			} else {
+				final boolean isIntersectingL = !Doubles.isNaN(doIntersect(nodeIndex + 1, originX, originY, originZ, directionReciprocalX, directionReciprocalY, directionReciprocalZ, tMinimum, tMaximum));
+				final boolean isIntersectingR = !Doubles.isNaN(doIntersect(child, originX, originY, originZ, directionReciprocalX, directionReciprocalY, directionReciprocalZ, tMinimum, tMaximum));
+				
+				if(isIntersectingL && isIntersectingR) {
+					stack[stackIndex++] = child;
+					
+					nodeIndex = nodeIndex + 1;
+					
+					continue;
+				} else if(isIntersectingL) {
+					nodeIndex = nodeIndex + 1;
+					
+					continue;
+				} else if(isIntersectingR) {
+					nodeIndex = child;
+					
+					continue;
+				}
+			}
+			
+			if(stackIndex == 0) {
+				return false;
+			}
+			
+			nodeIndex = stack[--stackIndex];
+		}
+	}
+	
+	/**
+	 * Performs an intersection test between {@code ray} and this {@code InstanceBVH3D} instance.
+	 * <p>
+	 * Returns {@code t}, the parametric distance in world space to the surface intersection point, or {@code Double.NaN} if no intersection exists.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} in world space to perform an intersection test against this {@code InstanceBVH3D} instance
+	 * @param tMinimum the minimum parametric distance in world space
+	 * @param tMaximum the maximum parametric distance in world space
+	 * @return {@code t}, the parametric distance in world space to the surface intersection point, or {@code Double.NaN} if no intersection exists
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public double intersectionT(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final double[] tBounds = new double[] {tMinimum, tMaximum};
+		
+		return doIntersection(Objects.requireNonNull(ray, "ray == null"), tBounds) >= 0 ? tBounds[1] : Double.NaN;
+	}
+	
+	/**
+	 * Returns the {@link BVHInstance3D} instance count of this {@code InstanceBVH3D} instance.
+	 * 
+	 * @return the {@code BVHInstance3D} instance count of this {@code InstanceBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getInstanceCount() {
+		return this.instances.length;
+	}
+	
+	/**
+	 * Returns the node count of this {@code InstanceBVH3D} instance.
+	 * 
+	 * @return the node count of this {@code InstanceBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getNodeCount() {
+		return this.children.length;
+	}
+	
+	/**
+	 * Rebuilds the top-level structure of this {@code InstanceBVH3D} instance from scratch.
+	 * <p>
+	 * The top-level structure is built top-down using a binned surface area heuristic (SAH) over the centroids of the bounds of the {@link BVHInstance3D} instances. No bottom-level structure is rebuilt and no arrays are allocated.
+	 */
+//	TODO: Add Unit Tests!
+	public void rebuild() {
+		for(int i = 0; i < this.instanceIndices.length; i++) {
+			this.instanceIndices[i] = i;
+		}
+		
+		this.stackSize = 0;
+		
+		if(this.instances.length > 0) {
+			doBuild(0, this.instances.length, 0, 1);
+		}
+	}
+	
+	/**
+	 * Updates the bounds of all tree nodes of this {@code InstanceBVH3D} instance, without changing the topology of the top-level structure.
+	 * <p>
+	 * A refit is cheaper than a rebuild, but the quality of the top-level structure degrades if the {@link BVHInstance3D} instances move far from where they were at the last rebuild.
+	 */
+//	TODO: Add Unit Tests!
+	public void refit() {
+		for(int nodeIndex = this.children.length - 1; nodeIndex >= 0; nodeIndex--) {
+			final int child = this.children[nodeIndex];
+			
+			if(child < 0) {
+				System.arraycopy(this.instanceBounds, (-child - 1) * 6, this.bounds, nodeIndex * 6, 6);
+			} else {
+				doSetNodeBounds(nodeIndex, nodeIndex + 1, child);
+			}
+		}
+	}
+	
+	/**
+	 * Sets the {@link BVHInstance3D} instance at index {@code index} to {@code instance}.
+	 * <p>
+	 * The tree nodes are updated by the next call to {@link #refit()} or {@link #rebuild()}.
+	 * <p>
+	 * If {@code instance} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code index} is less than {@code 0}, or greater than or equal to {@code getInstanceCount()}, an {@code ArrayIndexOutOfBoundsException} will be thrown.
+	 * 
+	 * @param index the index of the {@code BVHInstance3D} instance
+	 * @param instance the new {@code BVHInstance3D} instance
+	 * @throws ArrayIndexOutOfBoundsException thrown if, and only if, {@code index} is less than {@code 0}, or greater than or equal to {@code getInstanceCount()}
+	 * @throws NullPointerException thrown if, and only if, {@code instance} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public void setInstance(final int index, final BVHInstance3D instance) {
+		this.instances[index] = Objects.requireNonNull(instance, "instance == null");
+		
+		doSetInstanceBounds(index);
+	}
+	
+	/**
+	 * Sets the object-to-world {@link Matrix44D} instance of the {@link BVHInstance3D} instance at index {@code index} to {@code objectToWorld}.
+	 * <p>
+	 * The {@link BVHNode3D} instance of the {@code BVHInstance3D} instance is retained. The tree nodes are updated by the next call to {@link #refit()} or {@link #rebuild()}.
+	 * <p>
+	 * If {@code objectToWorld} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code objectToWorld} cannot be inverted, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If {@code index} is less than {@code 0}, or greater than or equal to {@code getInstanceCount()}, an {@code ArrayIndexOutOfBoundsException} will be thrown.
+	 * 
+	 * @param index the index of the {@code BVHInstance3D} instance
+	 * @param objectToWorld the new {@code Matrix44D} instance that transforms from object space to world space
+	 * @throws ArrayIndexOutOfBoundsException thrown if, and only if, {@code index} is less than {@code 0}, or greater than or equal to {@code getInstanceCount()}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code objectToWorld} cannot be inverted
+	 * @throws NullPointerException thrown if, and only if, {@code objectToWorld} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public void setObjectToWorld(final int index, final Matrix44D objectToWorld) {
+		setInstance(index, new BVHInstance3D(this.instances[index].getBVHNode(), objectToWorld));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private double doIntersect(final int nodeIndex, final double originX, final double originY, final double originZ, final double directionReciprocalX, final double directionReciprocalY, final double directionReciprocalZ, final double tMinimum, final double tMaximum) {
+		final int offset = nodeIndex * 6;
+		
+		return TraversalRay3D.intersectionEntry(originX, originY, originZ, directionReciprocalX, directionReciprocalY, directionReciprocalZ, this.bounds[offset + 0], this.bounds[offset + 1], this.bounds[offset + 2], this.bounds[offset + 3], this.bounds[offset + 4], this.bounds[offset + 5], tMinimum, tMaximum);
+	}
+	
+	private int doBuild(final int start, final int end, final int nodeIndex, final int depth) {
+		this.stackSize = Ints.max(this.stackSize, depth);
+		
+		if(end - start == 1) {
+			final int instanceIndex = this.instanceIndices[start];
+			
+			System.arraycopy(this.instanceBounds, instanceIndex * 6, this.bounds, nodeIndex * 6, 6);
+			
+			this.children[nodeIndex] = -instanceIndex - 1;
+			
+			return nodeIndex + 1;
+		}
+		
+		final int middle = doPartition(start, end);
+		
+		final int nodeIndexR = doBuild(start, middle, nodeIndex + 1, depth + 1);
+		final int nodeIndexNext = doBuild(middle, end, nodeIndexR, depth + 1);
+		
+		this.children[nodeIndex] = nodeIndexR;
+		
+		doSetNodeBounds(nodeIndex, nodeIndex + 1, nodeIndexR);
+		
+		return nodeIndexNext;
+	}
+	
+	private int doIntersection(final Ray3D ray, final double[] tBounds) {
+		final Point3D origin = ray.getOrigin();
+		
+		final Vector3D direction = ray.getDirection();
+		
+		final double originX = origin.x;
+		final double originY = origin.y;
+		final double originZ = origin.z;
+		
+		final double directionReciprocalX = 1.0D / direction.x;
+		final double directionReciprocalY = 1.0D / direction.y;
+		final double directionReciprocalZ = 1.0D / direction.z;
+		
+		final double tMinimum = tBounds[0];
+		
+		double tMaximum = tBounds[1];
+		
+		if(this.children.length == 0 || Doubles.isNaN(doIntersect(0, originX, originY, originZ, directionReciprocalX, directionReciprocalY, directionReciprocalZ, tMinimum, tMaximum))) {
+			return -1;
+		}
+		
+		final double[] stackT = new double[this.stackSize];
+		
+		final int[] stack = new int[this.stackSize];
+		
+		int instanceIndex = -1;
+		int nodeIndex = 0;
+		int stackIndex = 0;
+		
+		while(true) {
+			final int child = this.children[nodeIndex];
+			
+			if(child < 0) {
+				final double t = this.instances[-child - 1].intersectionT(ray, tMinimum, tMaximum);
+				
+				if(!Doubles.isNaN(t) && t < tMaximum) {
+					tMaximum = t;
+					
+					instanceIndex = -child - 1;
+				}
+			} else {
+				final double tL = doIntersect(nodeIndex + 1, originX, originY, originZ, directionReciprocalX, directionReciprocalY, directionReciprocalZ, tMinimum, tMaximum);
+				final double tR = doIntersect(child, originX, originY, originZ, directionReciprocalX, directionReciprocalY, directionReciprocalZ, tMinimum, tMaximum);
+				
+				final boolean isIntersectingL = !Doubles.isNaN(tL);
+				final boolean isIntersectingR = !Doubles.isNaN(tR);
+				
+				if(isIntersectingL && isIntersectingR) {
+					if(tL <= tR) {
+						stackT[stackIndex] = tR;
+						stack[stackIndex++] = child;
+						
+						nodeIndex = nodeIndex + 1;
+					} else {
+						stackT[stackIndex] = tL;
+						stack[stackIndex++] = nodeIndex + 1;
+						
+						nodeIndex = child;
+					}
+					
+					continue;
+				} else if(isIntersectingL) {
+					nodeIndex = nodeIndex + 1;
+					
+					continue;
+				} else if(isIntersectingR) {
+					nodeIndex = child;
+					
+					continue;
+				}
+			}
+			
+			while(stackIndex > 0 && stackT[stackIndex - 1] > tMaximum) {
+				stackIndex--;
+			}
+			
+			if(stackIndex == 0) {
+				break;
+			}
+			
+			nodeIndex = stack[--stackIndex];
+		}
+		
+		if(instanceIndex >= 0) {
+			tBounds[1] = tMaximum;
+		}
+		
+		return instanceIndex;
+	}
+	
+	private int doPartition(final int start, final int end) {
+		double maximumX = Doubles.MIN_VALUE;
+		double maximumY = Doubles.MIN_VALUE;
+		double maximumZ = Doubles.MIN_VALUE;
+		double minimumX = Doubles.MAX_VALUE;
+		double minimumY = Doubles.MAX_VALUE;
+		double minimumZ = Doubles.MAX_VALUE;
+		
+		for(int i = start; i < end; i++) {
+			final int offset = this.instanceIndices[i] * 3;
+			
+			maximumX = Doubles.max(maximumX, this.centroids[offset + 0]);
+			maximumY = Doubles.max(maximumY, this.centroids[offset + 1]);
+			maximumZ = Doubles.max(maximumZ, this.centroids[offset + 2]);
+			minimumX = Doubles.min(minimumX, this.centroids[offset + 0]);
+			minimumY = Doubles.min(minimumY, this.centroids[offset + 1]);
+			minimumZ = Doubles.min(minimumZ, this.centroids[offset + 2]);
+		}
+		
+		final double extentX = maximumX - minimumX;
+		final double extentY = maximumY - minimumY;
+		final double extentZ = maximumZ - minimumZ;
+		
+		final int axis = extentX >= extentY && extentX >= extentZ ? 0 : extentY >= extentZ ? 1 : 2;
+		
+		final double extent = axis == 0 ? extentX : axis == 1 ? extentY : extentZ;
+		final double minimum = axis == 0 ? minimumX : axis == 1 ? minimumY : minimumZ;
+		
+		if(!(extent > 0.0D)) {
+			return (start + end) >>> 1;
+		}
+		
+		final double scale = BIN_COUNT / extent;
+		
+		Arrays.fill(this.binCounts, 0);
+		
+		for(int i = 0; i < BIN_COUNT; i++) {
+			doSetEmpty(this.binBounds, i * 6);
+		}
+		
+		for(int i = start; i < end; i++) {
+			final int instanceIndex = this.instanceIndices[i];
+			
+			final int bin = doComputeBin(this.centroids[instanceIndex * 3 + axis], minimum, scale);
+			
+			this.binCounts[bin]++;
+			
+			doInclude(this.binBounds, bin * 6, this.instanceBounds, instanceIndex * 6);
+		}
+		
+		doSetEmpty(this.binBoundsL, 0);
+		doSetEmpty(this.binBoundsR, 0);
+		
+		for(int i = BIN_COUNT - 1; i > 0; i--) {
+			doInclude(this.binBoundsR, 0, this.binBounds, i * 6);
+			
+			this.binSurfaceAreasR[i] = doComputeSurfaceArea(this.binBoundsR, 0);
+		}
+		
+		double bestCost = Doubles.MAX_VALUE;
+		
+		int bestBin = -1;
+		int countL = 0;
+		int countR = end - start;
+		
+		for(int i = 0; i < BIN_COUNT - 1; i++) {
+			doInclude(this.binBoundsL, 0, this.binBounds, i * 6);
+			
+			countL += this.binCounts[i];
+			countR -= this.binCounts[i];
+			
+			if(countL > 0 && countR > 0) {
+				final double cost = countL * doComputeSurfaceArea(this.binBoundsL, 0) + countR * this.binSurfaceAreasR[i + 1];
+				
+				if(cost < bestCost) {
+					bestCost = cost;
+					bestBin = i;
+				}
+			}
+		}
+		
+		if(bestBin < 0) {
+			return (start + end) >>> 1;
+		}
+		
+		int i = start;
+		int j = end - 1;
+		
+		while(i <= j) {
+			final int instanceIndex = this.instanceIndices[i];
+			
+			if(doComputeBin(this.centroids[instanceIndex * 3 + axis], minimum, scale) <= bestBin) {
+				i++;
+			} else {
+				this.instanceIndices[i] = this.instanceIndices[j];
+				this.instanceIndices[j--] = instanceIndex;
+			}
+		}
+		
+		return i;
+	}
+	
+	private void doSetInstanceBounds(final int index) {
+		final AxisAlignedBoundingBox3D boundingVolume = this.instances[index].getBoundingVolume();
+		
+		final Point3D max = boundingVolume.max();
+		final Point3D min = boundingVolume.min();
+		
+		this.instanceBounds[index * 6 + 0] = min.x;
+		this.instanceBounds[index * 6 + 1] = min.y;
+		this.instanceBounds[index * 6 + 2] = min.z;
+		this.instanceBounds[index * 6 + 3] = max.x;
+		this.instanceBounds[index * 6 + 4] = max.y;
+		this.instanceBounds[index * 6 + 5] = max.z;
+		
+		this.centroids[index * 3 + 0] = (min.x + max.x) * 0.5D;
+		this.centroids[index * 3 + 1] = (min.y + max.y) * 0.5D;
+		this.centroids[index * 3 + 2] = (min.z + max.z) * 0.5D;
+	}
+	
+	private void doSetNodeBounds(final int nodeIndex, final int nodeIndexL, final int nodeIndexR) {
+		for(int i = 0; i < 3; i++) {
+			this.bounds[nodeIndex * 6 + i + 0] = Doubles.min(this.bounds[nodeIndexL * 6 + i + 0], this.bounds[nodeIndexR * 6 + i + 0]);
+			this.bounds[nodeIndex * 6 + i + 3] = Doubles.max(this.bounds[nodeIndexL * 6 + i + 3], this.bounds[nodeIndexR * 6 + i + 3]);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static double doComputeSurfaceArea(final double[] array, final int offset) {
+		final double x = array[offset + 3] - array[offset + 0];
+		final double y = array[offset + 4] - array[offset + 1];
+		final double z = array[offset + 5] - array[offset + 2];
+		
+		return 2.0D * (x * y + y * z + z * x);
+	}
+	
+	private static int doComputeBin(final double centroid, final double minimum, final double scale) {
+		return Ints.min((int)((centroid - minimum) * scale), BIN_COUNT - 1);
+	}
+	
+	private static void doInclude(final double[] boundsA, final int offsetA, final double[] boundsB, final int offsetB) {
+		for(int i = 0; i < 3; i++) {
+			boundsA[offsetA + i + 0] = Doubles.min(boundsA[offsetA + i + 0], boundsB[offsetB + i + 0]);
+			boundsA[offsetA + i + 3] = Doubles.max(boundsA[offsetA + i + 3], boundsB[offsetB + i + 3]);
+		}
+	}
+	
+	private static void doSetEmpty(final double[] bounds, final int offset) {
+		bounds[offset + 0] = Doubles.MAX_VALUE;
+		bounds[offset + 1] = Doubles.MAX_VALUE;
+		bounds[offset + 2] = Doubles.MAX_VALUE;
+		bounds[offset + 3] = Doubles.MIN_VALUE;
+		bounds[offset + 4] = Doubles.MIN_VALUE;
+		bounds[offset + 5] = Doubles.MIN_VALUE;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,649 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.mc.MortonCodes;
+import org.macroing.geo4j.shape.Shape3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+import org.macroing.java.util.Lists;
+
+/**
+ * An {@code LBVHBuilder3D} builds {@code double}-based bounding volume hierarchy (BVH) structures using linear bounding volume hierarchy (LBVH) construction.
+ * <p>
+ * The centroids of all {@link BVHItem3D} instances are quantized to 21 bits per axis and encoded as 63-bit Morton codes. The Morton codes are sorted using a radix sort and the hierarchy is emitted by splitting each range of sorted Morton codes at the highest bit in which they differ.
+ * The cost of a build is therefore linear in the number of {@code BVHItem3D} instances, which makes this class suitable for rebuilding the bounding volume hierarchy (BVH) structure of animated geometry every frame.
+ * <p>
+ * The top levels of the hierarchy may optionally be refined using a binned surface area heuristic (SAH). The sorted {@code BVHItem3D} instances are then grouped into clusters that share the highest {@code clusterBitCount} bits of their Morton codes. The clusters are built
+ * using linear bounding volume hierarchy (LBVH) construction, whereas the hierarchy above them is built using the surface area heuristic (SAH). A {@code clusterBitCount} of {@code 0} disables the refinement.
+ * <p>
+ * The bounding volume hierarchy (BVH) structures built by this class are generally of lower quality than those built by {@link SAHBVHBuilder3D}.
+ * <p>
+ * This class is immutable and therefore thread-safe.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class LBVHBuilder3D {
+	/**
+	 * The default number of bits of the Morton codes used to form the clusters below the levels that are refined using the surface area heuristic (SAH).
+	 */
+	public static final int DEFAULT_CLUSTER_BIT_COUNT = 12;
+	
+	/**
+	 * The default maximum leaf size.
+	 */
+	public static final int DEFAULT_MAXIMUM_LEAF_SIZE = 4;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final int MORTON_CODE_BIT_COUNT = 63;
+	private static final int QUANTIZATION_RESOLUTION = 1 << 21;
+	private static final int RADIX_BIT_COUNT = 8;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final int clusterBitCount;
+	private final int maximumLeafSize;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code LBVHBuilder3D} instance.
+	 * <p>
+	 * Calling this constructor is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * new LBVHBuilder3D(LBVHBuilder3D.DEFAULT_CLUSTER_BIT_COUNT, LBVHBuilder3D.DEFAULT_MAXIMUM_LEAF_SIZE);
+	 * }
+	 * </pre>
+	 */
+//	TODO: Add Unit Tests!
+	public LBVHBuilder3D() {
+		this(DEFAULT_CLUSTER_BIT_COUNT, DEFAULT_MAXIMUM_LEAF_SIZE);
+	}
+	
+	/**
+	 * Constructs a new {@code LBVHBuilder3D} instance.
+	 * <p>
+	 * If either {@code clusterBitCount} is less than {@code 0} or greater than {@code 63} or {@code maximumLeafSize} is less than {@code 1}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param clusterBitCount the number of bits of the Morton codes used to form the clusters below the levels that are refined using the surface area heuristic (SAH), or {@code 0} to disable the refinement
+	 * @param maximumLeafSize the maximum number of {@link Shape3D} instances in a leaf node
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code clusterBitCount} is less than {@code 0} or greater than {@code 63} or {@code maximumLeafSize} is less than {@code 1}
+	 */
+//	TODO: Add Unit Tests!
+	public LBVHBuilder3D(final int clusterBitCount, final int maximumLeafSize) {
+		this.clusterBitCount = Ints.requireRange(clusterBitCount, 0, MORTON_CODE_BIT_COUNT, "clusterBitCount");
+		this.maximumLeafSize = Ints.requireRange(maximumLeafSize, 1, Integer.MAX_VALUE, "maximumLeafSize");
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Builds a bounding volume hierarchy (BVH) structure.
+	 * <p>
+	 * Returns a {@link BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure.
+	 * <p>
+	 * If either {@code processableBVHItems} or at least one of its elements are {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param <T> the generic {@link Shape3D} type to use
+	 * @param processableBVHItems a {@code List} of {@link BVHItem3D} instances to process
+	 * @return a {@code BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure
+	 * @throws NullPointerException thrown if, and only if, either {@code processableBVHItems} or at least one of its elements are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public <T extends Shape3D> BVHNode3D build(final List<BVHItem3D<T>> processableBVHItems) {
+		final Primitives<T> primitives = new Primitives<>(Lists.requireNonNull(processableBVHItems, "processableBVHItems"));
+		
+		if(primitives.size() == 0) {
+			return new LeafBVHNode3D<>(new Point3D(), new Point3D(), 0, new ArrayList<T>());
+		}
+		
+		return doBuild(primitives, 0, null, null);
+	}
+	
+	/**
+	 * Builds a bounding volume hierarchy (BVH) structure.
+	 * <p>
+	 * Returns a {@link BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure.
+	 * <p>
+	 * If either {@code processableBVHItems}, at least one of its elements, {@code maximum} or {@code minimum} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code depth} is less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param <T> the generic {@link Shape3D} type to use
+	 * @param processableBVHItems a {@code List} of {@link BVHItem3D} instances to process
+	 * @param maximum a {@link Point3D} instance with the maximum coordinates of the {@link BoundingVolume3D} instance that contains the returned {@code BVHNode3D} instance
+	 * @param minimum a {@code Point3D} instance with the minimum coordinates of the {@code BoundingVolume3D} instance that contains the returned {@code BVHNode3D} instance
+	 * @param depth the depth of the returned {@code BVHNode3D} instance
+	 * @return a {@code BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure
+	 * @throws IllegalArgumentException thrown if, and only if, {@code depth} is less than {@code 0}
+	 * @throws NullPointerException thrown if, and only if, either {@code processableBVHItems}, at least one of its elements, {@code maximum} or {@code minimum} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public <T extends Shape3D> BVHNode3D build(final List<BVHItem3D<T>> processableBVHItems, final Point3D maximum, final Point3D minimum, final int depth) {
+		Objects.requireNonNull(maximum, "maximum == null");
+		Objects.requireNonNull(minimum, "minimum == null");
+		
+		Ints.requireRange(depth, 0, Integer.MAX_VALUE, "depth");
+		
+		final Primitives<T> primitives = new Primitives<>(Lists.requireNonNull(processableBVHItems, "processableBVHItems"));
+		
+		if(primitives.size() == 0) {
+			return new LeafBVHNode3D<>(maximum, minimum, depth, new ArrayList<T>());
+		}
+		
+		return doBuild(primitives, depth, maximum, minimum);
+	}
+	
+	/**
+	 * Compares {@code object} to this {@code LBVHBuilder3D} instance for equality.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code object} is an instance of {@code LBVHBuilder3D}, and their respective values are equal, {@code false} otherwise.
+	 * 
+	 * @param object the {@code Object} to compare to this {@code LBVHBuilder3D} instance for equality
+	 * @return {@code true} if, and only if, {@code object} is an instance of {@code LBVHBuilder3D}, and their respective values are equal, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean equals(final Object object) {
+		if(object == this) {
+			return true;
+		} else if(!(object instanceof LBVHBuilder3D)) {
+			return false;
+		} else if(this.clusterBitCount != LBVHBuilder3D.class.cast(object).clusterBitCount) {
+			return false;
+		} else if(this.maximumLeafSize != LBVHBuilder3D.class.cast(object).maximumLeafSize) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+	
+	/**
+	 * Returns the number of bits of the Morton codes used to form the clusters below the levels that are refined using the surface area heuristic (SAH).
+	 * <p>
+	 * If the refinement is disabled, {@code 0} will be returned.
+	 * 
+	 * @return the number of bits of the Morton codes used to form the clusters below the levels that are refined using the surface area heuristic (SAH)
+	 */
+//	TODO: Add Unit Tests!
+	public int getClusterBitCount() {
+		return this.clusterBitCount;
+	}
+	
+	/**
+	 * Returns the maximum number of {@link Shape3D} instances in a leaf node.
+	 * 
+	 * @return the maximum number of {@code Shape3D} instances in a leaf node
+	 */
+//	TODO: Add Unit Tests!
+	public int getMaximumLeafSize() {
+		return this.maximumLeafSize;
+	}
+	
+	/**
+	 * Returns a hash code for this {@code LBVHBuilder3D} instance.
+	 * 
+	 * @return a hash code for this {@code LBVHBuilder3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public int hashCode() {
+		return Objects.hash(Integer.valueOf(this.clusterBitCount), Integer.valueOf(this.maximumLeafSize));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private <T extends Shape3D> BVHNode3D doBuild(final Primitives<T> primitives, final int depth, final Point3D maximum, final Point3D minimum) {
+		primitives.sort();
+		
+		if(this.clusterBitCount == 0) {
+			return doBuildLBVH(primitives, 0, primitives.size(), depth, maximum, minimum);
+		}
+		
+		final Clusters clusters = new Clusters(primitives, MORTON_CODE_BIT_COUNT - this.clusterBitCount);
+		
+		return doBuildSAH(primitives, clusters, 0, clusters.size(), depth, maximum, minimum);
+	}
+	
+	private <T extends Shape3D> BVHNode3D doBuildLBVH(final Primitives<T> primitives, final int start, final int end, final int depth, final Point3D maximum, final Point3D minimum) {
+		final int middle = end - start > this.maximumLeafSize ? primitives.findSplit(start, end) : -1;
+		
+		if(middle == -1) {
+			final double[] bounds = maximum == null || minimum == null ? primitives.computeBounds(start, end) : null;
+			
+			final Point3D leafMaximum = bounds != null ? new Point3D(bounds[3], bounds[4], bounds[5]) : maximum;
+			final Point3D leafMinimum = bounds != null ? new Point3D(bounds[0], bounds[1], bounds[2]) : minimum;
+			
+			return new LeafBVHNode3D<>(leafMaximum, leafMinimum, depth, primitives.getShapes(start, end));
+		}
+		
+		final BVHNode3D bVHNodeL = doBuildLBVH(primitives, start, middle, depth + 1, null, null);
+		final BVHNode3D bVHNodeR = doBuildLBVH(primitives, middle, end, depth + 1, null, null);
+		
+		final Point3D treeMaximum = maximum != null ? maximum : Point3D.max(bVHNodeL.getBoundingVolume().max(), bVHNodeR.getBoundingVolume().max());
+		final Point3D treeMinimum = minimum != null ? minimum : Point3D.min(bVHNodeL.getBoundingVolume().min(), bVHNodeR.getBoundingVolume().min());
+		
+		return new TreeBVHNode3D(treeMaximum, treeMinimum, depth, bVHNodeL, bVHNodeR);
+	}
+	
+	private <T extends Shape3D> BVHNode3D doBuildSAH(final Primitives<T> primitives, final Clusters clusters, final int start, final int end, final int depth, final Point3D maximum, final Point3D minimum) {
+		if(end - start == 1) {
+			return doBuildLBVH(primitives, clusters.getStart(start), clusters.getEnd(start), depth, maximum, minimum);
+		}
+		
+		final int middle = clusters.partition(start, end);
+		
+		final BVHNode3D bVHNodeL = doBuildSAH(primitives, clusters, start, middle, depth + 1, null, null);
+		final BVHNode3D bVHNodeR = doBuildSAH(primitives, clusters, middle, end, depth + 1, null, null);
+		
+		final Point3D treeMaximum = maximum != null ? maximum : Point3D.max(bVHNodeL.getBoundingVolume().max(), bVHNodeR.getBoundingVolume().max());
+		final Point3D treeMinimum = minimum != null ? minimum : Point3D.min(bVHNodeL.getBoundingVolume().min(), bVHNodeR.getBoundingVolume().min());
+		
+		return new TreeBVHNode3D(treeMaximum, treeMinimum, depth, bVHNodeL, bVHNodeR);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static double doComputeHalfSurfaceArea(final double[] bounds, final int offset) {
+		final double sideX = bounds[offset + 3] - bounds[offset + 0];
+		final double sideY = bounds[offset + 4] - bounds[offset + 1];
+		final double sideZ = bounds[offset + 5] - bounds[offset + 2];
+		
+		return sideX * sideY + sideY * sideZ + sideZ * sideX;
+	}
+	
+	private static int doQuantize(final double value, final double minimum, final double scale) {
+		return Ints.max(Ints.min((int)((value - minimum) * scale), QUANTIZATION_RESOLUTION - 1), 0);
+	}
+	
+	private static void doInitializeBounds(final double[] bounds, final int offset) {
+		bounds[offset + 0] = Doubles.MAX_VALUE;
+		bounds[offset + 1] = Doubles.MAX_VALUE;
+		bounds[offset + 2] = Doubles.MAX_VALUE;
+		bounds[offset + 3] = Doubles.MIN_VALUE;
+		bounds[offset + 4] = Doubles.MIN_VALUE;
+		bounds[offset + 5] = Doubles.MIN_VALUE;
+	}
+	
+	private static void doMergeBounds(final double[] boundsA, final int offsetA, final double[] boundsB, final int offsetB) {
+		boundsA[offsetA + 0] = Doubles.min(boundsA[offsetA + 0], boundsB[offsetB + 0]);
+		boundsA[offsetA + 1] = Doubles.min(boundsA[offsetA + 1], boundsB[offsetB + 1]);
+		boundsA[offsetA + 2] = Doubles.min(boundsA[offsetA + 2], boundsB[offsetB + 2]);
+		boundsA[offsetA + 3] = Doubles.max(boundsA[offsetA + 3], boundsB[offsetB + 3]);
+		boundsA[offsetA + 4] = Doubles.max(boundsA[offsetA + 4], boundsB[offsetB + 4]);
+		boundsA[offsetA + 5] = Doubles.max(boundsA[offsetA + 5], boundsB[offsetB + 5]);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Clusters {
+		private final double[] bounds;
+		private final double[] centroids;
+		private final int[] indices;
+		private final int[] ranges;
+		
+		public Clusters(final Primitives<?> primitives, final int shift) {
+			final long[] mortonCodes = primitives.getMortonCodes();
+			
+			final int size = primitives.size();
+			
+			int count = 1;
+			
+			for(int i = 1; i < size; i++) {
+				if(mortonCodes[i] >>> shift != mortonCodes[i - 1] >>> shift) {
+					count++;
+				}
+			}
+			
+			this.bounds = new double[count * 6];
+			this.centroids = new double[count * 3];
+			this.indices = new int[count];
+			this.ranges = new int[count * 2];
+			
+			for(int i = 0, cluster = 0; i < size; cluster++) {
+				final int start = i;
+				
+				i++;
+				
+				while(i < size && mortonCodes[i] >>> shift == mortonCodes[start] >>> shift) {
+					i++;
+				}
+				
+				final double[] bounds = primitives.computeBounds(start, i);
+				
+				System.arraycopy(bounds, 0, this.bounds, cluster * 6, 6);
+				
+				this.centroids[cluster * 3 + 0] = (bounds[0] + bounds[3]) * 0.5D;
+				this.centroids[cluster * 3 + 1] = (bounds[1] + bounds[4]) * 0.5D;
+				this.centroids[cluster * 3 + 2] = (bounds[2] + bounds[5]) * 0.5D;
+				
+				this.indices[cluster] = cluster;
+				
+				this.ranges[cluster * 2 + 0] = start;
+				this.ranges[cluster * 2 + 1] = i;
+			}
+		}
+		
+		public int getEnd(final int index) {
+			return this.ranges[this.indices[index] * 2 + 1];
+		}
+		
+		public int getStart(final int index) {
+			return this.ranges[this.indices[index] * 2 + 0];
+		}
+		
+		public int partition(final int start, final int end) {
+			final int binCount = SAHBVHBuilder3D.DEFAULT_BIN_COUNT;
+			
+			final double[] centroidBounds = new double[6];
+			
+			doInitializeBounds(centroidBounds, 0);
+			
+			for(int i = start; i < end; i++) {
+				final int offset = this.indices[i] * 3;
+				
+				centroidBounds[0] = Doubles.min(centroidBounds[0], this.centroids[offset + 0]);
+				centroidBounds[1] = Doubles.min(centroidBounds[1], this.centroids[offset + 1]);
+				centroidBounds[2] = Doubles.min(centroidBounds[2], this.centroids[offset + 2]);
+				centroidBounds[3] = Doubles.max(centroidBounds[3], this.centroids[offset + 0]);
+				centroidBounds[4] = Doubles.max(centroidBounds[4], this.centroids[offset + 1]);
+				centroidBounds[5] = Doubles.max(centroidBounds[5], this.centroids[offset + 2]);
+			}
+			
+			final double[] binBounds = new double[binCount * 6];
+			final double[] boundsL = new double[binCount * 6];
+			final double[] boundsR = new double[6];
+			
+			final int[] binCounts = new int[binCount];
+			
+			double bestCost = Doubles.MAX_VALUE;
+			
+			int bestAxis = -1;
+			int bestBin = -1;
+			
+			for(int axis = 0; axis < 3; axis++) {
+				final double centroidMinimum = centroidBounds[axis];
+				final double centroidMaximum = centroidBounds[axis + 3];
+				
+				if(!(centroidMaximum > centroidMinimum)) {
+					continue;
+				}
+				
+				final double scale = binCount / (centroidMaximum - centroidMinimum);
+				
+				for(int bin = 0; bin < binCount; bin++) {
+					doInitializeBounds(binBounds, bin * 6);
+					
+					binCounts[bin] = 0;
+				}
+				
+				for(int i = start; i < end; i++) {
+					final int index = this.indices[i];
+					final int bin = Ints.min((int)((this.centroids[index * 3 + axis] - centroidMinimum) * scale), binCount - 1);
+					
+					doMergeBounds(binBounds, bin * 6, this.bounds, index * 6);
+					
+					binCounts[bin]++;
+				}
+				
+				doInitializeBounds(boundsL, 0);
+				doMergeBounds(boundsL, 0, binBounds, 0);
+				
+				for(int bin = 1; bin < binCount; bin++) {
+					System.arraycopy(boundsL, (bin - 1) * 6, boundsL, bin * 6, 6);
+					
+					doMergeBounds(boundsL, bin * 6, binBounds, bin * 6);
+				}
+				
+				doInitializeBounds(boundsR, 0);
+				
+				int countL = end - start;
+				int countR = 0;
+				
+				for(int bin = binCount - 1; bin > 0; bin--) {
+					doMergeBounds(boundsR, 0, binBounds, bin * 6);
+					
+					countL -= binCounts[bin];
+					countR += binCounts[bin];
+					
+					if(countL == 0 || countR == 0) {
+						continue;
+					}
+					
+					final double cost = countL * doComputeHalfSurfaceArea(boundsL, (bin - 1) * 6) + countR * doComputeHalfSurfaceArea(boundsR, 0);
+					
+					if(cost < bestCost) {
+						bestCost = cost;
+						bestAxis = axis;
+						bestBin = bin - 1;
+					}
+				}
+			}
+			
+			if(bestAxis == -1) {
+				return (start + end) >>> 1;
+			}
+			
+			final double centroidMinimum = centroidBounds[bestAxis];
+			final double scale = binCount / (centroidBounds[bestAxis + 3] - centroidMinimum);
+			
+			int i = start;
+			int j = end - 1;
+			
+			while(i <= j) {
+				if(Ints.min((int)((this.centroids[this.indices[i] * 3 + bestAxis] - centroidMinimum) * scale), binCount - 1) <= bestBin) {
+					i++;
+				} else {
+					final int index = this.indices[i];
+					
+					this.indices[i] = this.indices[j];
+					this.indices[j] = index;
+					
+					j--;
+				}
+			}
+			
+			return i;
+		}
+		
+		public int size() {
+			return this.indices.length;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Primitives<T extends Shape3D> {
+		private final List<BVHItem3D<T>> processableBVHItems;
+		private final double[] bounds;
+		private long[] mortonCodes;
+		private int[] indices;
+		
+		public Primitives(final List<BVHItem3D<T>> processableBVHItems) {
+			final int size = processableBVHItems.size();
+			
+			this.processableBVHItems = new ArrayList<>(processableBVHItems);
+			this.bounds = new double[size * 6];
+			this.mortonCodes = new long[size];
+			this.indices = new int[size];
+			
+			final double[] centroidBounds = new double[6];
+			
+			doInitializeBounds(centroidBounds, 0);
+			
+			for(int i = 0; i < size; i++) {
+				final BoundingVolume3D boundingVolume = this.processableBVHItems.get(i).getBoundingVolume();
+				
+				final Point3D max = boundingVolume.max();
+				final Point3D min = boundingVolume.min();
+				
+				this.bounds[i * 6 + 0] = min.x;
+				this.bounds[i * 6 + 1] = min.y;
+				this.bounds[i * 6 + 2] = min.z;
+				this.bounds[i * 6 + 3] = max.x;
+				this.bounds[i * 6 + 4] = max.y;
+				this.bounds[i * 6 + 5] = max.z;
+				
+				centroidBounds[0] = Doubles.min(centroidBounds[0], (min.x + max.x) * 0.5D);
+				centroidBounds[1] = Doubles.min(centroidBounds[1], (min.y + max.y) * 0.5D);
+				centroidBounds[2] = Doubles.min(centroidBounds[2], (min.z + max.z) * 0.5D);
+				centroidBounds[3] = Doubles.max(centroidBounds[3], (min.x + max.x) * 0.5D);
+				centroidBounds[4] = Doubles.max(centroidBounds[4], (min.y + max.y) * 0.5D);
+				centroidBounds[5] = Doubles.max(centroidBounds[5], (min.z + max.z) * 0.5D);
+				
+				this.indices[i] = i;
+			}
+			
+			final double scaleX = centroidBounds[3] > centroidBounds[0] ? QUANTIZATION_RESOLUTION / (centroidBounds[3] - centroidBounds[0]) : 0.0D;
+			final double scaleY = centroidBounds[4] > centroidBounds[1] ? QUANTIZATION_RESOLUTION / (centroidBounds[4] - centroidBounds[1]) : 0.0D;
+			final double scaleZ = centroidBounds[5] > centroidBounds[2] ? QUANTIZATION_RESOLUTION / (centroidBounds[5] - centroidBounds[2]) : 0.0D;
+			
+			for(int i = 0; i < size; i++) {
+				final int x = doQuantize((this.bounds[i * 6 + 0] + this.bounds[i * 6 + 3]) * 0.5D, centroidBounds[0], scaleX);
+				final int y = doQuantize((this.bounds[i * 6 + 1] + this.bounds[i * 6 + 4]) * 0.5D, centroidBounds[1], scaleY);
+				final int z = doQuantize((this.bounds[i * 6 + 2] + this.bounds[i * 6 + 5]) * 0.5D, centroidBounds[2], scaleZ);
+				
+				this.mortonCodes[i] = MortonCodes.encode1By2Long(x, y, z);
+			}
+		}
+		
+		public List<T> getShapes(final int start, final int end) {
+			final List<T> shapes = new ArrayList<>(end - start);
+			
+			for(int i = start; i < end; i++) {
+				shapes.add(this.processableBVHItems.get(this.indices[i]).getShape());
+			}
+			
+			return shapes;
+		}
+		
+		public double[] computeBounds(final int start, final int end) {
+			final double[] bounds = new double[6];
+			
+			doInitializeBounds(bounds, 0);
+			
+			for(int i = start; i < end; i++) {
+				doMergeBounds(bounds, 0, this.bounds, this.indices[i] * 6);
+			}
+			
+			return bounds;
+		}
+		
+		public int findSplit(final int start, final int end) {
+			final long mortonCodeFirst = this.mortonCodes[start];
+			final long mortonCodeLast = this.mortonCodes[end - 1];
+			
+			if(mortonCodeFirst == mortonCodeLast) {
+				return end - start > 1 ? (start + end) >>> 1 : -1;
+			}
+			
+			final long mask = Long.highestOneBit(mortonCodeFirst ^ mortonCodeLast);
+			
+			int low = start;
+			int high = end - 1;
+			
+			while(low < high) {
+				final int middle = (low + high) >>> 1;
+				
+				if((this.mortonCodes[middle] & mask) != 0L) {
+					high = middle;
+				} else {
+					low = middle + 1;
+				}
+			}
+			
+			return low;
+		}
+		
+		public int size() {
+			return this.indices.length;
+		}
+		
+		public long[] getMortonCodes() {
+			return this.mortonCodes;
+		}
+		
+		public void sort() {
+			final int size = this.indices.length;
+			
+			final int radixCount = 1 << RADIX_BIT_COUNT;
+			final int radixMask = radixCount - 1;
+			
+			final int[] counts = new int[radixCount];
+			
+			long[] mortonCodesSource = this.mortonCodes;
+			long[] mortonCodesTarget = new long[size];
+			
+			int[] indicesSource = this.indices;
+			int[] indicesTarget = new int[size];
+			
+			for(int shift = 0; shift < MORTON_CODE_BIT_COUNT; shift += RADIX_BIT_COUNT) {
+				Arrays.fill(counts, 0);
+				
+				for(int i = 0; i < size; i++) {
+					counts[(int)(mortonCodesSource[i] >>> shift) & radixMask]++;
+				}
+				
+				if(counts[(int)(mortonCodesSource[0] >>> shift) & radixMask] == size) {
+					continue;
+				}
+				
+				for(int i = 0, offset = 0; i < radixCount; i++) {
+					final int count = counts[i];
+					
+					counts[i] = offset;
+					
+					offset += count;
+				}
+				
+				for(int i = 0; i < size; i++) {
+					final int j = counts[(int)(mortonCodesSource[i] >>> shift) & radixMask]++;
+					
+					mortonCodesTarget[j] = mortonCodesSource[i];
+					
+					indicesTarget[j] = indicesSource[i];
+				}
+				
+				final long[] mortonCodes = mortonCodesSource;
+				
+				mortonCodesSource = mortonCodesTarget;
+				mortonCodesTarget = mortonCodes;
+				
+				final int[] indices = indicesSource;
+				
+				indicesSource = indicesTarget;
+				indicesTarget = indices;
+			}
+			
+			this.mortonCodes = mortonCodesSource;
+			this.indices = indicesSource;
+		}
+	}
+}
\ No newline at end of file
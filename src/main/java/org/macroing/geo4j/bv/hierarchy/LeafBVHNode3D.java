@@ -172,19 +172,7 @@ public final class LeafBVHNode3D<T extends Shape3D> extends BVHNode3D {
 //	TODO: Add Unit Tests!
 	@Override
 	public boolean intersection(final SurfaceIntersector3D surfaceIntersector) {
-		if(surfaceIntersector.isIntersecting(getBoundingVolume())) {
-			boolean isIntersecting = false;
-			
-			for(final Shape3D shape : this.shapes) {
-				if(surfaceIntersector.intersection(shape)) {
-					isIntersecting = true;
-				}
-			}
-			
-			return isIntersecting;
-		}
-		
-		return false;
+		return surfaceIntersector.isIntersecting(getBoundingVolume()) && doIntersection(surfaceIntersector);
 	}
 	
 	/**
@@ -284,19 +272,7 @@ public final class LeafBVHNode3D<T extends Shape3D> extends BVHNode3D {
 //	TODO: Add Unit Tests!
 	@Override
 	protected Optional<SurfaceIntersection3D> intersection(final Ray3D ray, final double[] tBounds) {
-		Optional<SurfaceIntersection3D> optionalSurfaceIntersection = SurfaceIntersection3D.EMPTY;
-		
-		if(getBoundingVolume().contains(ray.getOrigin()) || getBoundingVolume().intersects(ray, tBounds[0], tBounds[1])) {
-			for(final Shape3D shape : this.shapes) {
-				optionalSurfaceIntersection = SurfaceIntersection3D.closest(optionalSurfaceIntersection, shape.intersection(ray, tBounds[0], tBounds[1]));
-				
-				if(optionalSurfaceIntersection.isPresent()) {
-					tBounds[1] = optionalSurfaceIntersection.get().getT();
-				}
-			}
-		}
-		
-		return optionalSurfaceIntersection;
+		return getBoundingVolume().contains(ray.getOrigin()) || getBoundingVolume().intersects(ray, tBounds[0], tBounds[1]) ? doIntersection(ray, tBounds) : SurfaceIntersection3D.EMPTY;
 	}
 	
 	/**
@@ -314,15 +290,49 @@ public final class LeafBVHNode3D<T extends Shape3D> extends BVHNode3D {
 //	TODO: Add Unit Tests!
 	@Override
 	protected double intersectionT(final Ray3D ray, final double[] tBounds) {
-		double t = Double.NaN;
+		return getBoundingVolume().contains(ray.getOrigin()) || getBoundingVolume().intersects(ray, tBounds[0], tBounds[1]) ? doIntersectionT(ray, tBounds) : Double.NaN;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	Optional<SurfaceIntersection3D> doIntersection(final Ray3D ray, final double[] tBounds) {
+		final double tMaximum = tBounds[1];
 		
-		if(getBoundingVolume().contains(ray.getOrigin()) || getBoundingVolume().intersects(ray, tBounds[0], tBounds[1])) {
-			for(final Shape3D shape : this.shapes) {
-				t = Doubles.minOrDefault(t, shape.intersectionT(ray, tBounds[0], tBounds[1]), Double.NaN);
+		Shape3D shapeClosest = null;
+		
+		for(final Shape3D shape : this.shapes) {
+			final double t = shape.intersectionT(ray, tBounds[0], tBounds[1]);
+			
+			if(!Doubles.isNaN(t)) {
+				tBounds[1] = t;
 				
-				if(!Doubles.isNaN(t)) {
-					tBounds[1] = t;
-				}
+				shapeClosest = shape;
+			}
+		}
+		
+		return shapeClosest != null ? shapeClosest.intersection(ray, tBounds[0], tMaximum) : SurfaceIntersection3D.EMPTY;
+	}
+	
+	boolean doIntersection(final SurfaceIntersector3D surfaceIntersector) {
+		boolean isIntersecting = false;
+		
+		for(final Shape3D shape : this.shapes) {
+			if(shape.intersection(surfaceIntersector)) {
+				isIntersecting = true;
+			}
+		}
+		
+		return isIntersecting;
+	}
+	
+	double doIntersectionT(final Ray3D ray, final double[] tBounds) {
+		double t = Double.NaN;
+		
+		for(final Shape3D shape : this.shapes) {
+			t = Doubles.minOrDefault(t, shape.intersectionT(ray, tBounds[0], tBounds[1]), Double.NaN);
+			
+			if(!Doubles.isNaN(t)) {
+				tBounds[1] = t;
 			}
 		}
 		
@@ -0,0 +1,704 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.ray.TraversalRay3D;
+import org.macroing.geo4j.shape.Shape3D;
+import org.macroing.geo4j.shape.SurfaceIntersection3D;
+import org.macroing.geo4j.shape.SurfaceIntersector3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+
+/**
+ * A {@code QuantizedBVH3D} is a {@code double}-based bounding volume hierarchy (BVH) structure that has been flattened into primitive arrays with quantized bounds.
+ * <p>
+ * The nodes are stored in depth-first order, like in a {@link CompiledBVH3D} instance. Only the bounds of the root node are stored as {@code double} values. The bounds of every other node are stored as 8-bit or 16-bit offsets relative to the bounds of its parent node, in a single
+ * contiguous array. With 16-bit offsets, a node requires 20 bytes, compared to 56 bytes in a {@code CompiledBVH3D} instance and more than 100 bytes in a {@link BVHNode3D} instance.
+ * <p>
+ * The bounds are decoded during the traversal. The quantization always rounds outwards, and the bounds of a node are quantized relative to the decoded bounds of its parent node, so the decoded bounds always contain the original bounds. The traversal may therefore visit a few more nodes
+ * than necessary, but it never misses an intersection.
+ * <p>
+ * The traversal stacks are allocated once per thread and reused by every query of that thread, so a query does not allocate them.
+ * <p>
+ * This class is immutable and therefore thread-safe, if, and only if, all {@link Shape3D} instances are.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class QuantizedBVH3D {
+	/**
+	 * The default number of bits used for each quantized offset.
+	 */
+	public static final int DEFAULT_BITS = 16;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final Shape3D[] shapes;
+	private final byte[] quantizedBounds8;
+	private final double[] bounds;
+	private final int[] offsets;
+	private final int bits;
+	private final int levels;
+	private final int stackSize;
+	private final short[] quantizedBounds16;
+	private final ThreadLocal<Scratch> scratch;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code QuantizedBVH3D} instance by flattening and quantizing {@code bVHNode}.
+	 * <p>
+	 * If {@code bVHNode} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code bVHNode}, or any of its descendants, is neither a {@link LeafBVHNode3D} nor a {@link TreeBVHNode3D}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * Calling this constructor is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * new QuantizedBVH3D(bVHNode, QuantizedBVH3D.DEFAULT_BITS);
+	 * }
+	 * </pre>
+	 * 
+	 * @param bVHNode the {@link BVHNode3D} instance to flatten and quantize
+	 * @throws IllegalArgumentException thrown if, and only if, {@code bVHNode}, or any of its descendants, is neither a {@code LeafBVHNode3D} nor a {@code TreeBVHNode3D}
+	 * @throws NullPointerException thrown if, and only if, {@code bVHNode} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public QuantizedBVH3D(final BVHNode3D bVHNode) {
+		this(bVHNode, DEFAULT_BITS);
+	}
+	
+	/**
+	 * Constructs a new {@code QuantizedBVH3D} instance by flattening and quantizing {@code bVHNode}.
+	 * <p>
+	 * If {@code bVHNode} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code bVHNode}, or any of its descendants, is neither a {@link LeafBVHNode3D} nor a {@link TreeBVHNode3D}, or {@code bits} is neither {@code 8} nor {@code 16}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param bVHNode the {@link BVHNode3D} instance to flatten and quantize
+	 * @param bits the number of bits used for each quantized offset, which must be {@code 8} or {@code 16}
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code bVHNode}, or any of its descendants, is neither a {@code LeafBVHNode3D} nor a {@code TreeBVHNode3D}, or {@code bits} is neither {@code 8} nor {@code 16}
+	 * @throws NullPointerException thrown if, and only if, {@code bVHNode} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public QuantizedBVH3D(final BVHNode3D bVHNode, final int bits) {
+		Objects.requireNonNull(bVHNode, "bVHNode == null");
+		
+		if(bits != 8 && bits != 16) {
+			throw new IllegalArgumentException(String.format("bits != 8 && bits != 16: bits = %d", Integer.valueOf(bits)));
+		}
+		
+		final int[] counts = new int[3];
+		
+		doCount(bVHNode, 1, counts);
+		
+		final List<Shape3D> shapes = new ArrayList<>(counts[1]);
+		
+		final double[] boundsExact = new double[counts[0] * 6];
+		
+		this.offsets = new int[counts[0] * 2];
+		
+		doFlatten(bVHNode, boundsExact, this.offsets, shapes, 0);
+		
+		this.bits = bits;
+		this.bounds = Arrays.copyOf(boundsExact, 6);
+		this.levels = (1 << bits) - 1;
+		this.quantizedBounds8 = bits == 8 ? new byte[counts[0] * 6] : null;
+		this.quantizedBounds16 = bits == 16 ? new short[counts[0] * 6] : null;
+		this.shapes = shapes.toArray(new Shape3D[shapes.size()]);
+		this.stackSize = counts[2];
+		this.scratch = ThreadLocal.withInitial(() -> new Scratch(counts[2]));
+		
+		doQuantize(boundsExact);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns the {@link BoundingVolume3D} instance that contains this {@code QuantizedBVH3D} instance.
+	 * 
+	 * @return the {@code BoundingVolume3D} instance that contains this {@code QuantizedBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public BoundingVolume3D getBoundingVolume() {
+		return new AxisAlignedBoundingBox3D(new Point3D(this.bounds[3], this.bounds[4], this.bounds[5]), new Point3D(this.bounds[0], this.bounds[1], this.bounds[2]));
+	}
+	
+	/**
+	 * Returns a {@code List} with all {@link Shape3D} instances associated with this {@code QuantizedBVH3D} instance.
+	 * <p>
+	 * The {@code Shape3D} instances are returned in the order they are stored, so the index of a {@code Shape3D} instance in the returned {@code List} can be used together with {@link #getShape(int)}.
+	 * <p>
+	 * Modification to the returned {@code List} will not affect this {@code QuantizedBVH3D} instance.
+	 * 
+	 * @return a {@code List} with all {@code Shape3D} instances associated with this {@code QuantizedBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public List<Shape3D> getShapes() {
+		return new ArrayList<>(Arrays.asList(this.shapes));
+	}
+	
+	/**
+	 * Performs an intersection test between {@code ray} and this {@code QuantizedBVH3D} instance.
+	 * <p>
+	 * Returns an {@code Optional} with an optional {@link SurfaceIntersection3D} instance that contains information about the intersection, if it was found.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * Only the {@link Shape3D} instance that is closest to the origin of {@code ray} will compute a {@code SurfaceIntersection3D} instance.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code QuantizedBVH3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return an {@code Optional} with an optional {@code SurfaceIntersection3D} instance that contains information about the intersection, if it was found
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public Optional<SurfaceIntersection3D> intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final int shapeIndex = doIntersection(Objects.requireNonNull(ray, "ray == null"), new double[] {tMinimum, tMaximum});
+		
+		return shapeIndex >= 0 ? this.shapes[shapeIndex].intersection(ray, tMinimum, tMaximum) : SurfaceIntersection3D.EMPTY;
+	}
+	
+	/**
+	 * Returns the {@link Shape3D} instance at index {@code index}.
+	 * <p>
+	 * If {@code index} is less than {@code 0}, or greater than or equal to {@code getShapeCount()}, an {@code ArrayIndexOutOfBoundsException} will be thrown.
+	 * 
+	 * @param index the index of the {@code Shape3D} instance
+	 * @return the {@code Shape3D} instance at index {@code index}
+	 * @throws ArrayIndexOutOfBoundsException thrown if, and only if, {@code index} is less than {@code 0}, or greater than or equal to {@code getShapeCount()}
+	 */
+//	TODO: Add Unit Tests!
+	public Shape3D getShape(final int index) {
+		return this.shapes[index];
+	}
+	
+	/**
+	 * Compares {@code object} to this {@code QuantizedBVH3D} instance for equality.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code object} is an instance of {@code QuantizedBVH3D}, and their respective values are equal, {@code false} otherwise.
+	 * 
+	 * @param object the {@code Object} to compare to this {@code QuantizedBVH3D} instance for equality
+	 * @return {@code true} if, and only if, {@code object} is an instance of {@code QuantizedBVH3D}, and their respective values are equal, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean equals(final Object object) {
+		if(object == this) {
+			return true;
+		} else if(!(object instanceof QuantizedBVH3D)) {
+			return false;
+		} else if(!Arrays.equals(this.shapes, QuantizedBVH3D.class.cast(object).shapes)) {
+			return false;
+		} else if(!Arrays.equals(this.quantizedBounds8, QuantizedBVH3D.class.cast(object).quantizedBounds8)) {
+			return false;
+		} else if(!Arrays.equals(this.bounds, QuantizedBVH3D.class.cast(object).bounds)) {
+			return false;
+		} else if(!Arrays.equals(this.offsets, QuantizedBVH3D.class.cast(object).offsets)) {
+			return false;
+		} else if(this.bits != QuantizedBVH3D.class.cast(object).bits) {
+			return false;
+		} else if(this.stackSize != QuantizedBVH3D.class.cast(object).stackSize) {
+			return false;
+		} else if(!Arrays.equals(this.quantizedBounds16, QuantizedBVH3D.class.cast(object).quantizedBounds16)) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+	
+	/**
+	 * Performs an intersection test between {@code surfaceIntersector} and this {@code QuantizedBVH3D} instance.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code QuantizedBVH3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code surfaceIntersector} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param surfaceIntersector a {@link SurfaceIntersector3D} instance
+	 * @return {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code QuantizedBVH3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code surfaceIntersector} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public boolean intersection(final SurfaceIntersector3D surfaceIntersector) {
+		final Ray3D ray = surfaceIntersector.getRay();
+		
+		final Scratch scratch = this.scratch.get();
+		
+		final double[] rayData = doSetRayData(ray, scratch.rayData);
+		final double[] stackBounds = scratch.stackBounds;
+		
+		final int[] stack = scratch.stack;
+		
+		boolean isIntersecting = false;
+		
+		int stackIndex = 1;
+		
+		System.arraycopy(this.bounds, 0, stackBounds, 0, 6);
+		
+		stack[0] = 0;
+		
+		while(stackIndex > 0) {
+			stackIndex--;
+			
+			final int nodeIndex = stack[stackIndex];
+			
+			if(Doubles.isNaN(doIntersect(stackBounds, stackIndex * 6, rayData, surfaceIntersector.getTMinimum(), surfaceIntersector.getTMaximum()))) {
+				continue;
+			}
+			
+			final int offset = this.offsets[nodeIndex * 2 + 0];
+			final int count = this.offsets[nodeIndex * 2 + 1];
+			
+			if(count < 0) {
+				doDecode(offset, stackBounds, stackIndex * 6, stackBounds, stackIndex * 6 + 6);
+				doDecode(nodeIndex + 1, stackBounds, stackIndex * 6, stackBounds, stackIndex * 6);
+				
+				stack[stackIndex++] = nodeIndex + 1;
+				stack[stackIndex++] = offset;
+				
+				continue;
+			}
+			
+			for(int i = offset; i < offset + count; i++) {
+				if(this.shapes[i].intersection(surfaceIntersector)) {
+					isIntersecting = true;
+				}
+			}
+		}
+		
+		return isIntersecting;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, {@code ray} intersects this {@code QuantizedBVH3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code QuantizedBVH3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code true} if, and only if, {@code ray} intersects this {@code QuantizedBVH3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public boolean intersects(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final Scratch scratch = this.scratch.get();
+		
+		final double[] rayData = doSetRayData(ray, scratch.rayData);
+		final double[] stackBounds = scratch.stackBounds;
+		
+		final int[] stack = scratch.stack;
+		
+		int stackIndex = 1;
+		
+		System.arraycopy(this.bounds, 0, stackBounds, 0, 6);
+		
+		stack[0] = 0;
+		
+		while(stackIndex > 0) {
+			stackIndex--;
+			
+			final int nodeIndex = stack[stackIndex];
+			
+			if(Doubles.isNaN(doIntersect(stackBounds, stackIndex * 6, rayData, tMinimum, tMaximum))) {
+				continue;
+			}
+			
+			final int offset = this.offsets[nodeIndex * 2 + 0];
+			final int count = this.offsets[nodeIndex * 2 + 1];
+			
+			if(count < 0) {
+				doDecode(offset, stackBounds, stackIndex * 6, stackBounds, stackIndex * 6 + 6);
+				doDecode(nodeIndex + 1, stackBounds, stackIndex * 6, stackBounds, stackIndex * 6);
+				
+				stack[stackIndex++] = nodeIndex + 1;
+				stack[stackIndex++] = offset;
+				
+				continue;
+			}
+			
+			for(int i = offset; i < offset + count; i++) {
+				if(this.shapes[i].intersects(ray, tMinimum, tMaximum)) {
+					return true;
+				}
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Performs an intersection test between {@code ray} and this {@code QuantizedBVH3D} instance.
+	 * <p>
+	 * Returns {@code t}, the parametric distance to the surface intersection point, or {@code Double.NaN} if no intersection exists.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code QuantizedBVH3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code t}, the parametric distance to the surface intersection point, or {@code Double.NaN} if no intersection exists
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public double intersectionT(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final double[] tBounds = new double[] {tMinimum, tMaximum};
+		
+		return doIntersection(Objects.requireNonNull(ray, "ray == null"), tBounds) >= 0 ? tBounds[1] : Double.NaN;
+	}
+	
+	/**
+	 * Returns the number of bits used for each quantized offset of this {@code QuantizedBVH3D} instance.
+	 * 
+	 * @return the number of bits used for each quantized offset of this {@code QuantizedBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getBits() {
+		return this.bits;
+	}
+	
+	/**
+	 * Returns the node count of this {@code QuantizedBVH3D} instance.
+	 * 
+	 * @return the node count of this {@code QuantizedBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getNodeCount() {
+		return this.offsets.length / 2;
+	}
+	
+	/**
+	 * Returns the {@link Shape3D} instance count of this {@code QuantizedBVH3D} instance.
+	 * 
+	 * @return the {@code Shape3D} instance count of this {@code QuantizedBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getShapeCount() {
+		return this.shapes.length;
+	}
+	
+	/**
+	 * Returns a hash code for this {@code QuantizedBVH3D} instance.
+	 * 
+	 * @return a hash code for this {@code QuantizedBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public int hashCode() {
+		return Objects.hash(Integer.valueOf(Arrays.hashCode(this.shapes)), Integer.valueOf(Arrays.hashCode(this.quantizedBounds8)), Integer.valueOf(Arrays.hashCode(this.bounds)), Integer.valueOf(Arrays.hashCode(this.offsets)), Integer.valueOf(this.bits), Integer.valueOf(this.stackSize), Integer.valueOf(Arrays.hashCode(this.quantizedBounds16)));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private double doDecode(final double minimum, final double maximum, final int quantized) {
+//		The end points are returned as they are, so the decoded bounds of a node may coincide with the decoded bounds of its parent node, even if their extent is infinite:
+		if(quantized == 0) {
+			return minimum;
+		} else if(quantized == this.levels) {
+			return maximum;
+		} else {
+			return minimum + (maximum - minimum) * ((double)(quantized) / this.levels);
+		}
+	}
+	
+	private int doGetQuantized(final int index) {
+		return this.bits == 8 ? this.quantizedBounds8[index] & 0xFF : this.quantizedBounds16[index] & 0xFFFF;
+	}
+	
+	private int doIntersection(final Ray3D ray, final double[] tBounds) {
+		final Scratch scratch = this.scratch.get();
+		
+		final double[] rayData = doSetRayData(ray, scratch.rayData);
+		final double[] stackBounds = scratch.stackBounds;
+		final double[] stackT = scratch.stackT;
+		
+		final double tMinimum = tBounds[0];
+		
+		final int[] stack = scratch.stack;
+		
+		double tMaximum = tBounds[1];
+		
+		int shapeIndex = -1;
+		int stackIndex = 1;
+		
+		System.arraycopy(this.bounds, 0, stackBounds, 0, 6);
+		
+		stack[0] = 0;
+		
+		stackT[0] = doIntersect(stackBounds, 0, rayData, tMinimum, tMaximum);
+		
+		while(stackIndex > 0) {
+			stackIndex--;
+			
+			final int nodeIndex = stack[stackIndex];
+			
+			if(Doubles.isNaN(stackT[stackIndex]) || stackT[stackIndex] > tMaximum) {
+				continue;
+			}
+			
+			final int offset = this.offsets[nodeIndex * 2 + 0];
+			final int count = this.offsets[nodeIndex * 2 + 1];
+			
+			if(count < 0) {
+//				The bounds of the right child are decoded into the next stack slot before the bounds of the left child overwrite the bounds of the parent node:
+				doDecode(offset, stackBounds, stackIndex * 6, stackBounds, stackIndex * 6 + 6);
+				doDecode(nodeIndex + 1, stackBounds, stackIndex * 6, stackBounds, stackIndex * 6);
+				
+				final double tL = doIntersect(stackBounds, stackIndex * 6, rayData, tMinimum, tMaximum);
+				final double tR = doIntersect(stackBounds, stackIndex * 6 + 6, rayData, tMinimum, tMaximum);
+				
+//				The child node that is popped first, which is the nearer one, is pushed last:
+				if(Doubles.isNaN(tR) || !Doubles.isNaN(tL) && tL <= tR) {
+					stack[stackIndex] = offset;
+					stackT[stackIndex] = tR;
+					
+					doSwap(stackBounds, stackIndex * 6, stackIndex * 6 + 6);
+					
+					stackIndex++;
+					
+					stack[stackIndex] = nodeIndex + 1;
+					stackT[stackIndex] = tL;
+					
+					stackIndex++;
+				} else {
+					stack[stackIndex] = nodeIndex + 1;
+					stackT[stackIndex] = tL;
+					
+					stackIndex++;
+					
+					stack[stackIndex] = offset;
+					stackT[stackIndex] = tR;
+					
+					stackIndex++;
+				}
+				
+				continue;
+			}
+			
+			for(int i = offset; i < offset + count; i++) {
+				final double t = this.shapes[i].intersectionT(ray, tMinimum, tMaximum);
+				
+				if(!Doubles.isNaN(t) && t < tMaximum) {
+					tMaximum = t;
+					
+					shapeIndex = i;
+				}
+			}
+		}
+		
+		if(shapeIndex >= 0) {
+			tBounds[1] = tMaximum;
+		}
+		
+		return shapeIndex;
+	}
+	
+	private void doDecode(final int nodeIndex, final double[] boundsParent, final int offsetParent, final double[] bounds, final int offset) {
+		final double minimumX = boundsParent[offsetParent + 0];
+		final double minimumY = boundsParent[offsetParent + 1];
+		final double minimumZ = boundsParent[offsetParent + 2];
+		final double maximumX = boundsParent[offsetParent + 3];
+		final double maximumY = boundsParent[offsetParent + 4];
+		final double maximumZ = boundsParent[offsetParent + 5];
+		
+		bounds[offset + 0] = doDecode(minimumX, maximumX, doGetQuantized(nodeIndex * 6 + 0));
+		bounds[offset + 1] = doDecode(minimumY, maximumY, doGetQuantized(nodeIndex * 6 + 1));
+		bounds[offset + 2] = doDecode(minimumZ, maximumZ, doGetQuantized(nodeIndex * 6 + 2));
+		bounds[offset + 3] = doDecode(minimumX, maximumX, doGetQuantized(nodeIndex * 6 + 3));
+		bounds[offset + 4] = doDecode(minimumY, maximumY, doGetQuantized(nodeIndex * 6 + 4));
+		bounds[offset + 5] = doDecode(minimumZ, maximumZ, doGetQuantized(nodeIndex * 6 + 5));
+	}
+	
+	private void doQuantize(final double[] boundsExact) {
+		final double[] boundsDecoded = new double[boundsExact.length];
+		
+		System.arraycopy(boundsExact, 0, boundsDecoded, 0, 6);
+		
+		for(int i = 0; i < 3; i++) {
+			doSetQuantized(i + 0, 0);
+			doSetQuantized(i + 3, this.levels);
+		}
+		
+//		The parent node of a node always precedes it in depth-first order, so its decoded bounds are available when the node is quantized:
+		for(int nodeIndex = 0; nodeIndex < this.offsets.length / 2; nodeIndex++) {
+			if(this.offsets[nodeIndex * 2 + 1] < 0) {
+				doQuantize(nodeIndex + 1, boundsExact, boundsDecoded, nodeIndex);
+				doQuantize(this.offsets[nodeIndex * 2 + 0], boundsExact, boundsDecoded, nodeIndex);
+			}
+		}
+	}
+	
+	private void doQuantize(final int nodeIndex, final double[] boundsExact, final double[] boundsDecoded, final int nodeIndexParent) {
+		for(int i = 0; i < 3; i++) {
+			final double minimum = boundsDecoded[nodeIndexParent * 6 + i + 0];
+			final double maximum = boundsDecoded[nodeIndexParent * 6 + i + 3];
+			final double extent = maximum - minimum;
+			
+			final double minimumExact = boundsExact[nodeIndex * 6 + i + 0];
+			final double maximumExact = boundsExact[nodeIndex * 6 + i + 3];
+			
+			int quantizedMinimum = 0;
+			int quantizedMaximum = this.levels;
+			
+			if(extent > 0.0D && !Doubles.isInfinite(extent) && !Doubles.isNaN(minimumExact) && !Doubles.isNaN(maximumExact)) {
+				quantizedMinimum = Ints.max((int)(Doubles.floor((minimumExact - minimum) / extent * this.levels)), 0);
+				quantizedMaximum = Ints.min((int)(Doubles.ceil((maximumExact - minimum) / extent * this.levels)), this.levels);
+				
+//				The rounding of the decoding may differ from the rounding above, so the quantized values are adjusted until they are conservative:
+				while(quantizedMinimum > 0 && doDecode(minimum, maximum, quantizedMinimum) > minimumExact) {
+					quantizedMinimum--;
+				}
+				
+				while(quantizedMaximum < this.levels && doDecode(minimum, maximum, quantizedMaximum) < maximumExact) {
+					quantizedMaximum++;
+				}
+				
+				quantizedMinimum = Ints.min(quantizedMinimum, quantizedMaximum);
+			}
+			
+			doSetQuantized(nodeIndex * 6 + i + 0, quantizedMinimum);
+			doSetQuantized(nodeIndex * 6 + i + 3, quantizedMaximum);
+			
+			boundsDecoded[nodeIndex * 6 + i + 0] = doDecode(minimum, maximum, quantizedMinimum);
+			boundsDecoded[nodeIndex * 6 + i + 3] = doDecode(minimum, maximum, quantizedMaximum);
+		}
+	}
+	
+	private void doSetQuantized(final int index, final int quantized) {
+		if(this.bits == 8) {
+			this.quantizedBounds8[index] = (byte)(quantized);
+		} else {
+			this.quantizedBounds16[index] = (short)(quantized);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static double doIntersect(final double[] bounds, final int offset, final double[] rayData, final double tMinimum, final double tMaximum) {
+		return TraversalRay3D.intersectionEntry(rayData[0], rayData[1], rayData[2], rayData[3], rayData[4], rayData[5], bounds[offset + 0], bounds[offset + 1], bounds[offset + 2], bounds[offset + 3], bounds[offset + 4], bounds[offset + 5], tMinimum, tMaximum);
+	}
+	
+	private static double[] doSetRayData(final Ray3D ray, final double[] rayData) {
+		final Point3D origin = ray.getOrigin();
+		
+		final Vector3D direction = ray.getDirection();
+		
+		rayData[0] = origin.x;
+		rayData[1] = origin.y;
+		rayData[2] = origin.z;
+		rayData[3] = 1.0D / direction.x;
+		rayData[4] = 1.0D / direction.y;
+		rayData[5] = 1.0D / direction.z;
+		
+		return rayData;
+	}
+	
+	private static int doFlatten(final BVHNode3D bVHNode, final double[] bounds, final int[] offsets, final List<Shape3D> shapes, final int nodeIndex) {
+		final BoundingVolume3D boundingVolume = bVHNode.getBoundingVolume();
+		
+		final Point3D max = boundingVolume.max();
+		final Point3D min = boundingVolume.min();
+		
+		bounds[nodeIndex * 6 + 0] = min.x;
+		bounds[nodeIndex * 6 + 1] = min.y;
+		bounds[nodeIndex * 6 + 2] = min.z;
+		bounds[nodeIndex * 6 + 3] = max.x;
+		bounds[nodeIndex * 6 + 4] = max.y;
+		bounds[nodeIndex * 6 + 5] = max.z;
+		
+		if(bVHNode instanceof LeafBVHNode3D) {
+			final LeafBVHNode3D<?> leafBVHNode = LeafBVHNode3D.class.cast(bVHNode);
+			
+			offsets[nodeIndex * 2 + 0] = shapes.size();
+			offsets[nodeIndex * 2 + 1] = leafBVHNode.getShapeCount();
+			
+			shapes.addAll(leafBVHNode.getShapes());
+			
+			return nodeIndex + 1;
+		}
+		
+		final TreeBVHNode3D treeBVHNode = TreeBVHNode3D.class.cast(bVHNode);
+		
+		final int nodeIndexR = doFlatten(treeBVHNode.getBVHNodeL(), bounds, offsets, shapes, nodeIndex + 1);
+		final int nodeIndexNext = doFlatten(treeBVHNode.getBVHNodeR(), bounds, offsets, shapes, nodeIndexR);
+		
+		offsets[nodeIndex * 2 + 0] = nodeIndexR;
+		offsets[nodeIndex * 2 + 1] = -1;
+		
+//		The bounds of a tree node are expanded to contain the bounds of its child nodes, because the quantization of a child node is relative to the bounds of its parent node:
+		for(int i = 0; i < 3; i++) {
+			bounds[nodeIndex * 6 + i + 0] = Doubles.min(bounds[nodeIndex * 6 + i + 0], Doubles.min(bounds[(nodeIndex + 1) * 6 + i + 0], bounds[nodeIndexR * 6 + i + 0]));
+			bounds[nodeIndex * 6 + i + 3] = Doubles.max(bounds[nodeIndex * 6 + i + 3], Doubles.max(bounds[(nodeIndex + 1) * 6 + i + 3], bounds[nodeIndexR * 6 + i + 3]));
+		}
+		
+		return nodeIndexNext;
+	}
+	
+	private static void doCount(final BVHNode3D bVHNode, final int depth, final int[] counts) {
+		counts[0]++;
+		counts[2] = Ints.max(counts[2], depth);
+		
+		if(bVHNode instanceof LeafBVHNode3D) {
+			counts[1] += LeafBVHNode3D.class.cast(bVHNode).getShapeCount();
+		} else if(bVHNode instanceof TreeBVHNode3D) {
+			doCount(TreeBVHNode3D.class.cast(bVHNode).getBVHNodeL(), depth + 1, counts);
+			doCount(TreeBVHNode3D.class.cast(bVHNode).getBVHNodeR(), depth + 1, counts);
+		} else {
+			throw new IllegalArgumentException(String.format("The BVHNode3D %s is not supported.", bVHNode.getClass().getName()));
+		}
+	}
+	
+	private static void doSwap(final double[] array, final int offsetA, final int offsetB) {
+		for(int i = 0; i < 6; i++) {
+			final double value = array[offsetA + i];
+			
+			array[offsetA + i] = array[offsetB + i];
+			array[offsetB + i] = value;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Scratch {
+		private final double[] rayData;
+		private final double[] stackBounds;
+		private final double[] stackT;
+		private final int[] stack;
+		
+		public Scratch(final int stackSize) {
+			this.rayData = new double[6];
+			this.stackBounds = new double[stackSize * 6 + 6];
+			this.stackT = new double[stackSize + 1];
+			this.stack = new int[stackSize + 1];
+		}
+	}
+}
\ No newline at end of file
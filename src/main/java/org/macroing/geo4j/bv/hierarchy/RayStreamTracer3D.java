@@ -0,0 +1,331 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.mc.MortonCodes;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.ray.RayPacket3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+
+/**
+ * A {@code RayStreamTracer3D} traces large streams of rays through a {@link CompiledBVH3D} instance after reordering them into coherent groups.
+ * <p>
+ * The rays of a stream are given as origins and directions in primitive arrays. Before they are traced, they are sorted by the octant of their direction and then by the Morton code of their origin, relative to the bounds of all origins in the stream. Consecutive rays in the sorted order
+ * are traced together using a {@link RayPacket3D} instance, but a packet never contains rays from two different octants. The results are written back in the order of the input.
+ * <p>
+ * Reordering pays off for incoherent rays, such as the secondary rays of global illumination, because rays that start close to each other and travel in similar directions tend to visit the same nodes and {@code Shape3D} instances.
+ * <p>
+ * The directions do not have to be normalized. As with {@link Ray3D}, they are normalized before they are traced, so the parametric distances are relative to the normalized directions.
+ * <p>
+ * This class is immutable and therefore thread-safe, if, and only if, all {@code Shape3D} instances are.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class RayStreamTracer3D {
+	/**
+	 * The default number of rays that are traced together.
+	 */
+	public static final int DEFAULT_PACKET_SIZE = 16;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final int MORTON_CODE_BITS = 10;
+	private static final long INDEX_MASK = (1L << 30) - 1L;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final CompiledBVH3D compiledBVH;
+	private final int packetSize;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code RayStreamTracer3D} instance that traces rays through {@code bVHNode}.
+	 * <p>
+	 * If {@code bVHNode} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code bVHNode}, or any of its descendants, is neither a {@link LeafBVHNode3D} nor a {@link TreeBVHNode3D}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * Calling this constructor is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * new RayStreamTracer3D(new CompiledBVH3D(bVHNode));
+	 * }
+	 * </pre>
+	 * 
+	 * @param bVHNode the {@link BVHNode3D} instance to trace rays through
+	 * @throws IllegalArgumentException thrown if, and only if, {@code bVHNode}, or any of its descendants, is neither a {@code LeafBVHNode3D} nor a {@code TreeBVHNode3D}
+	 * @throws NullPointerException thrown if, and only if, {@code bVHNode} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public RayStreamTracer3D(final BVHNode3D bVHNode) {
+		this(new CompiledBVH3D(bVHNode));
+	}
+	
+	/**
+	 * Constructs a new {@code RayStreamTracer3D} instance that traces rays through {@code compiledBVH}.
+	 * <p>
+	 * If {@code compiledBVH} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * Calling this constructor is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * new RayStreamTracer3D(compiledBVH, RayStreamTracer3D.DEFAULT_PACKET_SIZE);
+	 * }
+	 * </pre>
+	 * 
+	 * @param compiledBVH the {@link CompiledBVH3D} instance to trace rays through
+	 * @throws NullPointerException thrown if, and only if, {@code compiledBVH} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public RayStreamTracer3D(final CompiledBVH3D compiledBVH) {
+		this(compiledBVH, DEFAULT_PACKET_SIZE);
+	}
+	
+	/**
+	 * Constructs a new {@code RayStreamTracer3D} instance that traces rays through {@code compiledBVH}.
+	 * <p>
+	 * If {@code compiledBVH} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code packetSize} is neither {@code 4}, {@code 8} nor {@code 16}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param compiledBVH the {@link CompiledBVH3D} instance to trace rays through
+	 * @param packetSize the number of rays that are traced together, which must be {@code 4}, {@code 8} or {@code 16}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code packetSize} is neither {@code 4}, {@code 8} nor {@code 16}
+	 * @throws NullPointerException thrown if, and only if, {@code compiledBVH} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public RayStreamTracer3D(final CompiledBVH3D compiledBVH, final int packetSize) {
+		if(packetSize != 4 && packetSize != 8 && packetSize != 16) {
+			throw new IllegalArgumentException(String.format("packetSize != 4 && packetSize != 8 && packetSize != 16: packetSize = %d", Integer.valueOf(packetSize)));
+		}
+		
+		this.compiledBVH = Objects.requireNonNull(compiledBVH, "compiledBVH == null");
+		this.packetSize = packetSize;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns the {@link CompiledBVH3D} instance that rays are traced through.
+	 * 
+	 * @return the {@code CompiledBVH3D} instance that rays are traced through
+	 */
+//	TODO: Add Unit Tests!
+	public CompiledBVH3D getCompiledBVH() {
+		return this.compiledBVH;
+	}
+	
+	/**
+	 * Returns the number of rays that are traced together.
+	 * 
+	 * @return the number of rays that are traced together
+	 */
+//	TODO: Add Unit Tests!
+	public int getPacketSize() {
+		return this.packetSize;
+	}
+	
+	/**
+	 * Traces a stream of rays and finds their closest intersections.
+	 * <p>
+	 * The ray with index {@code i} has its origin at {@code origins[i * 3 + 0]}, {@code origins[i * 3 + 1]} and {@code origins[i * 3 + 2]} and its direction at the same offsets in {@code directions}. Its result is written to {@code t[i]} and {@code shapeIndex[i]}, as described in
+	 * {@link CompiledBVH3D#intersectionT(RayPacket3D, double[], int[])}.
+	 * <p>
+	 * If either {@code origins}, {@code directions}, {@code t} or {@code shapeIndex} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to {@code origins.length}, or {@code t.length} or {@code shapeIndex.length} are less than {@code origins.length / 3}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param origins a {@code double[]} with the origins of the rays
+	 * @param directions a {@code double[]} with the directions of the rays
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @param t a {@code double[]} that receives the parametric distance of each ray
+	 * @param shapeIndex an {@code int[]} that receives the index of the intersected {@link Shape3D} instance of each ray
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to {@code origins.length}, or {@code t.length} or {@code shapeIndex.length} are less than {@code origins.length / 3}
+	 * @throws NullPointerException thrown if, and only if, either {@code origins}, {@code directions}, {@code t} or {@code shapeIndex} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public void intersectionT(final double[] origins, final double[] directions, final double tMinimum, final double tMaximum, final double[] t, final int[] shapeIndex) {
+		final int count = doRequireRays(origins, directions);
+		
+		Ints.requireRange(Objects.requireNonNull(t, "t == null").length, count, Integer.MAX_VALUE, "t.length");
+		Ints.requireRange(Objects.requireNonNull(shapeIndex, "shapeIndex == null").length, count, Integer.MAX_VALUE, "shapeIndex.length");
+		
+		final long[] keys = doSort(origins, directions, count);
+		
+		final RayPacket3D rayPacket = new RayPacket3D(this.packetSize);
+		
+		final double[] packetT = new double[this.packetSize];
+		
+		final int[] packetIndices = new int[this.packetSize];
+		final int[] packetShapeIndex = new int[this.packetSize];
+		
+		for(int i = 0; i < count;) {
+			final int size = doFillPacket(rayPacket, packetIndices, keys, i, count, origins, directions, tMinimum, tMaximum);
+			
+			this.compiledBVH.intersectionT(rayPacket, packetT, packetShapeIndex);
+			
+			for(int j = 0; j < size; j++) {
+				t[packetIndices[j]] = packetT[j];
+				
+				shapeIndex[packetIndices[j]] = packetShapeIndex[j];
+			}
+			
+			i += size;
+		}
+	}
+	
+	/**
+	 * Traces a stream of rays and finds out whether they intersect anything.
+	 * <p>
+	 * The ray with index {@code i} has its origin at {@code origins[i * 3 + 0]}, {@code origins[i * 3 + 1]} and {@code origins[i * 3 + 2]} and its direction at the same offsets in {@code directions}. If it intersects a {@link Shape3D} instance, {@code isIntersecting[i]} is set to
+	 * {@code true}, otherwise it is set to {@code false}.
+	 * <p>
+	 * If either {@code origins}, {@code directions} or {@code isIntersecting} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to {@code origins.length}, or {@code isIntersecting.length} is less than {@code origins.length / 3}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param origins a {@code double[]} with the origins of the rays
+	 * @param directions a {@code double[]} with the directions of the rays
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @param isIntersecting a {@code boolean[]} that receives whether each ray intersects anything
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code origins.length} is not a multiple of {@code 3}, {@code directions.length} is not equal to {@code origins.length}, or {@code isIntersecting.length} is less than {@code origins.length / 3}
+	 * @throws NullPointerException thrown if, and only if, either {@code origins}, {@code directions} or {@code isIntersecting} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public void intersects(final double[] origins, final double[] directions, final double tMinimum, final double tMaximum, final boolean[] isIntersecting) {
+		final int count = doRequireRays(origins, directions);
+		
+		Ints.requireRange(Objects.requireNonNull(isIntersecting, "isIntersecting == null").length, count, Integer.MAX_VALUE, "isIntersecting.length");
+		
+		final long[] keys = doSort(origins, directions, count);
+		
+		final RayPacket3D rayPacket = new RayPacket3D(this.packetSize);
+		
+		final int[] packetIndices = new int[this.packetSize];
+		
+		for(int i = 0; i < count;) {
+			final int size = doFillPacket(rayPacket, packetIndices, keys, i, count, origins, directions, tMinimum, tMaximum);
+			
+			final int mask = this.compiledBVH.intersects(rayPacket);
+			
+			for(int j = 0; j < size; j++) {
+				isIntersecting[packetIndices[j]] = (mask & (1 << j)) != 0;
+			}
+			
+			i += size;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private int doFillPacket(final RayPacket3D rayPacket, final int[] packetIndices, final long[] keys, final int start, final int count, final double[] origins, final double[] directions, final double tMinimum, final double tMaximum) {
+		final long octant = keys[start] >>> 60;
+		
+		rayPacket.clear();
+		
+		int size = 0;
+		
+		while(size < this.packetSize && start + size < count && keys[start + size] >>> 60 == octant) {
+			final int index = (int)(keys[start + size] & INDEX_MASK);
+			
+			final Point3D origin = new Point3D(origins[index * 3 + 0], origins[index * 3 + 1], origins[index * 3 + 2]);
+			
+			final Vector3D direction = new Vector3D(directions[index * 3 + 0], directions[index * 3 + 1], directions[index * 3 + 2]);
+			
+			rayPacket.set(size, new Ray3D(origin, direction), tMinimum, tMaximum);
+			
+			packetIndices[size] = index;
+			
+			size++;
+		}
+		
+		return size;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static int doComputeCell(final double coordinate, final double minimum, final double maximum) {
+		final double extent = maximum - minimum;
+		
+		if(!(extent > 0.0D) || Doubles.isInfinite(extent)) {
+			return 0;
+		}
+		
+		final int cellCount = 1 << MORTON_CODE_BITS;
+		
+		return Ints.max(Ints.min((int)((coordinate - minimum) / extent * cellCount), cellCount - 1), 0);
+	}
+	
+	private static int doRequireRays(final double[] origins, final double[] directions) {
+		Objects.requireNonNull(origins, "origins == null");
+		Objects.requireNonNull(directions, "directions == null");
+		
+		Ints.requireExact(origins.length % 3, 0, "origins.length % 3");
+		Ints.requireExact(directions.length, origins.length, "directions.length");
+		
+		return origins.length / 3;
+	}
+	
+	private static long[] doSort(final double[] origins, final double[] directions, final int count) {
+		double maximumX = Doubles.MIN_VALUE;
+		double maximumY = Doubles.MIN_VALUE;
+		double maximumZ = Doubles.MIN_VALUE;
+		double minimumX = Doubles.MAX_VALUE;
+		double minimumY = Doubles.MAX_VALUE;
+		double minimumZ = Doubles.MAX_VALUE;
+		
+		for(int i = 0; i < count; i++) {
+			maximumX = Doubles.max(maximumX, origins[i * 3 + 0]);
+			maximumY = Doubles.max(maximumY, origins[i * 3 + 1]);
+			maximumZ = Doubles.max(maximumZ, origins[i * 3 + 2]);
+			minimumX = Doubles.min(minimumX, origins[i * 3 + 0]);
+			minimumY = Doubles.min(minimumY, origins[i * 3 + 1]);
+			minimumZ = Doubles.min(minimumZ, origins[i * 3 + 2]);
+		}
+		
+//		Each key consists of the octant of the direction in bits 60 to 62, the 30-bit Morton code of the origin in bits 30 to 59 and the index of the ray in bits 0 to 29. The index always fits, because origins.length is at most Integer.MAX_VALUE:
+		final long[] keys = new long[count];
+		
+		for(int i = 0; i < count; i++) {
+			final int x = doComputeCell(origins[i * 3 + 0], minimumX, maximumX);
+			final int y = doComputeCell(origins[i * 3 + 1], minimumY, maximumY);
+			final int z = doComputeCell(origins[i * 3 + 2], minimumZ, maximumZ);
+			
+			final long octant = (directions[i * 3 + 0] < 0.0D ? 1L : 0L) | (directions[i * 3 + 1] < 0.0D ? 2L : 0L) | (directions[i * 3 + 2] < 0.0D ? 4L : 0L);
+			final long mortonCode = MortonCodes.encode1By2(x, y, z) & ((1L << (MORTON_CODE_BITS * 3)) - 1L);
+			
+			keys[i] = octant << 60 | mortonCode << 30 | i;
+		}
+		
+		Arrays.sort(keys);
+		
+		return keys;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,914 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.shape.Shape3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+import org.macroing.java.util.Lists;
+
+/**
+ * A {@code SAHBVHBuilder3D} builds {@code double}-based bounding volume hierarchy (BVH) structures using a binned surface area heuristic (SAH).
+ * <p>
+ * The bounds of all {@link BVHItem3D} instances and their centroids are computed once per build. For each node the centroids are assigned to a fixed number of bins along each axis, and the best split plane is found by sweeping the bins. This makes the cost of building a node linear in the number
+ * of {@code BVHItem3D} instances it contains.
+ * <p>
+ * The {@code buildParallel(...)} methods build the same bounding volume hierarchy (BVH) structure as the {@code build(...)} methods, but use a {@code ForkJoinPool} to do so. Sibling subtrees are built concurrently and, for nodes that contain many {@code BVHItem3D} instances, the
+ * centroid bounds and the bins are computed concurrently as well. Because the partial results are merged using only minimum, maximum and count operations, the result is identical to that of a sequential build.
+ * <p>
+ * This class is immutable and therefore thread-safe.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class SAHBVHBuilder3D {
+	/**
+	 * The default bin count.
+	 */
+	public static final int DEFAULT_BIN_COUNT = 16;
+	
+	/**
+	 * The default maximum leaf size.
+	 */
+	public static final int DEFAULT_MAXIMUM_LEAF_SIZE = 4;
+	
+	/**
+	 * The default cost of intersecting a {@link Shape3D} instance.
+	 */
+	public static final double DEFAULT_COST_INTERSECTION = 1.0D;
+	
+	/**
+	 * The default cost of traversing a node.
+	 */
+	public static final double DEFAULT_COST_TRAVERSAL = 0.125D;
+	
+	/**
+	 * The default number of {@link BVHItem3D} instances below which a parallel build continues sequentially.
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final double costIntersection;
+	private final double costTraversal;
+	private final int binCount;
+	private final int maximumLeafSize;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code SAHBVHBuilder3D} instance.
+	 * <p>
+	 * Calling this constructor is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * new SAHBVHBuilder3D(SAHBVHBuilder3D.DEFAULT_BIN_COUNT, SAHBVHBuilder3D.DEFAULT_COST_INTERSECTION, SAHBVHBuilder3D.DEFAULT_COST_TRAVERSAL, SAHBVHBuilder3D.DEFAULT_MAXIMUM_LEAF_SIZE);
+	 * }
+	 * </pre>
+	 */
+//	TODO: Add Unit Tests!
+	public SAHBVHBuilder3D() {
+		this(DEFAULT_BIN_COUNT, DEFAULT_COST_INTERSECTION, DEFAULT_COST_TRAVERSAL, DEFAULT_MAXIMUM_LEAF_SIZE);
+	}
+	
+	/**
+	 * Constructs a new {@code SAHBVHBuilder3D} instance.
+	 * <p>
+	 * If either {@code binCount} is less than {@code 2}, {@code costIntersection} is less than or equal to {@code 0.0D}, {@code costTraversal} is less than {@code 0.0D} or {@code maximumLeafSize} is less than {@code 1}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param binCount the number of bins to use per axis when searching for the best split plane
+	 * @param costIntersection the cost of intersecting a {@link Shape3D} instance
+	 * @param costTraversal the cost of traversing a node
+	 * @param maximumLeafSize the maximum number of {@code Shape3D} instances in a leaf node, unless no split plane can separate them
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code binCount} is less than {@code 2}, {@code costIntersection} is less than or equal to {@code 0.0D}, {@code costTraversal} is less than {@code 0.0D} or {@code maximumLeafSize} is less than {@code 1}
+	 */
+//	TODO: Add Unit Tests!
+	public SAHBVHBuilder3D(final int binCount, final double costIntersection, final double costTraversal, final int maximumLeafSize) {
+		this.binCount = Ints.requireRange(binCount, 2, Integer.MAX_VALUE, "binCount");
+		this.costIntersection = doRequireGreaterThan(costIntersection, 0.0D, "costIntersection");
+		this.costTraversal = doRequireGreaterThanOrEqualTo(costTraversal, 0.0D, "costTraversal");
+		this.maximumLeafSize = Ints.requireRange(maximumLeafSize, 1, Integer.MAX_VALUE, "maximumLeafSize");
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Builds a bounding volume hierarchy (BVH) structure.
+	 * <p>
+	 * Returns a {@link BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure.
+	 * <p>
+	 * If either {@code processableBVHItems} or at least one of its elements are {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param <T> the generic {@link Shape3D} type to use
+	 * @param processableBVHItems a {@code List} of {@link BVHItem3D} instances to process
+	 * @return a {@code BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure
+	 * @throws NullPointerException thrown if, and only if, either {@code processableBVHItems} or at least one of its elements are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public <T extends Shape3D> BVHNode3D build(final List<BVHItem3D<T>> processableBVHItems) {
+		final Primitives<T> primitives = new Primitives<>(Lists.requireNonNull(processableBVHItems, "processableBVHItems"));
+		
+		primitives.initialize(0, primitives.size());
+		
+		if(primitives.size() == 0) {
+			return new LeafBVHNode3D<>(new Point3D(), new Point3D(), 0, new ArrayList<T>());
+		}
+		
+		final double[] bounds = primitives.computeBounds(0, primitives.size());
+		
+		return doBuild(primitives, 0, primitives.size(), 0, new Point3D(bounds[3], bounds[4], bounds[5]), new Point3D(bounds[0], bounds[1], bounds[2]));
+	}
+	
+	/**
+	 * Builds a bounding volume hierarchy (BVH) structure.
+	 * <p>
+	 * Returns a {@link BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure.
+	 * <p>
+	 * If either {@code processableBVHItems}, at least one of its elements, {@code maximum} or {@code minimum} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code depth} is less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param <T> the generic {@link Shape3D} type to use
+	 * @param processableBVHItems a {@code List} of {@link BVHItem3D} instances to process
+	 * @param maximum a {@link Point3D} instance with the maximum coordinates of the {@link BoundingVolume3D} instance that contains the returned {@code BVHNode3D} instance
+	 * @param minimum a {@code Point3D} instance with the minimum coordinates of the {@code BoundingVolume3D} instance that contains the returned {@code BVHNode3D} instance
+	 * @param depth the depth of the returned {@code BVHNode3D} instance
+	 * @return a {@code BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure
+	 * @throws IllegalArgumentException thrown if, and only if, {@code depth} is less than {@code 0}
+	 * @throws NullPointerException thrown if, and only if, either {@code processableBVHItems}, at least one of its elements, {@code maximum} or {@code minimum} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public <T extends Shape3D> BVHNode3D build(final List<BVHItem3D<T>> processableBVHItems, final Point3D maximum, final Point3D minimum, final int depth) {
+		Objects.requireNonNull(maximum, "maximum == null");
+		Objects.requireNonNull(minimum, "minimum == null");
+		
+		Ints.requireRange(depth, 0, Integer.MAX_VALUE, "depth");
+		
+		final Primitives<T> primitives = new Primitives<>(Lists.requireNonNull(processableBVHItems, "processableBVHItems"));
+		
+		primitives.initialize(0, primitives.size());
+		
+		return doBuild(primitives, 0, primitives.size(), depth, maximum, minimum);
+	}
+	
+	/**
+	 * Builds a bounding volume hierarchy (BVH) structure in parallel.
+	 * <p>
+	 * Returns a {@link BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure.
+	 * <p>
+	 * If either {@code processableBVHItems} or at least one of its elements are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * sAHBVHBuilder3D.buildParallel(processableBVHItems, ForkJoinPool.commonPool(), SAHBVHBuilder3D.DEFAULT_PARALLEL_THRESHOLD);
+	 * }
+	 * </pre>
+	 * 
+	 * @param <T> the generic {@link Shape3D} type to use
+	 * @param processableBVHItems a {@code List} of {@link BVHItem3D} instances to process
+	 * @return a {@code BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure
+	 * @throws NullPointerException thrown if, and only if, either {@code processableBVHItems} or at least one of its elements are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public <T extends Shape3D> BVHNode3D buildParallel(final List<BVHItem3D<T>> processableBVHItems) {
+		return buildParallel(processableBVHItems, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/**
+	 * Builds a bounding volume hierarchy (BVH) structure in parallel.
+	 * <p>
+	 * Returns a {@link BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure.
+	 * <p>
+	 * The returned {@code BVHNode3D} instance is equal to the one returned by {@code build(processableBVHItems)}.
+	 * <p>
+	 * Nodes that contain fewer than {@code parallelThreshold} {@link BVHItem3D} instances are built sequentially.
+	 * <p>
+	 * If either {@code processableBVHItems}, at least one of its elements or {@code forkJoinPool} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code parallelThreshold} is less than {@code 1}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param <T> the generic {@link Shape3D} type to use
+	 * @param processableBVHItems a {@code List} of {@link BVHItem3D} instances to process
+	 * @param forkJoinPool the {@code ForkJoinPool} to build the bounding volume hierarchy (BVH) structure with
+	 * @param parallelThreshold the number of {@code BVHItem3D} instances below which a node is built sequentially
+	 * @return a {@code BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure
+	 * @throws IllegalArgumentException thrown if, and only if, {@code parallelThreshold} is less than {@code 1}
+	 * @throws NullPointerException thrown if, and only if, either {@code processableBVHItems}, at least one of its elements or {@code forkJoinPool} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public <T extends Shape3D> BVHNode3D buildParallel(final List<BVHItem3D<T>> processableBVHItems, final ForkJoinPool forkJoinPool, final int parallelThreshold) {
+		Objects.requireNonNull(forkJoinPool, "forkJoinPool == null");
+		
+		Ints.requireRange(parallelThreshold, 1, Integer.MAX_VALUE, "parallelThreshold");
+		
+		final Primitives<T> primitives = new Primitives<>(Lists.requireNonNull(processableBVHItems, "processableBVHItems"));
+		
+		if(primitives.size() == 0) {
+			return new LeafBVHNode3D<>(new Point3D(), new Point3D(), 0, new ArrayList<T>());
+		}
+		
+		forkJoinPool.invoke(new InitializeTask<>(primitives, 0, primitives.size(), parallelThreshold));
+		
+		final double[] bounds = forkJoinPool.invoke(new BoundsTask<>(primitives, 0, primitives.size(), parallelThreshold, false));
+		
+		return forkJoinPool.invoke(new BuildTask<>(primitives, 0, primitives.size(), 0, new Point3D(bounds[3], bounds[4], bounds[5]), new Point3D(bounds[0], bounds[1], bounds[2]), parallelThreshold));
+	}
+	
+	/**
+	 * Compares {@code object} to this {@code SAHBVHBuilder3D} instance for equality.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code object} is an instance of {@code SAHBVHBuilder3D}, and their respective values are equal, {@code false} otherwise.
+	 * 
+	 * @param object the {@code Object} to compare to this {@code SAHBVHBuilder3D} instance for equality
+	 * @return {@code true} if, and only if, {@code object} is an instance of {@code SAHBVHBuilder3D}, and their respective values are equal, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean equals(final Object object) {
+		if(object == this) {
+			return true;
+		} else if(!(object instanceof SAHBVHBuilder3D)) {
+			return false;
+		} else if(!Doubles.equals(this.costIntersection, SAHBVHBuilder3D.class.cast(object).costIntersection)) {
+			return false;
+		} else if(!Doubles.equals(this.costTraversal, SAHBVHBuilder3D.class.cast(object).costTraversal)) {
+			return false;
+		} else if(this.binCount != SAHBVHBuilder3D.class.cast(object).binCount) {
+			return false;
+		} else if(this.maximumLeafSize != SAHBVHBuilder3D.class.cast(object).maximumLeafSize) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+	
+	/**
+	 * Returns the cost of intersecting a {@link Shape3D} instance.
+	 * 
+	 * @return the cost of intersecting a {@code Shape3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public double getCostIntersection() {
+		return this.costIntersection;
+	}
+	
+	/**
+	 * Returns the cost of traversing a node.
+	 * 
+	 * @return the cost of traversing a node
+	 */
+//	TODO: Add Unit Tests!
+	public double getCostTraversal() {
+		return this.costTraversal;
+	}
+	
+	/**
+	 * Returns the number of bins to use per axis when searching for the best split plane.
+	 * 
+	 * @return the number of bins to use per axis when searching for the best split plane
+	 */
+//	TODO: Add Unit Tests!
+	public int getBinCount() {
+		return this.binCount;
+	}
+	
+	/**
+	 * Returns the maximum number of {@link Shape3D} instances in a leaf node, unless no split plane can separate them.
+	 * 
+	 * @return the maximum number of {@code Shape3D} instances in a leaf node, unless no split plane can separate them
+	 */
+//	TODO: Add Unit Tests!
+	public int getMaximumLeafSize() {
+		return this.maximumLeafSize;
+	}
+	
+	/**
+	 * Returns a hash code for this {@code SAHBVHBuilder3D} instance.
+	 * 
+	 * @return a hash code for this {@code SAHBVHBuilder3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public int hashCode() {
+		return Objects.hash(Double.valueOf(this.costIntersection), Double.valueOf(this.costTraversal), Integer.valueOf(this.binCount), Integer.valueOf(this.maximumLeafSize));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private <T extends Shape3D> BVHNode3D doBuild(final Primitives<T> primitives, final int start, final int end, final int depth, final Point3D maximum, final Point3D minimum) {
+		final Split split = doFindSplit(primitives, start, end, maximum, minimum);
+		
+		if(split == null) {
+			return new LeafBVHNode3D<>(maximum, minimum, depth, primitives.getShapes(start, end));
+		}
+		
+		final int middle = primitives.partition(start, end, split);
+		
+		final BVHNode3D bVHNodeL = doBuild(primitives, start, middle, depth + 1, split.getMaximumL(), split.getMinimumL());
+		final BVHNode3D bVHNodeR = doBuild(primitives, middle, end, depth + 1, split.getMaximumR(), split.getMinimumR());
+		
+		return new TreeBVHNode3D(maximum, minimum, depth, bVHNodeL, bVHNodeR);
+	}
+	
+	private <T extends Shape3D> Split doFindSplit(final Primitives<T> primitives, final int start, final int end, final Point3D maximum, final Point3D minimum) {
+		final int size = end - start;
+		
+		if(size <= 1) {
+			return null;
+		}
+		
+		final double[] centroidBounds = primitives.computeCentroidBounds(start, end);
+		
+		final Bins bins = primitives.bin(start, end, centroidBounds, this.binCount);
+		
+		return doFindSplit(centroidBounds, bins, size, maximum, minimum);
+	}
+	
+	private <T extends Shape3D> Split doFindSplitParallel(final Primitives<T> primitives, final int start, final int end, final Point3D maximum, final Point3D minimum, final int parallelThreshold) {
+		final int size = end - start;
+		
+		if(size <= 1) {
+			return null;
+		}
+		
+		final double[] centroidBounds = new BoundsTask<>(primitives, start, end, parallelThreshold, true).invoke();
+		
+		final Bins bins = new BinTask<>(primitives, start, end, centroidBounds, this.binCount, parallelThreshold).invoke();
+		
+		return doFindSplit(centroidBounds, bins, size, maximum, minimum);
+	}
+	
+	private Split doFindSplit(final double[] centroidBounds, final Bins bins, final int size, final Point3D maximum, final Point3D minimum) {
+		final double[] binBounds = bins.getBounds();
+		
+		final int[] binCounts = bins.getCounts();
+		
+		final int binCount = this.binCount;
+		
+		final double surfaceArea = doComputeHalfSurfaceArea(minimum.x, minimum.y, minimum.z, maximum.x, maximum.y, maximum.z);
+		
+		final double[] surfaceAreasL = new double[binCount];
+		
+		final int[] countsL = new int[binCount];
+		
+		double bestCost = Doubles.MAX_VALUE;
+		
+		int bestAxis = -1;
+		int bestBin = -1;
+		
+		for(int axis = 0; axis < 3; axis++) {
+			if(!(centroidBounds[axis + 3] > centroidBounds[axis])) {
+				continue;
+			}
+			
+			final int binOffset = axis * binCount;
+			
+			double minimumX = Doubles.MAX_VALUE;
+			double minimumY = Doubles.MAX_VALUE;
+			double minimumZ = Doubles.MAX_VALUE;
+			double maximumX = Doubles.MIN_VALUE;
+			double maximumY = Doubles.MIN_VALUE;
+			double maximumZ = Doubles.MIN_VALUE;
+			
+			int count = 0;
+			
+			for(int bin = 0; bin < binCount - 1; bin++) {
+				final int offset = (binOffset + bin) * 6;
+				
+				minimumX = Doubles.min(minimumX, binBounds[offset + 0]);
+				minimumY = Doubles.min(minimumY, binBounds[offset + 1]);
+				minimumZ = Doubles.min(minimumZ, binBounds[offset + 2]);
+				maximumX = Doubles.max(maximumX, binBounds[offset + 3]);
+				maximumY = Doubles.max(maximumY, binBounds[offset + 4]);
+				maximumZ = Doubles.max(maximumZ, binBounds[offset + 5]);
+				
+				count += binCounts[binOffset + bin];
+				
+				surfaceAreasL[bin] = count > 0 ? doComputeHalfSurfaceArea(minimumX, minimumY, minimumZ, maximumX, maximumY, maximumZ) : 0.0D;
+				
+				countsL[bin] = count;
+			}
+			
+			minimumX = Doubles.MAX_VALUE;
+			minimumY = Doubles.MAX_VALUE;
+			minimumZ = Doubles.MAX_VALUE;
+			maximumX = Doubles.MIN_VALUE;
+			maximumY = Doubles.MIN_VALUE;
+			maximumZ = Doubles.MIN_VALUE;
+			
+			count = 0;
+			
+			for(int bin = binCount - 1; bin > 0; bin--) {
+				final int offset = (binOffset + bin) * 6;
+				
+				minimumX = Doubles.min(minimumX, binBounds[offset + 0]);
+				minimumY = Doubles.min(minimumY, binBounds[offset + 1]);
+				minimumZ = Doubles.min(minimumZ, binBounds[offset + 2]);
+				maximumX = Doubles.max(maximumX, binBounds[offset + 3]);
+				maximumY = Doubles.max(maximumY, binBounds[offset + 4]);
+				maximumZ = Doubles.max(maximumZ, binBounds[offset + 5]);
+				
+				count += binCounts[binOffset + bin];
+				
+				final int countL = countsL[bin - 1];
+				final int countR = count;
+				
+				if(countL == 0 || countR == 0) {
+					continue;
+				}
+				
+				final double surfaceAreaL = surfaceAreasL[bin - 1];
+				final double surfaceAreaR = doComputeHalfSurfaceArea(minimumX, minimumY, minimumZ, maximumX, maximumY, maximumZ);
+				
+				final double cost = this.costTraversal * surfaceArea + this.costIntersection * (countL * surfaceAreaL + countR * surfaceAreaR);
+				
+				if(cost < bestCost) {
+					bestCost = cost;
+					bestAxis = axis;
+					bestBin = bin - 1;
+				}
+			}
+		}
+		
+		if(bestAxis == -1) {
+			return null;
+		}
+		
+		final double costLeaf = this.costIntersection * size * surfaceArea;
+		
+		if(size <= this.maximumLeafSize && costLeaf <= bestCost) {
+			return null;
+		}
+		
+		return new Split(centroidBounds, binBounds, bestAxis, bestBin, binCount);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static double doComputeHalfSurfaceArea(final double minimumX, final double minimumY, final double minimumZ, final double maximumX, final double maximumY, final double maximumZ) {
+		final double sideX = maximumX - minimumX;
+		final double sideY = maximumY - minimumY;
+		final double sideZ = maximumZ - minimumZ;
+		
+		return sideX * sideY + sideY * sideZ + sideZ * sideX;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static double doRequireGreaterThan(final double value, final double minimum, final String name) {
+		if(!(value > minimum)) {
+			throw new IllegalArgumentException(String.format("%s <= %s: %s == %s", name, Double.toString(minimum), name, Double.toString(value)));
+		}
+		
+		return value;
+	}
+	
+	private static double doRequireGreaterThanOrEqualTo(final double value, final double minimum, final String name) {
+		if(!(value >= minimum)) {
+			throw new IllegalArgumentException(String.format("%s < %s: %s == %s", name, Double.toString(minimum), name, Double.toString(value)));
+		}
+		
+		return value;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class BinTask<T extends Shape3D> extends RecursiveTask<Bins> {
+		private static final long serialVersionUID = 1L;
+		
+		private final Primitives<T> primitives;
+		private final double[] centroidBounds;
+		private final int binCount;
+		private final int end;
+		private final int parallelThreshold;
+		private final int start;
+		
+		public BinTask(final Primitives<T> primitives, final int start, final int end, final double[] centroidBounds, final int binCount, final int parallelThreshold) {
+			this.primitives = primitives;
+			this.centroidBounds = centroidBounds;
+			this.binCount = binCount;
+			this.end = end;
+			this.parallelThreshold = parallelThreshold;
+			this.start = start;
+		}
+		
+		@Override
+		protected Bins compute() {
+			if(this.end - this.start <= this.parallelThreshold) {
+				return this.primitives.bin(this.start, this.end, this.centroidBounds, this.binCount);
+			}
+			
+			final int middle = (this.start + this.end) >>> 1;
+			
+			final BinTask<T> binTaskL = new BinTask<>(this.primitives, this.start, middle, this.centroidBounds, this.binCount, this.parallelThreshold);
+			final BinTask<T> binTaskR = new BinTask<>(this.primitives, middle, this.end, this.centroidBounds, this.binCount, this.parallelThreshold);
+			
+			binTaskL.fork();
+			
+			final Bins binsR = binTaskR.compute();
+			final Bins binsL = binTaskL.join();
+			
+			return binsL.add(binsR);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Bins {
+		private final double[] bounds;
+		private final int[] counts;
+		
+		public Bins(final int binCount) {
+			this.bounds = new double[binCount * 3 * 6];
+			this.counts = new int[binCount * 3];
+			
+			for(int i = 0; i < this.bounds.length; i += 6) {
+				this.bounds[i + 0] = Doubles.MAX_VALUE;
+				this.bounds[i + 1] = Doubles.MAX_VALUE;
+				this.bounds[i + 2] = Doubles.MAX_VALUE;
+				this.bounds[i + 3] = Doubles.MIN_VALUE;
+				this.bounds[i + 4] = Doubles.MIN_VALUE;
+				this.bounds[i + 5] = Doubles.MIN_VALUE;
+			}
+		}
+		
+		public Bins add(final Bins bins) {
+			for(int i = 0; i < this.bounds.length; i += 6) {
+				this.bounds[i + 0] = Doubles.min(this.bounds[i + 0], bins.bounds[i + 0]);
+				this.bounds[i + 1] = Doubles.min(this.bounds[i + 1], bins.bounds[i + 1]);
+				this.bounds[i + 2] = Doubles.min(this.bounds[i + 2], bins.bounds[i + 2]);
+				this.bounds[i + 3] = Doubles.max(this.bounds[i + 3], bins.bounds[i + 3]);
+				this.bounds[i + 4] = Doubles.max(this.bounds[i + 4], bins.bounds[i + 4]);
+				this.bounds[i + 5] = Doubles.max(this.bounds[i + 5], bins.bounds[i + 5]);
+			}
+			
+			for(int i = 0; i < this.counts.length; i++) {
+				this.counts[i] += bins.counts[i];
+			}
+			
+			return this;
+		}
+		
+		public double[] getBounds() {
+			return this.bounds;
+		}
+		
+		public int[] getCounts() {
+			return this.counts;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class BoundsTask<T extends Shape3D> extends RecursiveTask<double[]> {
+		private static final long serialVersionUID = 1L;
+		
+		private final Primitives<T> primitives;
+		private final boolean isComputingCentroidBounds;
+		private final int end;
+		private final int parallelThreshold;
+		private final int start;
+		
+		public BoundsTask(final Primitives<T> primitives, final int start, final int end, final int parallelThreshold, final boolean isComputingCentroidBounds) {
+			this.primitives = primitives;
+			this.isComputingCentroidBounds = isComputingCentroidBounds;
+			this.end = end;
+			this.parallelThreshold = parallelThreshold;
+			this.start = start;
+		}
+		
+		@Override
+		protected double[] compute() {
+			if(this.end - this.start <= this.parallelThreshold) {
+				return this.isComputingCentroidBounds ? this.primitives.computeCentroidBounds(this.start, this.end) : this.primitives.computeBounds(this.start, this.end);
+			}
+			
+			final int middle = (this.start + this.end) >>> 1;
+			
+			final BoundsTask<T> boundsTaskL = new BoundsTask<>(this.primitives, this.start, middle, this.parallelThreshold, this.isComputingCentroidBounds);
+			final BoundsTask<T> boundsTaskR = new BoundsTask<>(this.primitives, middle, this.end, this.parallelThreshold, this.isComputingCentroidBounds);
+			
+			boundsTaskL.fork();
+			
+			final double[] boundsR = boundsTaskR.compute();
+			final double[] boundsL = boundsTaskL.join();
+			
+			return new double[] {Doubles.min(boundsL[0], boundsR[0]), Doubles.min(boundsL[1], boundsR[1]), Doubles.min(boundsL[2], boundsR[2]), Doubles.max(boundsL[3], boundsR[3]), Doubles.max(boundsL[4], boundsR[4]), Doubles.max(boundsL[5], boundsR[5])};
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final class BuildTask<T extends Shape3D> extends RecursiveTask<BVHNode3D> {
+		private static final long serialVersionUID = 1L;
+		
+		private final Point3D maximum;
+		private final Point3D minimum;
+		private final Primitives<T> primitives;
+		private final int depth;
+		private final int end;
+		private final int parallelThreshold;
+		private final int start;
+		
+		public BuildTask(final Primitives<T> primitives, final int start, final int end, final int depth, final Point3D maximum, final Point3D minimum, final int parallelThreshold) {
+			this.maximum = maximum;
+			this.minimum = minimum;
+			this.primitives = primitives;
+			this.depth = depth;
+			this.end = end;
+			this.parallelThreshold = parallelThreshold;
+			this.start = start;
+		}
+		
+		@Override
+		protected BVHNode3D compute() {
+			if(this.end - this.start < this.parallelThreshold) {
+				return doBuild(this.primitives, this.start, this.end, this.depth, this.maximum, this.minimum);
+			}
+			
+			final Split split = doFindSplitParallel(this.primitives, this.start, this.end, this.maximum, this.minimum, this.parallelThreshold);
+			
+			if(split == null) {
+				return new LeafBVHNode3D<>(this.maximum, this.minimum, this.depth, this.primitives.getShapes(this.start, this.end));
+			}
+			
+			final int middle = this.primitives.partition(this.start, this.end, split);
+			
+			final BuildTask<T> buildTaskL = new BuildTask<>(this.primitives, this.start, middle, this.depth + 1, split.getMaximumL(), split.getMinimumL(), this.parallelThreshold);
+			final BuildTask<T> buildTaskR = new BuildTask<>(this.primitives, middle, this.end, this.depth + 1, split.getMaximumR(), split.getMinimumR(), this.parallelThreshold);
+			
+			buildTaskL.fork();
+			
+			final BVHNode3D bVHNodeR = buildTaskR.compute();
+			final BVHNode3D bVHNodeL = buildTaskL.join();
+			
+			return new TreeBVHNode3D(this.maximum, this.minimum, this.depth, bVHNodeL, bVHNodeR);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class InitializeTask<T extends Shape3D> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final Primitives<T> primitives;
+		private final int end;
+		private final int parallelThreshold;
+		private final int start;
+		
+		public InitializeTask(final Primitives<T> primitives, final int start, final int end, final int parallelThreshold) {
+			this.primitives = primitives;
+			this.end = end;
+			this.parallelThreshold = parallelThreshold;
+			this.start = start;
+		}
+		
+		@Override
+		protected void compute() {
+			if(this.end - this.start <= this.parallelThreshold) {
+				this.primitives.initialize(this.start, this.end);
+			} else {
+				final int middle = (this.start + this.end) >>> 1;
+				
+				invokeAll(new InitializeTask<>(this.primitives, this.start, middle, this.parallelThreshold), new InitializeTask<>(this.primitives, middle, this.end, this.parallelThreshold));
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Primitives<T extends Shape3D> {
+		private final List<BVHItem3D<T>> processableBVHItems;
+		private final double[] bounds;
+		private final double[] centroids;
+		private final int[] indices;
+		
+		public Primitives(final List<BVHItem3D<T>> processableBVHItems) {
+			final int size = processableBVHItems.size();
+			
+			this.processableBVHItems = new ArrayList<>(processableBVHItems);
+			this.bounds = new double[size * 6];
+			this.centroids = new double[size * 3];
+			this.indices = new int[size];
+		}
+		
+		public Bins bin(final int start, final int end, final double[] centroidBounds, final int binCount) {
+			final Bins bins = new Bins(binCount);
+			
+			final double[] binBounds = bins.getBounds();
+			
+			final int[] binCounts = bins.getCounts();
+			
+			for(int axis = 0; axis < 3; axis++) {
+				final double centroidMinimum = centroidBounds[axis];
+				final double centroidMaximum = centroidBounds[axis + 3];
+				
+				if(!(centroidMaximum > centroidMinimum)) {
+					continue;
+				}
+				
+				final double scale = binCount / (centroidMaximum - centroidMinimum);
+				
+				final int binOffset = axis * binCount;
+				
+				for(int i = start; i < end; i++) {
+					final int index = this.indices[i];
+					
+					final int bin = binOffset + Ints.min((int)((this.centroids[index * 3 + axis] - centroidMinimum) * scale), binCount - 1);
+					
+					final int offset = index * 6;
+					
+					binBounds[bin * 6 + 0] = Doubles.min(binBounds[bin * 6 + 0], this.bounds[offset + 0]);
+					binBounds[bin * 6 + 1] = Doubles.min(binBounds[bin * 6 + 1], this.bounds[offset + 1]);
+					binBounds[bin * 6 + 2] = Doubles.min(binBounds[bin * 6 + 2], this.bounds[offset + 2]);
+					binBounds[bin * 6 + 3] = Doubles.max(binBounds[bin * 6 + 3], this.bounds[offset + 3]);
+					binBounds[bin * 6 + 4] = Doubles.max(binBounds[bin * 6 + 4], this.bounds[offset + 4]);
+					binBounds[bin * 6 + 5] = Doubles.max(binBounds[bin * 6 + 5], this.bounds[offset + 5]);
+					
+					binCounts[bin]++;
+				}
+			}
+			
+			return bins;
+		}
+		
+		public List<T> getShapes(final int start, final int end) {
+			final List<T> shapes = new ArrayList<>(end - start);
+			
+			for(int i = start; i < end; i++) {
+				shapes.add(this.processableBVHItems.get(this.indices[i]).getShape());
+			}
+			
+			return shapes;
+		}
+		
+		public double[] computeBounds(final int start, final int end) {
+			final double[] bounds = new double[] {Doubles.MAX_VALUE, Doubles.MAX_VALUE, Doubles.MAX_VALUE, Doubles.MIN_VALUE, Doubles.MIN_VALUE, Doubles.MIN_VALUE};
+			
+			for(int i = start; i < end; i++) {
+				final int offset = this.indices[i] * 6;
+				
+				bounds[0] = Doubles.min(bounds[0], this.bounds[offset + 0]);
+				bounds[1] = Doubles.min(bounds[1], this.bounds[offset + 1]);
+				bounds[2] = Doubles.min(bounds[2], this.bounds[offset + 2]);
+				bounds[3] = Doubles.max(bounds[3], this.bounds[offset + 3]);
+				bounds[4] = Doubles.max(bounds[4], this.bounds[offset + 4]);
+				bounds[5] = Doubles.max(bounds[5], this.bounds[offset + 5]);
+			}
+			
+			return bounds;
+		}
+		
+		public double[] computeCentroidBounds(final int start, final int end) {
+			final double[] centroidBounds = new double[] {Doubles.MAX_VALUE, Doubles.MAX_VALUE, Doubles.MAX_VALUE, Doubles.MIN_VALUE, Doubles.MIN_VALUE, Doubles.MIN_VALUE};
+			
+			for(int i = start; i < end; i++) {
+				final int offset = this.indices[i] * 3;
+				
+				centroidBounds[0] = Doubles.min(centroidBounds[0], this.centroids[offset + 0]);
+				centroidBounds[1] = Doubles.min(centroidBounds[1], this.centroids[offset + 1]);
+				centroidBounds[2] = Doubles.min(centroidBounds[2], this.centroids[offset + 2]);
+				centroidBounds[3] = Doubles.max(centroidBounds[3], this.centroids[offset + 0]);
+				centroidBounds[4] = Doubles.max(centroidBounds[4], this.centroids[offset + 1]);
+				centroidBounds[5] = Doubles.max(centroidBounds[5], this.centroids[offset + 2]);
+			}
+			
+			return centroidBounds;
+		}
+		
+		public int partition(final int start, final int end, final Split split) {
+			int i = start;
+			int j = end - 1;
+			
+			while(i <= j) {
+				if(split.isLeft(this.centroids, this.indices[i])) {
+					i++;
+				} else {
+					final int index = this.indices[i];
+					
+					this.indices[i] = this.indices[j];
+					this.indices[j] = index;
+					
+					j--;
+				}
+			}
+			
+			return i;
+		}
+		
+		public int size() {
+			return this.indices.length;
+		}
+		
+		public void initialize(final int start, final int end) {
+			for(int i = start; i < end; i++) {
+				final BoundingVolume3D boundingVolume = this.processableBVHItems.get(i).getBoundingVolume();
+				
+				final Point3D max = boundingVolume.max();
+				final Point3D min = boundingVolume.min();
+				
+				this.bounds[i * 6 + 0] = min.x;
+				this.bounds[i * 6 + 1] = min.y;
+				this.bounds[i * 6 + 2] = min.z;
+				this.bounds[i * 6 + 3] = max.x;
+				this.bounds[i * 6 + 4] = max.y;
+				this.bounds[i * 6 + 5] = max.z;
+				
+				this.centroids[i * 3 + 0] = (min.x + max.x) * 0.5D;
+				this.centroids[i * 3 + 1] = (min.y + max.y) * 0.5D;
+				this.centroids[i * 3 + 2] = (min.z + max.z) * 0.5D;
+				
+				this.indices[i] = i;
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Split {
+		private final Point3D maximumL;
+		private final Point3D maximumR;
+		private final Point3D minimumL;
+		private final Point3D minimumR;
+		private final double centroidMinimum;
+		private final double scale;
+		private final int axis;
+		private final int bin;
+		private final int binCount;
+		
+		public Split(final double[] centroidBounds, final double[] binBounds, final int axis, final int bin, final int binCount) {
+			final double[] boundsL = new double[] {Doubles.MAX_VALUE, Doubles.MAX_VALUE, Doubles.MAX_VALUE, Doubles.MIN_VALUE, Doubles.MIN_VALUE, Doubles.MIN_VALUE};
+			final double[] boundsR = new double[] {Doubles.MAX_VALUE, Doubles.MAX_VALUE, Doubles.MAX_VALUE, Doubles.MIN_VALUE, Doubles.MIN_VALUE, Doubles.MIN_VALUE};
+			
+			for(int i = 0; i < binCount; i++) {
+				final double[] bounds = i <= bin ? boundsL : boundsR;
+				
+				final int offset = (axis * binCount + i) * 6;
+				
+				bounds[0] = Doubles.min(bounds[0], binBounds[offset + 0]);
+				bounds[1] = Doubles.min(bounds[1], binBounds[offset + 1]);
+				bounds[2] = Doubles.min(bounds[2], binBounds[offset + 2]);
+				bounds[3] = Doubles.max(bounds[3], binBounds[offset + 3]);
+				bounds[4] = Doubles.max(bounds[4], binBounds[offset + 4]);
+				bounds[5] = Doubles.max(bounds[5], binBounds[offset + 5]);
+			}
+			
+			this.maximumL = new Point3D(boundsL[3], boundsL[4], boundsL[5]);
+			this.maximumR = new Point3D(boundsR[3], boundsR[4], boundsR[5]);
+			this.minimumL = new Point3D(boundsL[0], boundsL[1], boundsL[2]);
+			this.minimumR = new Point3D(boundsR[0], boundsR[1], boundsR[2]);
+			this.centroidMinimum = centroidBounds[axis];
+			this.scale = binCount / (centroidBounds[axis + 3] - centroidBounds[axis]);
+			this.axis = axis;
+			this.bin = bin;
+			this.binCount = binCount;
+		}
+		
+		public Point3D getMaximumL() {
+			return this.maximumL;
+		}
+		
+		public Point3D getMaximumR() {
+			return this.maximumR;
+		}
+		
+		public Point3D getMinimumL() {
+			return this.minimumL;
+		}
+		
+		public Point3D getMinimumR() {
+			return this.minimumR;
+		}
+		
+		public boolean isLeft(final double[] centroids, final int index) {
+			return Ints.min((int)((centroids[index * 3 + this.axis] - this.centroidMinimum) * this.scale), this.binCount - 1) <= this.bin;
+		}
+	}
+}
\ No newline at end of file
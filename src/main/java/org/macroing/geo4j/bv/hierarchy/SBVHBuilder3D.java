@@ -0,0 +1,915 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Point4D;
+import org.macroing.geo4j.shape.Shape3D;
+import org.macroing.geo4j.shape.triangle.Triangle3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+import org.macroing.java.util.Lists;
+
+/**
+ * An {@code SBVHBuilder3D} builds {@code double}-based bounding volume hierarchy (BVH) structures using spatial splits (SBVH).
+ * <p>
+ * Each node is first split using a binned surface area heuristic (SAH) on the centroids of its references, just like {@link SAHBVHBuilder3D} does. If the surface area of the overlap between the two resulting children, relative to the surface area of the root node, is greater than the
+ * overlap threshold, a spatial split is considered as well. A spatial split divides the node into two halves by a plane. A reference that straddles the plane is clipped and referenced by both children, unless the surface area heuristic (SAH) finds it cheaper to move it into
+ * one of them. The split with the lowest cost is used.
+ * <p>
+ * A reference to a {@link Triangle3D} instance is clipped against the plane exactly, so its bounds shrink to the part of the triangle on each side. A reference to any other {@link Shape3D} instance is clipped using its bounding volume.
+ * <p>
+ * Because a {@code Shape3D} instance may be referenced by more than one leaf node, the bounding volume hierarchy (BVH) structure may use more memory than one built by {@code SAHBVHBuilder3D}. The overlap threshold and the maximum reference factor control this. A threshold of
+ * {@code 0.0D} considers a spatial split for every node with overlapping children, whereas a large threshold disables spatial splits altogether. The maximum reference factor limits the total number of references to the number of {@code Shape3D} instances multiplied by it. A spatial
+ * split is only considered if it cannot exceed this limit, and the object split is used instead if the spatial split does not reduce the number of references on either side.
+ * <p>
+ * This class is immutable and therefore thread-safe.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class SBVHBuilder3D {
+	/**
+	 * The default bin count.
+	 */
+	public static final int DEFAULT_BIN_COUNT = 16;
+	
+	/**
+	 * The default maximum leaf size.
+	 */
+	public static final int DEFAULT_MAXIMUM_LEAF_SIZE = 4;
+	
+	/**
+	 * The default cost of intersecting a {@link Shape3D} instance.
+	 */
+	public static final double DEFAULT_COST_INTERSECTION = 1.0D;
+	
+	/**
+	 * The default cost of traversing a node.
+	 */
+	public static final double DEFAULT_COST_TRAVERSAL = 0.125D;
+	
+	/**
+	 * The default overlap threshold.
+	 */
+	public static final double DEFAULT_OVERLAP_THRESHOLD = 1.0E-3D;
+	
+	/**
+	 * The default maximum reference factor.
+	 */
+	public static final double DEFAULT_MAXIMUM_REFERENCE_FACTOR = 1.5D;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final int MAXIMUM_SPATIAL_SPLIT_LEVEL = 48;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final double costIntersection;
+	private final double costTraversal;
+	private final double maximumReferenceFactor;
+	private final double overlapThreshold;
+	private final int binCount;
+	private final int maximumLeafSize;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code SBVHBuilder3D} instance.
+	 * <p>
+	 * Calling this constructor is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * new SBVHBuilder3D(SBVHBuilder3D.DEFAULT_BIN_COUNT, SBVHBuilder3D.DEFAULT_COST_INTERSECTION, SBVHBuilder3D.DEFAULT_COST_TRAVERSAL, SBVHBuilder3D.DEFAULT_MAXIMUM_LEAF_SIZE, SBVHBuilder3D.DEFAULT_OVERLAP_THRESHOLD);
+	 * }
+	 * </pre>
+	 */
+//	TODO: Add Unit Tests!
+	public SBVHBuilder3D() {
+		this(DEFAULT_BIN_COUNT, DEFAULT_COST_INTERSECTION, DEFAULT_COST_TRAVERSAL, DEFAULT_MAXIMUM_LEAF_SIZE, DEFAULT_OVERLAP_THRESHOLD);
+	}
+	
+	/**
+	 * Constructs a new {@code SBVHBuilder3D} instance.
+	 * <p>
+	 * If either {@code binCount} is less than {@code 2}, {@code costIntersection} is less than or equal to {@code 0.0D}, {@code costTraversal} is less than {@code 0.0D}, {@code maximumLeafSize} is less than {@code 1} or {@code overlapThreshold} is less than {@code 0.0D}, an
+	 * {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * Calling this constructor is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * new SBVHBuilder3D(binCount, costIntersection, costTraversal, maximumLeafSize, overlapThreshold, SBVHBuilder3D.DEFAULT_MAXIMUM_REFERENCE_FACTOR);
+	 * }
+	 * </pre>
+	 * 
+	 * @param binCount the number of bins to use per axis when searching for the best split plane
+	 * @param costIntersection the cost of intersecting a {@link Shape3D} instance
+	 * @param costTraversal the cost of traversing a node
+	 * @param maximumLeafSize the maximum number of {@code Shape3D} instances in a leaf node, unless no split plane can separate them
+	 * @param overlapThreshold the surface area of the overlap between the children of an object split, relative to the surface area of the root node, above which a spatial split is considered
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code binCount} is less than {@code 2}, {@code costIntersection} is less than or equal to {@code 0.0D}, {@code costTraversal} is less than {@code 0.0D}, {@code maximumLeafSize} is less than {@code 1} or
+	 *                                  {@code overlapThreshold} is less than {@code 0.0D}
+	 */
+//	TODO: Add Unit Tests!
+	public SBVHBuilder3D(final int binCount, final double costIntersection, final double costTraversal, final int maximumLeafSize, final double overlapThreshold) {
+		this(binCount, costIntersection, costTraversal, maximumLeafSize, overlapThreshold, DEFAULT_MAXIMUM_REFERENCE_FACTOR);
+	}
+	
+	/**
+	 * Constructs a new {@code SBVHBuilder3D} instance.
+	 * <p>
+	 * If either {@code binCount} is less than {@code 2}, {@code costIntersection} is less than or equal to {@code 0.0D}, {@code costTraversal} is less than {@code 0.0D}, {@code maximumLeafSize} is less than {@code 1}, {@code overlapThreshold} is less than {@code 0.0D} or
+	 * {@code maximumReferenceFactor} is less than {@code 1.0D}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param binCount the number of bins to use per axis when searching for the best split plane
+	 * @param costIntersection the cost of intersecting a {@link Shape3D} instance
+	 * @param costTraversal the cost of traversing a node
+	 * @param maximumLeafSize the maximum number of {@code Shape3D} instances in a leaf node, unless no split plane can separate them
+	 * @param overlapThreshold the surface area of the overlap between the children of an object split, relative to the surface area of the root node, above which a spatial split is considered
+	 * @param maximumReferenceFactor the maximum total number of references, relative to the number of {@code Shape3D} instances
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code binCount} is less than {@code 2}, {@code costIntersection} is less than or equal to {@code 0.0D}, {@code costTraversal} is less than {@code 0.0D}, {@code maximumLeafSize} is less than {@code 1},
+	 *                                  {@code overlapThreshold} is less than {@code 0.0D} or {@code maximumReferenceFactor} is less than {@code 1.0D}
+	 */
+//	TODO: Add Unit Tests!
+	public SBVHBuilder3D(final int binCount, final double costIntersection, final double costTraversal, final int maximumLeafSize, final double overlapThreshold, final double maximumReferenceFactor) {
+		this.binCount = Ints.requireRange(binCount, 2, Integer.MAX_VALUE, "binCount");
+		this.costIntersection = doRequireGreaterThan(costIntersection, 0.0D, "costIntersection");
+		this.costTraversal = doRequireGreaterThanOrEqualTo(costTraversal, 0.0D, "costTraversal");
+		this.maximumLeafSize = Ints.requireRange(maximumLeafSize, 1, Integer.MAX_VALUE, "maximumLeafSize");
+		this.overlapThreshold = doRequireGreaterThanOrEqualTo(overlapThreshold, 0.0D, "overlapThreshold");
+		this.maximumReferenceFactor = doRequireGreaterThanOrEqualTo(maximumReferenceFactor, 1.0D, "maximumReferenceFactor");
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Builds a bounding volume hierarchy (BVH) structure.
+	 * <p>
+	 * Returns a {@link BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure.
+	 * <p>
+	 * If either {@code processableBVHItems} or at least one of its elements are {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param <T> the generic {@link Shape3D} type to use
+	 * @param processableBVHItems a {@code List} of {@link BVHItem3D} instances to process
+	 * @return a {@code BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure
+	 * @throws NullPointerException thrown if, and only if, either {@code processableBVHItems} or at least one of its elements are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public <T extends Shape3D> BVHNode3D build(final List<BVHItem3D<T>> processableBVHItems) {
+		final Primitives<T> primitives = new Primitives<>(Lists.requireNonNull(processableBVHItems, "processableBVHItems"), this.maximumReferenceFactor);
+		
+		if(primitives.size() == 0) {
+			return new LeafBVHNode3D<>(new Point3D(), new Point3D(), 0, new ArrayList<T>());
+		}
+		
+		final List<Reference> references = primitives.createReferences();
+		
+		final double[] bounds = doComputeBounds(references);
+		
+		return doBuild(primitives, references, bounds, 0, 0, doComputeHalfSurfaceArea(bounds), new Point3D(bounds[3], bounds[4], bounds[5]), new Point3D(bounds[0], bounds[1], bounds[2]));
+	}
+	
+	/**
+	 * Builds a bounding volume hierarchy (BVH) structure.
+	 * <p>
+	 * Returns a {@link BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure.
+	 * <p>
+	 * If either {@code processableBVHItems}, at least one of its elements, {@code maximum} or {@code minimum} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code depth} is less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param <T> the generic {@link Shape3D} type to use
+	 * @param processableBVHItems a {@code List} of {@link BVHItem3D} instances to process
+	 * @param maximum a {@link Point3D} instance with the maximum coordinates of the {@link BoundingVolume3D} instance that contains the returned {@code BVHNode3D} instance
+	 * @param minimum a {@code Point3D} instance with the minimum coordinates of the {@code BoundingVolume3D} instance that contains the returned {@code BVHNode3D} instance
+	 * @param depth the depth of the returned {@code BVHNode3D} instance
+	 * @return a {@code BVHNode3D} instance that represents the root of the bounding volume hierarchy (BVH) structure
+	 * @throws IllegalArgumentException thrown if, and only if, {@code depth} is less than {@code 0}
+	 * @throws NullPointerException thrown if, and only if, either {@code processableBVHItems}, at least one of its elements, {@code maximum} or {@code minimum} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public <T extends Shape3D> BVHNode3D build(final List<BVHItem3D<T>> processableBVHItems, final Point3D maximum, final Point3D minimum, final int depth) {
+		Objects.requireNonNull(maximum, "maximum == null");
+		Objects.requireNonNull(minimum, "minimum == null");
+		
+		Ints.requireRange(depth, 0, Integer.MAX_VALUE, "depth");
+		
+		final Primitives<T> primitives = new Primitives<>(Lists.requireNonNull(processableBVHItems, "processableBVHItems"), this.maximumReferenceFactor);
+		
+		if(primitives.size() == 0) {
+			return new LeafBVHNode3D<>(maximum, minimum, depth, new ArrayList<T>());
+		}
+		
+		final List<Reference> references = primitives.createReferences();
+		
+		final double[] bounds = doComputeBounds(references);
+		
+		return doBuild(primitives, references, bounds, depth, 0, doComputeHalfSurfaceArea(bounds), maximum, minimum);
+	}
+	
+	/**
+	 * Compares {@code object} to this {@code SBVHBuilder3D} instance for equality.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code object} is an instance of {@code SBVHBuilder3D}, and their respective values are equal, {@code false} otherwise.
+	 * 
+	 * @param object the {@code Object} to compare to this {@code SBVHBuilder3D} instance for equality
+	 * @return {@code true} if, and only if, {@code object} is an instance of {@code SBVHBuilder3D}, and their respective values are equal, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean equals(final Object object) {
+		if(object == this) {
+			return true;
+		} else if(!(object instanceof SBVHBuilder3D)) {
+			return false;
+		} else if(!Doubles.equals(this.costIntersection, SBVHBuilder3D.class.cast(object).costIntersection)) {
+			return false;
+		} else if(!Doubles.equals(this.costTraversal, SBVHBuilder3D.class.cast(object).costTraversal)) {
+			return false;
+		} else if(!Doubles.equals(this.maximumReferenceFactor, SBVHBuilder3D.class.cast(object).maximumReferenceFactor)) {
+			return false;
+		} else if(!Doubles.equals(this.overlapThreshold, SBVHBuilder3D.class.cast(object).overlapThreshold)) {
+			return false;
+		} else if(this.binCount != SBVHBuilder3D.class.cast(object).binCount) {
+			return false;
+		} else if(this.maximumLeafSize != SBVHBuilder3D.class.cast(object).maximumLeafSize) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+	
+	/**
+	 * Returns the cost of intersecting a {@link Shape3D} instance.
+	 * 
+	 * @return the cost of intersecting a {@code Shape3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public double getCostIntersection() {
+		return this.costIntersection;
+	}
+	
+	/**
+	 * Returns the cost of traversing a node.
+	 * 
+	 * @return the cost of traversing a node
+	 */
+//	TODO: Add Unit Tests!
+	public double getCostTraversal() {
+		return this.costTraversal;
+	}
+	
+	/**
+	 * Returns the maximum reference factor.
+	 * <p>
+	 * The total number of references in the bounding volume hierarchy (BVH) structure is limited to the number of {@link Shape3D} instances multiplied by the maximum reference factor.
+	 * 
+	 * @return the maximum reference factor
+	 */
+//	TODO: Add Unit Tests!
+	public double getMaximumReferenceFactor() {
+		return this.maximumReferenceFactor;
+	}
+	
+	/**
+	 * Returns the overlap threshold.
+	 * <p>
+	 * A spatial split is considered for a node if the surface area of the overlap between the children of its object split, relative to the surface area of the root node, is greater than the overlap threshold.
+	 * 
+	 * @return the overlap threshold
+	 */
+//	TODO: Add Unit Tests!
+	public double getOverlapThreshold() {
+		return this.overlapThreshold;
+	}
+	
+	/**
+	 * Returns the number of bins to use per axis when searching for the best split plane.
+	 * 
+	 * @return the number of bins to use per axis when searching for the best split plane
+	 */
+//	TODO: Add Unit Tests!
+	public int getBinCount() {
+		return this.binCount;
+	}
+	
+	/**
+	 * Returns the maximum number of {@link Shape3D} instances in a leaf node, unless no split plane can separate them.
+	 * 
+	 * @return the maximum number of {@code Shape3D} instances in a leaf node, unless no split plane can separate them
+	 */
+//	TODO: Add Unit Tests!
+	public int getMaximumLeafSize() {
+		return this.maximumLeafSize;
+	}
+	
+	/**
+	 * Returns a hash code for this {@code SBVHBuilder3D} instance.
+	 * 
+	 * @return a hash code for this {@code SBVHBuilder3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public int hashCode() {
+		return Objects.hash(Double.valueOf(this.costIntersection), Double.valueOf(this.costTraversal), Double.valueOf(this.maximumReferenceFactor), Double.valueOf(this.overlapThreshold), Integer.valueOf(this.binCount), Integer.valueOf(this.maximumLeafSize));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private <T extends Shape3D> BVHNode3D doBuild(final Primitives<T> primitives, final List<Reference> references, final double[] bounds, final int depth, final int level, final double surfaceAreaRoot, final Point3D maximum, final Point3D minimum) {
+		final int size = references.size();
+		
+		final double surfaceArea = doComputeHalfSurfaceArea(bounds);
+		
+		final Split splitObject = size > 1 ? doFindObjectSplit(references, surfaceArea) : null;
+		
+		Split split = splitObject;
+		
+		if(size > 1 && level < MAXIMUM_SPATIAL_SPLIT_LEVEL && primitives.canDuplicate(size) && (split == null || split.computeOverlap() > this.overlapThreshold * surfaceAreaRoot)) {
+			final Split splitSpatial = doFindSpatialSplit(primitives, references, bounds, surfaceArea);
+			
+			if(splitSpatial != null && (split == null || splitSpatial.cost < split.cost)) {
+				split = splitSpatial;
+			}
+		}
+		
+		if(split == null || size <= this.maximumLeafSize && this.costIntersection * size * surfaceArea <= split.cost) {
+			return new LeafBVHNode3D<>(maximum, minimum, depth, primitives.getShapes(references));
+		}
+		
+		final List<Reference> referencesL = new ArrayList<>();
+		final List<Reference> referencesR = new ArrayList<>();
+		
+		if(split.isSpatial) {
+			doPartitionSpatial(primitives, references, split, referencesL, referencesR);
+			
+			if(referencesL.size() < size || referencesR.size() < size) {
+				primitives.duplicate(referencesL.size() + referencesR.size() - size);
+			} else if(splitObject != null) {
+				split = splitObject;
+				
+				referencesL.clear();
+				referencesR.clear();
+				
+				doPartitionObject(references, split, referencesL, referencesR);
+			} else {
+				return new LeafBVHNode3D<>(maximum, minimum, depth, primitives.getShapes(references));
+			}
+		} else {
+			doPartitionObject(references, split, referencesL, referencesR);
+		}
+		
+		if(referencesL.isEmpty() || referencesR.isEmpty()) {
+			return new LeafBVHNode3D<>(maximum, minimum, depth, primitives.getShapes(references));
+		}
+		
+		final double[] boundsL = doComputeBounds(referencesL);
+		final double[] boundsR = doComputeBounds(referencesR);
+		
+		final int levelChild = split.isSpatial ? level + 1 : level;
+		
+		final BVHNode3D bVHNodeL = doBuild(primitives, referencesL, boundsL, depth + 1, levelChild, surfaceAreaRoot, new Point3D(boundsL[3], boundsL[4], boundsL[5]), new Point3D(boundsL[0], boundsL[1], boundsL[2]));
+		final BVHNode3D bVHNodeR = doBuild(primitives, referencesR, boundsR, depth + 1, levelChild, surfaceAreaRoot, new Point3D(boundsR[3], boundsR[4], boundsR[5]), new Point3D(boundsR[0], boundsR[1], boundsR[2]));
+		
+		return new TreeBVHNode3D(maximum, minimum, depth, bVHNodeL, bVHNodeR);
+	}
+	
+	private Split doFindObjectSplit(final List<Reference> references, final double surfaceArea) {
+		final double[] centroidBounds = doComputeCentroidBounds(references);
+		
+		final int binCount = this.binCount;
+		
+		final double[] binBounds = new double[binCount * 6];
+		
+		final int[] binCounts = new int[binCount];
+		
+		Split bestSplit = null;
+		
+		for(int axis = 0; axis < 3; axis++) {
+			final double minimum = centroidBounds[axis];
+			final double maximum = centroidBounds[axis + 3];
+			
+			if(!(maximum > minimum)) {
+				continue;
+			}
+			
+			doClear(binBounds, binCounts);
+			
+			for(final Reference reference : references) {
+				final int bin = doComputeBin(reference.getCentroid(axis), minimum, maximum, binCount);
+				
+				doUnion(binBounds, bin * 6, reference.bounds);
+				
+				binCounts[bin]++;
+			}
+			
+			final Split split = doSweep(binBounds, binCounts, binCounts, surfaceArea, axis, minimum, maximum, false);
+			
+			if(split != null && (bestSplit == null || split.cost < bestSplit.cost)) {
+				bestSplit = split;
+			}
+		}
+		
+		return bestSplit;
+	}
+	
+	private Split doSweep(final double[] binBounds, final int[] entryCounts, final int[] exitCounts, final double surfaceArea, final int axis, final double minimum, final double maximum, final boolean isSpatial) {
+		final int binCount = this.binCount;
+		
+		final double[] boundsL = new double[binCount * 6];
+		
+		final int[] countsL = new int[binCount];
+		
+		final double[] bounds = doCreateEmptyBounds();
+		
+		int count = 0;
+		
+		for(int bin = 0; bin < binCount - 1; bin++) {
+			doUnion(bounds, 0, binBounds, bin * 6);
+			
+			count += entryCounts[bin];
+			
+			System.arraycopy(bounds, 0, boundsL, bin * 6, 6);
+			
+			countsL[bin] = count;
+		}
+		
+		final double[] boundsR = doCreateEmptyBounds();
+		
+		Split bestSplit = null;
+		
+		count = 0;
+		
+		for(int bin = binCount - 1; bin > 0; bin--) {
+			doUnion(boundsR, 0, binBounds, bin * 6);
+			
+			count += exitCounts[bin];
+			
+			final int countL = countsL[bin - 1];
+			final int countR = count;
+			
+			if(countL == 0 || countR == 0) {
+				continue;
+			}
+			
+			final double surfaceAreaL = doComputeHalfSurfaceArea(boundsL, (bin - 1) * 6);
+			final double surfaceAreaR = doComputeHalfSurfaceArea(boundsR, 0);
+			
+			final double cost = this.costTraversal * surfaceArea + this.costIntersection * (countL * surfaceAreaL + countR * surfaceAreaR);
+			
+			if(bestSplit == null || cost < bestSplit.cost) {
+				final double[] bestBoundsL = new double[6];
+				
+				System.arraycopy(boundsL, (bin - 1) * 6, bestBoundsL, 0, 6);
+				
+				bestSplit = new Split(bestBoundsL, boundsR.clone(), cost, minimum, maximum, axis, bin - 1, countL, countR, isSpatial);
+			}
+		}
+		
+		return bestSplit;
+	}
+	
+	private <T extends Shape3D> Split doFindSpatialSplit(final Primitives<T> primitives, final List<Reference> references, final double[] bounds, final double surfaceArea) {
+		final int binCount = this.binCount;
+		
+		final double[] binBounds = new double[binCount * 6];
+		final double[] boundsL = new double[6];
+		final double[] boundsR = new double[6];
+		
+		final int[] entryCounts = new int[binCount];
+		final int[] exitCounts = new int[binCount];
+		
+		Split bestSplit = null;
+		
+		for(int axis = 0; axis < 3; axis++) {
+			final double minimum = bounds[axis];
+			final double maximum = bounds[axis + 3];
+			
+			if(!(maximum > minimum)) {
+				continue;
+			}
+			
+			doClear(binBounds, entryCounts);
+			doClear(binBounds, exitCounts);
+			
+			for(final Reference reference : references) {
+				final int binFirst = doComputeBin(reference.bounds[axis], minimum, maximum, binCount);
+				final int binLast = doComputeBin(reference.bounds[axis + 3], minimum, maximum, binCount);
+				
+				entryCounts[binFirst]++;
+				exitCounts[binLast]++;
+				
+				double[] current = reference.bounds.clone();
+				
+				for(int bin = binFirst; bin < binLast; bin++) {
+					final double position = minimum + (maximum - minimum) * (bin + 1) / binCount;
+					
+					primitives.split(reference.index, current, axis, position, boundsL, boundsR);
+					
+					if(doIsValid(boundsL)) {
+						doUnion(binBounds, bin * 6, boundsL);
+					}
+					
+					if(!doIsValid(boundsR)) {
+						current = null;
+						
+						break;
+					}
+					
+					current = boundsR.clone();
+				}
+				
+				if(current != null) {
+					doUnion(binBounds, binLast * 6, current);
+				}
+			}
+			
+			final Split split = doSweep(binBounds, entryCounts, exitCounts, surfaceArea, axis, minimum, maximum, true);
+			
+			if(split != null && (bestSplit == null || split.cost < bestSplit.cost)) {
+				bestSplit = split;
+			}
+		}
+		
+		return bestSplit;
+	}
+	
+	private void doPartitionObject(final List<Reference> references, final Split split, final List<Reference> referencesL, final List<Reference> referencesR) {
+		for(final Reference reference : references) {
+			if(doComputeBin(reference.getCentroid(split.axis), split.minimum, split.maximum, this.binCount) <= split.bin) {
+				referencesL.add(reference);
+			} else {
+				referencesR.add(reference);
+			}
+		}
+	}
+	
+	private <T extends Shape3D> void doPartitionSpatial(final Primitives<T> primitives, final List<Reference> references, final Split split, final List<Reference> referencesL, final List<Reference> referencesR) {
+		final int axis = split.axis;
+		final int binCount = this.binCount;
+		
+		final double position = split.minimum + (split.maximum - split.minimum) * (split.bin + 1) / binCount;
+		
+		final double[] boundsL = split.boundsL.clone();
+		final double[] boundsR = split.boundsR.clone();
+		final double[] boundsSplitL = new double[6];
+		final double[] boundsSplitR = new double[6];
+		
+		int countL = split.countL;
+		int countR = split.countR;
+		
+		for(final Reference reference : references) {
+			final int binFirst = doComputeBin(reference.bounds[axis], split.minimum, split.maximum, binCount);
+			final int binLast = doComputeBin(reference.bounds[axis + 3], split.minimum, split.maximum, binCount);
+			
+			if(binLast <= split.bin) {
+				referencesL.add(reference);
+			} else if(binFirst > split.bin) {
+				referencesR.add(reference);
+			} else {
+				primitives.split(reference.index, reference.bounds, axis, position, boundsSplitL, boundsSplitR);
+				
+				final boolean isValidL = doIsValid(boundsSplitL);
+				final boolean isValidR = doIsValid(boundsSplitR);
+				
+				if(!isValidR) {
+					referencesL.add(reference);
+					
+					continue;
+				}
+				
+				if(!isValidL) {
+					referencesR.add(reference);
+					
+					continue;
+				}
+				
+//				Reference unsplitting: The reference is moved into one child instead of being split, if that is cheaper according to the surface area heuristic (SAH):
+				final double surfaceAreaL = doComputeHalfSurfaceArea(boundsL, 0);
+				final double surfaceAreaR = doComputeHalfSurfaceArea(boundsR, 0);
+				
+				final double[] boundsUnionL = boundsL.clone();
+				final double[] boundsUnionR = boundsR.clone();
+				
+				doUnion(boundsUnionL, 0, reference.bounds);
+				doUnion(boundsUnionR, 0, reference.bounds);
+				
+				final double costSplit = surfaceAreaL * countL + surfaceAreaR * countR;
+				final double costL = doComputeHalfSurfaceArea(boundsUnionL, 0) * countL + surfaceAreaR * (countR - 1);
+				final double costR = surfaceAreaL * (countL - 1) + doComputeHalfSurfaceArea(boundsUnionR, 0) * countR;
+				
+				if(costL < costSplit && costL <= costR) {
+					referencesL.add(reference);
+					
+					System.arraycopy(boundsUnionL, 0, boundsL, 0, 6);
+					
+					countR--;
+				} else if(costR < costSplit) {
+					referencesR.add(reference);
+					
+					System.arraycopy(boundsUnionR, 0, boundsR, 0, 6);
+					
+					countL--;
+				} else {
+					referencesL.add(new Reference(boundsSplitL.clone(), reference.index));
+					referencesR.add(new Reference(boundsSplitR.clone(), reference.index));
+				}
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static boolean doIsValid(final double[] bounds) {
+		return bounds[0] <= bounds[3] && bounds[1] <= bounds[4] && bounds[2] <= bounds[5];
+	}
+	
+	private static double doComputeHalfSurfaceArea(final double[] bounds) {
+		return doComputeHalfSurfaceArea(bounds, 0);
+	}
+	
+	private static double doComputeHalfSurfaceArea(final double[] bounds, final int offset) {
+		final double sideX = bounds[offset + 3] - bounds[offset + 0];
+		final double sideY = bounds[offset + 4] - bounds[offset + 1];
+		final double sideZ = bounds[offset + 5] - bounds[offset + 2];
+		
+		return sideX * sideY + sideY * sideZ + sideZ * sideX;
+	}
+	
+	private static double doRequireGreaterThan(final double value, final double minimum, final String name) {
+		if(!(value > minimum)) {
+			throw new IllegalArgumentException(String.format("%s <= %s: %s == %s", name, Double.toString(minimum), name, Double.toString(value)));
+		}
+		
+		return value;
+	}
+	
+	private static double doRequireGreaterThanOrEqualTo(final double value, final double minimum, final String name) {
+		if(!(value >= minimum)) {
+			throw new IllegalArgumentException(String.format("%s < %s: %s == %s", name, Double.toString(minimum), name, Double.toString(value)));
+		}
+		
+		return value;
+	}
+	
+	private static double[] doComputeBounds(final List<Reference> references) {
+		final double[] bounds = doCreateEmptyBounds();
+		
+		for(final Reference reference : references) {
+			doUnion(bounds, 0, reference.bounds);
+		}
+		
+		return bounds;
+	}
+	
+	private static double[] doComputeCentroidBounds(final List<Reference> references) {
+		final double[] centroidBounds = doCreateEmptyBounds();
+		
+		for(final Reference reference : references) {
+			for(int axis = 0; axis < 3; axis++) {
+				final double centroid = reference.getCentroid(axis);
+				
+				centroidBounds[axis + 0] = Doubles.min(centroidBounds[axis + 0], centroid);
+				centroidBounds[axis + 3] = Doubles.max(centroidBounds[axis + 3], centroid);
+			}
+		}
+		
+		return centroidBounds;
+	}
+	
+	private static double[] doCreateEmptyBounds() {
+		return new double[] {Doubles.MAX_VALUE, Doubles.MAX_VALUE, Doubles.MAX_VALUE, Doubles.MIN_VALUE, Doubles.MIN_VALUE, Doubles.MIN_VALUE};
+	}
+	
+	private static int doComputeBin(final double value, final double minimum, final double maximum, final int binCount) {
+		return Ints.min((int)(binCount * ((value - minimum) / (maximum - minimum))), binCount - 1);
+	}
+	
+	private static void doClear(final double[] binBounds, final int[] binCounts) {
+		for(int bin = 0; bin < binCounts.length; bin++) {
+			System.arraycopy(doCreateEmptyBounds(), 0, binBounds, bin * 6, 6);
+			
+			binCounts[bin] = 0;
+		}
+	}
+	
+	private static void doUnion(final double[] bounds, final int offset, final double[] boundsRHS) {
+		doUnion(bounds, offset, boundsRHS, 0);
+	}
+	
+	private static void doUnion(final double[] bounds, final int offset, final double[] boundsRHS, final int offsetRHS) {
+		bounds[offset + 0] = Doubles.min(bounds[offset + 0], boundsRHS[offsetRHS + 0]);
+		bounds[offset + 1] = Doubles.min(bounds[offset + 1], boundsRHS[offsetRHS + 1]);
+		bounds[offset + 2] = Doubles.min(bounds[offset + 2], boundsRHS[offsetRHS + 2]);
+		bounds[offset + 3] = Doubles.max(bounds[offset + 3], boundsRHS[offsetRHS + 3]);
+		bounds[offset + 4] = Doubles.max(bounds[offset + 4], boundsRHS[offsetRHS + 4]);
+		bounds[offset + 5] = Doubles.max(bounds[offset + 5], boundsRHS[offsetRHS + 5]);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Primitives<T extends Shape3D> {
+		private final List<BVHItem3D<T>> processableBVHItems;
+		private final double[][] vertices;
+		private final long referenceCountMaximum;
+		private long referenceCount;
+		
+		public Primitives(final List<BVHItem3D<T>> processableBVHItems, final double maximumReferenceFactor) {
+			this.processableBVHItems = new ArrayList<>(processableBVHItems);
+			this.vertices = new double[this.processableBVHItems.size()][];
+			this.referenceCountMaximum = (long)(this.processableBVHItems.size() * maximumReferenceFactor);
+			this.referenceCount = this.processableBVHItems.size();
+			
+			for(int i = 0; i < this.vertices.length; i++) {
+				final T shape = this.processableBVHItems.get(i).getShape();
+				
+				if(shape instanceof Triangle3D) {
+					final Triangle3D triangle = Triangle3D.class.cast(shape);
+					
+					final Point4D a = triangle.getA().getPosition();
+					final Point4D b = triangle.getB().getPosition();
+					final Point4D c = triangle.getC().getPosition();
+					
+					this.vertices[i] = new double[] {a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z};
+				}
+			}
+		}
+		
+		public List<Reference> createReferences() {
+			final List<Reference> references = new ArrayList<>(this.processableBVHItems.size());
+			
+			for(int i = 0; i < this.processableBVHItems.size(); i++) {
+				final BoundingVolume3D boundingVolume = this.processableBVHItems.get(i).getBoundingVolume();
+				
+				final Point3D max = boundingVolume.max();
+				final Point3D min = boundingVolume.min();
+				
+				references.add(new Reference(new double[] {min.x, min.y, min.z, max.x, max.y, max.z}, i));
+			}
+			
+			return references;
+		}
+		
+		public List<T> getShapes(final List<Reference> references) {
+			final List<T> shapes = new ArrayList<>(references.size());
+			
+			for(final Reference reference : references) {
+				shapes.add(this.processableBVHItems.get(reference.index).getShape());
+			}
+			
+			return shapes;
+		}
+		
+		public boolean canDuplicate(final int count) {
+			return this.referenceCount + count <= this.referenceCountMaximum;
+		}
+		
+		public int size() {
+			return this.processableBVHItems.size();
+		}
+		
+		public void duplicate(final int count) {
+			this.referenceCount += count;
+		}
+		
+		public void split(final int index, final double[] bounds, final int axis, final double position, final double[] boundsL, final double[] boundsR) {
+			final double[] vertices = this.vertices[index];
+			
+			if(vertices == null) {
+				System.arraycopy(bounds, 0, boundsL, 0, 6);
+				System.arraycopy(bounds, 0, boundsR, 0, 6);
+				
+				boundsL[axis + 3] = Doubles.min(boundsL[axis + 3], position);
+				boundsR[axis + 0] = Doubles.max(boundsR[axis + 0], position);
+				
+				return;
+			}
+			
+			System.arraycopy(doCreateEmptyBounds(), 0, boundsL, 0, 6);
+			System.arraycopy(doCreateEmptyBounds(), 0, boundsR, 0, 6);
+			
+//			The triangle is clipped against the plane by visiting each edge. A vertex is added to the side it lies on and an intersection point between an edge and the plane is added to both sides:
+			for(int i = 0; i < 3; i++) {
+				final int offsetV = i * 3;
+				final int offsetW = (i + 1) % 3 * 3;
+				
+				final double v = vertices[offsetV + axis];
+				final double w = vertices[offsetW + axis];
+				
+				if(v <= position) {
+					doAdd(boundsL, vertices[offsetV + 0], vertices[offsetV + 1], vertices[offsetV + 2]);
+				}
+				
+				if(v >= position) {
+					doAdd(boundsR, vertices[offsetV + 0], vertices[offsetV + 1], vertices[offsetV + 2]);
+				}
+				
+				if(v < position && w > position || v > position && w < position) {
+					final double t = (position - v) / (w - v);
+					
+					final double x = vertices[offsetV + 0] + (vertices[offsetW + 0] - vertices[offsetV + 0]) * t;
+					final double y = vertices[offsetV + 1] + (vertices[offsetW + 1] - vertices[offsetV + 1]) * t;
+					final double z = vertices[offsetV + 2] + (vertices[offsetW + 2] - vertices[offsetV + 2]) * t;
+					
+					doAdd(boundsL, axis == 0 ? position : x, axis == 1 ? position : y, axis == 2 ? position : z);
+					doAdd(boundsR, axis == 0 ? position : x, axis == 1 ? position : y, axis == 2 ? position : z);
+				}
+			}
+			
+			doIntersect(boundsL, bounds);
+			doIntersect(boundsR, bounds);
+		}
+		
+		private static void doAdd(final double[] bounds, final double x, final double y, final double z) {
+			bounds[0] = Doubles.min(bounds[0], x);
+			bounds[1] = Doubles.min(bounds[1], y);
+			bounds[2] = Doubles.min(bounds[2], z);
+			bounds[3] = Doubles.max(bounds[3], x);
+			bounds[4] = Doubles.max(bounds[4], y);
+			bounds[5] = Doubles.max(bounds[5], z);
+		}
+		
+		private static void doIntersect(final double[] bounds, final double[] boundsRHS) {
+			bounds[0] = Doubles.max(bounds[0], boundsRHS[0]);
+			bounds[1] = Doubles.max(bounds[1], boundsRHS[1]);
+			bounds[2] = Doubles.max(bounds[2], boundsRHS[2]);
+			bounds[3] = Doubles.min(bounds[3], boundsRHS[3]);
+			bounds[4] = Doubles.min(bounds[4], boundsRHS[4]);
+			bounds[5] = Doubles.min(bounds[5], boundsRHS[5]);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Reference {
+		private final double[] bounds;
+		private final int index;
+		
+		public Reference(final double[] bounds, final int index) {
+			this.bounds = bounds;
+			this.index = index;
+		}
+		
+		public double getCentroid(final int axis) {
+			return (this.bounds[axis] + this.bounds[axis + 3]) * 0.5D;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Split {
+		private final boolean isSpatial;
+		private final double[] boundsL;
+		private final double[] boundsR;
+		private final double cost;
+		private final double maximum;
+		private final double minimum;
+		private final int axis;
+		private final int bin;
+		private final int countL;
+		private final int countR;
+		
+		public Split(final double[] boundsL, final double[] boundsR, final double cost, final double minimum, final double maximum, final int axis, final int bin, final int countL, final int countR, final boolean isSpatial) {
+			this.boundsL = boundsL;
+			this.boundsR = boundsR;
+			this.cost = cost;
+			this.minimum = minimum;
+			this.maximum = maximum;
+			this.axis = axis;
+			this.bin = bin;
+			this.countL = countL;
+			this.countR = countR;
+			this.isSpatial = isSpatial;
+		}
+		
+		public double computeOverlap() {
+			final double x = Doubles.min(this.boundsL[3], this.boundsR[3]) - Doubles.max(this.boundsL[0], this.boundsR[0]);
+			final double y = Doubles.min(this.boundsL[4], this.boundsR[4]) - Doubles.max(this.boundsL[1], this.boundsR[1]);
+			final double z = Doubles.min(this.boundsL[5], this.boundsR[5]) - Doubles.max(this.boundsL[2], this.boundsR[2]);
+			
+			return x >= 0.0D && y >= 0.0D && z >= 0.0D ? x * y + y * z + z * x : 0.0D;
+		}
+	}
+}
\ No newline at end of file
@@ -22,8 +22,10 @@ import java.lang.reflect.Field;//TODO: Add Unit Tests!
 import java.util.Objects;
 import java.util.Optional;
 
+import org.macroing.geo4j.bv.BoundingVolume3D;
 import org.macroing.geo4j.common.Point3D;
 import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.ray.TraversalRay3D;
 import org.macroing.geo4j.shape.SurfaceIntersection3D;
 import org.macroing.geo4j.shape.SurfaceIntersector3D;
 import org.macroing.java.lang.Doubles;
@@ -32,6 +34,8 @@ import org.macroing.java.util.visitor.NodeTraversalException;
 
 /**
  * A {@code TreeBVHNode3D} is an implementation of {@link BVHNode3D} that represents a tree node.
+ * <p>
+ * When searching for the closest intersection, the child node whose bounding volume is entered first by the ray is visited first. The other child node is skipped if the ray enters its bounding volume beyond the closest intersection found so far.
  * 
  * @since 1.0.0
  * @author J&#246;rgen Lundgren
@@ -74,6 +78,26 @@ public final class TreeBVHNode3D extends BVHNode3D {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	/**
+	 * Returns the {@link BVHNode3D} instance on the left-hand side.
+	 * 
+	 * @return the {@code BVHNode3D} instance on the left-hand side
+	 */
+//	TODO: Add Unit Tests!
+	public BVHNode3D getBVHNodeL() {
+		return this.bVHNodeL;
+	}
+	
+	/**
+	 * Returns the {@link BVHNode3D} instance on the right-hand side.
+	 * 
+	 * @return the {@code BVHNode3D} instance on the right-hand side
+	 */
+//	TODO: Add Unit Tests!
+	public BVHNode3D getBVHNodeR() {
+		return this.bVHNodeR;
+	}
+	
 	/**
 	 * Accepts a {@link NodeHierarchicalVisitor}.
 	 * <p>
@@ -163,14 +187,7 @@ public final class TreeBVHNode3D extends BVHNode3D {
 //	TODO: Add Unit Tests!
 	@Override
 	public boolean intersection(final SurfaceIntersector3D surfaceIntersector) {
-		if(surfaceIntersector.isIntersecting(getBoundingVolume())) {
-			final boolean isIntersectingL = this.bVHNodeL.intersection(surfaceIntersector);
-			final boolean isIntersectingR = this.bVHNodeR.intersection(surfaceIntersector);
-			
-			return isIntersectingL || isIntersectingR;
-		}
-		
-		return false;
+		return surfaceIntersector.isIntersecting(getBoundingVolume()) && doIntersection(surfaceIntersector);
 	}
 	
 	/**
@@ -229,7 +246,7 @@ public final class TreeBVHNode3D extends BVHNode3D {
 //	TODO: Add Unit Tests!
 	@Override
 	protected Optional<SurfaceIntersection3D> intersection(final Ray3D ray, final double[] tBounds) {
-		return getBoundingVolume().contains(ray.getOrigin()) || getBoundingVolume().intersects(ray, tBounds[0], tBounds[1]) ? SurfaceIntersection3D.closest(this.bVHNodeL.intersection(ray, tBounds), this.bVHNodeR.intersection(ray, tBounds)) : Optional.empty();
+		return getBoundingVolume().contains(ray.getOrigin()) || getBoundingVolume().intersects(ray, tBounds[0], tBounds[1]) ? doIntersection(new TraversalRay3D(ray), tBounds) : Optional.empty();
 	}
 	
 	/**
@@ -247,6 +264,134 @@ public final class TreeBVHNode3D extends BVHNode3D {
 //	TODO: Add Unit Tests!
 	@Override
 	protected double intersectionT(final Ray3D ray, final double[] tBounds) {
-		return getBoundingVolume().contains(ray.getOrigin()) || getBoundingVolume().intersects(ray, tBounds[0], tBounds[1]) ? Doubles.minOrDefault(this.bVHNodeL.intersectionT(ray, tBounds), this.bVHNodeR.intersectionT(ray, tBounds), Double.NaN) : Double.NaN;
+		return getBoundingVolume().contains(ray.getOrigin()) || getBoundingVolume().intersects(ray, tBounds[0], tBounds[1]) ? doIntersectionT(new TraversalRay3D(ray), tBounds) : Double.NaN;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private Optional<SurfaceIntersection3D> doIntersection(final TraversalRay3D traversalRay, final double[] tBounds) {
+		final double tL = doIntersectionEntry(this.bVHNodeL, traversalRay, tBounds[0], tBounds[1]);
+		final double tR = doIntersectionEntry(this.bVHNodeR, traversalRay, tBounds[0], tBounds[1]);
+		
+		final boolean isNearL = !(tR < tL);
+		
+		final BVHNode3D bVHNodeNear = isNearL ? this.bVHNodeL : this.bVHNodeR;
+		final BVHNode3D bVHNodeFar = isNearL ? this.bVHNodeR : this.bVHNodeL;
+		
+		final double tNear = isNearL ? tL : tR;
+		final double tFar = isNearL ? tR : tL;
+		
+		Optional<SurfaceIntersection3D> optionalSurfaceIntersection = SurfaceIntersection3D.EMPTY;
+		
+		if(!Doubles.isNaN(tNear)) {
+			optionalSurfaceIntersection = doIntersection(bVHNodeNear, traversalRay, tBounds);
+		}
+		
+		if(!Doubles.isNaN(tFar) && tFar <= tBounds[1]) {
+			optionalSurfaceIntersection = SurfaceIntersection3D.closest(optionalSurfaceIntersection, doIntersection(bVHNodeFar, traversalRay, tBounds));
+		}
+		
+		return optionalSurfaceIntersection;
+	}
+	
+	private boolean doIntersection(final SurfaceIntersector3D surfaceIntersector) {
+		final TraversalRay3D traversalRay = surfaceIntersector.getTraversalRay();
+		
+		final double tL = doIntersectionEntry(this.bVHNodeL, traversalRay, surfaceIntersector.getTMinimum(), surfaceIntersector.getTMaximum());
+		final double tR = doIntersectionEntry(this.bVHNodeR, traversalRay, surfaceIntersector.getTMinimum(), surfaceIntersector.getTMaximum());
+		
+		final boolean isNearL = !(tR < tL);
+		
+		final BVHNode3D bVHNodeNear = isNearL ? this.bVHNodeL : this.bVHNodeR;
+		final BVHNode3D bVHNodeFar = isNearL ? this.bVHNodeR : this.bVHNodeL;
+		
+		final double tNear = isNearL ? tL : tR;
+		final double tFar = isNearL ? tR : tL;
+		
+		boolean isIntersecting = false;
+		
+		if(!Doubles.isNaN(tNear)) {
+			isIntersecting = doIntersection(bVHNodeNear, surfaceIntersector);
+		}
+		
+		if(!Doubles.isNaN(tFar) && tFar <= surfaceIntersector.getTMaximum()) {
+			isIntersecting = doIntersection(bVHNodeFar, surfaceIntersector) || isIntersecting;
+		}
+		
+		return isIntersecting;
+	}
+	
+	private double doIntersectionT(final TraversalRay3D traversalRay, final double[] tBounds) {
+		final double tL = doIntersectionEntry(this.bVHNodeL, traversalRay, tBounds[0], tBounds[1]);
+		final double tR = doIntersectionEntry(this.bVHNodeR, traversalRay, tBounds[0], tBounds[1]);
+		
+		final boolean isNearL = !(tR < tL);
+		
+		final BVHNode3D bVHNodeNear = isNearL ? this.bVHNodeL : this.bVHNodeR;
+		final BVHNode3D bVHNodeFar = isNearL ? this.bVHNodeR : this.bVHNodeL;
+		
+		final double tNear = isNearL ? tL : tR;
+		final double tFar = isNearL ? tR : tL;
+		
+		double t = Double.NaN;
+		
+		if(!Doubles.isNaN(tNear)) {
+			t = doIntersectionT(bVHNodeNear, traversalRay, tBounds);
+		}
+		
+		if(!Doubles.isNaN(tFar) && tFar <= tBounds[1]) {
+			t = Doubles.minOrDefault(t, doIntersectionT(bVHNodeFar, traversalRay, tBounds), Double.NaN);
+		}
+		
+		return t;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static Optional<SurfaceIntersection3D> doIntersection(final BVHNode3D bVHNode, final TraversalRay3D traversalRay, final double[] tBounds) {
+		if(bVHNode instanceof TreeBVHNode3D) {
+			return TreeBVHNode3D.class.cast(bVHNode).doIntersection(traversalRay, tBounds);
+		}
+		
+		if(bVHNode instanceof LeafBVHNode3D) {
+			final LeafBVHNode3D<?> leafBVHNode = LeafBVHNode3D.class.cast(bVHNode);
+			
+			return leafBVHNode.doIntersection(traversalRay.getRay(), tBounds);
+		}
+		
+		return bVHNode.intersection(traversalRay.getRay(), tBounds);
+	}
+	
+	private static boolean doIntersection(final BVHNode3D bVHNode, final SurfaceIntersector3D surfaceIntersector) {
+		if(bVHNode instanceof TreeBVHNode3D) {
+			return TreeBVHNode3D.class.cast(bVHNode).doIntersection(surfaceIntersector);
+		}
+		
+		if(bVHNode instanceof LeafBVHNode3D) {
+			return LeafBVHNode3D.class.cast(bVHNode).doIntersection(surfaceIntersector);
+		}
+		
+		return bVHNode.intersection(surfaceIntersector);
+	}
+	
+	private static double doIntersectionEntry(final BVHNode3D bVHNode, final TraversalRay3D traversalRay, final double tMinimum, final double tMaximum) {
+		final BoundingVolume3D boundingVolume = bVHNode.getBoundingVolume();
+		
+		final Point3D maximum = boundingVolume.max();
+		final Point3D minimum = boundingVolume.min();
+		
+		return traversalRay.intersectionEntry(minimum.x, minimum.y, minimum.z, maximum.x, maximum.y, maximum.z, tMinimum, tMaximum);
+	}
+	
+	private static double doIntersectionT(final BVHNode3D bVHNode, final TraversalRay3D traversalRay, final double[] tBounds) {
+		if(bVHNode instanceof TreeBVHNode3D) {
+			return TreeBVHNode3D.class.cast(bVHNode).doIntersectionT(traversalRay, tBounds);
+		}
+		
+		if(bVHNode instanceof LeafBVHNode3D) {
+			return LeafBVHNode3D.class.cast(bVHNode).doIntersectionT(traversalRay.getRay(), tBounds);
+		}
+		
+		return bVHNode.intersectionT(traversalRay.getRay(), tBounds);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,650 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.ray.TraversalRay3D;
+import org.macroing.geo4j.shape.Shape3D;
+import org.macroing.geo4j.shape.SurfaceIntersection3D;
+import org.macroing.geo4j.shape.SurfaceIntersector3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+
+/**
+ * A {@code WideBVH3D} is a {@code double}-based bounding volume hierarchy (BVH) structure where each tree node has up to {@code width} children, such as 4 or 8.
+ * <p>
+ * A {@code WideBVH3D} is created by collapsing a binary {@link BVHNode3D} instance. The children of a node in the binary tree are repeatedly replaced by their own children, starting with the child that has the largest surface area, until the node has {@code width} children or only
+ * {@link LeafBVHNode3D} children remain.
+ * <p>
+ * The bounds of the children of a node are stored in structure-of-arrays form, with one {@code double[]} for each of the minimum and maximum coordinates on the X-, Y- and Z-axes. The children of a node occupy {@code width} consecutive elements in each array, so the slab test of all
+ * children is performed in one loop over a contiguous range of elements. Children are visited in front-to-back order.
+ * <p>
+ * This class is immutable and therefore thread-safe, if, and only if, all {@link Shape3D} instances are.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class WideBVH3D {
+	/**
+	 * The default width of a {@code WideBVH3D} instance.
+	 */
+	public static final int DEFAULT_WIDTH = 4;
+	
+	/**
+	 * The maximum width of a {@code WideBVH3D} instance.
+	 */
+	public static final int MAXIMUM_WIDTH = 16;
+	
+	/**
+	 * The minimum width of a {@code WideBVH3D} instance.
+	 */
+	public static final int MINIMUM_WIDTH = 2;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final int CHILD_NONE = Integer.MIN_VALUE;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final Shape3D[] shapes;
+	private final double[] bounds;
+	private final double[] maximumX;
+	private final double[] maximumY;
+	private final double[] maximumZ;
+	private final double[] minimumX;
+	private final double[] minimumY;
+	private final double[] minimumZ;
+	private final int[] children;
+	private final int[] leaves;
+	private final int nodeCount;
+	private final int stackSize;
+	private final int width;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code WideBVH3D} instance by collapsing {@code bVHNode}.
+	 * <p>
+	 * If {@code bVHNode} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code bVHNode}, or any of its descendants, is neither a {@link LeafBVHNode3D} nor a {@link TreeBVHNode3D}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * Calling this constructor is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * new WideBVH3D(bVHNode, WideBVH3D.DEFAULT_WIDTH);
+	 * }
+	 * </pre>
+	 * 
+	 * @param bVHNode the {@link BVHNode3D} instance to collapse
+	 * @throws IllegalArgumentException thrown if, and only if, {@code bVHNode}, or any of its descendants, is neither a {@code LeafBVHNode3D} nor a {@code TreeBVHNode3D}
+	 * @throws NullPointerException thrown if, and only if, {@code bVHNode} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public WideBVH3D(final BVHNode3D bVHNode) {
+		this(bVHNode, DEFAULT_WIDTH);
+	}
+	
+	/**
+	 * Constructs a new {@code WideBVH3D} instance by collapsing {@code bVHNode}.
+	 * <p>
+	 * If {@code bVHNode} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code bVHNode}, or any of its descendants, is neither a {@link LeafBVHNode3D} nor a {@link TreeBVHNode3D}, or {@code width} is less than {@code WideBVH3D.MINIMUM_WIDTH} or greater than {@code WideBVH3D.MAXIMUM_WIDTH}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param bVHNode the {@link BVHNode3D} instance to collapse
+	 * @param width the maximum number of children of each tree node
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code bVHNode}, or any of its descendants, is neither a {@code LeafBVHNode3D} nor a {@code TreeBVHNode3D}, or {@code width} is less than {@code WideBVH3D.MINIMUM_WIDTH} or greater than {@code WideBVH3D.MAXIMUM_WIDTH}
+	 * @throws NullPointerException thrown if, and only if, {@code bVHNode} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public WideBVH3D(final BVHNode3D bVHNode, final int width) {
+		Objects.requireNonNull(bVHNode, "bVHNode == null");
+		
+		this.width = Ints.requireRange(width, MINIMUM_WIDTH, MAXIMUM_WIDTH, "width");
+		
+		final int[] counts = new int[3];
+		
+		doCount(bVHNode, counts);
+		
+		final int capacity = Ints.max(counts[0], 1) * width;
+		
+		this.bounds = doGetBounds(bVHNode);
+		this.maximumX = new double[capacity];
+		this.maximumY = new double[capacity];
+		this.maximumZ = new double[capacity];
+		this.minimumX = new double[capacity];
+		this.minimumY = new double[capacity];
+		this.minimumZ = new double[capacity];
+		this.children = new int[capacity];
+		this.leaves = new int[counts[1] * 2];
+		
+		final List<Shape3D> shapes = new ArrayList<>(counts[2]);
+		
+		final int[] sizes = new int[3];
+		
+		Arrays.fill(this.children, CHILD_NONE);
+		
+		sizes[0] = 1;
+		
+		final int depth = bVHNode instanceof TreeBVHNode3D ? doCollapse(TreeBVHNode3D.class.cast(bVHNode), 0, shapes, sizes) : doCollapse(bVHNode, 0, shapes, sizes);
+		
+		this.nodeCount = sizes[0];
+		this.shapes = shapes.toArray(new Shape3D[shapes.size()]);
+		this.stackSize = depth * (width - 1) + 2;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns the {@link BoundingVolume3D} instance that contains this {@code WideBVH3D} instance.
+	 * 
+	 * @return the {@code BoundingVolume3D} instance that contains this {@code WideBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public BoundingVolume3D getBoundingVolume() {
+		return new AxisAlignedBoundingBox3D(new Point3D(this.bounds[3], this.bounds[4], this.bounds[5]), new Point3D(this.bounds[0], this.bounds[1], this.bounds[2]));
+	}
+	
+	/**
+	 * Returns a {@code List} with all {@link Shape3D} instances associated with this {@code WideBVH3D} instance.
+	 * <p>
+	 * The {@code Shape3D} instances are returned in the order they are stored, so the index of a {@code Shape3D} instance in the returned {@code List} can be used together with {@link #getShape(int)}.
+	 * <p>
+	 * Modification to the returned {@code List} will not affect this {@code WideBVH3D} instance.
+	 * 
+	 * @return a {@code List} with all {@code Shape3D} instances associated with this {@code WideBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public List<Shape3D> getShapes() {
+		return new ArrayList<>(Arrays.asList(this.shapes));
+	}
+	
+	/**
+	 * Performs an intersection test between {@code ray} and this {@code WideBVH3D} instance.
+	 * <p>
+	 * Returns an {@code Optional} with an optional {@link SurfaceIntersection3D} instance that contains information about the intersection, if it was found.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * Only the {@link Shape3D} instance that is closest to the origin of {@code ray} will compute a {@code SurfaceIntersection3D} instance.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code WideBVH3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return an {@code Optional} with an optional {@code SurfaceIntersection3D} instance that contains information about the intersection, if it was found
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public Optional<SurfaceIntersection3D> intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final int shapeIndex = doIntersection(Objects.requireNonNull(ray, "ray == null"), new double[] {tMinimum, tMaximum});
+		
+		return shapeIndex >= 0 ? this.shapes[shapeIndex].intersection(ray, tMinimum, tMaximum) : SurfaceIntersection3D.EMPTY;
+	}
+	
+	/**
+	 * Returns the {@link Shape3D} instance at index {@code index}.
+	 * <p>
+	 * If {@code index} is less than {@code 0}, or greater than or equal to {@code getShapeCount()}, an {@code ArrayIndexOutOfBoundsException} will be thrown.
+	 * 
+	 * @param index the index of the {@code Shape3D} instance
+	 * @return the {@code Shape3D} instance at index {@code index}
+	 * @throws ArrayIndexOutOfBoundsException thrown if, and only if, {@code index} is less than {@code 0}, or greater than or equal to {@code getShapeCount()}
+	 */
+//	TODO: Add Unit Tests!
+	public Shape3D getShape(final int index) {
+		return this.shapes[index];
+	}
+	
+	/**
+	 * Compares {@code object} to this {@code WideBVH3D} instance for equality.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code object} is an instance of {@code WideBVH3D}, and their respective values are equal, {@code false} otherwise.
+	 * 
+	 * @param object the {@code Object} to compare to this {@code WideBVH3D} instance for equality
+	 * @return {@code true} if, and only if, {@code object} is an instance of {@code WideBVH3D}, and their respective values are equal, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean equals(final Object object) {
+		if(object == this) {
+			return true;
+		} else if(!(object instanceof WideBVH3D)) {
+			return false;
+		} else if(!Arrays.equals(this.shapes, WideBVH3D.class.cast(object).shapes)) {
+			return false;
+		} else if(!Arrays.equals(this.bounds, WideBVH3D.class.cast(object).bounds)) {
+			return false;
+		} else if(!Arrays.equals(this.maximumX, WideBVH3D.class.cast(object).maximumX)) {
+			return false;
+		} else if(!Arrays.equals(this.maximumY, WideBVH3D.class.cast(object).maximumY)) {
+			return false;
+		} else if(!Arrays.equals(this.maximumZ, WideBVH3D.class.cast(object).maximumZ)) {
+			return false;
+		} else if(!Arrays.equals(this.minimumX, WideBVH3D.class.cast(object).minimumX)) {
+			return false;
+		} else if(!Arrays.equals(this.minimumY, WideBVH3D.class.cast(object).minimumY)) {
+			return false;
+		} else if(!Arrays.equals(this.minimumZ, WideBVH3D.class.cast(object).minimumZ)) {
+			return false;
+		} else if(!Arrays.equals(this.children, WideBVH3D.class.cast(object).children)) {
+			return false;
+		} else if(!Arrays.equals(this.leaves, WideBVH3D.class.cast(object).leaves)) {
+			return false;
+		} else if(this.nodeCount != WideBVH3D.class.cast(object).nodeCount) {
+			return false;
+		} else if(this.stackSize != WideBVH3D.class.cast(object).stackSize) {
+			return false;
+		} else if(this.width != WideBVH3D.class.cast(object).width) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+	
+	/**
+	 * Performs an intersection test between {@code surfaceIntersector} and this {@code WideBVH3D} instance.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code WideBVH3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code surfaceIntersector} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param surfaceIntersector a {@link SurfaceIntersector3D} instance
+	 * @return {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code WideBVH3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code surfaceIntersector} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public boolean intersection(final SurfaceIntersector3D surfaceIntersector) {
+		final Ray3D ray = surfaceIntersector.getRay();
+		
+		final Point3D origin = ray.getOrigin();
+		
+		final Vector3D direction = ray.getDirection();
+		
+		final double[] rayData = new double[] {origin.x, origin.y, origin.z, 1.0D / direction.x, 1.0D / direction.y, 1.0D / direction.z};
+		final double[] stackT = new double[this.stackSize];
+		final double[] tEntries = new double[this.width];
+		
+		final int[] stack = new int[this.stackSize];
+		
+		boolean isIntersecting = false;
+		
+		int stackIndex = 1;
+		
+		stackT[0] = surfaceIntersector.getTMinimum();
+		
+		while(stackIndex > 0) {
+			stackIndex--;
+			
+			if(stackT[stackIndex] > surfaceIntersector.getTMaximum()) {
+				continue;
+			}
+			
+			final int child = stack[stackIndex];
+			
+			if(child >= 0) {
+				stackIndex = doPush(child, rayData, surfaceIntersector.getTMinimum(), surfaceIntersector.getTMaximum(), tEntries, stack, stackT, stackIndex);
+			} else {
+				final int leafIndex = -child - 1;
+				final int offset = this.leaves[leafIndex * 2 + 0];
+				final int count = this.leaves[leafIndex * 2 + 1];
+				
+				for(int i = offset; i < offset + count; i++) {
+					if(this.shapes[i].intersection(surfaceIntersector)) {
+						isIntersecting = true;
+					}
+				}
+			}
+		}
+		
+		return isIntersecting;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, {@code ray} intersects this {@code WideBVH3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code WideBVH3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code true} if, and only if, {@code ray} intersects this {@code WideBVH3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public boolean intersects(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final Point3D origin = ray.getOrigin();
+		
+		final Vector3D direction = ray.getDirection();
+		
+		final double[] rayData = new double[] {origin.x, origin.y, origin.z, 1.0D / direction.x, 1.0D / direction.y, 1.0D / direction.z};
+		final double[] stackT = new double[this.stackSize];
+		final double[] tEntries = new double[this.width];
+		
+		final int[] stack = new int[this.stackSize];
+		
+		int stackIndex = 1;
+		
+		while(stackIndex > 0) {
+			final int child = stack[--stackIndex];
+			
+			if(child >= 0) {
+				stackIndex = doPush(child, rayData, tMinimum, tMaximum, tEntries, stack, stackT, stackIndex);
+			} else {
+				final int leafIndex = -child - 1;
+				final int offset = this.leaves[leafIndex * 2 + 0];
+				final int count = this.leaves[leafIndex * 2 + 1];
+				
+				for(int i = offset; i < offset + count; i++) {
+					if(this.shapes[i].intersects(ray, tMinimum, tMaximum)) {
+						return true;
+					}
+				}
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Performs an intersection test between {@code ray} and this {@code WideBVH3D} instance.
+	 * <p>
+	 * Returns {@code t}, the parametric distance to the surface intersection point, or {@code Double.NaN} if no intersection exists.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code WideBVH3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code t}, the parametric distance to the surface intersection point, or {@code Double.NaN} if no intersection exists
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public double intersectionT(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final double[] tBounds = new double[] {tMinimum, tMaximum};
+		
+		return doIntersection(Objects.requireNonNull(ray, "ray == null"), tBounds) >= 0 ? tBounds[1] : Double.NaN;
+	}
+	
+	/**
+	 * Returns the node count of this {@code WideBVH3D} instance.
+	 * <p>
+	 * Only tree nodes are counted. Leaf nodes are stored as children of tree nodes.
+	 * 
+	 * @return the node count of this {@code WideBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getNodeCount() {
+		return this.nodeCount;
+	}
+	
+	/**
+	 * Returns the {@link Shape3D} instance count of this {@code WideBVH3D} instance.
+	 * 
+	 * @return the {@code Shape3D} instance count of this {@code WideBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getShapeCount() {
+		return this.shapes.length;
+	}
+	
+	/**
+	 * Returns the width of this {@code WideBVH3D} instance.
+	 * <p>
+	 * The width is the maximum number of children of each tree node.
+	 * 
+	 * @return the width of this {@code WideBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getWidth() {
+		return this.width;
+	}
+	
+	/**
+	 * Returns a hash code for this {@code WideBVH3D} instance.
+	 * 
+	 * @return a hash code for this {@code WideBVH3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public int hashCode() {
+		return Objects.hash(Integer.valueOf(Arrays.hashCode(this.shapes)), Integer.valueOf(Arrays.hashCode(this.bounds)), Integer.valueOf(Arrays.hashCode(this.maximumX)), Integer.valueOf(Arrays.hashCode(this.maximumY)), Integer.valueOf(Arrays.hashCode(this.maximumZ)), Integer.valueOf(Arrays.hashCode(this.minimumX)), Integer.valueOf(Arrays.hashCode(this.minimumY)), Integer.valueOf(Arrays.hashCode(this.minimumZ)), Integer.valueOf(Arrays.hashCode(this.children)), Integer.valueOf(Arrays.hashCode(this.leaves)), Integer.valueOf(this.nodeCount), Integer.valueOf(this.stackSize), Integer.valueOf(this.width));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private int doCollapse(final BVHNode3D bVHNode, final int nodeIndex, final List<Shape3D> shapes, final int[] sizes) {
+		doSetChild(nodeIndex * this.width, bVHNode, doAddLeaf(LeafBVHNode3D.class.cast(bVHNode), shapes, sizes));
+		
+		return 1;
+	}
+	
+	private int doCollapse(final TreeBVHNode3D treeBVHNode, final int nodeIndex, final List<Shape3D> shapes, final int[] sizes) {
+		final List<BVHNode3D> bVHNodes = new ArrayList<>(this.width);
+		
+		bVHNodes.add(treeBVHNode.getBVHNodeL());
+		bVHNodes.add(treeBVHNode.getBVHNodeR());
+		
+		while(bVHNodes.size() < this.width) {
+			int index = -1;
+			
+			double surfaceArea = -1.0D;
+			
+			for(int i = 0; i < bVHNodes.size(); i++) {
+				if(bVHNodes.get(i) instanceof TreeBVHNode3D && bVHNodes.get(i).getBoundingVolume().getSurfaceArea() > surfaceArea) {
+					index = i;
+					
+					surfaceArea = bVHNodes.get(i).getBoundingVolume().getSurfaceArea();
+				}
+			}
+			
+			if(index == -1) {
+				break;
+			}
+			
+			final TreeBVHNode3D treeBVHNodeChild = TreeBVHNode3D.class.cast(bVHNodes.get(index));
+			
+			bVHNodes.set(index, treeBVHNodeChild.getBVHNodeL());
+			bVHNodes.add(treeBVHNodeChild.getBVHNodeR());
+		}
+		
+		int depth = 0;
+		
+		for(int i = 0; i < bVHNodes.size(); i++) {
+			final BVHNode3D bVHNode = bVHNodes.get(i);
+			
+			if(bVHNode instanceof TreeBVHNode3D) {
+				final int nodeIndexChild = sizes[0]++;
+				
+				doSetChild(nodeIndex * this.width + i, bVHNode, nodeIndexChild);
+				
+				depth = Ints.max(depth, doCollapse(TreeBVHNode3D.class.cast(bVHNode), nodeIndexChild, shapes, sizes));
+			} else {
+				doSetChild(nodeIndex * this.width + i, bVHNode, doAddLeaf(LeafBVHNode3D.class.cast(bVHNode), shapes, sizes));
+			}
+		}
+		
+		return depth + 1;
+	}
+	
+	private int doAddLeaf(final LeafBVHNode3D<?> leafBVHNode, final List<Shape3D> shapes, final int[] sizes) {
+		final int leafIndex = sizes[1]++;
+		
+		this.leaves[leafIndex * 2 + 0] = shapes.size();
+		this.leaves[leafIndex * 2 + 1] = leafBVHNode.getShapeCount();
+		
+		shapes.addAll(leafBVHNode.getShapes());
+		
+		return -leafIndex - 1;
+	}
+	
+	private int doIntersection(final Ray3D ray, final double[] tBounds) {
+		final Point3D origin = ray.getOrigin();
+		
+		final Vector3D direction = ray.getDirection();
+		
+		final double[] rayData = new double[] {origin.x, origin.y, origin.z, 1.0D / direction.x, 1.0D / direction.y, 1.0D / direction.z};
+		final double[] stackT = new double[this.stackSize];
+		final double[] tEntries = new double[this.width];
+		
+		final double tMinimum = tBounds[0];
+		
+		final int[] stack = new int[this.stackSize];
+		
+		double tMaximum = tBounds[1];
+		
+		int shapeIndex = -1;
+		int stackIndex = 1;
+		
+		stackT[0] = tMinimum;
+		
+		while(stackIndex > 0) {
+			stackIndex--;
+			
+			if(stackT[stackIndex] > tMaximum) {
+				continue;
+			}
+			
+			final int child = stack[stackIndex];
+			
+			if(child >= 0) {
+				stackIndex = doPush(child, rayData, tMinimum, tMaximum, tEntries, stack, stackT, stackIndex);
+			} else {
+				final int leafIndex = -child - 1;
+				final int offset = this.leaves[leafIndex * 2 + 0];
+				final int count = this.leaves[leafIndex * 2 + 1];
+				
+				for(int i = offset; i < offset + count; i++) {
+					final double t = this.shapes[i].intersectionT(ray, tMinimum, tMaximum);
+					
+					if(!Doubles.isNaN(t) && t < tMaximum) {
+						tMaximum = t;
+						
+						shapeIndex = i;
+					}
+				}
+			}
+		}
+		
+		if(shapeIndex >= 0) {
+			tBounds[1] = tMaximum;
+		}
+		
+		return shapeIndex;
+	}
+	
+	private int doPush(final int nodeIndex, final double[] rayData, final double tMinimum, final double tMaximum, final double[] tEntries, final int[] stack, final double[] stackT, final int stackIndex) {
+		final int offset = nodeIndex * this.width;
+		
+		final double originX = rayData[0];
+		final double originY = rayData[1];
+		final double originZ = rayData[2];
+		
+		final double directionReciprocalX = rayData[3];
+		final double directionReciprocalY = rayData[4];
+		final double directionReciprocalZ = rayData[5];
+		
+//		The slab test of all children is performed in one loop over the structure-of-arrays bounds:
+		for(int i = 0; i < this.width; i++) {
+			tEntries[i] = TraversalRay3D.intersectionEntry(originX, originY, originZ, directionReciprocalX, directionReciprocalY, directionReciprocalZ, this.minimumX[offset + i], this.minimumY[offset + i], this.minimumZ[offset + i], this.maximumX[offset + i], this.maximumY[offset + i], this.maximumZ[offset + i], tMinimum, tMaximum);
+		}
+		
+//		The children that are hit are pushed in back-to-front order, so the nearest child is popped first:
+		final int stackIndexStart = stackIndex;
+		
+		int stackIndexEnd = stackIndex;
+		
+		for(int i = 0; i < this.width; i++) {
+			final int child = this.children[offset + i];
+			
+			if(child == CHILD_NONE) {
+				break;
+			}
+			
+			final double tEntry = tEntries[i];
+			
+			if(!Doubles.isNaN(tEntry)) {
+				int j = stackIndexEnd++;
+				
+				while(j > stackIndexStart && stackT[j - 1] < tEntry) {
+					stack[j] = stack[j - 1];
+					stackT[j] = stackT[j - 1];
+					
+					j--;
+				}
+				
+				stack[j] = child;
+				stackT[j] = tEntry;
+			}
+		}
+		
+		return stackIndexEnd;
+	}
+	
+	private void doSetChild(final int index, final BVHNode3D bVHNode, final int child) {
+		final BoundingVolume3D boundingVolume = bVHNode.getBoundingVolume();
+		
+		final Point3D max = boundingVolume.max();
+		final Point3D min = boundingVolume.min();
+		
+		this.maximumX[index] = max.x;
+		this.maximumY[index] = max.y;
+		this.maximumZ[index] = max.z;
+		this.minimumX[index] = min.x;
+		this.minimumY[index] = min.y;
+		this.minimumZ[index] = min.z;
+		this.children[index] = child;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static double[] doGetBounds(final BVHNode3D bVHNode) {
+		final BoundingVolume3D boundingVolume = bVHNode.getBoundingVolume();
+		
+		final Point3D max = boundingVolume.max();
+		final Point3D min = boundingVolume.min();
+		
+		return new double[] {min.x, min.y, min.z, max.x, max.y, max.z};
+	}
+	
+	private static void doCount(final BVHNode3D bVHNode, final int[] counts) {
+		if(bVHNode instanceof LeafBVHNode3D) {
+			counts[1]++;
+			counts[2] += LeafBVHNode3D.class.cast(bVHNode).getShapeCount();
+		} else if(bVHNode instanceof TreeBVHNode3D) {
+			counts[0]++;
+			
+			doCount(TreeBVHNode3D.class.cast(bVHNode).getBVHNodeL(), counts);
+			doCount(TreeBVHNode3D.class.cast(bVHNode).getBVHNodeR(), counts);
+		} else {
+			throw new IllegalArgumentException(String.format("The BVHNode3D %s is not supported.", bVHNode.getClass().getName()));
+		}
+	}
+}
\ No newline at end of file
@@ -173,6 +173,33 @@ public final class MortonCodes {
 		return e;
 	}
 	
+	/**
+	 * Decodes {@code mortonCodePart} into a coordinate.
+	 * <p>
+	 * Returns the Morton code coordinate of {@code mortonCodePart}.
+	 * <p>
+	 * This method decodes a part of a 63-bit Morton code, where each coordinate has 21 bits.
+	 * <p>
+	 * If {@code mortonCodePart} is less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param mortonCodePart the Morton code part to decode
+	 * @return the Morton code coordinate of {@code mortonCodePart}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code mortonCodePart} is less than {@code 0}
+	 */
+//	TODO: Add Unit Tests!
+	public static int decode1By2Long(final long mortonCodePart) {
+		doRequireRange(mortonCodePart, 0L, "mortonCodePart");
+		
+		final long a = mortonCodePart & 0x1249249249249249L;
+		final long b = (a ^ (a >>>  2)) & 0x10C30C30C30C30C3L;
+		final long c = (b ^ (b >>>  4)) & 0x100F00F00F00F00FL;
+		final long d = (c ^ (c >>>  8)) & 0x001F0000FF0000FFL;
+		final long e = (d ^ (d >>> 16)) & 0x001F00000000FFFFL;
+		final long f = (e ^ (e >>> 32)) & 0x00000000001FFFFFL;
+		
+		return (int)(f);
+	}
+	
 	/**
 	 * Returns the X-coordinate of the Morton code {@code mortonCode}.
 	 * <p>
@@ -189,6 +216,24 @@ public final class MortonCodes {
 		return decode1By2(mortonCode >>> 0);
 	}
 	
+	/**
+	 * Returns the X-coordinate of the Morton code {@code mortonCode}.
+	 * <p>
+	 * This method decodes a 63-bit Morton code, where each coordinate has 21 bits.
+	 * <p>
+	 * If {@code mortonCode} is less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param mortonCode the Morton code to decode
+	 * @return the X-coordinate of the Morton code {@code mortonCode}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code mortonCode} is less than {@code 0}
+	 */
+//	TODO: Add Unit Tests!
+	public static int decode1By2XLong(final long mortonCode) {
+		doRequireRange(mortonCode, 0L, "mortonCode");
+		
+		return decode1By2Long(mortonCode >>> 0);
+	}
+	
 	/**
 	 * Returns the Y-coordinate of the Morton code {@code mortonCode}.
 	 * <p>
@@ -205,6 +250,24 @@ public final class MortonCodes {
 		return decode1By2(mortonCode >>> 1);
 	}
 	
+	/**
+	 * Returns the Y-coordinate of the Morton code {@code mortonCode}.
+	 * <p>
+	 * This method decodes a 63-bit Morton code, where each coordinate has 21 bits.
+	 * <p>
+	 * If {@code mortonCode} is less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param mortonCode the Morton code to decode
+	 * @return the Y-coordinate of the Morton code {@code mortonCode}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code mortonCode} is less than {@code 0}
+	 */
+//	TODO: Add Unit Tests!
+	public static int decode1By2YLong(final long mortonCode) {
+		doRequireRange(mortonCode, 0L, "mortonCode");
+		
+		return decode1By2Long(mortonCode >>> 1);
+	}
+	
 	/**
 	 * Returns the Z-coordinate of the Morton code {@code mortonCode}.
 	 * <p>
@@ -221,6 +284,24 @@ public final class MortonCodes {
 		return decode1By2(mortonCode >>> 2);
 	}
 	
+	/**
+	 * Returns the Z-coordinate of the Morton code {@code mortonCode}.
+	 * <p>
+	 * This method decodes a 63-bit Morton code, where each coordinate has 21 bits.
+	 * <p>
+	 * If {@code mortonCode} is less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param mortonCode the Morton code to decode
+	 * @return the Z-coordinate of the Morton code {@code mortonCode}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code mortonCode} is less than {@code 0}
+	 */
+//	TODO: Add Unit Tests!
+	public static int decode1By2ZLong(final long mortonCode) {
+		doRequireRange(mortonCode, 0L, "mortonCode");
+		
+		return decode1By2Long(mortonCode >>> 2);
+	}
+	
 	/**
 	 * Encodes {@code coordinate} into a Morton code part.
 	 * <p>
@@ -287,6 +368,33 @@ public final class MortonCodes {
 		return e;
 	}
 	
+	/**
+	 * Encodes {@code coordinate} into a Morton code part.
+	 * <p>
+	 * Returns the Morton code part of {@code coordinate}.
+	 * <p>
+	 * This method encodes a part of a 63-bit Morton code, where each coordinate has 21 bits. Only the lower 21 bits of {@code coordinate} are used.
+	 * <p>
+	 * If {@code coordinate} is less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param coordinate the coordinate to encode
+	 * @return the Morton code part of {@code coordinate}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code coordinate} is less than {@code 0}
+	 */
+//	TODO: Add Unit Tests!
+	public static long encode1By2Long(final long coordinate) {
+		doRequireRange(coordinate, 0L, "coordinate");
+		
+		final long a = coordinate & 0x00000000001FFFFFL;
+		final long b = (a ^ (a << 32)) & 0x001F00000000FFFFL;
+		final long c = (b ^ (b << 16)) & 0x001F0000FF0000FFL;
+		final long d = (c ^ (c <<  8)) & 0x100F00F00F00F00FL;
+		final long e = (d ^ (d <<  4)) & 0x10C30C30C30C30C3L;
+		final long f = (e ^ (e <<  2)) & 0x1249249249249249L;
+		
+		return f;
+	}
+	
 	/**
 	 * Returns the Morton code of {@code x}, {@code y} and {@code z}.
 	 * <p>
@@ -306,4 +414,36 @@ public final class MortonCodes {
 		
 		return (encode1By2(x) << 0) | (encode1By2(y) << 1) | (encode1By2(z) << 2);
 	}
+	
+	/**
+	 * Returns the 63-bit Morton code of {@code x}, {@code y} and {@code z}.
+	 * <p>
+	 * Only the lower 21 bits of {@code x}, {@code y} and {@code z} are used.
+	 * <p>
+	 * If either {@code x}, {@code y} or {@code z} are less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param x the X-coordinate to encode
+	 * @param y the Y-coordinate to encode
+	 * @param z the Z-coordinate to encode
+	 * @return the 63-bit Morton code of {@code x}, {@code y} and {@code z}
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code x}, {@code y} or {@code z} are less than {@code 0}
+	 */
+//	TODO: Add Unit Tests!
+	public static long encode1By2Long(final long x, final long y, final long z) {
+		doRequireRange(x, 0L, "x");
+		doRequireRange(y, 0L, "y");
+		doRequireRange(z, 0L, "z");
+		
+		return (encode1By2Long(x) << 0) | (encode1By2Long(y) << 1) | (encode1By2Long(z) << 2);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static long doRequireRange(final long value, final long minimum, final String name) {
+		if(value < minimum) {
+			throw new IllegalArgumentException(String.format("%s < %d: %s == %d", name, Long.valueOf(minimum), name, Long.valueOf(value)));
+		}
+		
+		return value;
+	}
 }
\ No newline at end of file
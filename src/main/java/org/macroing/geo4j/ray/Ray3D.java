@@ -53,8 +53,24 @@ public final class Ray3D implements Node {
 	 * @throws NullPointerException thrown if, and only if, either {@code origin} or {@code direction} are {@code null}
 	 */
 	public Ray3D(final Point3D origin, final Vector3D direction) {
+		this(origin, direction, true);
+	}
+	
+	/**
+	 * Constructs a new {@code Ray3D} instance given {@code origin}, {@code direction} and {@code isNormalizing}.
+	 * <p>
+	 * If either {@code origin} or {@code direction} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code isNormalizing} is {@code false}, {@code direction} is used as is. This avoids normalizing it again if the caller already knows that it is normalized. The result of the intersection tests is undefined if {@code direction} is not normalized.
+	 * 
+	 * @param origin a {@link Point3D} instance to represent the origin
+	 * @param direction a {@link Vector3D} instance to represent the direction
+	 * @param isNormalizing {@code true} if, and only if, {@code direction} should be normalized, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, either {@code origin} or {@code direction} are {@code null}
+	 */
+	public Ray3D(final Point3D origin, final Vector3D direction, final boolean isNormalizing) {
 		this.origin = Objects.requireNonNull(origin, "origin == null");
-		this.direction = Vector3D.normalize(Objects.requireNonNull(direction, "direction == null"));
+		this.direction = isNormalizing ? Vector3D.normalize(Objects.requireNonNull(direction, "direction == null")) : Objects.requireNonNull(direction, "direction == null");
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
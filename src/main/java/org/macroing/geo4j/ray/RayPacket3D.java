@@ -0,0 +1,246 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.ray;
+
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.macroing.java.lang.Ints;
+
+/**
+ * A {@code RayPacket3D} is a packet of 4, 8 or 16 {@link Ray3D} instances that are traced together.
+ * <p>
+ * Each {@code Ray3D} instance in a {@code RayPacket3D} instance occupies a lane, which also contains the minimum and maximum parametric distances of the {@code Ray3D} instance. A lane is either active or inactive. Only the active lanes are traced. A lane becomes active when it is set
+ * using {@link #set(int, Ray3D, double, double)} and inactive when it is cleared using {@link #clear(int)} or {@link #clear()}.
+ * <p>
+ * The traversal of a packet is most efficient if its {@code Ray3D} instances are coherent, such as primary rays through neighbouring pixels or shadow rays towards the same light.
+ * <p>
+ * This class is mutable and not thread-safe. A {@code RayPacket3D} instance may be reused by setting its lanes again.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class RayPacket3D {
+	private final Ray3D[] rays;
+	private final double[] tMaximums;
+	private final double[] tMinimums;
+	private int mask;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code RayPacket3D} instance with {@code size} lanes, all of which are inactive.
+	 * <p>
+	 * If {@code size} is neither {@code 4}, {@code 8} nor {@code 16}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param size the number of lanes, which must be {@code 4}, {@code 8} or {@code 16}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code size} is neither {@code 4}, {@code 8} nor {@code 16}
+	 */
+//	TODO: Add Unit Tests!
+	public RayPacket3D(final int size) {
+		if(size != 4 && size != 8 && size != 16) {
+			throw new IllegalArgumentException(String.format("size != 4 && size != 8 && size != 16: size = %d", Integer.valueOf(size)));
+		}
+		
+		this.rays = new Ray3D[size];
+		this.tMaximums = new double[size];
+		this.tMinimums = new double[size];
+		this.mask = 0;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns the {@link Ray3D} instance in lane {@code index}, or {@code null} if the lane has never been set.
+	 * <p>
+	 * If {@code index} is less than {@code 0}, or greater than or equal to {@code getSize()}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param index the index of the lane
+	 * @return the {@code Ray3D} instance in lane {@code index}, or {@code null} if the lane has never been set
+	 * @throws IllegalArgumentException thrown if, and only if, {@code index} is less than {@code 0}, or greater than or equal to {@code getSize()}
+	 */
+//	TODO: Add Unit Tests!
+	public Ray3D getRay(final int index) {
+		return this.rays[Ints.requireRange(index, 0, this.rays.length - 1, "index")];
+	}
+	
+	/**
+	 * Returns a {@code String} representation of this {@code RayPacket3D} instance.
+	 * 
+	 * @return a {@code String} representation of this {@code RayPacket3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public String toString() {
+		return String.format("new RayPacket3D(%d)", Integer.valueOf(this.rays.length));
+	}
+	
+	/**
+	 * Compares {@code object} to this {@code RayPacket3D} instance for equality.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code object} is an instance of {@code RayPacket3D}, and their respective values are equal, {@code false} otherwise.
+	 * 
+	 * @param object the {@code Object} to compare to this {@code RayPacket3D} instance for equality
+	 * @return {@code true} if, and only if, {@code object} is an instance of {@code RayPacket3D}, and their respective values are equal, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean equals(final Object object) {
+		if(object == this) {
+			return true;
+		} else if(!(object instanceof RayPacket3D)) {
+			return false;
+		} else if(!Arrays.equals(this.rays, RayPacket3D.class.cast(object).rays)) {
+			return false;
+		} else if(!Arrays.equals(this.tMaximums, RayPacket3D.class.cast(object).tMaximums)) {
+			return false;
+		} else if(!Arrays.equals(this.tMinimums, RayPacket3D.class.cast(object).tMinimums)) {
+			return false;
+		} else if(this.mask != RayPacket3D.class.cast(object).mask) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, lane {@code index} is active, {@code false} otherwise.
+	 * <p>
+	 * If {@code index} is less than {@code 0}, or greater than or equal to {@code getSize()}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param index the index of the lane
+	 * @return {@code true} if, and only if, lane {@code index} is active, {@code false} otherwise
+	 * @throws IllegalArgumentException thrown if, and only if, {@code index} is less than {@code 0}, or greater than or equal to {@code getSize()}
+	 */
+//	TODO: Add Unit Tests!
+	public boolean isActive(final int index) {
+		Ints.requireRange(index, 0, this.rays.length - 1, "index");
+		
+		return (this.mask & (1 << index)) != 0;
+	}
+	
+	/**
+	 * Returns the maximum parametric distance of lane {@code index}.
+	 * <p>
+	 * If {@code index} is less than {@code 0}, or greater than or equal to {@code getSize()}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param index the index of the lane
+	 * @return the maximum parametric distance of lane {@code index}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code index} is less than {@code 0}, or greater than or equal to {@code getSize()}
+	 */
+//	TODO: Add Unit Tests!
+	public double getTMaximum(final int index) {
+		return this.tMaximums[Ints.requireRange(index, 0, this.rays.length - 1, "index")];
+	}
+	
+	/**
+	 * Returns the minimum parametric distance of lane {@code index}.
+	 * <p>
+	 * If {@code index} is less than {@code 0}, or greater than or equal to {@code getSize()}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param index the index of the lane
+	 * @return the minimum parametric distance of lane {@code index}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code index} is less than {@code 0}, or greater than or equal to {@code getSize()}
+	 */
+//	TODO: Add Unit Tests!
+	public double getTMinimum(final int index) {
+		return this.tMinimums[Ints.requireRange(index, 0, this.rays.length - 1, "index")];
+	}
+	
+	/**
+	 * Returns the mask of this {@code RayPacket3D} instance.
+	 * <p>
+	 * Bit {@code i} of the mask is set if, and only if, lane {@code i} is active.
+	 * 
+	 * @return the mask of this {@code RayPacket3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getMask() {
+		return this.mask;
+	}
+	
+	/**
+	 * Returns the number of lanes of this {@code RayPacket3D} instance.
+	 * 
+	 * @return the number of lanes of this {@code RayPacket3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getSize() {
+		return this.rays.length;
+	}
+	
+	/**
+	 * Returns a hash code for this {@code RayPacket3D} instance.
+	 * 
+	 * @return a hash code for this {@code RayPacket3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public int hashCode() {
+		return Objects.hash(Integer.valueOf(Arrays.hashCode(this.rays)), Integer.valueOf(Arrays.hashCode(this.tMaximums)), Integer.valueOf(Arrays.hashCode(this.tMinimums)), Integer.valueOf(this.mask));
+	}
+	
+	/**
+	 * Makes all lanes of this {@code RayPacket3D} instance inactive.
+	 */
+//	TODO: Add Unit Tests!
+	public void clear() {
+		this.mask = 0;
+	}
+	
+	/**
+	 * Makes lane {@code index} of this {@code RayPacket3D} instance inactive.
+	 * <p>
+	 * If {@code index} is less than {@code 0}, or greater than or equal to {@code getSize()}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param index the index of the lane
+	 * @throws IllegalArgumentException thrown if, and only if, {@code index} is less than {@code 0}, or greater than or equal to {@code getSize()}
+	 */
+//	TODO: Add Unit Tests!
+	public void clear(final int index) {
+		Ints.requireRange(index, 0, this.rays.length - 1, "index");
+		
+		this.mask &= ~(1 << index);
+	}
+	
+	/**
+	 * Sets lane {@code index} of this {@code RayPacket3D} instance to {@code ray}, {@code tMinimum} and {@code tMaximum} and makes it active.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code index} is less than {@code 0}, or greater than or equal to {@code getSize()}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param index the index of the lane
+	 * @param ray the {@link Ray3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @throws IllegalArgumentException thrown if, and only if, {@code index} is less than {@code 0}, or greater than or equal to {@code getSize()}
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public void set(final int index, final Ray3D ray, final double tMinimum, final double tMaximum) {
+		Ints.requireRange(index, 0, this.rays.length - 1, "index");
+		
+		this.rays[index] = Objects.requireNonNull(ray, "ray == null");
+		this.tMaximums[index] = tMaximum;
+		this.tMinimums[index] = tMinimum;
+		this.mask |= 1 << index;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,430 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.ray;
+
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.Objects;
+
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.java.lang.Doubles;
+
+/**
+ * A {@code TraversalRay3D} is a {@link Ray3D} instance in a form that is suitable for traversing a bounding volume hierarchy (BVH).
+ * <p>
+ * The origin, the direction, the reciprocal of the direction and the sign of each component of the direction are computed once, when a {@code TraversalRay3D} instance is constructed or {@link #set(Ray3D)} is called, and stored as primitive values. The slab test performed by
+ * {@link #intersection(double, double, double, double, double, double, double, double)} uses them, so the reciprocal of the direction is not computed again and no objects are created for each axis-aligned bounding box (AABB) that is tested.
+ * <p>
+ * A {@code TraversalRay3D} instance can be refilled with another {@link Ray3D} instance using {@link #set(Ray3D)}, so a single instance can be reused for many rays without creating any new objects.
+ * <p>
+ * This class is mutable and not thread-safe.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class TraversalRay3D {
+	private Ray3D ray;
+	private boolean isNegativeX;
+	private boolean isNegativeY;
+	private boolean isNegativeZ;
+	private double directionReciprocalX;
+	private double directionReciprocalY;
+	private double directionReciprocalZ;
+	private double directionX;
+	private double directionY;
+	private double directionZ;
+	private double originX;
+	private double originY;
+	private double originZ;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code TraversalRay3D} instance given {@code ray}.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} instance to traverse with
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public TraversalRay3D(final Ray3D ray) {
+		set(ray);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns the {@link Ray3D} instance associated with this {@code TraversalRay3D} instance.
+	 * 
+	 * @return the {@code Ray3D} instance associated with this {@code TraversalRay3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public Ray3D getRay() {
+		return this.ray;
+	}
+	
+	/**
+	 * Returns a {@code String} representation of this {@code TraversalRay3D} instance.
+	 * 
+	 * @return a {@code String} representation of this {@code TraversalRay3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public String toString() {
+		return String.format("new TraversalRay3D(%s)", this.ray);
+	}
+	
+	/**
+	 * Compares {@code object} to this {@code TraversalRay3D} instance for equality.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code object} is an instance of {@code TraversalRay3D}, and their respective values are equal, {@code false} otherwise.
+	 * 
+	 * @param object the {@code Object} to compare to this {@code TraversalRay3D} instance for equality
+	 * @return {@code true} if, and only if, {@code object} is an instance of {@code TraversalRay3D}, and their respective values are equal, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean equals(final Object object) {
+		if(object == this) {
+			return true;
+		} else if(!(object instanceof TraversalRay3D)) {
+			return false;
+		} else {
+			return Objects.equals(this.ray, TraversalRay3D.class.cast(object).ray);
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the X-component of the direction is negative, {@code false} otherwise.
+	 * <p>
+	 * A component of {@code -0.0D} is considered to be negative, because its reciprocal is negative infinity.
+	 * 
+	 * @return {@code true} if, and only if, the X-component of the direction is negative, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	public boolean isNegativeX() {
+		return this.isNegativeX;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the Y-component of the direction is negative, {@code false} otherwise.
+	 * <p>
+	 * A component of {@code -0.0D} is considered to be negative, because its reciprocal is negative infinity.
+	 * 
+	 * @return {@code true} if, and only if, the Y-component of the direction is negative, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	public boolean isNegativeY() {
+		return this.isNegativeY;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the Z-component of the direction is negative, {@code false} otherwise.
+	 * <p>
+	 * A component of {@code -0.0D} is considered to be negative, because its reciprocal is negative infinity.
+	 * 
+	 * @return {@code true} if, and only if, the Z-component of the direction is negative, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	public boolean isNegativeZ() {
+		return this.isNegativeZ;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, this {@code TraversalRay3D} instance intersects the axis-aligned bounding box (AABB) given by its minimum and maximum component values, {@code false} otherwise.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * !Double.isNaN(traversalRay.intersection(minimumX, minimumY, minimumZ, maximumX, maximumY, maximumZ, tMinimum, tMaximum));
+	 * }
+	 * </pre>
+	 * 
+	 * @param minimumX the minimum X-component value of the AABB
+	 * @param minimumY the minimum Y-component value of the AABB
+	 * @param minimumZ the minimum Z-component value of the AABB
+	 * @param maximumX the maximum X-component value of the AABB
+	 * @param maximumY the maximum Y-component value of the AABB
+	 * @param maximumZ the maximum Z-component value of the AABB
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code true} if, and only if, this {@code TraversalRay3D} instance intersects the AABB, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	public boolean intersects(final double minimumX, final double minimumY, final double minimumZ, final double maximumX, final double maximumY, final double maximumZ, final double tMinimum, final double tMaximum) {
+		return !Doubles.isNaN(intersection(minimumX, minimumY, minimumZ, maximumX, maximumY, maximumZ, tMinimum, tMaximum));
+	}
+	
+	/**
+	 * Returns the X-component of the direction.
+	 * 
+	 * @return the X-component of the direction
+	 */
+//	TODO: Add Unit Tests!
+	public double getDirectionX() {
+		return this.directionX;
+	}
+	
+	/**
+	 * Returns the Y-component of the direction.
+	 * 
+	 * @return the Y-component of the direction
+	 */
+//	TODO: Add Unit Tests!
+	public double getDirectionY() {
+		return this.directionY;
+	}
+	
+	/**
+	 * Returns the Z-component of the direction.
+	 * 
+	 * @return the Z-component of the direction
+	 */
+//	TODO: Add Unit Tests!
+	public double getDirectionZ() {
+		return this.directionZ;
+	}
+	
+	/**
+	 * Returns the reciprocal of the X-component of the direction.
+	 * 
+	 * @return the reciprocal of the X-component of the direction
+	 */
+//	TODO: Add Unit Tests!
+	public double getDirectionReciprocalX() {
+		return this.directionReciprocalX;
+	}
+	
+	/**
+	 * Returns the reciprocal of the Y-component of the direction.
+	 * 
+	 * @return the reciprocal of the Y-component of the direction
+	 */
+//	TODO: Add Unit Tests!
+	public double getDirectionReciprocalY() {
+		return this.directionReciprocalY;
+	}
+	
+	/**
+	 * Returns the reciprocal of the Z-component of the direction.
+	 * 
+	 * @return the reciprocal of the Z-component of the direction
+	 */
+//	TODO: Add Unit Tests!
+	public double getDirectionReciprocalZ() {
+		return this.directionReciprocalZ;
+	}
+	
+	/**
+	 * Returns the X-component of the origin.
+	 * 
+	 * @return the X-component of the origin
+	 */
+//	TODO: Add Unit Tests!
+	public double getOriginX() {
+		return this.originX;
+	}
+	
+	/**
+	 * Returns the Y-component of the origin.
+	 * 
+	 * @return the Y-component of the origin
+	 */
+//	TODO: Add Unit Tests!
+	public double getOriginY() {
+		return this.originY;
+	}
+	
+	/**
+	 * Returns the Z-component of the origin.
+	 * 
+	 * @return the Z-component of the origin
+	 */
+//	TODO: Add Unit Tests!
+	public double getOriginZ() {
+		return this.originZ;
+	}
+	
+	/**
+	 * Performs an intersection test between this {@code TraversalRay3D} instance and the axis-aligned bounding box (AABB) given by its minimum and maximum component values.
+	 * <p>
+	 * Returns {@code t}, the parametric distance to the AABB, or {@code Double.NaN} if no intersection exists.
+	 * <p>
+	 * The result is the same as the result of {@link org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D#intersection(Ray3D, double, double)} for the same AABB. The sign of each component of the direction is used to select the near and far slab, so no comparisons are
+	 * needed to order them.
+	 * 
+	 * @param minimumX the minimum X-component value of the AABB
+	 * @param minimumY the minimum Y-component value of the AABB
+	 * @param minimumZ the minimum Z-component value of the AABB
+	 * @param maximumX the maximum X-component value of the AABB
+	 * @param maximumY the maximum Y-component value of the AABB
+	 * @param maximumZ the maximum Z-component value of the AABB
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code t}, the parametric distance to the AABB, or {@code Double.NaN} if no intersection exists
+	 */
+//	TODO: Add Unit Tests!
+	public double intersection(final double minimumX, final double minimumY, final double minimumZ, final double maximumX, final double maximumY, final double maximumZ, final double tMinimum, final double tMaximum) {
+		final double tNearX = ((this.isNegativeX ? maximumX : minimumX) - this.originX) * this.directionReciprocalX;
+		final double tNearY = ((this.isNegativeY ? maximumY : minimumY) - this.originY) * this.directionReciprocalY;
+		final double tNearZ = ((this.isNegativeZ ? maximumZ : minimumZ) - this.originZ) * this.directionReciprocalZ;
+		final double tFarX = ((this.isNegativeX ? minimumX : maximumX) - this.originX) * this.directionReciprocalX;
+		final double tFarY = ((this.isNegativeY ? minimumY : maximumY) - this.originY) * this.directionReciprocalY;
+		final double tFarZ = ((this.isNegativeZ ? minimumZ : maximumZ) - this.originZ) * this.directionReciprocalZ;
+		
+		final double t0 = Doubles.max(tNearX, tNearY, tNearZ);
+		final double t1 = Doubles.min(tFarX, tFarY, tFarZ);
+		
+//		A direction component of 0.0 and an origin on the corresponding slab results in NaN. The negated comparison below treats that as a miss, just like AxisAlignedBoundingBox3D:
+		return !(t0 <= t1) ? Doubles.NaN : t0 > tMinimum && t0 < tMaximum ? t0 : t1 > tMinimum && t1 < tMaximum ? t1 : Doubles.NaN;
+	}
+	
+	/**
+	 * Performs a traversal test between this {@code TraversalRay3D} instance and the axis-aligned bounding box (AABB) given by its minimum and maximum component values.
+	 * <p>
+	 * Returns the parametric distance at which this {@code TraversalRay3D} instance enters the AABB, clamped to {@code tMinimum}, or {@code Double.NaN} if the AABB is not overlapped by the interval from {@code tMinimum} to {@code tMaximum}.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * TraversalRay3D.intersectionEntry(traversalRay.getOriginX(), traversalRay.getOriginY(), traversalRay.getOriginZ(), traversalRay.getDirectionReciprocalX(), traversalRay.getDirectionReciprocalY(), traversalRay.getDirectionReciprocalZ(), minimumX, minimumY, minimumZ, maximumX, maximumY, maximumZ, tMinimum, tMaximum);
+	 * }
+	 * </pre>
+	 * 
+	 * @param minimumX the minimum X-component value of the AABB
+	 * @param minimumY the minimum Y-component value of the AABB
+	 * @param minimumZ the minimum Z-component value of the AABB
+	 * @param maximumX the maximum X-component value of the AABB
+	 * @param maximumY the maximum Y-component value of the AABB
+	 * @param maximumZ the maximum Z-component value of the AABB
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return the parametric distance at which this {@code TraversalRay3D} instance enters the AABB, or {@code Double.NaN} if the AABB is missed
+	 */
+//	TODO: Add Unit Tests!
+	public double intersectionEntry(final double minimumX, final double minimumY, final double minimumZ, final double maximumX, final double maximumY, final double maximumZ, final double tMinimum, final double tMaximum) {
+		return intersectionEntry(this.originX, this.originY, this.originZ, this.directionReciprocalX, this.directionReciprocalY, this.directionReciprocalZ, minimumX, minimumY, minimumZ, maximumX, maximumY, maximumZ, tMinimum, tMaximum);
+	}
+	
+	/**
+	 * Sets the {@link Ray3D} instance associated with this {@code TraversalRay3D} instance to {@code ray}.
+	 * <p>
+	 * Returns this {@code TraversalRay3D} instance.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * All precomputed values are updated in place, so no objects are created.
+	 * 
+	 * @param ray the {@code Ray3D} instance to traverse with
+	 * @return this {@code TraversalRay3D} instance
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public TraversalRay3D set(final Ray3D ray) {
+		final Point3D origin = Objects.requireNonNull(ray, "ray == null").getOrigin();
+		
+		final Vector3D direction = ray.getDirection();
+		
+		this.ray = ray;
+		this.originX = origin.x;
+		this.originY = origin.y;
+		this.originZ = origin.z;
+		this.directionX = direction.x;
+		this.directionY = direction.y;
+		this.directionZ = direction.z;
+		this.directionReciprocalX = 1.0D / direction.x;
+		this.directionReciprocalY = 1.0D / direction.y;
+		this.directionReciprocalZ = 1.0D / direction.z;
+		this.isNegativeX = this.directionReciprocalX < 0.0D;
+		this.isNegativeY = this.directionReciprocalY < 0.0D;
+		this.isNegativeZ = this.directionReciprocalZ < 0.0D;
+		
+		return this;
+	}
+	
+	/**
+	 * Returns a hash code for this {@code TraversalRay3D} instance.
+	 * 
+	 * @return a hash code for this {@code TraversalRay3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public int hashCode() {
+		return Objects.hash(this.ray);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Performs a traversal test between a ray and the axis-aligned bounding box (AABB) given by its minimum and maximum component values.
+	 * <p>
+	 * Returns the parametric distance at which the ray enters the AABB, clamped to {@code tMinimum}, or {@code Double.NaN} if the AABB is not overlapped by the interval from {@code tMinimum} to {@code tMaximum}.
+	 * <p>
+	 * Unlike {@link #intersection(double, double, double, double, double, double, double, double)}, this method does not look for the surface of the AABB. An AABB that contains the whole interval is intersected, which is what a bounding volume hierarchy (BVH) traversal
+	 * needs. If a direction component is {@code 0.0} and the origin lies on a slab, the parametric distances of that axis are {@code Double.NaN}. The comparisons are {@code false} for {@code Double.NaN}, so that axis is ignored, which keeps the test conservative.
+	 * <p>
+	 * This method only takes primitive values, so it can be used by structures that store their bounds in primitive arrays.
+	 * 
+	 * @param originX the X-component of the origin of the ray
+	 * @param originY the Y-component of the origin of the ray
+	 * @param originZ the Z-component of the origin of the ray
+	 * @param directionReciprocalX the reciprocal of the X-component of the direction of the ray
+	 * @param directionReciprocalY the reciprocal of the Y-component of the direction of the ray
+	 * @param directionReciprocalZ the reciprocal of the Z-component of the direction of the ray
+	 * @param minimumX the minimum X-component value of the AABB
+	 * @param minimumY the minimum Y-component value of the AABB
+	 * @param minimumZ the minimum Z-component value of the AABB
+	 * @param maximumX the maximum X-component value of the AABB
+	 * @param maximumY the maximum Y-component value of the AABB
+	 * @param maximumZ the maximum Z-component value of the AABB
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return the parametric distance at which the ray enters the AABB, or {@code Double.NaN} if the AABB is missed
+	 */
+//	TODO: Add Unit Tests!
+	public static double intersectionEntry(final double originX, final double originY, final double originZ, final double directionReciprocalX, final double directionReciprocalY, final double directionReciprocalZ, final double minimumX, final double minimumY, final double minimumZ, final double maximumX, final double maximumY, final double maximumZ, final double tMinimum, final double tMaximum) {
+		final double tX0 = (minimumX - originX) * directionReciprocalX;
+		final double tY0 = (minimumY - originY) * directionReciprocalY;
+		final double tZ0 = (minimumZ - originZ) * directionReciprocalZ;
+		final double tX1 = (maximumX - originX) * directionReciprocalX;
+		final double tY1 = (maximumY - originY) * directionReciprocalY;
+		final double tZ1 = (maximumZ - originZ) * directionReciprocalZ;
+		
+		final double tNearX = Doubles.min(tX0, tX1);
+		final double tNearY = Doubles.min(tY0, tY1);
+		final double tNearZ = Doubles.min(tZ0, tZ1);
+		final double tFarX = Doubles.max(tX0, tX1);
+		final double tFarY = Doubles.max(tY0, tY1);
+		final double tFarZ = Doubles.max(tZ0, tZ1);
+		
+		double tNear = tMinimum;
+		double tFar = tMaximum;
+		
+		tNear = tNearX > tNear ? tNearX : tNear;
+		tNear = tNearY > tNear ? tNearY : tNear;
+		tNear = tNearZ > tNear ? tNearZ : tNear;
+		
+		tFar = tFarX < tFar ? tFarX : tFar;
+		tFar = tFarY < tFar ? tFarY : tFar;
+		tFar = tFarZ < tFar ? tFarZ : tFar;
+		
+		return tNear <= tFar ? tNear : Doubles.NaN;
+	}
+}
\ No newline at end of file
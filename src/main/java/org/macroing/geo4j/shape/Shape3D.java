@@ -159,12 +159,34 @@ public interface Shape3D extends Shape {
 		return Optional.empty();
 	}
 	
+	/**
+	 * Computes a {@link SurfaceIntersection3D} instance for the current intersection of {@code surfaceIntersector}.
+	 * <p>
+	 * Returns an optional {@code SurfaceIntersection3D} instance.
+	 * <p>
+	 * If {@code surfaceIntersector} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * This method is called by {@link SurfaceIntersector3D#computeSurfaceIntersection()} when this {@code Shape3D} instance is the closest {@code Shape3D} instance that was intersected. The default implementation performs the intersection test again. An implementation
+	 * that can create the {@code SurfaceIntersection3D} instance directly from {@code surfaceIntersector.getT()}, {@code surfaceIntersector.getU()} and {@code surfaceIntersector.getV()} should override it.
+	 * 
+	 * @param surfaceIntersector a {@code SurfaceIntersector3D} instance
+	 * @return an optional {@code SurfaceIntersection3D} instance
+	 * @throws NullPointerException thrown if, and only if, {@code surfaceIntersector} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	default Optional<SurfaceIntersection3D> computeSurfaceIntersection(final SurfaceIntersector3D surfaceIntersector) {
+		return intersection(surfaceIntersector.getRay(), surfaceIntersector.getTMinimum(), SurfaceIntersector3D.T_MAXIMUM);
+	}
+	
 	/**
 	 * Performs an intersection test between {@code surfaceIntersector} and this {@code Shape3D} instance.
 	 * <p>
 	 * Returns {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code Shape3D} instance, {@code false} otherwise.
 	 * <p>
 	 * If {@code surfaceIntersector} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * The default implementation calls {@code surfaceIntersector.intersection(this)}. An implementation that computes surface parameters, such as barycentric coordinates, as part of its intersection test may override it and call
+	 * {@link SurfaceIntersector3D#intersection(Shape3D, double, double, double)} instead.
 	 * 
 	 * @param surfaceIntersector a {@link SurfaceIntersector3D} instance
 	 * @return {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code Shape3D} instance, {@code false} otherwise
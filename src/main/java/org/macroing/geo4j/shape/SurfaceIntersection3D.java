@@ -21,6 +21,7 @@ package org.macroing.geo4j.shape;
 import java.lang.reflect.Field;//TODO: Add Unit Tests!
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import org.macroing.geo4j.common.Point2D;
 import org.macroing.geo4j.common.Point3D;
@@ -33,7 +34,10 @@ import org.macroing.java.lang.Doubles;
 /**
  * A {@code SurfaceIntersection3D} contains information about the surface of a {@link Shape3D} instance where a {@link Ray3D} instance intersects.
  * <p>
- * This class can be considered immutable and thread-safe if, and only if, its associated {@code Shape3D} instance is.
+ * A {@code SurfaceIntersection3D} instance can be lazy. A lazy instance computes the orthonormal basis for the geometry, the orthonormal basis for shading and the texture coordinates the first time they are requested. The parametric {@code t} value, the
+ * surface intersection point, the {@code Ray3D} instance and the {@code Shape3D} instance are always known. This is useful for queries that only need the distance or the position of the intersection, such as occlusion, depth or picking queries.
+ * <p>
+ * This class can be considered immutable and thread-safe if, and only if, its associated {@code Shape3D} instance is. A lazy value may be computed more than once if it is requested by several threads at the same time, but all threads will observe equal values.
  * 
  * @since 1.0.0
  * @author J&#246;rgen Lundgren
@@ -47,13 +51,16 @@ public final class SurfaceIntersection3D {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	private final OrthonormalBasis33D orthonormalBasisG;
-	private final OrthonormalBasis33D orthonormalBasisS;
-	private final Point2D textureCoordinates;
 	private final Point3D surfaceIntersectionPoint;
 	private final Ray3D ray;
 	private final Shape3D shape;
+	private final Supplier<OrthonormalBasis33D> orthonormalBasisGSupplier;
+	private final Supplier<OrthonormalBasis33D> orthonormalBasisSSupplier;
+	private final Supplier<Point2D> textureCoordinatesSupplier;
 	private final double t;
+	private OrthonormalBasis33D orthonormalBasisG;
+	private OrthonormalBasis33D orthonormalBasisS;
+	private Point2D textureCoordinates;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
@@ -73,13 +80,47 @@ public final class SurfaceIntersection3D {
 	 */
 //	TODO: Add Unit Tests!
 	public SurfaceIntersection3D(final OrthonormalBasis33D orthonormalBasisG, final OrthonormalBasis33D orthonormalBasisS, final Point2D textureCoordinates, final Point3D surfaceIntersectionPoint, final Ray3D ray, final Shape3D shape, final double t) {
+		this.surfaceIntersectionPoint = Objects.requireNonNull(surfaceIntersectionPoint, "surfaceIntersectionPoint == null");
+		this.ray = Objects.requireNonNull(ray, "ray == null");
+		this.shape = Objects.requireNonNull(shape, "shape == null");
+		this.orthonormalBasisGSupplier = null;
+		this.orthonormalBasisSSupplier = null;
+		this.textureCoordinatesSupplier = null;
+		this.t = t;
 		this.orthonormalBasisG = Objects.requireNonNull(orthonormalBasisG, "orthonormalBasisG == null");
 		this.orthonormalBasisS = Objects.requireNonNull(orthonormalBasisS, "orthonormalBasisS == null");
 		this.textureCoordinates = Objects.requireNonNull(textureCoordinates, "textureCoordinates == null");
+	}
+	
+	/**
+	 * Constructs a new lazy {@code SurfaceIntersection3D} instance.
+	 * <p>
+	 * If either {@code orthonormalBasisGSupplier}, {@code orthonormalBasisSSupplier}, {@code textureCoordinatesSupplier}, {@code surfaceIntersectionPoint}, {@code ray} or {@code shape} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * The {@code Supplier} instances are called at most once each, the first time their values are requested, unless several threads request them at the same time. If a {@code Supplier} instance returns {@code null}, a {@code NullPointerException} will be thrown when
+	 * its value is requested.
+	 * 
+	 * @param orthonormalBasisGSupplier a {@code Supplier} that computes the {@link OrthonormalBasis33D} instance that is used as the orthonormal basis for the geometry
+	 * @param orthonormalBasisSSupplier a {@code Supplier} that computes the {@code OrthonormalBasis33D} instance that is used as the orthonormal basis for shading
+	 * @param textureCoordinatesSupplier a {@code Supplier} that computes the {@link Point2D} instance that is used as the texture coordinates
+	 * @param surfaceIntersectionPoint the {@link Point3D} instance that is used as the surface intersection point
+	 * @param ray the {@link Ray3D} instance that was used in the intersection operation
+	 * @param shape the {@link Shape3D} instance that was intersected
+	 * @param t the parametric {@code t} value that represents the distance to the intersection
+	 * @throws NullPointerException thrown if, and only if, either {@code orthonormalBasisGSupplier}, {@code orthonormalBasisSSupplier}, {@code textureCoordinatesSupplier}, {@code surfaceIntersectionPoint}, {@code ray} or {@code shape} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public SurfaceIntersection3D(final Supplier<OrthonormalBasis33D> orthonormalBasisGSupplier, final Supplier<OrthonormalBasis33D> orthonormalBasisSSupplier, final Supplier<Point2D> textureCoordinatesSupplier, final Point3D surfaceIntersectionPoint, final Ray3D ray, final Shape3D shape, final double t) {
 		this.surfaceIntersectionPoint = Objects.requireNonNull(surfaceIntersectionPoint, "surfaceIntersectionPoint == null");
 		this.ray = Objects.requireNonNull(ray, "ray == null");
 		this.shape = Objects.requireNonNull(shape, "shape == null");
+		this.orthonormalBasisGSupplier = Objects.requireNonNull(orthonormalBasisGSupplier, "orthonormalBasisGSupplier == null");
+		this.orthonormalBasisSSupplier = Objects.requireNonNull(orthonormalBasisSSupplier, "orthonormalBasisSSupplier == null");
+		this.textureCoordinatesSupplier = Objects.requireNonNull(textureCoordinatesSupplier, "textureCoordinatesSupplier == null");
 		this.t = t;
+		this.orthonormalBasisG = null;
+		this.orthonormalBasisS = null;
+		this.textureCoordinates = null;
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -91,7 +132,13 @@ public final class SurfaceIntersection3D {
 	 */
 //	TODO: Add Unit Tests!
 	public OrthonormalBasis33D getOrthonormalBasisG() {
-		return this.orthonormalBasisG;
+		OrthonormalBasis33D orthonormalBasisG = this.orthonormalBasisG;
+		
+		if(orthonormalBasisG == null) {
+			orthonormalBasisG = this.orthonormalBasisG = Objects.requireNonNull(this.orthonormalBasisGSupplier.get(), "orthonormalBasisGSupplier.get() == null");
+		}
+		
+		return orthonormalBasisG;
 	}
 	
 	/**
@@ -101,7 +148,13 @@ public final class SurfaceIntersection3D {
 	 */
 //	TODO: Add Unit Tests!
 	public OrthonormalBasis33D getOrthonormalBasisS() {
-		return this.orthonormalBasisS;
+		OrthonormalBasis33D orthonormalBasisS = this.orthonormalBasisS;
+		
+		if(orthonormalBasisS == null) {
+			orthonormalBasisS = this.orthonormalBasisS = Objects.requireNonNull(this.orthonormalBasisSSupplier.get(), "orthonormalBasisSSupplier.get() == null");
+		}
+		
+		return orthonormalBasisS;
 	}
 	
 	/**
@@ -111,7 +164,13 @@ public final class SurfaceIntersection3D {
 	 */
 //	TODO: Add Unit Tests!
 	public Point2D getTextureCoordinates() {
-		return this.textureCoordinates;
+		Point2D textureCoordinates = this.textureCoordinates;
+		
+		if(textureCoordinates == null) {
+			textureCoordinates = this.textureCoordinates = Objects.requireNonNull(this.textureCoordinatesSupplier.get(), "textureCoordinatesSupplier.get() == null");
+		}
+		
+		return textureCoordinates;
 	}
 	
 	/**
@@ -180,7 +239,7 @@ public final class SurfaceIntersection3D {
 //	TODO: Add Unit Tests!
 	@Override
 	public String toString() {
-		return String.format("new SurfaceIntersection3D(%s, %s, %s, %s, %s, %s, %+.10f)", this.orthonormalBasisG, this.orthonormalBasisS, this.textureCoordinates, this.surfaceIntersectionPoint, this.ray, this.shape, Double.valueOf(this.t));
+		return String.format("new SurfaceIntersection3D(%s, %s, %s, %s, %s, %s, %+.10f)", getOrthonormalBasisG(), getOrthonormalBasisS(), getTextureCoordinates(), this.surfaceIntersectionPoint, this.ray, this.shape, Double.valueOf(this.t));
 	}
 	
 	/**
@@ -197,7 +256,7 @@ public final class SurfaceIntersection3D {
 	 */
 //	TODO: Add Unit Tests!
 	public Vector3D getSurfaceNormalG() {
-		return this.orthonormalBasisG.w;
+		return getOrthonormalBasisG().w;
 	}
 	
 	/**
@@ -214,7 +273,7 @@ public final class SurfaceIntersection3D {
 	 */
 //	TODO: Add Unit Tests!
 	public Vector3D getSurfaceNormalS() {
-		return this.orthonormalBasisS.w;
+		return getOrthonormalBasisS().w;
 	}
 	
 	/**
@@ -232,11 +291,11 @@ public final class SurfaceIntersection3D {
 			return true;
 		} else if(!(object instanceof SurfaceIntersection3D)) {
 			return false;
-		} else if(!Objects.equals(this.orthonormalBasisG, SurfaceIntersection3D.class.cast(object).orthonormalBasisG)) {
+		} else if(!Objects.equals(getOrthonormalBasisG(), SurfaceIntersection3D.class.cast(object).getOrthonormalBasisG())) {
 			return false;
-		} else if(!Objects.equals(this.orthonormalBasisS, SurfaceIntersection3D.class.cast(object).orthonormalBasisS)) {
+		} else if(!Objects.equals(getOrthonormalBasisS(), SurfaceIntersection3D.class.cast(object).getOrthonormalBasisS())) {
 			return false;
-		} else if(!Objects.equals(this.textureCoordinates, SurfaceIntersection3D.class.cast(object).textureCoordinates)) {
+		} else if(!Objects.equals(getTextureCoordinates(), SurfaceIntersection3D.class.cast(object).getTextureCoordinates())) {
 			return false;
 		} else if(!Objects.equals(this.surfaceIntersectionPoint, SurfaceIntersection3D.class.cast(object).surfaceIntersectionPoint)) {
 			return false;
@@ -251,6 +310,16 @@ public final class SurfaceIntersection3D {
 		}
 	}
 	
+	/**
+	 * Returns {@code true} if, and only if, this {@code SurfaceIntersection3D} instance is lazy, {@code false} otherwise.
+	 * 
+	 * @return {@code true} if, and only if, this {@code SurfaceIntersection3D} instance is lazy, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	public boolean isLazy() {
+		return this.orthonormalBasisGSupplier != null;
+	}
+	
 	/**
 	 * Returns the parametric {@code t} value that represents the distance to the intersection.
 	 * 
@@ -269,7 +338,7 @@ public final class SurfaceIntersection3D {
 //	TODO: Add Unit Tests!
 	@Override
 	public int hashCode() {
-		return Objects.hash(this.orthonormalBasisG, this.orthonormalBasisS, this.textureCoordinates, this.surfaceIntersectionPoint, this.ray, this.shape, Double.valueOf(this.t));
+		return Objects.hash(getOrthonormalBasisG(), getOrthonormalBasisS(), getTextureCoordinates(), this.surfaceIntersectionPoint, this.ray, this.shape, Double.valueOf(this.t));
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -315,6 +384,15 @@ public final class SurfaceIntersection3D {
 //	TODO: Add Unit Tests!
 	public static SurfaceIntersection3D orient(final SurfaceIntersection3D surfaceIntersection, final Vector3D direction) {
 		if(Vector3D.dotProduct(direction, surfaceIntersection.getOrthonormalBasisG().w) >= 0.0D) {
+			if(surfaceIntersection.isLazy()) {
+				final Supplier<OrthonormalBasis33D> orthonormalBasisGSupplier = () -> OrthonormalBasis33D.flipW(surfaceIntersection.getOrthonormalBasisG());
+				final Supplier<OrthonormalBasis33D> orthonormalBasisSSupplier = () -> OrthonormalBasis33D.flipW(surfaceIntersection.getOrthonormalBasisS());
+				
+				final Supplier<Point2D> textureCoordinatesSupplier = surfaceIntersection::getTextureCoordinates;
+				
+				return new SurfaceIntersection3D(orthonormalBasisGSupplier, orthonormalBasisSSupplier, textureCoordinatesSupplier, surfaceIntersection.surfaceIntersectionPoint, surfaceIntersection.ray, surfaceIntersection.shape, surfaceIntersection.t);
+			}
+			
 			final OrthonormalBasis33D orthonormalBasisG = OrthonormalBasis33D.flipW(surfaceIntersection.orthonormalBasisG);
 			final OrthonormalBasis33D orthonormalBasisS = OrthonormalBasis33D.flipW(surfaceIntersection.orthonormalBasisS);
 			
@@ -376,14 +454,6 @@ public final class SurfaceIntersection3D {
 	 */
 //	TODO: Add Unit Tests!
 	public static SurfaceIntersection3D transform(final SurfaceIntersection3D surfaceIntersection, final Matrix44D matrix, final Matrix44D matrixInverse) {
-		final OrthonormalBasis33D orthonormalBasisGOldSpace = surfaceIntersection.orthonormalBasisG;
-		final OrthonormalBasis33D orthonormalBasisSOldSpace = surfaceIntersection.orthonormalBasisS;
-		final OrthonormalBasis33D orthonormalBasisGNewSpace = orthonormalBasisGOldSpace.transformTranspose(matrixInverse);
-		final OrthonormalBasis33D orthonormalBasisSNewSpace = orthonormalBasisSOldSpace.transformTranspose(matrixInverse);
-		final OrthonormalBasis33D orthonormalBasisSNewSpaceCorrectlyOriented = Vector3D.dotProduct(orthonormalBasisSNewSpace.w, orthonormalBasisGNewSpace.w) < 0.0D ? OrthonormalBasis33D.flipW(orthonormalBasisSNewSpace) : orthonormalBasisSNewSpace;
-		
-		final Point2D textureCoordinates = surfaceIntersection.textureCoordinates;
-		
 		final Point3D surfaceIntersectionPointOldSpace = surfaceIntersection.surfaceIntersectionPoint;
 		final Point3D surfaceIntersectionPointNewSpace = matrix.transformAndDivide(surfaceIntersectionPointOldSpace);
 		
@@ -394,6 +464,34 @@ public final class SurfaceIntersection3D {
 		
 		final double tNewSpace = Doubles.abs(Point3D.distance(rayNewSpace.getOrigin(), surfaceIntersectionPointNewSpace));
 		
-		return new SurfaceIntersection3D(orthonormalBasisGNewSpace, orthonormalBasisSNewSpaceCorrectlyOriented, textureCoordinates, surfaceIntersectionPointNewSpace, rayNewSpace, shape, tNewSpace);
+		if(surfaceIntersection.isLazy()) {
+			Objects.requireNonNull(matrixInverse, "matrixInverse == null");
+			
+			final Supplier<OrthonormalBasis33D> orthonormalBasisGSupplier = () -> surfaceIntersection.getOrthonormalBasisG().transformTranspose(matrixInverse);
+			final Supplier<OrthonormalBasis33D> orthonormalBasisSSupplier = () -> doTransformOrthonormalBasisS(surfaceIntersection.getOrthonormalBasisG(), surfaceIntersection.getOrthonormalBasisS(), matrixInverse);
+			
+			final Supplier<Point2D> textureCoordinatesSupplier = surfaceIntersection::getTextureCoordinates;
+			
+			return new SurfaceIntersection3D(orthonormalBasisGSupplier, orthonormalBasisSSupplier, textureCoordinatesSupplier, surfaceIntersectionPointNewSpace, rayNewSpace, shape, tNewSpace);
+		}
+		
+		final OrthonormalBasis33D orthonormalBasisGOldSpace = surfaceIntersection.orthonormalBasisG;
+		final OrthonormalBasis33D orthonormalBasisSOldSpace = surfaceIntersection.orthonormalBasisS;
+		final OrthonormalBasis33D orthonormalBasisGNewSpace = orthonormalBasisGOldSpace.transformTranspose(matrixInverse);
+		final OrthonormalBasis33D orthonormalBasisSNewSpace = doTransformOrthonormalBasisS(orthonormalBasisGNewSpace, orthonormalBasisSOldSpace.transformTranspose(matrixInverse));
+		
+		final Point2D textureCoordinates = surfaceIntersection.textureCoordinates;
+		
+		return new SurfaceIntersection3D(orthonormalBasisGNewSpace, orthonormalBasisSNewSpace, textureCoordinates, surfaceIntersectionPointNewSpace, rayNewSpace, shape, tNewSpace);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static OrthonormalBasis33D doTransformOrthonormalBasisS(final OrthonormalBasis33D orthonormalBasisGNewSpace, final OrthonormalBasis33D orthonormalBasisSNewSpace) {
+		return Vector3D.dotProduct(orthonormalBasisSNewSpace.w, orthonormalBasisGNewSpace.w) < 0.0D ? OrthonormalBasis33D.flipW(orthonormalBasisSNewSpace) : orthonormalBasisSNewSpace;
+	}
+	
+	private static OrthonormalBasis33D doTransformOrthonormalBasisS(final OrthonormalBasis33D orthonormalBasisGOldSpace, final OrthonormalBasis33D orthonormalBasisSOldSpace, final Matrix44D matrixInverse) {
+		return doTransformOrthonormalBasisS(orthonormalBasisGOldSpace.transformTranspose(matrixInverse), orthonormalBasisSOldSpace.transformTranspose(matrixInverse));
 	}
 }
\ No newline at end of file
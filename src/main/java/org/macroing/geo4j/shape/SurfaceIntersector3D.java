@@ -26,11 +26,16 @@ import org.macroing.geo4j.bv.BoundingVolume3D;
 import org.macroing.geo4j.common.Point3D;
 import org.macroing.geo4j.matrix.Matrix44D;
 import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.ray.TraversalRay3D;
 import org.macroing.java.lang.Doubles;
 
 /**
  * A {@code SurfaceIntersector3D} is an utility class that is useful for performing intersection tests on {@link Shape3D} instances.
  * <p>
+ * A {@code SurfaceIntersector3D} instance is a reusable hit record. During the intersection tests it only keeps track of the closest {@code Shape3D} instance, the parametric {@code t} value, two optional surface parameters {@code u} and {@code v} and an optional primitive index. No
+ * {@link SurfaceIntersection3D} instance is created until {@link #computeSurfaceIntersection()} is called, and then only for the closest {@code Shape3D} instance. A {@code Shape3D} instance that can compute its surface parameters, such as the barycentric coordinates of a
+ * triangle, may store them by calling {@link #intersection(Shape3D, double, double, double)}, so that they do not have to be computed again by {@code computeSurfaceIntersection()}.
+ * <p>
  * This class is mutable and therefore not thread-safe.
  * 
  * @since 1.0.0
@@ -51,11 +56,15 @@ public final class SurfaceIntersector3D {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	private final TraversalRay3D traversalRay;
 	private Ray3D ray;
 	private Shape3D shape;
 	private double t;
 	private double tMaximum;
 	private double tMinimum;
+	private double u;
+	private double v;
+	private int primitiveIndex;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
@@ -93,9 +102,13 @@ public final class SurfaceIntersector3D {
 	public SurfaceIntersector3D(final Ray3D ray, final double tMinimum, final double tMaximum) {
 		this.ray = Objects.requireNonNull(ray, "ray == null");
 		this.shape = null;
+		this.traversalRay = new TraversalRay3D(ray);
 		this.t = Double.NaN;
 		this.tMaximum = tMaximum;
 		this.tMinimum = tMinimum;
+		this.u = Double.NaN;
+		this.v = Double.NaN;
+		this.primitiveIndex = -1;
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -114,12 +127,14 @@ public final class SurfaceIntersector3D {
 	 * Computes a {@link SurfaceIntersection3D} for the current intersection.
 	 * <p>
 	 * Returns an optional {@code SurfaceIntersection3D} instance.
+	 * <p>
+	 * The {@code SurfaceIntersection3D} instance is computed by {@link Shape3D#computeSurfaceIntersection(SurfaceIntersector3D)} of the {@link Shape3D} instance that was intersected.
 	 * 
 	 * @return an optional {@code SurfaceIntersection3D} instance
 	 */
 //	TODO: Add Unit Tests!
 	public Optional<SurfaceIntersection3D> computeSurfaceIntersection() {
-		return isIntersecting() ? this.shape.intersection(this.ray, this.tMinimum, T_MAXIMUM) : SurfaceIntersection3D.EMPTY;
+		return isIntersecting() ? this.shape.computeSurfaceIntersection(this) : SurfaceIntersection3D.EMPTY;
 	}
 	
 	/**
@@ -132,6 +147,19 @@ public final class SurfaceIntersector3D {
 		return this.ray;
 	}
 	
+	/**
+	 * Returns the {@link TraversalRay3D} instance associated with this {@code SurfaceIntersector3D} instance.
+	 * <p>
+	 * The same {@code TraversalRay3D} instance is returned for the lifetime of this {@code SurfaceIntersector3D} instance. It is updated in place whenever the {@link Ray3D} instance changes, so the reciprocal of its direction is computed once for all
+	 * {@link BoundingVolume3D} instances that are tested and no new objects are created by {@link #initialize(Ray3D, double, double)} or {@link #transform(Matrix44D)}.
+	 * 
+	 * @return the {@code TraversalRay3D} instance associated with this {@code SurfaceIntersector3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public TraversalRay3D getTraversalRay() {
+		return this.traversalRay;
+	}
+	
 	/**
 	 * Returns a {@code String} representation of this {@code SurfaceIntersector3D} instance.
 	 * 
@@ -168,6 +196,12 @@ public final class SurfaceIntersector3D {
 			return false;
 		} else if(!Doubles.equals(this.tMinimum, SurfaceIntersector3D.class.cast(object).tMinimum)) {
 			return false;
+		} else if(!Doubles.equals(this.u, SurfaceIntersector3D.class.cast(object).u)) {
+			return false;
+		} else if(!Doubles.equals(this.v, SurfaceIntersector3D.class.cast(object).v)) {
+			return false;
+		} else if(this.primitiveIndex != SurfaceIntersector3D.class.cast(object).primitiveIndex) {
+			return false;
 		} else {
 			return true;
 		}
@@ -188,11 +222,66 @@ public final class SurfaceIntersector3D {
 	 */
 //	TODO: Add Unit Tests!
 	public boolean intersection(final Shape3D shape) {
-		final double t = shape.intersectionT(this.ray, this.tMinimum, this.tMaximum);
+		return intersection(shape, shape.intersectionT(this.ray, this.tMinimum, this.tMaximum), Double.NaN, Double.NaN);
+	}
+	
+	/**
+	 * Updates this {@code SurfaceIntersector3D} instance with an intersection that has been computed by {@code shape}.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code t} is the closest intersection so far, {@code false} otherwise.
+	 * <p>
+	 * If {@code shape} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * surfaceIntersector.intersection(shape, t, u, v, -1);
+	 * }
+	 * </pre>
+	 * 
+	 * @param shape the {@link Shape3D} instance that was intersected
+	 * @param t the parametric {@code t} value that represents the distance to the intersection, or {@code Double.NaN} if no intersection was found
+	 * @param u the first surface parameter, or {@code Double.NaN}
+	 * @param v the second surface parameter, or {@code Double.NaN}
+	 * @return {@code true} if, and only if, {@code t} is the closest intersection so far, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code shape} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public boolean intersection(final Shape3D shape, final double t, final double u, final double v) {
+		return intersection(shape, t, u, v, -1);
+	}
+	
+	/**
+	 * Updates this {@code SurfaceIntersector3D} instance with an intersection that has been computed by {@code shape}.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code t} is the closest intersection so far, {@code false} otherwise.
+	 * <p>
+	 * If {@code shape} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code t} is the closest intersection so far, the state of this {@code SurfaceIntersector3D} instance will be updated with {@code shape}, {@code t}, {@code u}, {@code v} and {@code primitiveIndex}. The surface parameters {@code u} and {@code v} and the
+	 * primitive index {@code primitiveIndex} are only interpreted by {@code shape} itself. Use {@code Double.NaN} and {@code -1} if they are not known.
+	 * <p>
+	 * This method is intended to be called by {@code Shape3D} implementations that override {@link Shape3D#intersection(SurfaceIntersector3D)}. The primitive index is useful for {@code Shape3D} implementations that consist of several primitives, such as a
+	 * triangle mesh.
+	 * 
+	 * @param shape the {@link Shape3D} instance that was intersected
+	 * @param t the parametric {@code t} value that represents the distance to the intersection, or {@code Double.NaN} if no intersection was found
+	 * @param u the first surface parameter, or {@code Double.NaN}
+	 * @param v the second surface parameter, or {@code Double.NaN}
+	 * @param primitiveIndex the index of the primitive that was intersected, or {@code -1}
+	 * @return {@code true} if, and only if, {@code t} is the closest intersection so far, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code shape} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public boolean intersection(final Shape3D shape, final double t, final double u, final double v, final int primitiveIndex) {
+		Objects.requireNonNull(shape, "shape == null");
 		
 		if(!Doubles.isNaN(t) && (Doubles.isNaN(this.t) || t < this.t) && t > this.tMinimum && t < this.tMaximum) {
 			this.t = t;
 			this.tMaximum = t;
+			this.u = u;
+			this.v = v;
+			this.primitiveIndex = primitiveIndex;
 			this.shape = shape;
 			
 			return true;
@@ -222,7 +311,7 @@ public final class SurfaceIntersector3D {
 	 */
 //	TODO: Add Unit Tests!
 	public boolean isIntersecting(final BoundingVolume3D boundingVolume) {
-		return boundingVolume.contains(this.ray.getOrigin()) || boundingVolume.intersects(this.ray, this.tMinimum, this.tMaximum);
+		return boundingVolume.contains(this.ray.getOrigin()) || boundingVolume.intersectsTraversal(this.traversalRay, this.tMinimum, this.tMaximum);
 	}
 	
 	/**
@@ -255,6 +344,42 @@ public final class SurfaceIntersector3D {
 		return this.tMinimum;
 	}
 	
+	/**
+	 * Returns the first surface parameter of the current intersection, or {@code Double.NaN} if it is not known.
+	 * <p>
+	 * The surface parameter is only meaningful to the {@link Shape3D} instance that was intersected.
+	 * 
+	 * @return the first surface parameter of the current intersection, or {@code Double.NaN} if it is not known
+	 */
+//	TODO: Add Unit Tests!
+	public double getU() {
+		return this.u;
+	}
+	
+	/**
+	 * Returns the second surface parameter of the current intersection, or {@code Double.NaN} if it is not known.
+	 * <p>
+	 * The surface parameter is only meaningful to the {@link Shape3D} instance that was intersected.
+	 * 
+	 * @return the second surface parameter of the current intersection, or {@code Double.NaN} if it is not known
+	 */
+//	TODO: Add Unit Tests!
+	public double getV() {
+		return this.v;
+	}
+	
+	/**
+	 * Returns the index of the primitive of the current intersection, or {@code -1} if it is not known.
+	 * <p>
+	 * The primitive index is only meaningful to the {@link Shape3D} instance that was intersected.
+	 * 
+	 * @return the index of the primitive of the current intersection, or {@code -1} if it is not known
+	 */
+//	TODO: Add Unit Tests!
+	public int getPrimitiveIndex() {
+		return this.primitiveIndex;
+	}
+	
 	/**
 	 * Returns a hash code for this {@code SurfaceIntersector3D} instance.
 	 * 
@@ -263,7 +388,7 @@ public final class SurfaceIntersector3D {
 //	TODO: Add Unit Tests!
 	@Override
 	public int hashCode() {
-		return Objects.hash(this.ray, this.shape, Double.valueOf(this.t), Double.valueOf(this.tMaximum), Double.valueOf(this.tMinimum));
+		return Objects.hash(this.ray, this.shape, Double.valueOf(this.t), Double.valueOf(this.tMaximum), Double.valueOf(this.tMinimum), Double.valueOf(this.u), Double.valueOf(this.v), Integer.valueOf(this.primitiveIndex));
 	}
 	
 	/**
@@ -299,9 +424,13 @@ public final class SurfaceIntersector3D {
 //	TODO: Add Unit Tests!
 	public void initialize(final Ray3D ray, final double tMinimum, final double tMaximum) {
 		this.ray = Objects.requireNonNull(ray, "ray == null");
+		this.traversalRay.set(ray);
 		this.t = Double.NaN;
 		this.tMaximum = tMaximum;
 		this.tMinimum = tMinimum;
+		this.u = Double.NaN;
+		this.v = Double.NaN;
+		this.primitiveIndex = -1;
 	}
 	
 	/**
@@ -328,6 +457,7 @@ public final class SurfaceIntersector3D {
 //		final double tMinimumNewSpace = doTransformT(matrix, rayOldSpace, rayNewSpace, tMinimumOldSpace);
 		
 		this.ray = rayNewSpace;
+		this.traversalRay.set(rayNewSpace);
 		this.t = tNewSpace;
 		this.tMaximum = tMaximumNewSpace;
 		this.tMinimum = tMinimumNewSpace;
@@ -29,12 +29,16 @@ import java.util.Optional;
 
 import org.macroing.geo4j.bv.BoundingVolume3D;
 import org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D;
+import org.macroing.geo4j.bv.hierarchy.BVHItem3D;
+import org.macroing.geo4j.bv.hierarchy.CompiledBVH3D;
+import org.macroing.geo4j.bv.hierarchy.SAHBVHBuilder3D;
 import org.macroing.geo4j.common.Point3D;
 import org.macroing.geo4j.ray.Ray3D;
 import org.macroing.geo4j.shape.Shape3D;
 import org.macroing.geo4j.shape.SurfaceIntersection3D;
 import org.macroing.geo4j.shape.SurfaceIntersector3D;
 import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
 import org.macroing.java.util.Lists;
 import org.macroing.java.util.visitor.NodeHierarchicalVisitor;
 import org.macroing.java.util.visitor.NodeTraversalException;
@@ -44,6 +48,9 @@ import org.macroing.java.util.visitor.NodeTraversalException;
  * <p>
  * This class is immutable and thread-safe if its {@code Shape3D} instances are.
  * <p>
+ * The {@link BoundingVolume3D} instance of a {@code CompoundShape3D} instance is computed once, when it is constructed. If the number of {@code Shape3D} instances is greater than the BVH threshold, a bounding volume hierarchy (BVH) is built over them the first
+ * time an intersection test is performed. A {@code Shape3D} instance with an unbounded {@code BoundingVolume3D} instance, such as a plane, is not added to the BVH, but is tested separately.
+ * <p>
  * This {@code Shape3D} implementation is not supported on the GPU.
  * 
  * @since 1.0.0
@@ -62,9 +69,18 @@ public final class CompoundShape3D implements Shape3D {
 //	TODO: Add Unit Tests!
 	public static final int ID = 3;
 	
+	/**
+	 * The default number of {@link Shape3D} instances above which a bounding volume hierarchy (BVH) is built.
+	 */
+//	TODO: Add Unit Tests!
+	public static final int DEFAULT_BVH_THRESHOLD = 16;
+	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	private final BoundingVolume3D boundingVolume;
 	private final List<? extends Shape3D> shapes;
+	private final int bVHThreshold;
+	private volatile Accelerator accelerator;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
@@ -74,13 +90,44 @@ public final class CompoundShape3D implements Shape3D {
 	 * If either {@code shapes} or at least one of its elements are {@code null}, a {@code NullPointerException} will be thrown.
 	 * <p>
 	 * Modifying {@code shapes} will not affect this {@code CompoundShape3D} instance.
+	 * <p>
+	 * Calling this constructor is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * new CompoundShape3D(shapes, CompoundShape3D.DEFAULT_BVH_THRESHOLD);
+	 * }
+	 * </pre>
 	 * 
 	 * @param shapes a {@code List} of {@link Shape3D} instances
 	 * @throws NullPointerException thrown if, and only if, either {@code shapes} or at least one of its elements are {@code null}
 	 */
 //	TODO: Add Unit Tests!
 	public CompoundShape3D(final List<? extends Shape3D> shapes) {
+		this(shapes, DEFAULT_BVH_THRESHOLD);
+	}
+	
+	/**
+	 * Constructs a new {@code CompoundShape3D} instance.
+	 * <p>
+	 * If either {@code shapes} or at least one of its elements are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code bVHThreshold} is less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * Modifying {@code shapes} will not affect this {@code CompoundShape3D} instance.
+	 * <p>
+	 * A bounding volume hierarchy (BVH) is built lazily if, and only if, the number of {@link Shape3D} instances in {@code shapes} is greater than {@code bVHThreshold}. Use {@code Integer.MAX_VALUE} to never build one. The BVH threshold is part of the state of this
+	 * {@code CompoundShape3D} instance, so it is written by {@link #write(DataOutput)} and compared by {@link #equals(Object)}.
+	 * 
+	 * @param shapes a {@code List} of {@code Shape3D} instances
+	 * @param bVHThreshold the number of {@code Shape3D} instances above which a BVH is built
+	 * @throws IllegalArgumentException thrown if, and only if, {@code bVHThreshold} is less than {@code 0}
+	 * @throws NullPointerException thrown if, and only if, either {@code shapes} or at least one of its elements are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public CompoundShape3D(final List<? extends Shape3D> shapes, final int bVHThreshold) {
 		this.shapes = new ArrayList<>(Lists.requireNonNull(shapes, "shapes"));
+		this.bVHThreshold = Ints.requireRange(bVHThreshold, 0, Integer.MAX_VALUE, "bVHThreshold");
+		this.boundingVolume = doCreateBoundingVolume(this.shapes);
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -93,7 +140,7 @@ public final class CompoundShape3D implements Shape3D {
 //	TODO: Add Unit Tests!
 	@Override
 	public BoundingVolume3D getBoundingVolume() {
-		return doGetAxisAlignedBoundingBoxes().stream().reduce((a, b) -> AxisAlignedBoundingBox3D.union(a, b)).orElse(new AxisAlignedBoundingBox3D(new Point3D(), new Point3D()));
+		return this.boundingVolume;
 	}
 	
 	/**
@@ -114,9 +161,7 @@ public final class CompoundShape3D implements Shape3D {
 	public Optional<SurfaceIntersection3D> intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
 		final SurfaceIntersector3D surfaceIntersector = new SurfaceIntersector3D(ray, tMinimum, tMaximum);
 		
-		for(final Shape3D shape : this.shapes) {
-			surfaceIntersector.intersection(shape);
-		}
+		intersection(surfaceIntersector);
 		
 		return surfaceIntersector.computeSurfaceIntersection();
 	}
@@ -140,7 +185,14 @@ public final class CompoundShape3D implements Shape3D {
 //	TODO: Add Unit Tests!
 	@Override
 	public String toString() {
-		return "new CompoundShape3D(...)";
+		final StringBuilder stringBuilder = new StringBuilder();
+		
+		for(final Shape3D shape : this.shapes) {
+			stringBuilder.append(stringBuilder.length() > 0 ? ", " : "");
+			stringBuilder.append(shape);
+		}
+		
+		return String.format("new CompoundShape3D(Arrays.asList(%s), %d)", stringBuilder, Integer.valueOf(this.bVHThreshold));
 	}
 	
 	/**
@@ -224,11 +276,93 @@ public final class CompoundShape3D implements Shape3D {
 			return false;
 		} else if(!Objects.equals(this.shapes, CompoundShape3D.class.cast(object).shapes)) {
 			return false;
+		} else if(this.bVHThreshold != CompoundShape3D.class.cast(object).bVHThreshold) {
+			return false;
 		} else {
 			return true;
 		}
 	}
 	
+	/**
+	 * Performs an intersection test between {@code surfaceIntersector} and this {@code CompoundShape3D} instance.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code CompoundShape3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code surfaceIntersector} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If the number of {@link Shape3D} instances is greater than the BVH threshold, they are tested by traversing the bounding volume hierarchy (BVH). Otherwise they are tested one by one. Either way, the closest one of them is recorded by {@code surfaceIntersector}.
+	 * 
+	 * @param surfaceIntersector a {@link SurfaceIntersector3D} instance
+	 * @return {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code CompoundShape3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code surfaceIntersector} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean intersection(final SurfaceIntersector3D surfaceIntersector) {
+		Objects.requireNonNull(surfaceIntersector, "surfaceIntersector == null");
+		
+		final Accelerator accelerator = doGetAccelerator();
+		
+		if(accelerator != null) {
+			return accelerator.intersection(surfaceIntersector);
+		}
+		
+		boolean isIntersecting = false;
+		
+		for(final Shape3D shape : this.shapes) {
+			if(shape.intersection(surfaceIntersector)) {
+				isIntersecting = true;
+			}
+		}
+		
+		return isIntersecting;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, {@code ray} intersects this {@code CompoundShape3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * This method returns as soon as any intersection is found, so it is suitable for shadow rays.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code CompoundShape3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code true} if, and only if, {@code ray} intersects this {@code CompoundShape3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean intersects(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		Objects.requireNonNull(ray, "ray == null");
+		
+		final Accelerator accelerator = doGetAccelerator();
+		
+		if(accelerator != null) {
+			return accelerator.intersects(ray, tMinimum, tMaximum);
+		}
+		
+		for(final Shape3D shape : this.shapes) {
+			if(shape.intersects(ray, tMinimum, tMaximum)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns the BVH threshold of this {@code CompoundShape3D} instance.
+	 * <p>
+	 * A bounding volume hierarchy (BVH) is built if, and only if, the number of {@link Shape3D} instances is greater than the BVH threshold.
+	 * 
+	 * @return the BVH threshold of this {@code CompoundShape3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getBVHThreshold() {
+		return this.bVHThreshold;
+	}
+	
 	/**
 	 * Returns the surface area of this {@code CompoundShape3D} instance.
 	 * 
@@ -262,6 +396,12 @@ public final class CompoundShape3D implements Shape3D {
 //	TODO: Add Unit Tests!
 	@Override
 	public double intersectionT(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final Accelerator accelerator = doGetAccelerator();
+		
+		if(accelerator != null) {
+			return accelerator.intersectionT(Objects.requireNonNull(ray, "ray == null"), tMinimum, tMaximum);
+		}
+		
 		double t = Doubles.NaN;
 		double tMax = tMaximum;
 		double tMin = tMinimum;
@@ -297,7 +437,7 @@ public final class CompoundShape3D implements Shape3D {
 //	TODO: Add Unit Tests!
 	@Override
 	public int hashCode() {
-		return Objects.hash(this.shapes);
+		return Objects.hash(this.shapes, Integer.valueOf(this.bVHThreshold));
 	}
 	
 	/**
@@ -321,6 +461,8 @@ public final class CompoundShape3D implements Shape3D {
 			for(final Shape3D shape : this.shapes) {
 				shape.write(dataOutput);
 			}
+			
+			dataOutput.writeInt(this.bVHThreshold);
 		} catch(final IOException e) {
 			throw new UncheckedIOException(e);
 		}
@@ -328,11 +470,113 @@ public final class CompoundShape3D implements Shape3D {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	private List<AxisAlignedBoundingBox3D> doGetAxisAlignedBoundingBoxes() {
-		return doGetBoundingVolumes().stream().filter(boundingVolume -> boundingVolume instanceof AxisAlignedBoundingBox3D).map(boundingVolume -> AxisAlignedBoundingBox3D.class.cast(boundingVolume)).collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+	private Accelerator doGetAccelerator() {
+		if(this.shapes.size() <= this.bVHThreshold) {
+			return null;
+		}
+		
+		Accelerator accelerator = this.accelerator;
+		
+		if(accelerator == null) {
+			synchronized(this) {
+				accelerator = this.accelerator;
+				
+				if(accelerator == null) {
+					this.accelerator = accelerator = Accelerator.create(this.shapes);
+				}
+			}
+		}
+		
+		return accelerator;
 	}
 	
-	private List<BoundingVolume3D> doGetBoundingVolumes() {
-		return this.shapes.stream().map(shape -> shape.getBoundingVolume()).collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static BoundingVolume3D doCreateBoundingVolume(final List<? extends Shape3D> shapes) {
+		AxisAlignedBoundingBox3D axisAlignedBoundingBox = null;
+		
+		for(final Shape3D shape : shapes) {
+			final BoundingVolume3D boundingVolume = shape.getBoundingVolume();
+			
+			if(boundingVolume instanceof AxisAlignedBoundingBox3D) {
+				axisAlignedBoundingBox = axisAlignedBoundingBox == null ? AxisAlignedBoundingBox3D.class.cast(boundingVolume) : AxisAlignedBoundingBox3D.union(axisAlignedBoundingBox, AxisAlignedBoundingBox3D.class.cast(boundingVolume));
+			}
+		}
+		
+		return axisAlignedBoundingBox != null ? axisAlignedBoundingBox : new AxisAlignedBoundingBox3D(new Point3D(), new Point3D());
+	}
+	
+	private static boolean doIsBounded(final BoundingVolume3D boundingVolume) {
+		final Point3D max = boundingVolume.max();
+		final Point3D min = boundingVolume.min();
+		
+		return Doubles.isFinite(max.x) && Doubles.isFinite(max.y) && Doubles.isFinite(max.z) && Doubles.isFinite(min.x) && Doubles.isFinite(min.y) && Doubles.isFinite(min.z);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Accelerator {
+		private final CompiledBVH3D compiledBVH;
+		private final Shape3D[] shapesUnbounded;
+		
+		public Accelerator(final CompiledBVH3D compiledBVH, final Shape3D[] shapesUnbounded) {
+			this.compiledBVH = compiledBVH;
+			this.shapesUnbounded = shapesUnbounded;
+		}
+		
+		public boolean intersection(final SurfaceIntersector3D surfaceIntersector) {
+			boolean isIntersecting = this.compiledBVH.intersection(surfaceIntersector);
+			
+			for(final Shape3D shape : this.shapesUnbounded) {
+				if(shape.intersection(surfaceIntersector)) {
+					isIntersecting = true;
+				}
+			}
+			
+			return isIntersecting;
+		}
+		
+		public boolean intersects(final Ray3D ray, final double tMinimum, final double tMaximum) {
+			for(final Shape3D shape : this.shapesUnbounded) {
+				if(shape.intersects(ray, tMinimum, tMaximum)) {
+					return true;
+				}
+			}
+			
+			return this.compiledBVH.intersects(ray, tMinimum, tMaximum);
+		}
+		
+		public double intersectionT(final Ray3D ray, final double tMinimum, final double tMaximum) {
+			double t = this.compiledBVH.intersectionT(ray, tMinimum, tMaximum);
+			double tMax = Doubles.isNaN(t) ? tMaximum : t;
+			
+			for(final Shape3D shape : this.shapesUnbounded) {
+				final double tCurrent = shape.intersectionT(ray, tMinimum, tMax);
+				
+				if(!Doubles.isNaN(tCurrent) && (Doubles.isNaN(t) || tCurrent < t)) {
+					t = tCurrent;
+					tMax = t;
+				}
+			}
+			
+			return t;
+		}
+		
+		public static Accelerator create(final List<? extends Shape3D> shapes) {
+			final List<BVHItem3D<Shape3D>> bVHItems = new ArrayList<>(shapes.size());
+			final List<Shape3D> shapesUnbounded = new ArrayList<>();
+			
+			for(final Shape3D shape : shapes) {
+				final BoundingVolume3D boundingVolume = shape.getBoundingVolume();
+				
+				if(doIsBounded(boundingVolume)) {
+					bVHItems.add(new BVHItem3D<>(boundingVolume, shape));
+				} else {
+					shapesUnbounded.add(shape);
+				}
+			}
+			
+			return new Accelerator(new CompiledBVH3D(new SAHBVHBuilder3D().build(bVHItems)), shapesUnbounded.toArray(new Shape3D[shapesUnbounded.size()]));
+		}
 	}
 }
\ No newline at end of file
@@ -63,13 +63,13 @@ public final class CompoundShape3DReader implements Shape3DReader {
 	 * <p>
 	 * If {@code dataInput} is {@code null}, a {@code NullPointerException} will be thrown.
 	 * <p>
-	 * If the ID is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * If either the ID is invalid or the BVH threshold that is read is less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
 	 * <p>
 	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
 	 * 
 	 * @param dataInput the {@code DataInput} instance to read from
 	 * @return the {@code CompoundShape3D} instance that was read
-	 * @throws IllegalArgumentException thrown if, and only if, the ID is invalid
+	 * @throws IllegalArgumentException thrown if, and only if, either the ID is invalid or the BVH threshold that is read is less than {@code 0}
 	 * @throws NullPointerException thrown if, and only if, {@code dataInput} is {@code null}
 	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
 	 */
@@ -90,7 +90,7 @@ public final class CompoundShape3DReader implements Shape3DReader {
 	 * <p>
 	 * If {@code dataInput} is {@code null}, a {@code NullPointerException} will be thrown.
 	 * <p>
-	 * If {@code id} is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * If either {@code id} is invalid or the BVH threshold that is read is less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
 	 * <p>
 	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
 	 * <p>
@@ -99,7 +99,7 @@ public final class CompoundShape3DReader implements Shape3DReader {
 	 * @param dataInput the {@code DataInput} instance to read from
 	 * @param id the ID of the {@code CompoundShape3D} to read
 	 * @return the {@code CompoundShape3D} instance that was read
-	 * @throws IllegalArgumentException thrown if, and only if, {@code id} is invalid
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code id} is invalid or the BVH threshold that is read is less than {@code 0}
 	 * @throws NullPointerException thrown if, and only if, {@code dataInput} is {@code null}
 	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
 	 */
@@ -119,7 +119,9 @@ public final class CompoundShape3DReader implements Shape3DReader {
 				shapes.add(this.shape3DReader.read(dataInput, dataInput.readInt()));
 			}
 			
-			return new CompoundShape3D(shapes);
+			final int bVHThreshold = dataInput.readInt();
+			
+			return new CompoundShape3D(shapes, bVHThreshold);
 		} catch(final IOException e) {
 			throw new UncheckedIOException(e);
 		}
@@ -27,13 +27,13 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import org.macroing.geo4j.bv.BoundingVolume3D;
 import org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D;
 import org.macroing.geo4j.common.AngleD;
 import org.macroing.geo4j.common.Point2D;
 import org.macroing.geo4j.common.Point3D;
-import org.macroing.geo4j.common.Vector2D;
 import org.macroing.geo4j.common.Vector3D;
 import org.macroing.geo4j.matrix.Matrix44D;
 import org.macroing.geo4j.onb.OrthonormalBasis33D;
@@ -42,6 +42,7 @@ import org.macroing.geo4j.shape.Shape3D;
 import org.macroing.geo4j.shape.SurfaceIntersection3D;
 import org.macroing.java.lang.Doubles;
 import org.macroing.java.lang.Ints;
+import org.macroing.java.util.LazyReference;
 import org.macroing.java.util.Lists;
 import org.macroing.java.util.visitor.Node;
 import org.macroing.java.util.visitor.NodeHierarchicalVisitor;
@@ -73,6 +74,9 @@ public final class Curve3D implements Shape3D {
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	private final Data data;
+	private final double[] controlPoints;
+	private final double depthTolerance;
+	private final double radiusMaximum;
 	private final double uMaximum;
 	private final double uMinimum;
 	
@@ -82,6 +86,8 @@ public final class Curve3D implements Shape3D {
 	 * Constructs a new {@code Curve3D} instance.
 	 * <p>
 	 * If {@code data} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * The control points and widths of the interval from {@code uMinimum} to {@code uMaximum} are computed once, by this constructor, so they do not have to be computed for every intersection test.
 	 * 
 	 * @param data a {@link Data} instance
 	 * @param uMinimum the minimum U-value
@@ -93,45 +99,26 @@ public final class Curve3D implements Shape3D {
 		this.data = Objects.requireNonNull(data, "data == null");
 		this.uMinimum = uMinimum;
 		this.uMaximum = uMaximum;
+		this.controlPoints = doCreateControlPoints(data, uMinimum, uMaximum);
+		this.depthTolerance = 8.0D * (Doubles.max(data.getWidthA(), data.getWidthB()) * 0.05D);
+		this.radiusMaximum = Doubles.max(Doubles.lerp(data.getWidthA(), data.getWidthB(), uMinimum), Doubles.lerp(data.getWidthA(), data.getWidthB(), uMaximum)) * 0.5D;
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	/**
 	 * Returns a {@link BoundingVolume3D} instance that contains this {@code Curve3D} instance.
+	 * <p>
+	 * The returned {@code BoundingVolume3D} instance is computed from the extrema of the curve itself, rather than from its control points, and expanded by half its maximum width.
 	 * 
 	 * @return a {@code BoundingVolume3D} instance that contains this {@code Curve3D} instance
 	 */
 //	TODO: Add Unit Tests!
 	@Override
 	public BoundingVolume3D getBoundingVolume() {
-		final Data data = this.data;
-		
-		final double uMaximum = this.uMaximum;
-		final double uMinimum = this.uMinimum;
-		
-		final double widthA = data.getWidthA();
-		final double widthB = data.getWidthB();
-		final double widthC = Doubles.lerp(widthA, widthB, uMinimum);
-		final double widthD = Doubles.lerp(widthA, widthB, uMaximum);
-		final double widthE = Doubles.max(widthC, widthD) * 0.5D;
-		
-		final Point3D pointA = data.getPointA();
-		final Point3D pointB = data.getPointB();
-		final Point3D pointC = data.getPointC();
-		final Point3D pointD = data.getPointD();
-		
-		final Point3D pointE = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMinimum, uMinimum);
-		final Point3D pointF = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMinimum, uMaximum);
-		final Point3D pointG = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMaximum, uMaximum);
-		final Point3D pointH = doBezierBlossom(pointA, pointB, pointC, pointD, uMaximum, uMaximum, uMaximum);
-		
-		final AxisAlignedBoundingBox3D axisAlignedBoundingBoxA = new AxisAlignedBoundingBox3D(pointE, pointF);
-		final AxisAlignedBoundingBox3D axisAlignedBoundingBoxB = new AxisAlignedBoundingBox3D(pointG, pointH);
-		final AxisAlignedBoundingBox3D axisAlignedBoundingBoxC = AxisAlignedBoundingBox3D.union(axisAlignedBoundingBoxA, axisAlignedBoundingBoxB);
-		final AxisAlignedBoundingBox3D axisAlignedBoundingBoxD = AxisAlignedBoundingBox3D.expand(axisAlignedBoundingBoxC, widthE);
+		final double[] bounds = doComputeBounds(this.controlPoints, this.radiusMaximum);
 		
-		return axisAlignedBoundingBoxD;
+		return new AxisAlignedBoundingBox3D(new Point3D(bounds[3], bounds[4], bounds[5]), new Point3D(bounds[0], bounds[1], bounds[2]));
 	}
 	
 	/**
@@ -150,65 +137,27 @@ public final class Curve3D implements Shape3D {
 //	TODO: Add Unit Tests!
 	@Override
 	public Optional<SurfaceIntersection3D> intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
-		final Data data = this.data;
-		
-		final double uMaximum = this.uMaximum;
-		final double uMinimum = this.uMinimum;
-		
-		final double widthA = data.getWidthA();
-		final double widthB = data.getWidthB();
-		final double widthC = Doubles.lerp(widthA, widthB, uMinimum);
-		final double widthD = Doubles.lerp(widthA, widthB, uMaximum);
-		final double widthE = Doubles.max(widthC, widthD) * 0.5D;
-		
-		final Point3D pointA = data.getPointA();
-		final Point3D pointB = data.getPointB();
-		final Point3D pointC = data.getPointC();
-		final Point3D pointD = data.getPointD();
-		
-		final Point3D pointE = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMinimum, uMinimum);
-		final Point3D pointF = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMinimum, uMaximum);
-		final Point3D pointG = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMaximum, uMaximum);
-		final Point3D pointH = doBezierBlossom(pointA, pointB, pointC, pointD, uMaximum, uMaximum, uMaximum);
-		
-		final Vector3D directionX = doCreateDirectionX(ray, pointE, pointH);
-		
-		final Matrix44D rayToObject = Matrix44D.lookAt(ray.getOrigin(), Point3D.add(ray.getOrigin(), ray.getDirection()), directionX);
-		
-		if(!rayToObject.isInvertible()) {
-			return Optional.empty();
-		}
-		
-		final Matrix44D objectToRay = Matrix44D.inverse(rayToObject);
+		final double[] surfaceParameters = new double[3];
 		
-		final Point3D pointI = objectToRay.transform(pointE);
-		final Point3D pointJ = objectToRay.transform(pointF);
-		final Point3D pointK = objectToRay.transform(pointG);
-		final Point3D pointL = objectToRay.transform(pointH);
+		final double t = doIntersectionT(ray, tMinimum, tMaximum, surfaceParameters);
 		
-		final double xMaximum = 0.0D;
-		final double yMaximum = 0.0D;
-		final double zMaximum = ray.getDirection().length() * tMaximum;
-		
-		if(Doubles.max(pointI.x, pointJ.x, pointK.x, pointL.x) + widthE < tMinimum || Doubles.min(pointI.x, pointJ.x, pointK.x, pointL.x) - widthE > xMaximum) {
+		if(Doubles.isNaN(t)) {
 			return SurfaceIntersection3D.EMPTY;
 		}
 		
-		if(Doubles.max(pointI.y, pointJ.y, pointK.y, pointL.y) + widthE < tMinimum || Doubles.min(pointI.y, pointJ.y, pointK.y, pointL.y) - widthE > yMaximum) {
-			return SurfaceIntersection3D.EMPTY;
-		}
+		final Data data = this.data;
 		
-		if(Doubles.max(pointI.z, pointJ.z, pointK.z, pointL.z) + widthE < tMinimum || Doubles.min(pointI.z, pointJ.z, pointK.z, pointL.z) - widthE > zMaximum) {
-			return SurfaceIntersection3D.EMPTY;
-		}
+		final double hitWidth = surfaceParameters[0];
+		final double u = surfaceParameters[1];
+		final double v = surfaceParameters[2];
 		
-		final double l01 = Doubles.max(Doubles.abs(pointI.x - 2.0D * pointJ.x + pointK.x), Doubles.abs(pointI.y - 2.0D * pointJ.y + pointK.y), Doubles.abs(pointI.z - 2.0D * pointJ.z + pointK.z));
-		final double l02 = Doubles.max(Doubles.abs(pointJ.x - 2.0D * pointK.x + pointL.x), Doubles.abs(pointJ.y - 2.0D * pointK.y + pointL.y), Doubles.abs(pointJ.z - 2.0D * pointK.z + pointL.z));
-		final double l03 = Doubles.max(l01, l02);
+		final LazyReference<OrthonormalBasis33D> orthonormalBasisG = new LazyReference<>(() -> doComputeOrthonormalBasisG(data, doCreateRayToObject(ray), hitWidth, u, v));
+		
+		final Supplier<Point2D> textureCoordinatesSupplier = () -> new Point2D(u, v);
 		
-		final int depth = Ints.saturate(doLog2(1.41421356237D * 6.0D * l03 / (8.0D * (Doubles.max(widthA, widthB) * 0.05D))) / 2, 0, 10);
+		final Point3D surfaceIntersectionPoint = Point3D.add(ray.getOrigin(), ray.getDirection(), t);
 		
-		return doIntersectionRecursive(ray, tMinimum, tMaximum, objectToRay, rayToObject, pointI, pointJ, pointK, pointL, uMinimum, uMaximum, depth);
+		return Optional.of(new SurfaceIntersection3D(orthonormalBasisG::getValue, orthonormalBasisG::getValue, textureCoordinatesSupplier, surfaceIntersectionPoint, ray, this, t));
 	}
 	
 	/**
@@ -327,26 +276,15 @@ public final class Curve3D implements Shape3D {
 	public double getSurfaceArea() {
 		final Data data = this.data;
 		
-		final double uMaximum = this.uMaximum;
-		final double uMinimum = this.uMinimum;
+		final double[] controlPoints = this.controlPoints;
 		
 		final double widthA = data.getWidthA();
 		final double widthB = data.getWidthB();
-		final double widthC = Doubles.lerp(widthA, widthB, uMinimum);
-		final double widthD = Doubles.lerp(widthA, widthB, uMaximum);
+		final double widthC = Doubles.lerp(widthA, widthB, this.uMinimum);
+		final double widthD = Doubles.lerp(widthA, widthB, this.uMaximum);
 		final double widthE = (widthC + widthD) * 0.5D;
 		
-		final Point3D pointA = data.getPointA();
-		final Point3D pointB = data.getPointB();
-		final Point3D pointC = data.getPointC();
-		final Point3D pointD = data.getPointD();
-		
-		final Point3D pointE = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMinimum, uMinimum);
-		final Point3D pointF = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMinimum, uMaximum);
-		final Point3D pointG = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMaximum, uMaximum);
-		final Point3D pointH = doBezierBlossom(pointA, pointB, pointC, pointD, uMaximum, uMaximum, uMaximum);
-		
-		final double approximateLength = Point3D.distance(pointE, pointF) + Point3D.distance(pointF, pointG) + Point3D.distance(pointG, pointH);
+		final double approximateLength = doDistance(controlPoints, 0, 3) + doDistance(controlPoints, 3, 6) + doDistance(controlPoints, 6, 9);
 		
 		return approximateLength * widthE;
 	}
@@ -367,65 +305,7 @@ public final class Curve3D implements Shape3D {
 //	TODO: Add Unit Tests!
 	@Override
 	public double intersectionT(final Ray3D ray, final double tMinimum, final double tMaximum) {
-		final Data data = this.data;
-		
-		final double uMaximum = this.uMaximum;
-		final double uMinimum = this.uMinimum;
-		
-		final double widthA = data.getWidthA();
-		final double widthB = data.getWidthB();
-		final double widthC = Doubles.lerp(widthA, widthB, uMinimum);
-		final double widthD = Doubles.lerp(widthA, widthB, uMaximum);
-		final double widthE = Doubles.max(widthC, widthD) * 0.5D;
-		
-		final Point3D pointA = data.getPointA();
-		final Point3D pointB = data.getPointB();
-		final Point3D pointC = data.getPointC();
-		final Point3D pointD = data.getPointD();
-		
-		final Point3D pointE = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMinimum, uMinimum);
-		final Point3D pointF = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMinimum, uMaximum);
-		final Point3D pointG = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMaximum, uMaximum);
-		final Point3D pointH = doBezierBlossom(pointA, pointB, pointC, pointD, uMaximum, uMaximum, uMaximum);
-		
-		final Vector3D directionX = doCreateDirectionX(ray, pointE, pointH);
-		
-		final Matrix44D rayToObject = Matrix44D.lookAt(ray.getOrigin(), Point3D.add(ray.getOrigin(), ray.getDirection()), directionX);
-		
-		if(!rayToObject.isInvertible()) {
-			return Double.NaN;
-		}
-		
-		final Matrix44D objectToRay = Matrix44D.inverse(rayToObject);
-		
-		final Point3D pointI = objectToRay.transform(pointE);
-		final Point3D pointJ = objectToRay.transform(pointF);
-		final Point3D pointK = objectToRay.transform(pointG);
-		final Point3D pointL = objectToRay.transform(pointH);
-		
-		final double xMaximum = 0.0D;
-		final double yMaximum = 0.0D;
-		final double zMaximum = ray.getDirection().length() * tMaximum;
-		
-		if(Doubles.max(pointI.x, pointJ.x, pointK.x, pointL.x) + widthE < tMinimum || Doubles.min(pointI.x, pointJ.x, pointK.x, pointL.x) - widthE > xMaximum) {
-			return Double.NaN;
-		}
-		
-		if(Doubles.max(pointI.y, pointJ.y, pointK.y, pointL.y) + widthE < tMinimum || Doubles.min(pointI.y, pointJ.y, pointK.y, pointL.y) - widthE > yMaximum) {
-			return Double.NaN;
-		}
-		
-		if(Doubles.max(pointI.z, pointJ.z, pointK.z, pointL.z) + widthE < tMinimum || Doubles.min(pointI.z, pointJ.z, pointK.z, pointL.z) - widthE > zMaximum) {
-			return Double.NaN;
-		}
-		
-		final double l01 = Doubles.max(Doubles.abs(pointI.x - 2.0D * pointJ.x + pointK.x), Doubles.abs(pointI.y - 2.0D * pointJ.y + pointK.y), Doubles.abs(pointI.z - 2.0D * pointJ.z + pointK.z));
-		final double l02 = Doubles.max(Doubles.abs(pointJ.x - 2.0D * pointK.x + pointL.x), Doubles.abs(pointJ.y - 2.0D * pointK.y + pointL.y), Doubles.abs(pointJ.z - 2.0D * pointK.z + pointL.z));
-		final double l03 = Doubles.max(l01, l02);
-		
-		final int depth = Ints.saturate(doLog2(1.41421356237D * 6.0D * l03 / (8.0D * (Doubles.max(widthA, widthB) * 0.05D))) / 2, 0, 10);
-		
-		return doIntersectionTRecursive(ray, tMinimum, tMaximum, pointI, pointJ, pointK, pointL, uMinimum, uMaximum, depth);
+		return doIntersectionT(ray, tMinimum, tMaximum, null);
 	}
 	
 	/**
@@ -756,6 +636,68 @@ public final class Curve3D implements Shape3D {
 		return curves;
 	}
 	
+	/**
+	 * Splits the {@code Curve3D} instances in {@code curves} whose {@link BoundingVolume3D} instances fit them badly.
+	 * <p>
+	 * Returns a {@code List} of {@code Curve3D} instances.
+	 * <p>
+	 * If either {@code curves} or at least one of its elements are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * Calling this method is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * Curve3D.split(curves, 2.0D, 4);
+	 * }
+	 * </pre>
+	 * 
+	 * @param curves a {@code List} of {@code Curve3D} instances
+	 * @return a {@code List} of {@code Curve3D} instances
+	 * @throws NullPointerException thrown if, and only if, either {@code curves} or at least one of its elements are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public static List<Curve3D> split(final List<Curve3D> curves) {
+		return split(curves, 2.0D, 4);
+	}
+	
+	/**
+	 * Splits the {@code Curve3D} instances in {@code curves} whose {@link BoundingVolume3D} instances fit them badly.
+	 * <p>
+	 * Returns a {@code List} of {@code Curve3D} instances.
+	 * <p>
+	 * If either {@code curves} or at least one of its elements are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code ratioMaximum} is less than {@code 1.0D} or {@code depthMaximum} is less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * The axis-aligned {@code BoundingVolume3D} instance of a diagonal {@code Curve3D} instance is much larger than the {@code Curve3D} instance itself, so a ray will often enter it without hitting the {@code Curve3D} instance. This method compares the
+	 * surface area of the axis-aligned {@code BoundingVolume3D} instance to the surface area of an oriented bounding box that follows the {@code Curve3D} instance. As long as their ratio is greater than {@code ratioMaximum}, the {@code Curve3D} instance
+	 * is split in half at its parametric midpoint, at most {@code depthMaximum} times. The split {@code Curve3D} instances share the same {@link Data} instance, so this method is intended to be called before building a bounding volume hierarchy (BVH).
+	 * 
+	 * @param curves a {@code List} of {@code Curve3D} instances
+	 * @param ratioMaximum the maximum ratio between the surface area of the axis-aligned bounding box and the surface area of the oriented bounding box
+	 * @param depthMaximum the maximum number of times a {@code Curve3D} instance can be split
+	 * @return a {@code List} of {@code Curve3D} instances
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code ratioMaximum} is less than {@code 1.0D} or {@code depthMaximum} is less than {@code 0}
+	 * @throws NullPointerException thrown if, and only if, either {@code curves} or at least one of its elements are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public static List<Curve3D> split(final List<Curve3D> curves, final double ratioMaximum, final int depthMaximum) {
+		Lists.requireNonNull(curves, "curves");
+		
+		if(!(ratioMaximum >= 1.0D)) {
+			throw new IllegalArgumentException(String.format("Parameter argument ratioMaximum must be greater than or equal to 1.0: ratioMaximum == %s", Double.toString(ratioMaximum)));
+		}
+		
+		Ints.requireRange(depthMaximum, 0, Integer.MAX_VALUE, "depthMaximum");
+		
+		final List<Curve3D> curvesSplit = new ArrayList<>(curves.size());
+		
+		for(final Curve3D curve : curves) {
+			doSplit(curve, ratioMaximum, depthMaximum, curvesSplit);
+		}
+		
+		return curvesSplit;
+	}
+	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	/**
@@ -806,7 +748,7 @@ public final class Curve3D implements Shape3D {
 			this.type = Objects.requireNonNull(type, "type == null");
 			this.normalA = Vector3D.getCached(Vector3D.normalize(Objects.requireNonNull(normalA, "normalA == null")));
 			this.normalB = Vector3D.getCached(Vector3D.normalize(Objects.requireNonNull(normalB, "normalB == null")));
-			this.normalAngle = Doubles.acos(Doubles.saturate(Vector3D.dotProduct(normalA, normalB)));
+			this.normalAngle = Doubles.acos(Doubles.saturate(Vector3D.dotProduct(this.normalA, this.normalB)));
 			this.normalAngleSinReciprocal = 1.0D / Doubles.sin(this.normalAngle);
 			this.widthA = widthA;
 			this.widthB = widthB;
@@ -1134,107 +1076,127 @@ public final class Curve3D implements Shape3D {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	private Optional<SurfaceIntersection3D> doIntersectionRecursive(final Ray3D ray, final double tMinimum, final double tMaximum, final Matrix44D objectToRay, final Matrix44D rayToObject, final Point3D pointA, final Point3D pointB, final Point3D pointC, final Point3D pointD, final double uMinimum, final double uMaximum, final int depth) {
-		final Data data = this.data;
+	private Matrix44D doCreateRayToObject(final Ray3D ray) {
+		final double[] controlPoints = this.controlPoints;
 		
-		final double rayDirectionLength = ray.getDirection().length();
+		final Vector3D directionR = ray.getDirection();
+		final Vector3D directionS = new Vector3D(controlPoints[9] - controlPoints[0], controlPoints[10] - controlPoints[1], controlPoints[11] - controlPoints[2]);
+		final Vector3D directionT = Vector3D.crossProduct(directionR, directionS);
+		final Vector3D directionX = !Doubles.isZero(directionT.lengthSquared()) ? directionT : Doubles.abs(directionR.x) > Doubles.abs(directionR.y) ? new Vector3D(-directionR.z, 0.0D, directionR.x) : new Vector3D(0.0D, directionR.z, -directionR.y);
 		
-		final double widthA = data.getWidthA();
-		final double widthB = data.getWidthB();
+		return Matrix44D.lookAt(ray.getOrigin(), Point3D.add(ray.getOrigin(), directionR), directionX);
+	}
+	
+	private double doIntersectionT(final Ray3D ray, final double tMinimum, final double tMaximum, final double[] surfaceParameters) {
+		final double[] controlPoints = this.controlPoints;
 		
-		if(depth > 0) {
-			final Point3D[] points = doBezierSubdivide(pointA, pointB, pointC, pointD);
-			
-			final double uA = uMinimum;
-			final double uB = (uMinimum + uMaximum) / 2.0D;
-			final double uC = uMaximum;
-			
-			final double widthC = Doubles.max(Doubles.lerp(widthA, widthB, uA), Doubles.lerp(widthA, widthB, uB)) * 0.5D;
-			final double widthD = Doubles.max(Doubles.lerp(widthA, widthB, uB), Doubles.lerp(widthA, widthB, uC)) * 0.5D;
-			
-			final double xMaximum = 0.0D;
-			final double yMaximum = 0.0D;
-			final double zMaximum = rayDirectionLength * tMaximum;
-			
-			if(doIsInsideX(points, widthC, tMinimum, xMaximum, 0) && doIsInsideY(points, widthC, tMinimum, yMaximum, 0) && doIsInsideZ(points, widthC, tMinimum, zMaximum, 0)) {
-				final Optional<SurfaceIntersection3D> optionalSurfaceIntersection = doIntersectionRecursive(ray, tMinimum, tMaximum, objectToRay, rayToObject, points[0], points[1], points[2], points[3], uA, uB, depth - 1);
-				
-				if(optionalSurfaceIntersection.isPresent()) {
-					return optionalSurfaceIntersection;
-				}
-			}
-			
-			if(doIsInsideX(points, widthD, tMinimum, xMaximum, 3) && doIsInsideY(points, widthD, tMinimum, yMaximum, 3) && doIsInsideZ(points, widthD, tMinimum, zMaximum, 3)) {
-				final Optional<SurfaceIntersection3D> optionalSurfaceIntersection = doIntersectionRecursive(ray, tMinimum, tMaximum, objectToRay, rayToObject, points[3], points[4], points[5], points[6], uB, uC, depth - 1);
-				
-				if(optionalSurfaceIntersection.isPresent()) {
-					return optionalSurfaceIntersection;
-				}
-			}
-			
-			return SurfaceIntersection3D.EMPTY;
-		}
+		final Point3D origin = ray.getOrigin();
 		
-		final double edgeA = (pointB.y - pointA.y) * -pointA.y + pointA.x * (pointA.x - pointB.x);
-		final double edgeB = (pointC.y - pointD.y) * -pointD.y + pointD.x * (pointD.x - pointC.x);
+		final Vector3D direction = ray.getDirection();
 		
-		if(edgeA < 0.0D || edgeB < 0.0D) {
-			return SurfaceIntersection3D.EMPTY;
-		}
+		final double directionLength = direction.length();
+		final double directionLengthReciprocal = 1.0D / directionLength;
 		
-		final Vector2D segmentDirection = new Vector2D(pointD.x - pointA.x, pointD.y - pointA.y);
+		final double wX = direction.x * directionLengthReciprocal;
+		final double wY = direction.y * directionLengthReciprocal;
+		final double wZ = direction.z * directionLengthReciprocal;
 		
-		final double denominator = segmentDirection.lengthSquared();
+		final double sX = controlPoints[ 9] - controlPoints[0];
+		final double sY = controlPoints[10] - controlPoints[1];
+		final double sZ = controlPoints[11] - controlPoints[2];
 		
-		if(Doubles.isZero(denominator)) {
-			return SurfaceIntersection3D.EMPTY;
-		}
+		double xX = direction.y * sZ - direction.z * sY;
+		double xY = direction.z * sX - direction.x * sZ;
+		double xZ = direction.x * sY - direction.y * sX;
 		
-		final double w = Vector2D.dotProduct(Vector2D.negate(new Vector2D(pointA.x, pointA.y)), segmentDirection) / denominator;
-		final double u = Doubles.saturate(Doubles.lerp(uMinimum, uMaximum, w), uMinimum, uMaximum);
-		final double hitWidth = doComputeHitWidth(data, ray, u);
+		if(Doubles.isZero(xX * xX + xY * xY + xZ * xZ)) {
+			if(Doubles.abs(direction.x) > Doubles.abs(direction.y)) {
+				xX = -direction.z;
+				xY = 0.0D;
+				xZ = direction.x;
+			} else {
+				xX = 0.0D;
+				xY = direction.z;
+				xZ = -direction.y;
+			}
+		}
 		
-		final Point3D point = doBezierEvaluate(pointA, pointB, pointC, pointD, Doubles.saturate(w));
+		final double xLengthReciprocal = 1.0D / Doubles.sqrt(xX * xX + xY * xY + xZ * xZ);
 		
-		final Vector3D derivative = doBezierEvaluateDerivative(pointA, pointB, pointC, pointD, Doubles.saturate(w));
+		final double uXUnnormalized = (xY * wZ - xZ * wY) * xLengthReciprocal;
+		final double uYUnnormalized = (xZ * wX - xX * wZ) * xLengthReciprocal;
+		final double uZUnnormalized = (xX * wY - xY * wX) * xLengthReciprocal;
 		
-		final double pointCurveDistanceSquared = point.x * point.x + point.y * point.y;
+		final double uLength = Doubles.sqrt(uXUnnormalized * uXUnnormalized + uYUnnormalized * uYUnnormalized + uZUnnormalized * uZUnnormalized);
 		
-		if(pointCurveDistanceSquared > hitWidth * hitWidth * 0.25D) {
-			return SurfaceIntersection3D.EMPTY;
+		if(!(uLength >= 1.0e-12D)) {
+			return Double.NaN;
 		}
 		
-		final double zMaximum = rayDirectionLength * tMaximum;
+		final double uX = uXUnnormalized / uLength;
+		final double uY = uYUnnormalized / uLength;
+		final double uZ = uZUnnormalized / uLength;
 		
-		if(point.z < tMinimum || point.z > zMaximum) {
-			return SurfaceIntersection3D.EMPTY;
-		}
+		final double vX = wY * uZ - wZ * uY;
+		final double vY = wZ * uX - wX * uZ;
+		final double vZ = wX * uY - wY * uX;
 		
-		final double pointCurveDistance = Doubles.sqrt(pointCurveDistanceSquared);
-		final double edgeFunction = derivative.x * -point.y + point.x * derivative.y;
-		final double v = edgeFunction > 0.0D ? 0.5D + pointCurveDistance / hitWidth : 0.5D - pointCurveDistance / hitWidth;
-		final double t = point.z / rayDirectionLength;
+		final double oX = origin.x;
+		final double oY = origin.y;
+		final double oZ = origin.z;
 		
-		final OrthonormalBasis33D orthonormalBasisG = doComputeOrthonormalBasisG(data, objectToRay, rayToObject, hitWidth, u, v);
-		final OrthonormalBasis33D orthonormalBasisS = orthonormalBasisG;
+		final double aX = uX * (controlPoints[ 0] - oX) + uY * (controlPoints[ 1] - oY) + uZ * (controlPoints[ 2] - oZ);
+		final double aY = vX * (controlPoints[ 0] - oX) + vY * (controlPoints[ 1] - oY) + vZ * (controlPoints[ 2] - oZ);
+		final double aZ = wX * (controlPoints[ 0] - oX) + wY * (controlPoints[ 1] - oY) + wZ * (controlPoints[ 2] - oZ);
+		final double bX = uX * (controlPoints[ 3] - oX) + uY * (controlPoints[ 4] - oY) + uZ * (controlPoints[ 5] - oZ);
+		final double bY = vX * (controlPoints[ 3] - oX) + vY * (controlPoints[ 4] - oY) + vZ * (controlPoints[ 5] - oZ);
+		final double bZ = wX * (controlPoints[ 3] - oX) + wY * (controlPoints[ 4] - oY) + wZ * (controlPoints[ 5] - oZ);
+		final double cX = uX * (controlPoints[ 6] - oX) + uY * (controlPoints[ 7] - oY) + uZ * (controlPoints[ 8] - oZ);
+		final double cY = vX * (controlPoints[ 6] - oX) + vY * (controlPoints[ 7] - oY) + vZ * (controlPoints[ 8] - oZ);
+		final double cZ = wX * (controlPoints[ 6] - oX) + wY * (controlPoints[ 7] - oY) + wZ * (controlPoints[ 8] - oZ);
+		final double dX = uX * (controlPoints[ 9] - oX) + uY * (controlPoints[10] - oY) + uZ * (controlPoints[11] - oZ);
+		final double dY = vX * (controlPoints[ 9] - oX) + vY * (controlPoints[10] - oY) + vZ * (controlPoints[11] - oZ);
+		final double dZ = wX * (controlPoints[ 9] - oX) + wY * (controlPoints[10] - oY) + wZ * (controlPoints[11] - oZ);
 		
-		final Point2D textureCoordinates = new Point2D(u, v);
+		final double radiusMaximum = this.radiusMaximum;
 		
-		final Point3D surfaceIntersectionPoint = Point3D.add(ray.getOrigin(), ray.getDirection(), t);
+		final double zMaximum = directionLength * tMaximum;
+		
+		if(!doIsInside(aX, bX, cX, dX, radiusMaximum, tMinimum, 0.0D) || !doIsInside(aY, bY, cY, dY, radiusMaximum, tMinimum, 0.0D) || !doIsInside(aZ, bZ, cZ, dZ, radiusMaximum, tMinimum, zMaximum)) {
+			return Double.NaN;
+		}
+		
+		final double l01 = Doubles.max(Doubles.abs(aX - 2.0D * bX + cX), Doubles.abs(aY - 2.0D * bY + cY), Doubles.abs(aZ - 2.0D * bZ + cZ));
+		final double l02 = Doubles.max(Doubles.abs(bX - 2.0D * cX + dX), Doubles.abs(bY - 2.0D * cY + dY), Doubles.abs(bZ - 2.0D * cZ + dZ));
+		final double l03 = Doubles.max(l01, l02);
+		
+		final int depth = Ints.saturate(doLog2(1.41421356237D * 6.0D * l03 / this.depthTolerance) / 2, 0, 10);
 		
-		return Optional.of(new SurfaceIntersection3D(orthonormalBasisG, orthonormalBasisS, textureCoordinates, surfaceIntersectionPoint, ray, this, t));
+		return doIntersectionTRecursive(ray, directionLength, tMinimum, zMaximum, aX, aY, aZ, bX, bY, bZ, cX, cY, cZ, dX, dY, dZ, this.uMinimum, this.uMaximum, depth, surfaceParameters);
 	}
 	
-	private double doIntersectionTRecursive(final Ray3D ray, final double tMinimum, final double tMaximum, final Point3D pointA, final Point3D pointB, final Point3D pointC, final Point3D pointD, final double uMinimum, final double uMaximum, final int depth) {
+	private double doIntersectionTRecursive(final Ray3D ray, final double directionLength, final double tMinimum, final double zMaximum, final double aX, final double aY, final double aZ, final double bX, final double bY, final double bZ, final double cX, final double cY, final double cZ, final double dX, final double dY, final double dZ, final double uMinimum, final double uMaximum, final int depth, final double[] surfaceParameters) {
 		final Data data = this.data;
 		
-		final double rayDirectionLength = ray.getDirection().length();
-		
 		final double widthA = data.getWidthA();
 		final double widthB = data.getWidthB();
 		
 		if(depth > 0) {
-			final Point3D[] points = doBezierSubdivide(pointA, pointB, pointC, pointD);
+			final double abX = (aX + bX) / 2.0D;
+			final double abY = (aY + bY) / 2.0D;
+			final double abZ = (aZ + bZ) / 2.0D;
+			final double abbcX = (aX + bX + bX + cX) / 4.0D;
+			final double abbcY = (aY + bY + bY + cY) / 4.0D;
+			final double abbcZ = (aZ + bZ + bZ + cZ) / 4.0D;
+			final double abcdX = (aX + bX + bX + bX + cX + cX + cX + dX) / 8.0D;
+			final double abcdY = (aY + bY + bY + bY + cY + cY + cY + dY) / 8.0D;
+			final double abcdZ = (aZ + bZ + bZ + bZ + cZ + cZ + cZ + dZ) / 8.0D;
+			final double bccdX = (bX + cX + cX + dX) / 4.0D;
+			final double bccdY = (bY + cY + cY + dY) / 4.0D;
+			final double bccdZ = (bZ + cZ + cZ + dZ) / 4.0D;
+			final double cdX = (cX + dX) / 2.0D;
+			final double cdY = (cY + dY) / 2.0D;
+			final double cdZ = (cZ + dZ) / 2.0D;
 			
 			final double uA = uMinimum;
 			final double uB = (uMinimum + uMaximum) / 2.0D;
@@ -1243,20 +1205,16 @@ public final class Curve3D implements Shape3D {
 			final double widthC = Doubles.max(Doubles.lerp(widthA, widthB, uA), Doubles.lerp(widthA, widthB, uB)) * 0.5D;
 			final double widthD = Doubles.max(Doubles.lerp(widthA, widthB, uB), Doubles.lerp(widthA, widthB, uC)) * 0.5D;
 			
-			final double xMaximum = 0.0D;
-			final double yMaximum = 0.0D;
-			final double zMaximum = rayDirectionLength * tMaximum;
-			
-			if(doIsInsideX(points, widthC, tMinimum, xMaximum, 0) && doIsInsideY(points, widthC, tMinimum, yMaximum, 0) && doIsInsideZ(points, widthC, tMinimum, zMaximum, 0)) {
-				final double t = doIntersectionTRecursive(ray, tMinimum, tMaximum, points[0], points[1], points[2], points[3], uA, uB, depth - 1);
+			if(doIsInside(aX, abX, abbcX, abcdX, widthC, tMinimum, 0.0D) && doIsInside(aY, abY, abbcY, abcdY, widthC, tMinimum, 0.0D) && doIsInside(aZ, abZ, abbcZ, abcdZ, widthC, tMinimum, zMaximum)) {
+				final double t = doIntersectionTRecursive(ray, directionLength, tMinimum, zMaximum, aX, aY, aZ, abX, abY, abZ, abbcX, abbcY, abbcZ, abcdX, abcdY, abcdZ, uA, uB, depth - 1, surfaceParameters);
 				
 				if(!Doubles.isNaN(t)) {
 					return t;
 				}
 			}
 			
-			if(doIsInsideX(points, widthD, tMinimum, xMaximum, 3) && doIsInsideY(points, widthD, tMinimum, yMaximum, 3) && doIsInsideZ(points, widthD, tMinimum, zMaximum, 3)) {
-				final double t = doIntersectionTRecursive(ray, tMinimum, tMaximum, points[3], points[4], points[5], points[6], uB, uC, depth - 1);
+			if(doIsInside(abcdX, bccdX, cdX, dX, widthD, tMinimum, 0.0D) && doIsInside(abcdY, bccdY, cdY, dY, widthD, tMinimum, 0.0D) && doIsInside(abcdZ, bccdZ, cdZ, dZ, widthD, tMinimum, zMaximum)) {
+				final double t = doIntersectionTRecursive(ray, directionLength, tMinimum, zMaximum, abcdX, abcdY, abcdZ, bccdX, bccdY, bccdZ, cdX, cdY, cdZ, dX, dY, dZ, uB, uC, depth - 1, surfaceParameters);
 				
 				if(!Doubles.isNaN(t)) {
 					return t;
@@ -1266,49 +1224,81 @@ public final class Curve3D implements Shape3D {
 			return Double.NaN;
 		}
 		
-		final double edgeA = (pointB.y - pointA.y) * -pointA.y + pointA.x * (pointA.x - pointB.x);
-		final double edgeB = (pointC.y - pointD.y) * -pointD.y + pointD.x * (pointD.x - pointC.x);
+		final double edgeA = (bY - aY) * -aY + aX * (aX - bX);
+		final double edgeB = (cY - dY) * -dY + dX * (dX - cX);
 		
 		if(edgeA < 0.0D || edgeB < 0.0D) {
 			return Double.NaN;
 		}
 		
-		final Vector2D segmentDirection = new Vector2D(pointD.x - pointA.x, pointD.y - pointA.y);
+		final double segmentDirectionX = dX - aX;
+		final double segmentDirectionY = dY - aY;
 		
-		final double denominator = segmentDirection.lengthSquared();
+		final double denominator = segmentDirectionX * segmentDirectionX + segmentDirectionY * segmentDirectionY;
 		
 		if(Doubles.isZero(denominator)) {
 			return Double.NaN;
 		}
 		
-		final double w = Vector2D.dotProduct(Vector2D.negate(new Vector2D(pointA.x, pointA.y)), segmentDirection) / denominator;
+		final double w = (-aX * segmentDirectionX + -aY * segmentDirectionY) / denominator;
+		final double wSaturated = Doubles.saturate(w);
 		final double u = Doubles.saturate(Doubles.lerp(uMinimum, uMaximum, w), uMinimum, uMaximum);
-		final double hitWidth = doComputeHitWidth(data, ray, u);
-		
-		final Point3D point = doBezierEvaluate(pointA, pointB, pointC, pointD, Doubles.saturate(w));
-		
-		final double pointCurveDistanceSquared = point.x * point.x + point.y * point.y;
+		final double hitWidth = doComputeHitWidth(data, ray, directionLength, u);
+		
+		final double abX = Doubles.lerp(aX, bX, wSaturated);
+		final double abY = Doubles.lerp(aY, bY, wSaturated);
+		final double abZ = Doubles.lerp(aZ, bZ, wSaturated);
+		final double bcX = Doubles.lerp(bX, cX, wSaturated);
+		final double bcY = Doubles.lerp(bY, cY, wSaturated);
+		final double bcZ = Doubles.lerp(bZ, cZ, wSaturated);
+		final double cdX = Doubles.lerp(cX, dX, wSaturated);
+		final double cdY = Doubles.lerp(cY, dY, wSaturated);
+		final double cdZ = Doubles.lerp(cZ, dZ, wSaturated);
+		final double abbcX = Doubles.lerp(abX, bcX, wSaturated);
+		final double abbcY = Doubles.lerp(abY, bcY, wSaturated);
+		final double abbcZ = Doubles.lerp(abZ, bcZ, wSaturated);
+		final double bccdX = Doubles.lerp(bcX, cdX, wSaturated);
+		final double bccdY = Doubles.lerp(bcY, cdY, wSaturated);
+		final double bccdZ = Doubles.lerp(bcZ, cdZ, wSaturated);
+		
+		final double pointX = Doubles.lerp(abbcX, bccdX, wSaturated);
+		final double pointY = Doubles.lerp(abbcY, bccdY, wSaturated);
+		final double pointZ = Doubles.lerp(abbcZ, bccdZ, wSaturated);
+		
+		final double pointCurveDistanceSquared = pointX * pointX + pointY * pointY;
 		
 		if(pointCurveDistanceSquared > hitWidth * hitWidth * 0.25D) {
 			return Double.NaN;
 		}
 		
-		final double zMaximum = rayDirectionLength * tMaximum;
-		
-		if(point.z < tMinimum || point.z > zMaximum) {
+		if(pointZ < tMinimum || pointZ > zMaximum) {
 			return Double.NaN;
 		}
 		
-		final double t = point.z / rayDirectionLength;
+		if(surfaceParameters != null) {
+			final boolean isDerivativeZero = !((bccdX - abbcX) * (bccdX - abbcX) + (bccdY - abbcY) * (bccdY - abbcY) + (bccdZ - abbcZ) * (bccdZ - abbcZ) > 0.0D);
+			
+			final double derivativeX = isDerivativeZero ? dX - aX : bccdX - abbcX;
+			final double derivativeY = isDerivativeZero ? dY - aY : bccdY - abbcY;
+			
+			final double pointCurveDistance = Doubles.sqrt(pointCurveDistanceSquared);
+			final double edgeFunction = derivativeX * -pointY + pointX * derivativeY;
+			
+			surfaceParameters[0] = hitWidth;
+			surfaceParameters[1] = u;
+			surfaceParameters[2] = edgeFunction > 0.0D ? 0.5D + pointCurveDistance / hitWidth : 0.5D - pointCurveDistance / hitWidth;
+		}
 		
-		return t;
+		return pointZ / directionLength;
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	private static OrthonormalBasis33D doComputeOrthonormalBasisG(final Data data, final Matrix44D objectToRay, final Matrix44D rayToObject, final double hitWidth, final double u, final double v) {
+	private static OrthonormalBasis33D doComputeOrthonormalBasisG(final Data data, final Matrix44D rayToObject, final double hitWidth, final double u, final double v) {
 		switch(data.getType()) {
 			case CYLINDER: {
+				final Matrix44D objectToRay = Matrix44D.inverse(rayToObject);
+				
 				final Vector3D directionU = Vector3D.normalize(doBezierEvaluateDerivative(data.getPointA(), data.getPointB(), data.getPointC(), data.getPointD(), u));
 				final Vector3D directionUPlane = Vector3D.normalize(objectToRay.transform(directionU));
 				final Vector3D directionVPlane = Vector3D.normalize(Matrix44D.rotate(AngleD.degrees(-Doubles.lerp(-90.0D, 90.0D, v), -90.0D, 90.0D), directionUPlane).transform(Vector3D.multiply(Vector3D.normalize(new Vector3D(-directionUPlane.y, directionUPlane.x, 0.0D)), hitWidth)));
@@ -1318,6 +1308,8 @@ public final class Curve3D implements Shape3D {
 				return new OrthonormalBasis33D(directionW, directionV, directionU);
 			}
 			case FLAT: {
+				final Matrix44D objectToRay = Matrix44D.inverse(rayToObject);
+				
 				final Vector3D directionU = Vector3D.normalize(doBezierEvaluateDerivative(data.getPointA(), data.getPointB(), data.getPointC(), data.getPointD(), u));
 				final Vector3D directionUPlane = Vector3D.normalize(objectToRay.transform(directionU));
 				final Vector3D directionVPlane = Vector3D.normalize(Vector3D.multiply(Vector3D.normalize(new Vector3D(-directionUPlane.y, directionUPlane.x, 0.0D)), hitWidth));
@@ -1327,8 +1319,10 @@ public final class Curve3D implements Shape3D {
 				return new OrthonormalBasis33D(directionW, directionV, directionU);
 			}
 			case RIBBON: {
-				final double sinA = Doubles.sin((1.0D - u) * data.getNormalAngle()) * data.getNormalAngleSinReciprocal();
-				final double sinB = Doubles.sin(u * data.getNormalAngle()) * data.getNormalAngleSinReciprocal();
+				final double normalAngle = data.getNormalAngle();
+				
+				final double sinA = normalAngle > 0.0D ? Doubles.sin((1.0D - u) * normalAngle) * data.getNormalAngleSinReciprocal() : 1.0D - u;
+				final double sinB = normalAngle > 0.0D ? Doubles.sin(u * normalAngle) * data.getNormalAngleSinReciprocal() : u;
 				
 				final Vector3D normal = Vector3D.normalize(Vector3D.add(Vector3D.multiply(data.getNormalA(), sinA), Vector3D.multiply(data.getNormalB(), sinB)));
 				
@@ -1355,29 +1349,6 @@ public final class Curve3D implements Shape3D {
 		return Point3D.lerp(pointABBC, pointBCCD, t3);
 	}
 	
-	private static Point3D doBezierEvaluate(final Point3D pointA, final Point3D pointB, final Point3D pointC, final Point3D pointD, final double t) {
-		final Point3D pointAB = Point3D.lerp(pointA, pointB, t);
-		final Point3D pointBC = Point3D.lerp(pointB, pointC, t);
-		final Point3D pointCD = Point3D.lerp(pointC, pointD, t);
-		
-		final Point3D pointABBC = Point3D.lerp(pointAB, pointBC, t);
-		final Point3D pointBCCD = Point3D.lerp(pointBC, pointCD, t);
-		
-		return Point3D.lerp(pointABBC, pointBCCD, t);
-	}
-	
-	private static Point3D[] doBezierSubdivide(final Point3D pointA, final Point3D pointB, final Point3D pointC, final Point3D pointD) {
-		return new Point3D[] {
-			pointA,
-			Point3D.centroid(pointA, pointB),
-			Point3D.centroid(pointA, pointB, pointB, pointC),
-			Point3D.centroid(pointA, pointB, pointB, pointB, pointC, pointC, pointC, pointD),
-			Point3D.centroid(pointB, pointC, pointC, pointD),
-			Point3D.centroid(pointC, pointD),
-			pointD
-		};
-	}
-	
 	private static Vector3D doBezierEvaluateDerivative(final Point3D pointA, final Point3D pointB, final Point3D pointC, final Point3D pointD, final double t) {
 		final Point3D pointAB = Point3D.lerp(pointA, pointB, t);
 		final Point3D pointBC = Point3D.lerp(pointB, pointC, t);
@@ -1395,59 +1366,173 @@ public final class Curve3D implements Shape3D {
 		return Vector3D.direction(pointA, pointD);
 	}
 	
-	private static Vector3D doCreateDirectionX(final Ray3D ray, final Point3D eye, final Point3D lookAt) {
-		final Vector3D directionR = ray.getDirection();
-		final Vector3D directionX = Vector3D.crossProduct(directionR, Vector3D.direction(eye, lookAt));
+	private static boolean doIsFittingBadly(final double[] controlPoints, final double radiusMaximum, final double ratioMaximum) {
+		final double directionLength = doDistance(controlPoints, 0, 9);
 		
-		if(!Doubles.isZero(directionX.lengthSquared())) {
-			return directionX;
-		} else if(Doubles.abs(directionR.x) > Doubles.abs(directionR.y)) {
-			return Vector3D.normalize(new Vector3D(-directionR.z, 0.0D, directionR.x));
-		} else {
-			return Vector3D.normalize(new Vector3D(0.0D, directionR.z, -directionR.y));
+		if(!(directionLength > 0.0D)) {
+			return false;
 		}
-	}
-	
-	private static boolean doIsInsideX(final Point3D[] points, final double width, final double minimum, final double maximum, final int offset) {
-		final double max = Doubles.max(points[offset + 0].x, points[offset + 1].x, points[offset + 2].x, points[offset + 3].x);
-		final double min = Doubles.min(points[offset + 0].x, points[offset + 1].x, points[offset + 2].x, points[offset + 3].x);
 		
-		final boolean isInside = max + width >= minimum && min - width <= maximum;
+		final double directionX = (controlPoints[ 9] - controlPoints[0]) / directionLength;
+		final double directionY = (controlPoints[10] - controlPoints[1]) / directionLength;
+		final double directionZ = (controlPoints[11] - controlPoints[2]) / directionLength;
 		
-		return isInside;
-	}
-	
-	private static boolean doIsInsideY(final Point3D[] points, final double width, final double minimum, final double maximum, final int offset) {
-		final double max = Doubles.max(points[offset + 0].y, points[offset + 1].y, points[offset + 2].y, points[offset + 3].y);
-		final double min = Doubles.min(points[offset + 0].y, points[offset + 1].y, points[offset + 2].y, points[offset + 3].y);
+		final boolean isXSmallest = Doubles.abs(directionX) < Doubles.abs(directionY) && Doubles.abs(directionX) < Doubles.abs(directionZ);
+		final boolean isYSmallest = !isXSmallest && Doubles.abs(directionY) < Doubles.abs(directionZ);
 		
-		final boolean isInside = max + width >= minimum && min - width <= maximum;
+		final double perpendicularAUnnormalizedX = isXSmallest ? 0.0D : isYSmallest ? directionZ : directionY;
+		final double perpendicularAUnnormalizedY = isXSmallest ? directionZ : isYSmallest ? 0.0D : -directionX;
+		final double perpendicularAUnnormalizedZ = isXSmallest ? -directionY : isYSmallest ? -directionX : 0.0D;
 		
-		return isInside;
+		final double perpendicularALengthReciprocal = 1.0D / Doubles.sqrt(perpendicularAUnnormalizedX * perpendicularAUnnormalizedX + perpendicularAUnnormalizedY * perpendicularAUnnormalizedY + perpendicularAUnnormalizedZ * perpendicularAUnnormalizedZ);
+		
+		final double perpendicularAX = perpendicularAUnnormalizedX * perpendicularALengthReciprocal;
+		final double perpendicularAY = perpendicularAUnnormalizedY * perpendicularALengthReciprocal;
+		final double perpendicularAZ = perpendicularAUnnormalizedZ * perpendicularALengthReciprocal;
+		
+		final double perpendicularBX = directionY * perpendicularAZ - directionZ * perpendicularAY;
+		final double perpendicularBY = directionZ * perpendicularAX - directionX * perpendicularAZ;
+		final double perpendicularBZ = directionX * perpendicularAY - directionY * perpendicularAX;
+		
+		double directionMaximum = Doubles.MIN_VALUE;
+		double directionMinimum = Doubles.MAX_VALUE;
+		double perpendicularAMaximum = Doubles.MIN_VALUE;
+		double perpendicularAMinimum = Doubles.MAX_VALUE;
+		double perpendicularBMaximum = Doubles.MIN_VALUE;
+		double perpendicularBMinimum = Doubles.MAX_VALUE;
+		
+		for(int i = 0; i < 12; i += 3) {
+			final double x = controlPoints[i + 0];
+			final double y = controlPoints[i + 1];
+			final double z = controlPoints[i + 2];
+			
+			final double projectionDirection = x * directionX + y * directionY + z * directionZ;
+			final double projectionPerpendicularA = x * perpendicularAX + y * perpendicularAY + z * perpendicularAZ;
+			final double projectionPerpendicularB = x * perpendicularBX + y * perpendicularBY + z * perpendicularBZ;
+			
+			directionMaximum = Doubles.max(directionMaximum, projectionDirection);
+			directionMinimum = Doubles.min(directionMinimum, projectionDirection);
+			perpendicularAMaximum = Doubles.max(perpendicularAMaximum, projectionPerpendicularA);
+			perpendicularAMinimum = Doubles.min(perpendicularAMinimum, projectionPerpendicularA);
+			perpendicularBMaximum = Doubles.max(perpendicularBMaximum, projectionPerpendicularB);
+			perpendicularBMinimum = Doubles.min(perpendicularBMinimum, projectionPerpendicularB);
+		}
+		
+		final double[] bounds = doComputeBounds(controlPoints, radiusMaximum);
+		
+		final double surfaceAreaAxisAligned = doComputeSurfaceArea(bounds[3] - bounds[0], bounds[4] - bounds[1], bounds[5] - bounds[2]);
+		final double surfaceAreaOriented = doComputeSurfaceArea(directionMaximum - directionMinimum + 2.0D * radiusMaximum, perpendicularAMaximum - perpendicularAMinimum + 2.0D * radiusMaximum, perpendicularBMaximum - perpendicularBMinimum + 2.0D * radiusMaximum);
+		
+		return surfaceAreaAxisAligned > surfaceAreaOriented * ratioMaximum;
 	}
 	
-	private static boolean doIsInsideZ(final Point3D[] points, final double width, final double minimum, final double maximum, final int offset) {
-		final double max = Doubles.max(points[offset + 0].z, points[offset + 1].z, points[offset + 2].z, points[offset + 3].z);
-		final double min = Doubles.min(points[offset + 0].z, points[offset + 1].z, points[offset + 2].z, points[offset + 3].z);
+	private static boolean doIsInside(final double a, final double b, final double c, final double d, final double width, final double minimum, final double maximum) {
+		final double max = Doubles.max(a, b, c, d);
+		final double min = Doubles.min(a, b, c, d);
 		
 		final boolean isInside = max + width >= minimum && min - width <= maximum;
 		
 		return isInside;
 	}
 	
-	private static double doComputeHitWidth(final Data data, final Ray3D ray, final double u) {
+	private static double doComputeHitWidth(final Data data, final Ray3D ray, final double directionLength, final double u) {
 		if(data.getType() == Type.RIBBON) {
-			final double sinA = Doubles.sin((1.0D - u) * data.getNormalAngle()) * data.getNormalAngleSinReciprocal();
-			final double sinB = Doubles.sin(u * data.getNormalAngle()) * data.getNormalAngleSinReciprocal();
+			final double normalAngle = data.getNormalAngle();
+			
+			final double sinA = normalAngle > 0.0D ? Doubles.sin((1.0D - u) * normalAngle) * data.getNormalAngleSinReciprocal() : 1.0D - u;
+			final double sinB = normalAngle > 0.0D ? Doubles.sin(u * normalAngle) * data.getNormalAngleSinReciprocal() : u;
 			
-			final Vector3D normal = Vector3D.add(Vector3D.multiply(data.getNormalA(), sinA), Vector3D.multiply(data.getNormalB(), sinB));
+			final Vector3D direction = ray.getDirection();
+			final Vector3D normalA = data.getNormalA();
+			final Vector3D normalB = data.getNormalB();
 			
-			return Doubles.lerp(data.getWidthA(), data.getWidthB(), u) * (Doubles.abs(Vector3D.dotProduct(normal, ray.getDirection())) / ray.getDirection().length());
+			final double normalX = normalA.x * sinA + normalB.x * sinB;
+			final double normalY = normalA.y * sinA + normalB.y * sinB;
+			final double normalZ = normalA.z * sinA + normalB.z * sinB;
+			
+			return Doubles.lerp(data.getWidthA(), data.getWidthB(), u) * Doubles.min(Doubles.abs(normalX * direction.x + normalY * direction.y + normalZ * direction.z) / directionLength, 1.0D);
 		}
 		
 		return Doubles.lerp(data.getWidthA(), data.getWidthB(), u);
 	}
 	
+	private static double doComputeSurfaceArea(final double x, final double y, final double z) {
+		return 2.0D * (x * y + y * z + z * x);
+	}
+	
+	private static double doDistance(final double[] points, final int offsetA, final int offsetB) {
+		final double x = points[offsetB + 0] - points[offsetA + 0];
+		final double y = points[offsetB + 1] - points[offsetA + 1];
+		final double z = points[offsetB + 2] - points[offsetA + 2];
+		
+		return Doubles.sqrt(x * x + y * y + z * z);
+	}
+	
+	private static double[] doComputeBounds(final double[] controlPoints, final double radiusMaximum) {
+		final double[] bounds = new double[6];
+		
+		for(int axis = 0; axis < 3; axis++) {
+			final double a = controlPoints[axis + 0];
+			final double b = controlPoints[axis + 3];
+			final double c = controlPoints[axis + 6];
+			final double d = controlPoints[axis + 9];
+			
+			double maximum = Doubles.max(a, d);
+			double minimum = Doubles.min(a, d);
+			
+			final double derivativeA = -a + 3.0D * b - 3.0D * c + d;
+			final double derivativeB = 2.0D * (a - 2.0D * b + c);
+			final double derivativeC = b - a;
+			
+			final double discriminant = derivativeB * derivativeB - 4.0D * derivativeA * derivativeC;
+			
+			for(int i = 0; i < 2; i++) {
+				final double t = Doubles.isZero(derivativeA) ? Doubles.isZero(derivativeB) ? -1.0D : -derivativeC / derivativeB : discriminant < 0.0D ? -1.0D : (-derivativeB + (i == 0 ? -1.0D : 1.0D) * Doubles.sqrt(discriminant)) / (2.0D * derivativeA);
+				
+				if(t > 0.0D && t < 1.0D) {
+					final double s = 1.0D - t;
+					
+					final double value = s * s * s * a + 3.0D * s * s * t * b + 3.0D * s * t * t * c + t * t * t * d;
+					
+					maximum = Doubles.max(maximum, value);
+					minimum = Doubles.min(minimum, value);
+				}
+			}
+			
+			bounds[axis + 0] = minimum - radiusMaximum;
+			bounds[axis + 3] = maximum + radiusMaximum;
+		}
+		
+		return bounds;
+	}
+	
+	private static double[] doCreateControlPoints(final Data data, final double uMinimum, final double uMaximum) {
+		final Point3D pointA = data.getPointA();
+		final Point3D pointB = data.getPointB();
+		final Point3D pointC = data.getPointC();
+		final Point3D pointD = data.getPointD();
+		
+		final Point3D pointE = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMinimum, uMinimum);
+		final Point3D pointF = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMinimum, uMaximum);
+		final Point3D pointG = doBezierBlossom(pointA, pointB, pointC, pointD, uMinimum, uMaximum, uMaximum);
+		final Point3D pointH = doBezierBlossom(pointA, pointB, pointC, pointD, uMaximum, uMaximum, uMaximum);
+		
+		return new double[] {pointE.x, pointE.y, pointE.z, pointF.x, pointF.y, pointF.z, pointG.x, pointG.y, pointG.z, pointH.x, pointH.y, pointH.z};
+	}
+	
+	private static void doSplit(final Curve3D curve, final double ratioMaximum, final int depthMaximum, final List<Curve3D> curves) {
+		if(depthMaximum == 0 || !doIsFittingBadly(curve.controlPoints, curve.radiusMaximum, ratioMaximum)) {
+			curves.add(curve);
+		} else {
+			final double uMinimum = curve.uMinimum;
+			final double uMaximum = curve.uMaximum;
+			final double uMidpoint = (uMinimum + uMaximum) / 2.0D;
+			
+			doSplit(new Curve3D(curve.data, uMinimum, uMidpoint), ratioMaximum, depthMaximum - 1, curves);
+			doSplit(new Curve3D(curve.data, uMidpoint, uMaximum), ratioMaximum, depthMaximum - 1, curves);
+		}
+	}
+	
 	private static int doLog2(final double value) {
 		if(value < 1.0D) {
 			return 0;
@@ -24,6 +24,7 @@ import java.io.UncheckedIOException;
 import java.lang.reflect.Field;//TODO: Add Unit Tests!
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import org.macroing.geo4j.bv.BoundingVolume3D;
 import org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D;
@@ -36,8 +37,10 @@ import org.macroing.geo4j.onb.OrthonormalBasis33D;
 import org.macroing.geo4j.ray.Ray3D;
 import org.macroing.geo4j.shape.Shape3D;
 import org.macroing.geo4j.shape.SurfaceIntersection3D;
+import org.macroing.geo4j.shape.SurfaceIntersector3D;
 import org.macroing.java.lang.Doubles;
 import org.macroing.java.lang.Strings;
+import org.macroing.java.util.LazyReference;
 
 /**
  * A {@code Cylinder3D} is an implementation of {@link Shape3D} that represents a cylinder.
@@ -183,6 +186,31 @@ public final class Cylinder3D implements Shape3D {
 		return new AxisAlignedBoundingBox3D(new Point3D(-this.radius, -this.radius, this.zMin), new Point3D(this.radius, this.radius, this.zMax));
 	}
 	
+	/**
+	 * Computes a {@link SurfaceIntersection3D} instance for the current intersection of {@code surfaceIntersector}.
+	 * <p>
+	 * Returns an optional {@code SurfaceIntersection3D} instance.
+	 * <p>
+	 * If {@code surfaceIntersector} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * The {@code SurfaceIntersection3D} instance is created directly from {@code surfaceIntersector.getRay()} and {@code surfaceIntersector.getT()}. The intersection test is not performed again.
+	 * 
+	 * @param surfaceIntersector a {@link SurfaceIntersector3D} instance
+	 * @return an optional {@code SurfaceIntersection3D} instance
+	 * @throws NullPointerException thrown if, and only if, {@code surfaceIntersector} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public Optional<SurfaceIntersection3D> computeSurfaceIntersection(final SurfaceIntersector3D surfaceIntersector) {
+		final double t = surfaceIntersector.getT();
+		
+		if(Doubles.isNaN(t)) {
+			return SurfaceIntersection3D.EMPTY;
+		}
+		
+		return Optional.of(doCreateSurfaceIntersection(surfaceIntersector.getRay(), t));
+	}
+	
 	/**
 	 * Performs an intersection test between {@code ray} and this {@code Cylinder3D} instance.
 	 * <p>
@@ -433,11 +461,10 @@ public final class Cylinder3D implements Shape3D {
 	private SurfaceIntersection3D doCreateSurfaceIntersection(final Ray3D ray, final double t) {
 		final Point3D surfaceIntersectionPoint = doCreateSurfaceIntersectionPoint(ray, t);
 		
-		final OrthonormalBasis33D orthonormalBasisG = doCreateOrthonormalBasisG(surfaceIntersectionPoint);
-		final OrthonormalBasis33D orthonormalBasisS = orthonormalBasisG;
+		final LazyReference<OrthonormalBasis33D> orthonormalBasisG = new LazyReference<>(() -> doCreateOrthonormalBasisG(surfaceIntersectionPoint));
 		
-		final Point2D textureCoordinates = doCreateTextureCoordinates(surfaceIntersectionPoint);
+		final Supplier<Point2D> textureCoordinatesSupplier = () -> doCreateTextureCoordinates(surfaceIntersectionPoint);
 		
-		return new SurfaceIntersection3D(orthonormalBasisG, orthonormalBasisS, textureCoordinates, surfaceIntersectionPoint, ray, this, t);
+		return new SurfaceIntersection3D(orthonormalBasisG::getValue, orthonormalBasisG::getValue, textureCoordinatesSupplier, surfaceIntersectionPoint, ray, this, t);
 	}
 }
\ No newline at end of file
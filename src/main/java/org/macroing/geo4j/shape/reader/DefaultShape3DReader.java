@@ -0,0 +1,186 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.shape.reader;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.macroing.geo4j.shape.Shape3D;
+import org.macroing.geo4j.shape.Shape3DReader;
+import org.macroing.geo4j.shape.cone.Cone3D;
+import org.macroing.geo4j.shape.cone.Cone3DReader;
+import org.macroing.geo4j.shape.cs.CompoundShape3D;
+import org.macroing.geo4j.shape.cs.CompoundShape3DReader;
+import org.macroing.geo4j.shape.curve.Curve3D;
+import org.macroing.geo4j.shape.curve.Curve3DReader;
+import org.macroing.geo4j.shape.cylinder.Cylinder3D;
+import org.macroing.geo4j.shape.cylinder.Cylinder3DReader;
+import org.macroing.geo4j.shape.disk.Disk3D;
+import org.macroing.geo4j.shape.disk.Disk3DReader;
+import org.macroing.geo4j.shape.hyperboloid.Hyperboloid3D;
+import org.macroing.geo4j.shape.hyperboloid.Hyperboloid3DReader;
+import org.macroing.geo4j.shape.ls.LineSegment3D;
+import org.macroing.geo4j.shape.ls.LineSegment3DReader;
+import org.macroing.geo4j.shape.paraboloid.Paraboloid3D;
+import org.macroing.geo4j.shape.paraboloid.Paraboloid3DReader;
+import org.macroing.geo4j.shape.plane.Plane3D;
+import org.macroing.geo4j.shape.plane.Plane3DReader;
+import org.macroing.geo4j.shape.polygon.Polygon3D;
+import org.macroing.geo4j.shape.polygon.Polygon3DReader;
+import org.macroing.geo4j.shape.rc.RectangularCuboid3D;
+import org.macroing.geo4j.shape.rc.RectangularCuboid3DReader;
+import org.macroing.geo4j.shape.rectangle.Rectangle3D;
+import org.macroing.geo4j.shape.rectangle.Rectangle3DReader;
+import org.macroing.geo4j.shape.sphere.Sphere3D;
+import org.macroing.geo4j.shape.sphere.Sphere3DReader;
+import org.macroing.geo4j.shape.tm.TriangleMesh3D;
+import org.macroing.geo4j.shape.tm.TriangleMesh3DReader;
+import org.macroing.geo4j.shape.torus.Torus3D;
+import org.macroing.geo4j.shape.torus.Torus3DReader;
+import org.macroing.geo4j.shape.triangle.Triangle3D;
+import org.macroing.geo4j.shape.triangle.Triangle3DReader;
+
+/**
+ * A {@code DefaultShape3DReader} is a {@link Shape3DReader} implementation that reads all official {@link Shape3D} instances from a {@code DataInput} instance.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class DefaultShape3DReader implements Shape3DReader {
+	private final Map<Integer, Shape3DReader> shape3DReaders;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code DefaultShape3DReader} instance.
+	 */
+	public DefaultShape3DReader() {
+		this.shape3DReaders = new LinkedHashMap<>();
+		this.shape3DReaders.put(Integer.valueOf(Cone3D.ID), new Cone3DReader());
+		this.shape3DReaders.put(Integer.valueOf(CompoundShape3D.ID), new CompoundShape3DReader(this));
+		this.shape3DReaders.put(Integer.valueOf(Curve3D.ID), new Curve3DReader());
+		this.shape3DReaders.put(Integer.valueOf(Cylinder3D.ID), new Cylinder3DReader());
+		this.shape3DReaders.put(Integer.valueOf(Disk3D.ID), new Disk3DReader());
+		this.shape3DReaders.put(Integer.valueOf(Hyperboloid3D.ID), new Hyperboloid3DReader());
+		this.shape3DReaders.put(Integer.valueOf(LineSegment3D.ID), new LineSegment3DReader());
+		this.shape3DReaders.put(Integer.valueOf(Paraboloid3D.ID), new Paraboloid3DReader());
+		this.shape3DReaders.put(Integer.valueOf(Plane3D.ID), new Plane3DReader());
+		this.shape3DReaders.put(Integer.valueOf(Polygon3D.ID), new Polygon3DReader());
+		this.shape3DReaders.put(Integer.valueOf(RectangularCuboid3D.ID), new RectangularCuboid3DReader());
+		this.shape3DReaders.put(Integer.valueOf(Rectangle3D.ID), new Rectangle3DReader());
+		this.shape3DReaders.put(Integer.valueOf(Sphere3D.ID), new Sphere3DReader());
+		this.shape3DReaders.put(Integer.valueOf(Torus3D.ID), new Torus3DReader());
+		this.shape3DReaders.put(Integer.valueOf(Triangle3D.ID), new Triangle3DReader());
+		this.shape3DReaders.put(Integer.valueOf(TriangleMesh3D.ID), new TriangleMesh3DReader());
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Reads a {@link Shape3D} instance from {@code dataInput}.
+	 * <p>
+	 * Returns the {@code Shape3D} instance that was read.
+	 * <p>
+	 * If {@code dataInput} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If the ID is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
+	 * 
+	 * @param dataInput the {@code DataInput} instance to read from
+	 * @return the {@code Shape3D} instance that was read
+	 * @throws IllegalArgumentException thrown if, and only if, the ID is invalid
+	 * @throws NullPointerException thrown if, and only if, {@code dataInput} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public Shape3D read(final DataInput dataInput) {
+		try {
+			return read(dataInput, dataInput.readInt());
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Reads a {@link Shape3D} instance from {@code dataInput}.
+	 * <p>
+	 * Returns the {@code Shape3D} instance that was read.
+	 * <p>
+	 * If {@code dataInput} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code id} is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
+	 * <p>
+	 * The ID of the {@code Shape3D} instance to read has already been read from {@code dataInput} when this method is called. It is passed to this method as a parameter argument.
+	 * 
+	 * @param dataInput the {@code DataInput} instance to read from
+	 * @param id the ID of the {@code Shape3D} type to read
+	 * @return the {@code Shape3D} instance that was read
+	 * @throws IllegalArgumentException thrown if, and only if, {@code id} is invalid
+	 * @throws NullPointerException thrown if, and only if, {@code dataInput} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public Shape3D read(final DataInput dataInput, final int id) {
+		Objects.requireNonNull(dataInput, "dataInput == null");
+		
+		switch(id) {
+			case Cone3D.ID:
+			case CompoundShape3D.ID:
+			case Curve3D.ID:
+			case Cylinder3D.ID:
+			case Disk3D.ID:
+			case Hyperboloid3D.ID:
+			case LineSegment3D.ID:
+			case Paraboloid3D.ID:
+			case Plane3D.ID:
+			case Polygon3D.ID:
+			case RectangularCuboid3D.ID:
+			case Rectangle3D.ID:
+			case Sphere3D.ID:
+			case Torus3D.ID:
+			case Triangle3D.ID:
+			case TriangleMesh3D.ID:
+				return this.shape3DReaders.get(Integer.valueOf(id)).read(dataInput, id);
+			default:
+				throw new IllegalArgumentException(String.format("The ID %d is invalid.", Integer.valueOf(id)));
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, this {@code DefaultShape3DReader} instance supports reading {@link Shape3D} instances with an ID of {@code id}, {@code false} otherwise.
+	 * 
+	 * @param id the ID of the {@code Shape3D} type to check
+	 * @return {@code true} if, and only if, this {@code DefaultShape3DReader} instance supports reading {@code Shape3D} instances with an ID of {@code id}, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean isSupported(final int id) {
+		return this.shape3DReaders.containsKey(Integer.valueOf(id));
+	}
+}
\ No newline at end of file
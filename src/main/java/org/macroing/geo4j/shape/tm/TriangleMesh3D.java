@@ -0,0 +1,1269 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.shape.tm;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D;
+import org.macroing.geo4j.bv.hierarchy.SAHBVHBuilder3D;
+import org.macroing.geo4j.common.Point2D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector2D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.onb.OrthonormalBasis33D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.shape.Shape3D;
+import org.macroing.geo4j.shape.SurfaceIntersection3D;
+import org.macroing.geo4j.shape.SurfaceIntersector3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+import org.macroing.java.lang.Strings;
+import org.macroing.java.util.visitor.NodeHierarchicalVisitor;
+import org.macroing.java.util.visitor.NodeTraversalException;
+
+/**
+ * A {@code TriangleMesh3D} is an implementation of {@link Shape3D} that represents a triangle mesh.
+ * <p>
+ * The vertices of a {@code TriangleMesh3D} instance are stored in flat arrays of primitive values that are shared by all of its triangles. The positions are stored in a {@code double[]} with three values per vertex. The optional normals and texture coordinates are
+ * stored in {@code float[]} instances with three and two values per vertex, respectively. The triangles are stored in an {@code int[]} with three vertex indices per triangle. Unlike a list of {@code Triangle3D} instances, no objects are created per vertex or triangle.
+ * <p>
+ * A {@code TriangleMesh3D} instance builds an internal bounding volume hierarchy, or BVH, over its triangles when it is constructed. The BVH is stored in flat arrays of primitive values as well. The intersection tests traverse it without creating any objects per node or
+ * triangle. The barycentric coordinates and the index of the closest triangle are stored in the {@link SurfaceIntersector3D} instance, so that a {@link SurfaceIntersection3D} instance can be created without performing the intersection test again.
+ * <p>
+ * If a {@code TriangleMesh3D} instance has no normals, the surface normal of each triangle is used instead. If it has no texture coordinates, each triangle uses the same default texture coordinates as a {@code Triangle3D} instance that is constructed from three
+ * {@link Point3D} instances.
+ * <p>
+ * This class is immutable and therefore thread-safe.
+ * <p>
+ * This {@code Shape3D} implementation is not supported on the GPU.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class TriangleMesh3D implements Shape3D {
+	/**
+	 * The name of this {@code TriangleMesh3D} class.
+	 */
+//	TODO: Add Unit Tests!
+	public static final String NAME = "Triangle Mesh";
+	
+	/**
+	 * The ID of this {@code TriangleMesh3D} class.
+	 */
+//	TODO: Add Unit Tests!
+	public static final int ID = 19;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final double T_MAXIMUM_SCALE = 1.0D + 2.0D * 3.0D * Math.ulp(1.0D);
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final BoundingVolume3D boundingVolume;
+	private final double[] nodeBounds;
+	private final double[] positions;
+	private final double surfaceArea;
+	private final float[] normals;
+	private final float[] textureCoordinates;
+	private final int[] indices;
+	private final int[] nodes;
+	private final int[] triangleIndices;
+	private final int stackSize;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code TriangleMesh3D} instance without normals and texture coordinates.
+	 * <p>
+	 * If either {@code positions} or {@code indices} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code positions.length} or {@code indices.length} are not multiples of {@code 3}, or at least one element in {@code indices} is not a valid vertex index, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * Calling this constructor is equivalent to the following:
+	 * <pre>
+	 * {@code
+	 * new TriangleMesh3D(positions, new float[0], new float[0], indices);
+	 * }
+	 * </pre>
+	 * 
+	 * @param positions a {@code double[]} with the positions of the vertices, three values per vertex
+	 * @param indices an {@code int[]} with the vertex indices of the triangles, three values per triangle
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code positions.length} or {@code indices.length} are not multiples of {@code 3}, or at least one element in {@code indices} is not a valid vertex index
+	 * @throws NullPointerException thrown if, and only if, either {@code positions} or {@code indices} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public TriangleMesh3D(final double[] positions, final int[] indices) {
+		this(positions, new float[0], new float[0], indices);
+	}
+	
+	/**
+	 * Constructs a new {@code TriangleMesh3D} instance.
+	 * <p>
+	 * If either {@code positions}, {@code normals}, {@code textureCoordinates} or {@code indices} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If either {@code positions.length} or {@code indices.length} are not multiples of {@code 3}, {@code normals.length} is neither {@code 0} nor {@code positions.length}, {@code textureCoordinates.length} is neither {@code 0} nor
+	 * {@code positions.length / 3 * 2}, or at least one element in {@code indices} is not a valid vertex index, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * The arrays are copied, so any changes to them after this constructor returns will not affect this {@code TriangleMesh3D} instance. The internal BVH is built by this constructor.
+	 * 
+	 * @param positions a {@code double[]} with the positions of the vertices, three values per vertex
+	 * @param normals a {@code float[]} with the normals of the vertices, three values per vertex, or an empty {@code float[]}
+	 * @param textureCoordinates a {@code float[]} with the texture coordinates of the vertices, two values per vertex, or an empty {@code float[]}
+	 * @param indices an {@code int[]} with the vertex indices of the triangles, three values per triangle
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code positions.length} or {@code indices.length} are not multiples of {@code 3}, {@code normals.length} is neither {@code 0} nor {@code positions.length}, {@code textureCoordinates.length} is neither {@code 0} nor {@code positions.length / 3 * 2}, or at least one element in {@code indices} is not a valid vertex index
+	 * @throws NullPointerException thrown if, and only if, either {@code positions}, {@code normals}, {@code textureCoordinates} or {@code indices} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public TriangleMesh3D(final double[] positions, final float[] normals, final float[] textureCoordinates, final int[] indices) {
+		this(positions, normals, textureCoordinates, indices, true);
+	}
+	
+	TriangleMesh3D(final double[] positions, final float[] normals, final float[] textureCoordinates, final int[] indices, final boolean isCopying) {
+		Objects.requireNonNull(positions, "positions == null");
+		Objects.requireNonNull(normals, "normals == null");
+		Objects.requireNonNull(textureCoordinates, "textureCoordinates == null");
+		Objects.requireNonNull(indices, "indices == null");
+		
+		if(positions.length % 3 != 0) {
+			throw new IllegalArgumentException(String.format("Parameter argument positions must contain 3 values per vertex: positions.length == %d", Integer.valueOf(positions.length)));
+		}
+		
+		if(normals.length != 0 && normals.length != positions.length) {
+			throw new IllegalArgumentException(String.format("Parameter argument normals must be empty or contain 3 values per vertex: normals.length == %d", Integer.valueOf(normals.length)));
+		}
+		
+		if(textureCoordinates.length != 0 && textureCoordinates.length != positions.length / 3 * 2) {
+			throw new IllegalArgumentException(String.format("Parameter argument textureCoordinates must be empty or contain 2 values per vertex: textureCoordinates.length == %d", Integer.valueOf(textureCoordinates.length)));
+		}
+		
+		if(indices.length % 3 != 0) {
+			throw new IllegalArgumentException(String.format("Parameter argument indices must contain 3 values per triangle: indices.length == %d", Integer.valueOf(indices.length)));
+		}
+		
+		for(int i = 0; i < indices.length; i++) {
+			Ints.requireRangeFormat(indices[i], 0, positions.length / 3 - 1, "indices[%d]", Integer.valueOf(i));
+		}
+		
+		this.positions = isCopying ? positions.clone() : positions;
+		this.normals = isCopying ? normals.clone() : normals;
+		this.textureCoordinates = isCopying ? textureCoordinates.clone() : textureCoordinates;
+		this.indices = isCopying ? indices.clone() : indices;
+		
+		final BVHBuilder bVHBuilder = new BVHBuilder(this.positions, this.indices);
+		
+		bVHBuilder.build();
+		
+		this.nodeBounds = bVHBuilder.getNodeBounds();
+		this.nodes = bVHBuilder.getNodes();
+		this.triangleIndices = bVHBuilder.getTriangleIndices();
+		this.stackSize = bVHBuilder.getStackSize();
+		this.boundingVolume = doCreateBoundingVolume(this.nodeBounds);
+		this.surfaceArea = doCalculateSurfaceArea(this.positions, this.indices);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns a {@link BoundingVolume3D} instance that contains this {@code TriangleMesh3D} instance.
+	 * <p>
+	 * The {@code BoundingVolume3D} instance is computed once, when this {@code TriangleMesh3D} instance is constructed.
+	 * 
+	 * @return a {@code BoundingVolume3D} instance that contains this {@code TriangleMesh3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public BoundingVolume3D getBoundingVolume() {
+		return this.boundingVolume;
+	}
+	
+	/**
+	 * Computes a {@link SurfaceIntersection3D} instance for the current intersection of {@code surfaceIntersector}.
+	 * <p>
+	 * Returns an optional {@code SurfaceIntersection3D} instance.
+	 * <p>
+	 * If {@code surfaceIntersector} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If the index of the intersected triangle and its barycentric coordinates were stored in {@code surfaceIntersector} by {@link #intersection(SurfaceIntersector3D)}, the {@code SurfaceIntersection3D} instance is created directly from them and the intersection
+	 * test is not performed again. Otherwise the intersection test is performed again.
+	 * 
+	 * @param surfaceIntersector a {@link SurfaceIntersector3D} instance
+	 * @return an optional {@code SurfaceIntersection3D} instance
+	 * @throws NullPointerException thrown if, and only if, {@code surfaceIntersector} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public Optional<SurfaceIntersection3D> computeSurfaceIntersection(final SurfaceIntersector3D surfaceIntersector) {
+		final Ray3D ray = surfaceIntersector.getRay();
+		
+		final double t = surfaceIntersector.getT();
+		final double u = surfaceIntersector.getU();
+		final double v = surfaceIntersector.getV();
+		
+		final int triangle = surfaceIntersector.getPrimitiveIndex();
+		
+		if(Doubles.isNaN(t)) {
+			return SurfaceIntersection3D.EMPTY;
+		}
+		
+		if(Doubles.isNaN(u) || Doubles.isNaN(v) || triangle < 0 || triangle >= getTriangleCount()) {
+			return intersection(ray, surfaceIntersector.getTMinimum(), SurfaceIntersector3D.T_MAXIMUM);
+		}
+		
+		return Optional.of(doCreateSurfaceIntersection(ray, t, triangle, new Point3D(1.0D - u - v, u, v)));
+	}
+	
+	/**
+	 * Performs an intersection test between {@code ray} and this {@code TriangleMesh3D} instance.
+	 * <p>
+	 * Returns an {@code Optional} with an optional {@link SurfaceIntersection3D} instance that contains information about the intersection, if it was found.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code TriangleMesh3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return an {@code Optional} with an optional {@code SurfaceIntersection3D} instance that contains information about the intersection, if it was found
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public Optional<SurfaceIntersection3D> intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final SurfaceIntersector3D surfaceIntersector = new SurfaceIntersector3D(ray, tMinimum, tMaximum);
+		
+		if(intersection(surfaceIntersector)) {
+			return computeSurfaceIntersection(surfaceIntersector);
+		}
+		
+		return SurfaceIntersection3D.EMPTY;
+	}
+	
+	/**
+	 * Returns a {@code String} with the name of this {@code TriangleMesh3D} instance.
+	 * 
+	 * @return a {@code String} with the name of this {@code TriangleMesh3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public String getName() {
+		return NAME;
+	}
+	
+	/**
+	 * Returns a {@code String} representation of this {@code TriangleMesh3D} instance.
+	 * <p>
+	 * The {@code String} is a constructor expression with all positions, normals, texture coordinates and indices, so it grows with the size of this {@code TriangleMesh3D} instance.
+	 * 
+	 * @return a {@code String} representation of this {@code TriangleMesh3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public String toString() {
+		return String.format("new TriangleMesh3D(%s, %s, %s, %s)", Strings.toNonScientificNotationJava(this.positions), Strings.toNonScientificNotationJava(this.normals), Strings.toNonScientificNotationJava(this.textureCoordinates), doToString(this.indices));
+	}
+	
+	/**
+	 * Accepts a {@link NodeHierarchicalVisitor}.
+	 * <p>
+	 * Returns the result of {@code nodeHierarchicalVisitor.visitLeave(this)}.
+	 * <p>
+	 * If {@code nodeHierarchicalVisitor} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If a {@code RuntimeException} is thrown by the current {@code NodeHierarchicalVisitor}, a {@code NodeTraversalException} will be thrown with the {@code RuntimeException} wrapped.
+	 * <p>
+	 * This implementation will:
+	 * <ul>
+	 * <li>throw a {@code NullPointerException} if {@code nodeHierarchicalVisitor} is {@code null}.</li>
+	 * <li>throw a {@code NodeTraversalException} if {@code nodeHierarchicalVisitor} throws a {@code RuntimeException}.</li>
+	 * </ul>
+	 * <p>
+	 * The vertices and triangles of a {@code TriangleMesh3D} instance are stored in arrays of primitive values, so there are no child {@code Node} instances to traverse.
+	 * 
+	 * @param nodeHierarchicalVisitor the {@code NodeHierarchicalVisitor} to accept
+	 * @return the result of {@code nodeHierarchicalVisitor.visitLeave(this)}
+	 * @throws NodeTraversalException thrown if, and only if, a {@code RuntimeException} is thrown by the current {@code NodeHierarchicalVisitor}
+	 * @throws NullPointerException thrown if, and only if, {@code nodeHierarchicalVisitor} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean accept(final NodeHierarchicalVisitor nodeHierarchicalVisitor) {
+		Objects.requireNonNull(nodeHierarchicalVisitor, "nodeHierarchicalVisitor == null");
+		
+		try {
+			nodeHierarchicalVisitor.visitEnter(this);
+			
+			return nodeHierarchicalVisitor.visitLeave(this);
+		} catch(final RuntimeException e) {
+			throw new NodeTraversalException(e);
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, {@code point} is contained in this {@code TriangleMesh3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code point} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param point a {@link Point3D} instance
+	 * @return {@code true} if, and only if, {@code point} is contained in this {@code TriangleMesh3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code point} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean contains(final Point3D point) {
+		Objects.requireNonNull(point, "point == null");
+		
+		for(int triangle = 0; triangle < getTriangleCount(); triangle++) {
+			if(doContains(triangle, point)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Compares {@code object} to this {@code TriangleMesh3D} instance for equality.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code object} is an instance of {@code TriangleMesh3D}, and their respective values are equal, {@code false} otherwise.
+	 * 
+	 * @param object the {@code Object} to compare to this {@code TriangleMesh3D} instance for equality
+	 * @return {@code true} if, and only if, {@code object} is an instance of {@code TriangleMesh3D}, and their respective values are equal, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean equals(final Object object) {
+		if(object == this) {
+			return true;
+		} else if(!(object instanceof TriangleMesh3D)) {
+			return false;
+		} else if(!Arrays.equals(this.positions, TriangleMesh3D.class.cast(object).positions)) {
+			return false;
+		} else if(!Arrays.equals(this.normals, TriangleMesh3D.class.cast(object).normals)) {
+			return false;
+		} else if(!Arrays.equals(this.textureCoordinates, TriangleMesh3D.class.cast(object).textureCoordinates)) {
+			return false;
+		} else if(!Arrays.equals(this.indices, TriangleMesh3D.class.cast(object).indices)) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, this {@code TriangleMesh3D} instance has normals, {@code false} otherwise.
+	 * 
+	 * @return {@code true} if, and only if, this {@code TriangleMesh3D} instance has normals, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	public boolean hasNormals() {
+		return this.normals.length > 0;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, this {@code TriangleMesh3D} instance has texture coordinates, {@code false} otherwise.
+	 * 
+	 * @return {@code true} if, and only if, this {@code TriangleMesh3D} instance has texture coordinates, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	public boolean hasTextureCoordinates() {
+		return this.textureCoordinates.length > 0;
+	}
+	
+	/**
+	 * Performs an intersection test between {@code surfaceIntersector} and this {@code TriangleMesh3D} instance.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code TriangleMesh3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code surfaceIntersector} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If this {@code TriangleMesh3D} instance is the closest intersection so far, the barycentric coordinates of the intersection are stored as the surface parameters {@code u} and {@code v} of {@code surfaceIntersector}, and the index of the intersected triangle
+	 * is stored as its primitive index.
+	 * 
+	 * @param surfaceIntersector a {@link SurfaceIntersector3D} instance
+	 * @return {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code TriangleMesh3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code surfaceIntersector} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean intersection(final SurfaceIntersector3D surfaceIntersector) {
+		final double[] hit = new double[3];
+		
+		final int triangle = doIntersection(surfaceIntersector.getRay(), surfaceIntersector.getTMinimum(), surfaceIntersector.getTMaximum(), hit, false);
+		
+		return triangle >= 0 && surfaceIntersector.intersection(this, hit[0], hit[1], hit[2], triangle);
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, {@code ray} intersects this {@code TriangleMesh3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * The traversal of the internal BVH is terminated as soon as any intersection is found.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code TriangleMesh3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code true} if, and only if, {@code ray} intersects this {@code TriangleMesh3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean intersects(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		return doIntersection(Objects.requireNonNull(ray, "ray == null"), tMinimum, tMaximum, new double[3], true) >= 0;
+	}
+	
+	/**
+	 * Returns the surface area of this {@code TriangleMesh3D} instance.
+	 * 
+	 * @return the surface area of this {@code TriangleMesh3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public double getSurfaceArea() {
+		return this.surfaceArea;
+	}
+	
+	/**
+	 * Performs an intersection test between {@code ray} and this {@code TriangleMesh3D} instance.
+	 * <p>
+	 * Returns {@code t}, the parametric distance to the surface intersection point, or {@code Double.NaN} if no intersection exists.
+	 * <p>
+	 * If {@code ray} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param ray the {@link Ray3D} to perform an intersection test against this {@code TriangleMesh3D} instance
+	 * @param tMinimum the minimum parametric distance
+	 * @param tMaximum the maximum parametric distance
+	 * @return {@code t}, the parametric distance to the surface intersection point, or {@code Double.NaN} if no intersection exists
+	 * @throws NullPointerException thrown if, and only if, {@code ray} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public double intersectionT(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		final double[] hit = new double[3];
+		
+		final int triangle = doIntersection(Objects.requireNonNull(ray, "ray == null"), tMinimum, tMaximum, hit, false);
+		
+		return triangle >= 0 ? hit[0] : Double.NaN;
+	}
+	
+	/**
+	 * Returns a copy of the positions of the vertices of this {@code TriangleMesh3D} instance, three values per vertex.
+	 * 
+	 * @return a copy of the positions of the vertices of this {@code TriangleMesh3D} instance, three values per vertex
+	 */
+//	TODO: Add Unit Tests!
+	public double[] getPositions() {
+		return this.positions.clone();
+	}
+	
+	/**
+	 * Returns a copy of the normals of the vertices of this {@code TriangleMesh3D} instance, three values per vertex.
+	 * <p>
+	 * If this {@code TriangleMesh3D} instance has no normals, an empty {@code float[]} is returned.
+	 * 
+	 * @return a copy of the normals of the vertices of this {@code TriangleMesh3D} instance, three values per vertex
+	 */
+//	TODO: Add Unit Tests!
+	public float[] getNormals() {
+		return this.normals.clone();
+	}
+	
+	/**
+	 * Returns a copy of the texture coordinates of the vertices of this {@code TriangleMesh3D} instance, two values per vertex.
+	 * <p>
+	 * If this {@code TriangleMesh3D} instance has no texture coordinates, an empty {@code float[]} is returned.
+	 * 
+	 * @return a copy of the texture coordinates of the vertices of this {@code TriangleMesh3D} instance, two values per vertex
+	 */
+//	TODO: Add Unit Tests!
+	public float[] getTextureCoordinates() {
+		return this.textureCoordinates.clone();
+	}
+	
+	/**
+	 * Returns an {@code int} with the ID of this {@code TriangleMesh3D} instance.
+	 * 
+	 * @return an {@code int} with the ID of this {@code TriangleMesh3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public int getID() {
+		return ID;
+	}
+	
+	/**
+	 * Returns the number of triangles in this {@code TriangleMesh3D} instance.
+	 * 
+	 * @return the number of triangles in this {@code TriangleMesh3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getTriangleCount() {
+		return this.indices.length / 3;
+	}
+	
+	/**
+	 * Returns the number of vertices in this {@code TriangleMesh3D} instance.
+	 * 
+	 * @return the number of vertices in this {@code TriangleMesh3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	public int getVertexCount() {
+		return this.positions.length / 3;
+	}
+	
+	/**
+	 * Returns a hash code for this {@code TriangleMesh3D} instance.
+	 * 
+	 * @return a hash code for this {@code TriangleMesh3D} instance
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public int hashCode() {
+		return Objects.hash(Integer.valueOf(Arrays.hashCode(this.positions)), Integer.valueOf(Arrays.hashCode(this.normals)), Integer.valueOf(Arrays.hashCode(this.textureCoordinates)), Integer.valueOf(Arrays.hashCode(this.indices)));
+	}
+	
+	/**
+	 * Returns a copy of the vertex indices of the triangles of this {@code TriangleMesh3D} instance, three values per triangle.
+	 * 
+	 * @return a copy of the vertex indices of the triangles of this {@code TriangleMesh3D} instance, three values per triangle
+	 */
+//	TODO: Add Unit Tests!
+	public int[] getIndices() {
+		return this.indices.clone();
+	}
+	
+	/**
+	 * Writes this {@code TriangleMesh3D} instance to {@code dataOutput}.
+	 * <p>
+	 * If {@code dataOutput} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
+	 * 
+	 * @param dataOutput the {@code DataOutput} instance to write to
+	 * @throws NullPointerException thrown if, and only if, {@code dataOutput} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public void write(final DataOutput dataOutput) {
+		try {
+			dataOutput.writeInt(ID);
+			dataOutput.writeInt(this.positions.length);
+			
+			for(final double position : this.positions) {
+				dataOutput.writeDouble(position);
+			}
+			
+			dataOutput.writeInt(this.normals.length);
+			
+			for(final float normal : this.normals) {
+				dataOutput.writeFloat(normal);
+			}
+			
+			dataOutput.writeInt(this.textureCoordinates.length);
+			
+			for(final float textureCoordinate : this.textureCoordinates) {
+				dataOutput.writeFloat(textureCoordinate);
+			}
+			
+			dataOutput.writeInt(this.indices.length);
+			
+			for(final int index : this.indices) {
+				dataOutput.writeInt(index);
+			}
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private OrthonormalBasis33D doCreateOrthonormalBasisG(final int triangle) {
+		return new OrthonormalBasis33D(doCreateSurfaceNormal(triangle));
+	}
+	
+	private OrthonormalBasis33D doCreateOrthonormalBasisS(final int triangle, final Point3D barycentricCoordinates) {
+		final Point2D textureCoordinatesA = doCreateTextureCoordinates(triangle, 0);
+		final Point2D textureCoordinatesB = doCreateTextureCoordinates(triangle, 1);
+		final Point2D textureCoordinatesC = doCreateTextureCoordinates(triangle, 2);
+		
+		final Vector2D textureCoordinatesCA = Vector2D.direction(textureCoordinatesC, textureCoordinatesA);
+		final Vector2D textureCoordinatesCB = Vector2D.direction(textureCoordinatesC, textureCoordinatesB);
+		
+		final Point3D a = doCreatePosition(triangle, 0);
+		final Point3D b = doCreatePosition(triangle, 1);
+		final Point3D c = doCreatePosition(triangle, 2);
+		
+		final Vector3D edgeCA = Vector3D.direction(c, a);
+		final Vector3D edgeCB = Vector3D.direction(c, b);
+		
+		final Vector3D w = hasNormals() ? Vector3D.normalNormalized(doCreateNormal(triangle, 0), doCreateNormal(triangle, 1), doCreateNormal(triangle, 2), barycentricCoordinates) : doCreateSurfaceNormal(triangle);
+		
+		final double determinant = Vector2D.crossProduct(textureCoordinatesCA, textureCoordinatesCB);
+		
+		if(Doubles.isZero(determinant)) {
+			return new OrthonormalBasis33D(w);
+		}
+		
+		final double determinantReciprocal = 1.0D / determinant;
+		
+		final double x = (-textureCoordinatesCB.x * edgeCA.x + textureCoordinatesCA.x * edgeCB.x) * determinantReciprocal;
+		final double y = (-textureCoordinatesCB.x * edgeCA.y + textureCoordinatesCA.x * edgeCB.y) * determinantReciprocal;
+		final double z = (-textureCoordinatesCB.x * edgeCA.z + textureCoordinatesCA.x * edgeCB.z) * determinantReciprocal;
+		
+		final Vector3D v = new Vector3D(x, y, z);
+		
+		return new OrthonormalBasis33D(w, v);
+	}
+	
+	private Point2D doCreateTextureCoordinates(final int triangle, final int corner) {
+		if(!hasTextureCoordinates()) {
+			switch(corner) {
+				case 0:
+					return new Point2D(0.5D, 0.0D);
+				case 1:
+					return new Point2D(1.0D, 1.0D);
+				default:
+					return new Point2D(0.0D, 1.0D);
+			}
+		}
+		
+		final int offset = this.indices[triangle * 3 + corner] * 2;
+		
+		return new Point2D(this.textureCoordinates[offset + 0], this.textureCoordinates[offset + 1]);
+	}
+	
+	private Point2D doCreateTextureCoordinates(final int triangle, final Point3D barycentricCoordinates) {
+		final Point2D pTCA = doCreateTextureCoordinates(triangle, 0);
+		final Point2D pTCB = doCreateTextureCoordinates(triangle, 1);
+		final Point2D pTCC = doCreateTextureCoordinates(triangle, 2);
+		
+		final double x = pTCA.x * barycentricCoordinates.x + pTCB.x * barycentricCoordinates.y + pTCC.x * barycentricCoordinates.z;
+		final double y = pTCA.y * barycentricCoordinates.x + pTCB.y * barycentricCoordinates.y + pTCC.y * barycentricCoordinates.z;
+		
+		return new Point2D(x, y);
+	}
+	
+	private Point3D doCreatePosition(final int triangle, final int corner) {
+		final int offset = this.indices[triangle * 3 + corner] * 3;
+		
+		return new Point3D(this.positions[offset + 0], this.positions[offset + 1], this.positions[offset + 2]);
+	}
+	
+	private SurfaceIntersection3D doCreateSurfaceIntersection(final Ray3D ray, final double t, final int triangle, final Point3D barycentricCoordinates) {
+		final Point3D surfaceIntersectionPoint = Point3D.add(ray.getOrigin(), ray.getDirection(), t);
+		
+		final Supplier<OrthonormalBasis33D> orthonormalBasisGSupplier = () -> doCreateOrthonormalBasisG(triangle);
+		final Supplier<OrthonormalBasis33D> orthonormalBasisSSupplier = () -> doCreateOrthonormalBasisS(triangle, barycentricCoordinates);
+		
+		final Supplier<Point2D> textureCoordinatesSupplier = () -> doCreateTextureCoordinates(triangle, barycentricCoordinates);
+		
+		return new SurfaceIntersection3D(orthonormalBasisGSupplier, orthonormalBasisSSupplier, textureCoordinatesSupplier, surfaceIntersectionPoint, ray, this, t);
+	}
+	
+	private Vector3D doCreateNormal(final int triangle, final int corner) {
+		final int offset = this.indices[triangle * 3 + corner] * 3;
+		
+		return new Vector3D(this.normals[offset + 0], this.normals[offset + 1], this.normals[offset + 2]);
+	}
+	
+	private Vector3D doCreateSurfaceNormal(final int triangle) {
+		return Vector3D.normalNormalized(doCreatePosition(triangle, 0), doCreatePosition(triangle, 1), doCreatePosition(triangle, 2));
+	}
+	
+	private boolean doContains(final int triangle, final Point3D point) {
+		final Point3D a = doCreatePosition(triangle, 0);
+		final Point3D b = doCreatePosition(triangle, 1);
+		final Point3D c = doCreatePosition(triangle, 2);
+		final Point3D p = point;
+		
+		if(Point3D.coplanar(a, b, c, p)) {
+			final Vector3D surfaceNormal = Vector3D.normalNormalized(a, b, c);
+			
+			final Vector3D edgeAB = Vector3D.direction(a, b);
+			final Vector3D edgeBC = Vector3D.direction(b, c);
+			final Vector3D edgeCA = Vector3D.direction(c, a);
+			
+			final Vector3D edgeAP = Vector3D.direction(a, p);
+			final Vector3D edgeBP = Vector3D.direction(b, p);
+			final Vector3D edgeCP = Vector3D.direction(c, p);
+			
+			final boolean isInsideA = Vector3D.tripleProduct(surfaceNormal, edgeAB, edgeAP) > 0.0D;
+			final boolean isInsideB = Vector3D.tripleProduct(surfaceNormal, edgeBC, edgeBP) > 0.0D;
+			final boolean isInsideC = Vector3D.tripleProduct(surfaceNormal, edgeCA, edgeCP) > 0.0D;
+			final boolean isInside = isInsideA && isInsideB && isInsideC;
+			
+			return isInside;
+		}
+		
+		return false;
+	}
+	
+	private boolean doIntersection(final int triangle, final double originX, final double originY, final double originZ, final double directionX, final double directionY, final double directionZ, final double tMinimum, final double tMaximum, final double[] hit) {
+		final double[] positions = this.positions;
+		
+		final int[] indices = this.indices;
+		
+		final int offsetA = indices[triangle * 3 + 0] * 3;
+		final int offsetB = indices[triangle * 3 + 1] * 3;
+		final int offsetC = indices[triangle * 3 + 2] * 3;
+		
+		final double aX = positions[offsetA + 0];
+		final double aY = positions[offsetA + 1];
+		final double aZ = positions[offsetA + 2];
+		
+		final double edgeABX = positions[offsetB + 0] - aX;
+		final double edgeABY = positions[offsetB + 1] - aY;
+		final double edgeABZ = positions[offsetB + 2] - aZ;
+		final double edgeCAX = aX - positions[offsetC + 0];
+		final double edgeCAY = aY - positions[offsetC + 1];
+		final double edgeCAZ = aZ - positions[offsetC + 2];
+		
+		final double direction1X = edgeABY * edgeCAZ - edgeABZ * edgeCAY;
+		final double direction1Y = edgeABZ * edgeCAX - edgeABX * edgeCAZ;
+		final double direction1Z = edgeABX * edgeCAY - edgeABY * edgeCAX;
+		
+		final double determinant = directionX * direction1X + directionY * direction1Y + directionZ * direction1Z;
+		final double determinantReciprocal = 1.0D / determinant;
+		
+		final double direction2X = aX - originX;
+		final double direction2Y = aY - originY;
+		final double direction2Z = aZ - originZ;
+		
+		final double t = (direction1X * direction2X + direction1Y * direction2Y + direction1Z * direction2Z) * determinantReciprocal;
+		
+		if(t <= tMinimum || t >= tMaximum) {
+			return false;
+		}
+		
+		final double direction3X = direction2Y * directionZ - direction2Z * directionY;
+		final double direction3Y = direction2Z * directionX - direction2X * directionZ;
+		final double direction3Z = direction2X * directionY - direction2Y * directionX;
+		
+		final double uScaled = direction3X * edgeCAX + direction3Y * edgeCAY + direction3Z * edgeCAZ;
+		final double u = uScaled * determinantReciprocal;
+		
+		if(u < 0.0D) {
+			return false;
+		}
+		
+		final double vScaled = direction3X * edgeABX + direction3Y * edgeABY + direction3Z * edgeABZ;
+		final double v = vScaled * determinantReciprocal;
+		
+		if(v < 0.0D) {
+			return false;
+		}
+		
+		if((uScaled + vScaled) * determinant > determinant * determinant) {
+			return false;
+		}
+		
+		hit[0] = t;
+		hit[1] = u;
+		hit[2] = v;
+		
+		return true;
+	}
+	
+	private boolean doIntersects(final int node, final double originX, final double originY, final double originZ, final double directionReciprocalX, final double directionReciprocalY, final double directionReciprocalZ, final boolean isNegativeX, final boolean isNegativeY, final boolean isNegativeZ, final double tMinimum, final double tMaximum) {
+		final double[] nodeBounds = this.nodeBounds;
+		
+		final int offset = node * 6;
+		
+		final double tX0 = (nodeBounds[offset + (isNegativeX ? 3 : 0)] - originX) * directionReciprocalX;
+		final double tX1 = (nodeBounds[offset + (isNegativeX ? 0 : 3)] - originX) * directionReciprocalX;
+		final double tY0 = (nodeBounds[offset + (isNegativeY ? 4 : 1)] - originY) * directionReciprocalY;
+		final double tY1 = (nodeBounds[offset + (isNegativeY ? 1 : 4)] - originY) * directionReciprocalY;
+		final double tZ0 = (nodeBounds[offset + (isNegativeZ ? 5 : 2)] - originZ) * directionReciprocalZ;
+		final double tZ1 = (nodeBounds[offset + (isNegativeZ ? 2 : 5)] - originZ) * directionReciprocalZ;
+		
+		double t0 = tMinimum;
+		double t1 = tMaximum;
+		
+		t0 = tX0 > t0 ? tX0 : t0;
+		t0 = tY0 > t0 ? tY0 : t0;
+		t0 = tZ0 > t0 ? tZ0 : t0;
+		
+		t1 = tX1 < t1 ? tX1 : t1;
+		t1 = tY1 < t1 ? tY1 : t1;
+		t1 = tZ1 < t1 ? tZ1 : t1;
+		
+		return t0 <= t1 * T_MAXIMUM_SCALE;
+	}
+	
+	private int doIntersection(final Ray3D ray, final double tMinimum, final double tMaximum, final double[] hit, final boolean isTerminatingOnAnyHit) {
+		final int[] nodes = this.nodes;
+		
+		if(nodes.length == 0) {
+			return -1;
+		}
+		
+		final int[] triangleIndices = this.triangleIndices;
+		final int[] stack = new int[this.stackSize];
+		
+		final Point3D origin = ray.getOrigin();
+		
+		final Vector3D direction = ray.getDirection();
+		
+		final double originX = origin.x;
+		final double originY = origin.y;
+		final double originZ = origin.z;
+		
+		final double directionX = direction.x;
+		final double directionY = direction.y;
+		final double directionZ = direction.z;
+		
+		final double directionReciprocalX = 1.0D / directionX;
+		final double directionReciprocalY = 1.0D / directionY;
+		final double directionReciprocalZ = 1.0D / directionZ;
+		
+		final boolean isNegativeX = directionReciprocalX < 0.0D;
+		final boolean isNegativeY = directionReciprocalY < 0.0D;
+		final boolean isNegativeZ = directionReciprocalZ < 0.0D;
+		
+		double tClosest = tMaximum;
+		
+		int triangleClosest = -1;
+		int stackLength = 0;
+		int node = 0;
+		
+		while(true) {
+			if(doIntersects(node, originX, originY, originZ, directionReciprocalX, directionReciprocalY, directionReciprocalZ, isNegativeX, isNegativeY, isNegativeZ, tMinimum, tClosest)) {
+				final int offset = nodes[node * 2 + 0];
+				final int count = nodes[node * 2 + 1];
+				
+				if(count > 0) {
+					for(int i = offset; i < offset + count; i++) {
+						final int triangle = triangleIndices[i];
+						
+						if(doIntersection(triangle, originX, originY, originZ, directionX, directionY, directionZ, tMinimum, tClosest, hit)) {
+							if(isTerminatingOnAnyHit) {
+								return triangle;
+							}
+							
+							tClosest = hit[0];
+							
+							triangleClosest = triangle;
+						}
+					}
+				} else {
+					final boolean isNegative = count == -1 ? isNegativeX : count == -2 ? isNegativeY : isNegativeZ;
+					
+					if(isNegative) {
+						stack[stackLength++] = node + 1;
+						
+						node = offset;
+					} else {
+						stack[stackLength++] = offset;
+						
+						node = node + 1;
+					}
+					
+					continue;
+				}
+			}
+			
+			if(stackLength == 0) {
+				break;
+			}
+			
+			node = stack[--stackLength];
+		}
+		
+		return triangleClosest;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static BoundingVolume3D doCreateBoundingVolume(final double[] nodeBounds) {
+		if(nodeBounds.length == 0) {
+			return new AxisAlignedBoundingBox3D(new Point3D(), new Point3D());
+		}
+		
+		return new AxisAlignedBoundingBox3D(new Point3D(nodeBounds[0], nodeBounds[1], nodeBounds[2]), new Point3D(nodeBounds[3], nodeBounds[4], nodeBounds[5]));
+	}
+	
+	private static double doCalculateSurfaceArea(final double[] positions, final int[] indices) {
+		double surfaceArea = 0.0D;
+		
+		for(int i = 0; i < indices.length; i += 3) {
+			final int offsetA = indices[i + 0] * 3;
+			final int offsetB = indices[i + 1] * 3;
+			final int offsetC = indices[i + 2] * 3;
+			
+			final double edgeABX = positions[offsetB + 0] - positions[offsetA + 0];
+			final double edgeABY = positions[offsetB + 1] - positions[offsetA + 1];
+			final double edgeABZ = positions[offsetB + 2] - positions[offsetA + 2];
+			final double edgeACX = positions[offsetC + 0] - positions[offsetA + 0];
+			final double edgeACY = positions[offsetC + 1] - positions[offsetA + 1];
+			final double edgeACZ = positions[offsetC + 2] - positions[offsetA + 2];
+			
+			final double x = edgeABY * edgeACZ - edgeABZ * edgeACY;
+			final double y = edgeABZ * edgeACX - edgeABX * edgeACZ;
+			final double z = edgeABX * edgeACY - edgeABY * edgeACX;
+			
+			surfaceArea += Doubles.sqrt(x * x + y * y + z * z) * 0.5D;
+		}
+		
+		return surfaceArea;
+	}
+	
+	private static String doToString(final int[] array) {
+		if(array.length == 0) {
+			return "new int[0]";
+		}
+		
+		final StringBuilder stringBuilder = new StringBuilder("new int[] {");
+		
+		for(int i = 0; i < array.length; i++) {
+			stringBuilder.append(i > 0 ? ", " : "");
+			stringBuilder.append(array[i]);
+		}
+		
+		return stringBuilder.append("}").toString();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * A {@code BVHBuilder} builds the flat BVH of a {@code TriangleMesh3D} instance.
+	 * <p>
+	 * Each node is stored as six bounds in a {@code double[]} and two values in an {@code int[]}. A leaf node stores the offset of its first triangle in the triangle index array and the number of triangles. An internal node stores the index of its right child and
+	 * {@code -(axis + 1)}, where {@code axis} is the split axis. The left child of an internal node always follows it directly.
+	 * <p>
+	 * The internal nodes are split using a binned surface area heuristic, or SAH, along all three axes. The bin count, the maximum leaf size and the costs of the SAH are the defaults of {@link SAHBVHBuilder3D}, and a node becomes a leaf node under the same conditions.
+	 */
+	private static final class BVHBuilder {
+		private static final double COST_INTERSECTION = SAHBVHBuilder3D.DEFAULT_COST_INTERSECTION;
+		private static final double COST_TRAVERSAL = SAHBVHBuilder3D.DEFAULT_COST_TRAVERSAL;
+		private static final int BIN_COUNT = SAHBVHBuilder3D.DEFAULT_BIN_COUNT;
+		private static final int LEAF_SIZE_MAXIMUM = SAHBVHBuilder3D.DEFAULT_MAXIMUM_LEAF_SIZE;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private final double[] binBounds;
+		private final double[] centroidBounds;
+		private final double[] positions;
+		private final double[] surfaceAreasLeft;
+		private final int[] binCounts;
+		private final int[] countsLeft;
+		private final int[] indices;
+		private final int[] triangleIndices;
+		private double[] nodeBounds;
+		private int[] nodes;
+		private int depthMaximum;
+		private int nodeCount;
+		private int splitAxis;
+		private int splitBin;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public BVHBuilder(final double[] positions, final int[] indices) {
+			this.binBounds = new double[3 * BIN_COUNT * 6];
+			this.centroidBounds = new double[6];
+			this.positions = positions;
+			this.surfaceAreasLeft = new double[BIN_COUNT];
+			this.binCounts = new int[3 * BIN_COUNT];
+			this.countsLeft = new int[BIN_COUNT];
+			this.indices = indices;
+			this.triangleIndices = new int[indices.length / 3];
+			this.nodeBounds = new double[16 * 6];
+			this.nodes = new int[16 * 2];
+			this.depthMaximum = 0;
+			this.nodeCount = 0;
+			
+			for(int i = 0; i < this.triangleIndices.length; i++) {
+				this.triangleIndices[i] = i;
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public double[] getNodeBounds() {
+			return Arrays.copyOf(this.nodeBounds, this.nodeCount * 6);
+		}
+		
+		public int getStackSize() {
+			return Ints.max(this.depthMaximum, 1);
+		}
+		
+		public int[] getNodes() {
+			return Arrays.copyOf(this.nodes, this.nodeCount * 2);
+		}
+		
+		public int[] getTriangleIndices() {
+			return this.triangleIndices;
+		}
+		
+		public void build() {
+			if(this.triangleIndices.length > 0) {
+				doBuild(0, this.triangleIndices.length, 1);
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private double doGetCentroid(final int triangle, final int axis) {
+			final int[] indices = this.indices;
+			
+			return (this.positions[indices[triangle * 3 + 0] * 3 + axis] + this.positions[indices[triangle * 3 + 1] * 3 + axis] + this.positions[indices[triangle * 3 + 2] * 3 + axis]) / 3.0D;
+		}
+		
+		private int doAllocateNode() {
+			if(this.nodeCount == this.nodes.length / 2) {
+				this.nodeBounds = Arrays.copyOf(this.nodeBounds, this.nodeBounds.length * 2);
+				this.nodes = Arrays.copyOf(this.nodes, this.nodes.length * 2);
+			}
+			
+			return this.nodeCount++;
+		}
+		
+		private int doBuild(final int start, final int end, final int depth) {
+			final int node = doAllocateNode();
+			
+			this.depthMaximum = Ints.max(this.depthMaximum, depth);
+			
+			final double[] centroidBounds = this.centroidBounds;
+			final double[] nodeBounds = this.nodeBounds;
+			
+			doClearBounds(centroidBounds, 0);
+			doClearBounds(nodeBounds, node * 6);
+			
+			for(int i = start; i < end; i++) {
+				final int triangle = this.triangleIndices[i];
+				
+				doIncludeTriangle(nodeBounds, node * 6, triangle);
+				
+				for(int axis = 0; axis < 3; axis++) {
+					final double centroid = doGetCentroid(triangle, axis);
+					
+					centroidBounds[axis + 0] = Doubles.min(centroidBounds[axis + 0], centroid);
+					centroidBounds[axis + 3] = Doubles.max(centroidBounds[axis + 3], centroid);
+				}
+			}
+			
+			final int count = end - start;
+			
+			final double surfaceArea = doGetHalfSurfaceArea(nodeBounds[node * 6 + 0], nodeBounds[node * 6 + 1], nodeBounds[node * 6 + 2], nodeBounds[node * 6 + 3], nodeBounds[node * 6 + 4], nodeBounds[node * 6 + 5]);
+			
+			final double cost = count > 1 ? doFindSplit(start, end, surfaceArea) : Double.POSITIVE_INFINITY;
+			
+			if(count <= LEAF_SIZE_MAXIMUM && COST_INTERSECTION * count * surfaceArea <= cost) {
+				this.nodes[node * 2 + 0] = start;
+				this.nodes[node * 2 + 1] = count;
+				
+				return node;
+			}
+			
+			final int axis = this.splitAxis >= 0 ? this.splitAxis : doGetAxisOfLargestExtent(centroidBounds);
+			final int split = this.splitAxis >= 0 ? doPartition(start, end, this.splitAxis, this.splitBin, centroidBounds[this.splitAxis], BIN_COUNT / (centroidBounds[this.splitAxis + 3] - centroidBounds[this.splitAxis])) : -1;
+			final int middle = split > start && split < end ? split : (start + end) >>> 1;
+			
+			doBuild(start, middle, depth + 1);
+			
+			final int nodeRight = doBuild(middle, end, depth + 1);
+			
+			this.nodes[node * 2 + 0] = nodeRight;
+			this.nodes[node * 2 + 1] = -(axis + 1);
+			
+			return node;
+		}
+		
+		private double doFindSplit(final int start, final int end, final double surfaceArea) {
+			final double[] binBounds = this.binBounds;
+			final double[] centroidBounds = this.centroidBounds;
+			final double[] surfaceAreasLeft = this.surfaceAreasLeft;
+			
+			final int[] binCounts = this.binCounts;
+			final int[] countsLeft = this.countsLeft;
+			final int[] triangleIndices = this.triangleIndices;
+			
+			double costMinimum = Double.POSITIVE_INFINITY;
+			
+			this.splitAxis = -1;
+			this.splitBin = -1;
+			
+			for(int axis = 0; axis < 3; axis++) {
+				final double centroidMinimum = centroidBounds[axis + 0];
+				final double centroidMaximum = centroidBounds[axis + 3];
+				
+				if(!(centroidMaximum > centroidMinimum)) {
+					continue;
+				}
+				
+				final double binScale = BIN_COUNT / (centroidMaximum - centroidMinimum);
+				
+				final int binOffset = axis * BIN_COUNT;
+				
+				for(int i = 0; i < BIN_COUNT; i++) {
+					doClearBounds(binBounds, (binOffset + i) * 6);
+					
+					binCounts[binOffset + i] = 0;
+				}
+				
+				for(int i = start; i < end; i++) {
+					final int triangle = triangleIndices[i];
+					final int bin = binOffset + doGetBin(triangle, axis, centroidMinimum, binScale);
+					
+					doIncludeTriangle(binBounds, bin * 6, triangle);
+					
+					binCounts[bin]++;
+				}
+				
+				double minimumX = Double.POSITIVE_INFINITY;
+				double minimumY = Double.POSITIVE_INFINITY;
+				double minimumZ = Double.POSITIVE_INFINITY;
+				double maximumX = Double.NEGATIVE_INFINITY;
+				double maximumY = Double.NEGATIVE_INFINITY;
+				double maximumZ = Double.NEGATIVE_INFINITY;
+				
+				int countLeft = 0;
+				
+				for(int i = 0; i < BIN_COUNT - 1; i++) {
+					final int offset = (binOffset + i) * 6;
+					
+					minimumX = Doubles.min(minimumX, binBounds[offset + 0]);
+					minimumY = Doubles.min(minimumY, binBounds[offset + 1]);
+					minimumZ = Doubles.min(minimumZ, binBounds[offset + 2]);
+					maximumX = Doubles.max(maximumX, binBounds[offset + 3]);
+					maximumY = Doubles.max(maximumY, binBounds[offset + 4]);
+					maximumZ = Doubles.max(maximumZ, binBounds[offset + 5]);
+					
+					countLeft += binCounts[binOffset + i];
+					
+					surfaceAreasLeft[i] = countLeft > 0 ? doGetHalfSurfaceArea(minimumX, minimumY, minimumZ, maximumX, maximumY, maximumZ) : 0.0D;
+					
+					countsLeft[i] = countLeft;
+				}
+				
+				minimumX = Double.POSITIVE_INFINITY;
+				minimumY = Double.POSITIVE_INFINITY;
+				minimumZ = Double.POSITIVE_INFINITY;
+				maximumX = Double.NEGATIVE_INFINITY;
+				maximumY = Double.NEGATIVE_INFINITY;
+				maximumZ = Double.NEGATIVE_INFINITY;
+				
+				int countRight = 0;
+				
+				for(int i = BIN_COUNT - 1; i > 0; i--) {
+					final int offset = (binOffset + i) * 6;
+					
+					minimumX = Doubles.min(minimumX, binBounds[offset + 0]);
+					minimumY = Doubles.min(minimumY, binBounds[offset + 1]);
+					minimumZ = Doubles.min(minimumZ, binBounds[offset + 2]);
+					maximumX = Doubles.max(maximumX, binBounds[offset + 3]);
+					maximumY = Doubles.max(maximumY, binBounds[offset + 4]);
+					maximumZ = Doubles.max(maximumZ, binBounds[offset + 5]);
+					
+					countRight += binCounts[binOffset + i];
+					
+					countLeft = countsLeft[i - 1];
+					
+					if(countLeft == 0 || countRight == 0) {
+						continue;
+					}
+					
+					final double cost = COST_TRAVERSAL * surfaceArea + COST_INTERSECTION * (countLeft * surfaceAreasLeft[i - 1] + countRight * doGetHalfSurfaceArea(minimumX, minimumY, minimumZ, maximumX, maximumY, maximumZ));
+					
+					if(cost < costMinimum) {
+						costMinimum = cost;
+						
+						this.splitAxis = axis;
+						this.splitBin = i - 1;
+					}
+				}
+			}
+			
+			return costMinimum;
+		}
+		
+		private int doGetBin(final int triangle, final int axis, final double centroidMinimum, final double binScale) {
+			return Ints.min((int)((doGetCentroid(triangle, axis) - centroidMinimum) * binScale), BIN_COUNT - 1);
+		}
+		
+		private int doPartition(final int start, final int end, final int axis, final int binSplit, final double centroidMinimum, final double binScale) {
+			final int[] triangleIndices = this.triangleIndices;
+			
+			int i = start;
+			int j = end - 1;
+			
+			while(i <= j) {
+				if(doGetBin(triangleIndices[i], axis, centroidMinimum, binScale) <= binSplit) {
+					i++;
+				} else {
+					final int triangle = triangleIndices[i];
+					
+					triangleIndices[i] = triangleIndices[j];
+					triangleIndices[j] = triangle;
+					
+					j--;
+				}
+			}
+			
+			return i;
+		}
+		
+		private void doIncludeTriangle(final double[] bounds, final int offset, final int triangle) {
+			for(int i = 0; i < 3; i++) {
+				final int offsetPosition = this.indices[triangle * 3 + i] * 3;
+				
+				bounds[offset + 0] = Doubles.min(bounds[offset + 0], this.positions[offsetPosition + 0]);
+				bounds[offset + 1] = Doubles.min(bounds[offset + 1], this.positions[offsetPosition + 1]);
+				bounds[offset + 2] = Doubles.min(bounds[offset + 2], this.positions[offsetPosition + 2]);
+				bounds[offset + 3] = Doubles.max(bounds[offset + 3], this.positions[offsetPosition + 0]);
+				bounds[offset + 4] = Doubles.max(bounds[offset + 4], this.positions[offsetPosition + 1]);
+				bounds[offset + 5] = Doubles.max(bounds[offset + 5], this.positions[offsetPosition + 2]);
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static double doGetHalfSurfaceArea(final double minimumX, final double minimumY, final double minimumZ, final double maximumX, final double maximumY, final double maximumZ) {
+			final double x = maximumX - minimumX;
+			final double y = maximumY - minimumY;
+			final double z = maximumZ - minimumZ;
+			
+			return x * y + y * z + z * x;
+		}
+		
+		private static int doGetAxisOfLargestExtent(final double[] centroidBounds) {
+			final double extentX = centroidBounds[3] - centroidBounds[0];
+			final double extentY = centroidBounds[4] - centroidBounds[1];
+			final double extentZ = centroidBounds[5] - centroidBounds[2];
+			
+			return extentX >= extentY && extentX >= extentZ ? 0 : extentY >= extentZ ? 1 : 2;
+		}
+		
+		private static void doClearBounds(final double[] bounds, final int offset) {
+			bounds[offset + 0] = Double.POSITIVE_INFINITY;
+			bounds[offset + 1] = Double.POSITIVE_INFINITY;
+			bounds[offset + 2] = Double.POSITIVE_INFINITY;
+			bounds[offset + 3] = Double.NEGATIVE_INFINITY;
+			bounds[offset + 4] = Double.NEGATIVE_INFINITY;
+			bounds[offset + 5] = Double.NEGATIVE_INFINITY;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,1281 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.shape.tm;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.shape.triangle.Triangle3D;
+
+/**
+ * A {@code TriangleMesh3DImporter} is used for importing {@link TriangleMesh3D} instances from Wavefront OBJ files and binary PLY files.
+ * <p>
+ * The files are parsed as a stream of bytes, directly into the {@code double[]}, {@code float[]} and {@code int[]} instances that are used by {@code TriangleMesh3D}. No {@link Point3D} or {@link Triangle3D} instances are created, and no {@code String} instances are
+ * created for the numbers in a Wavefront OBJ file.
+ * <p>
+ * If a {@code FileChannel} instance is given, it is memory-mapped one region at a time. Otherwise the data is read through a single reusable direct {@code ByteBuffer}. Either way, the size of a file is not limited by the size of a single {@code ByteBuffer}.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class TriangleMesh3DImporter {
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final int PLY_TYPE_CHAR = 0;
+	private static final int PLY_TYPE_DOUBLE = 7;
+	private static final int PLY_TYPE_FLOAT = 6;
+	private static final int PLY_TYPE_INT = 4;
+	private static final int PLY_TYPE_SHORT = 2;
+	private static final int PLY_TYPE_UCHAR = 1;
+	private static final int PLY_TYPE_UINT = 5;
+	private static final int PLY_TYPE_USHORT = 3;
+	private static final int[] PLY_TYPE_SIZES = {1, 1, 2, 2, 4, 4, 4, 8};
+	private static final long MAPPING_SIZE = 1L << 26;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code TriangleMesh3DImporter} instance.
+	 */
+//	TODO: Add Unit Tests!
+	public TriangleMesh3DImporter() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Imports a {@link TriangleMesh3D} instance from the Wavefront OBJ file denoted by {@code path}.
+	 * <p>
+	 * Returns the {@code TriangleMesh3D} instance that was imported.
+	 * <p>
+	 * If {@code path} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If the file is malformed, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
+	 * <p>
+	 * The file is memory-mapped. See {@link #importOBJ(ReadableByteChannel)} for more information about the supported subset of the Wavefront OBJ file format.
+	 * 
+	 * @param path a {@code Path} instance that denotes a Wavefront OBJ file
+	 * @return the {@code TriangleMesh3D} instance that was imported
+	 * @throws IllegalArgumentException thrown if, and only if, the file is malformed
+	 * @throws NullPointerException thrown if, and only if, {@code path} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+//	TODO: Add Unit Tests!
+	public TriangleMesh3D importOBJ(final Path path) {
+		Objects.requireNonNull(path, "path == null");
+		
+		try(final FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return importOBJ(fileChannel);
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Imports a {@link TriangleMesh3D} instance from {@code readableByteChannel}, which contains a Wavefront OBJ file.
+	 * <p>
+	 * Returns the {@code TriangleMesh3D} instance that was imported.
+	 * <p>
+	 * If {@code readableByteChannel} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If the file is malformed, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
+	 * <p>
+	 * The {@code v}, {@code vt}, {@code vn} and {@code f} statements are supported. All other statements are ignored. The faces may use positive or negative (relative) indices and are triangulated as triangle fans. A line that ends with a {@code \\} continues on the next line. Each distinct combination of position, texture
+	 * coordinates and normal indices that is used by a face becomes a single vertex in the {@code TriangleMesh3D} instance. The normals or texture coordinates are only kept if every such vertex has them.
+	 * <p>
+	 * If {@code readableByteChannel} is a {@code FileChannel}, it is read from its current position to its end, and its position is set to its end afterwards.
+	 * 
+	 * @param readableByteChannel the {@code ReadableByteChannel} instance to read from
+	 * @return the {@code TriangleMesh3D} instance that was imported
+	 * @throws IllegalArgumentException thrown if, and only if, the file is malformed
+	 * @throws NullPointerException thrown if, and only if, {@code readableByteChannel} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+//	TODO: Add Unit Tests!
+	public TriangleMesh3D importOBJ(final ReadableByteChannel readableByteChannel) {
+		Objects.requireNonNull(readableByteChannel, "readableByteChannel == null");
+		
+		try {
+			final ByteSource byteSource = ByteSource.create(readableByteChannel);
+			
+			final TriangleMesh3D triangleMesh = doImportOBJ(byteSource);
+			
+			byteSource.finish();
+			
+			return triangleMesh;
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Imports a {@link TriangleMesh3D} instance from the binary PLY file denoted by {@code path}.
+	 * <p>
+	 * Returns the {@code TriangleMesh3D} instance that was imported.
+	 * <p>
+	 * If {@code path} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If the file is malformed, truncated or not a binary PLY file, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
+	 * <p>
+	 * The file is memory-mapped. See {@link #importPLY(ReadableByteChannel)} for more information about the supported subset of the PLY file format.
+	 * 
+	 * @param path a {@code Path} instance that denotes a binary PLY file
+	 * @return the {@code TriangleMesh3D} instance that was imported
+	 * @throws IllegalArgumentException thrown if, and only if, the file is malformed, truncated or not a binary PLY file
+	 * @throws NullPointerException thrown if, and only if, {@code path} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+//	TODO: Add Unit Tests!
+	public TriangleMesh3D importPLY(final Path path) {
+		Objects.requireNonNull(path, "path == null");
+		
+		try(final FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return importPLY(fileChannel);
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Imports a {@link TriangleMesh3D} instance from {@code readableByteChannel}, which contains a binary PLY file.
+	 * <p>
+	 * Returns the {@code TriangleMesh3D} instance that was imported.
+	 * <p>
+	 * If {@code readableByteChannel} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If the file is malformed, truncated or not a binary PLY file, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
+	 * <p>
+	 * Both the {@code binary_little_endian} and the {@code binary_big_endian} formats are supported. The {@code x}, {@code y} and {@code z} properties of the {@code vertex} element are required. The {@code nx}, {@code ny} and {@code nz} properties and the {@code u} and
+	 * {@code v} (or {@code s} and {@code t}) properties are optional. The {@code vertex_indices} (or {@code vertex_index}) property of the {@code face} element is triangulated as a triangle fan. All other elements and properties are skipped.
+	 * <p>
+	 * If {@code readableByteChannel} is a {@code FileChannel}, its position is set to the byte that follows the PLY file afterwards.
+	 * 
+	 * @param readableByteChannel the {@code ReadableByteChannel} instance to read from
+	 * @return the {@code TriangleMesh3D} instance that was imported
+	 * @throws IllegalArgumentException thrown if, and only if, the file is malformed, truncated or not a binary PLY file
+	 * @throws NullPointerException thrown if, and only if, {@code readableByteChannel} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+//	TODO: Add Unit Tests!
+	public TriangleMesh3D importPLY(final ReadableByteChannel readableByteChannel) {
+		Objects.requireNonNull(readableByteChannel, "readableByteChannel == null");
+		
+		try {
+			final ByteSource byteSource = ByteSource.create(readableByteChannel);
+			
+			final TriangleMesh3D triangleMesh = doImportPLY(byteSource);
+			
+			byteSource.finish();
+			
+			return triangleMesh;
+		} catch(final EOFException e) {
+			throw new IllegalArgumentException("Unexpected end of PLY data.", e);
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static TriangleMesh3D doImportOBJ(final ByteSource byteSource) throws IOException {
+		final DoubleArray positions = new DoubleArray(1024);
+		
+		final FloatArray normals = new FloatArray(1024);
+		final FloatArray textureCoordinates = new FloatArray(1024);
+		
+		final IntArray indices = new IntArray(1024);
+		
+		final OBJVertexMap oBJVertexMap = new OBJVertexMap();
+		
+		final Token token = new Token();
+		
+		final int[] faceVertex = new int[3];
+		
+		int lineCount = 0;
+		
+		while(byteSource.hasRemaining()) {
+			final int lineNumber = 1 + lineCount + byteSource.getLineContinuationCount();
+			
+			if(token.read(byteSource)) {
+				if(token.equals('v')) {
+					positions.add(doParseDouble(token, byteSource, lineNumber));
+					positions.add(doParseDouble(token, byteSource, lineNumber));
+					positions.add(doParseDouble(token, byteSource, lineNumber));
+				} else if(token.equals('v', 't')) {
+					textureCoordinates.add((float)(doParseDouble(token, byteSource, lineNumber)));
+					textureCoordinates.add(token.read(byteSource) ? (float)(token.parseDouble(lineNumber)) : 0.0F);
+				} else if(token.equals('v', 'n')) {
+					normals.add((float)(doParseDouble(token, byteSource, lineNumber)));
+					normals.add((float)(doParseDouble(token, byteSource, lineNumber)));
+					normals.add((float)(doParseDouble(token, byteSource, lineNumber)));
+				} else if(token.equals('f')) {
+					final int positionCount = positions.size() / 3;
+					final int textureCoordinatesCount = textureCoordinates.size() / 2;
+					final int normalCount = normals.size() / 3;
+					
+					int vertexCount = 0;
+					int vertexIndexA = -1;
+					int vertexIndexB = -1;
+					
+					while(token.read(byteSource)) {
+						token.parseFaceVertex(positionCount, textureCoordinatesCount, normalCount, lineNumber, faceVertex);
+						
+						final int vertexIndexC = oBJVertexMap.add(faceVertex[0], faceVertex[1], faceVertex[2]);
+						
+						if(vertexCount == 0) {
+							vertexIndexA = vertexIndexC;
+						} else if(vertexCount >= 2) {
+							indices.add(vertexIndexA);
+							indices.add(vertexIndexB);
+							indices.add(vertexIndexC);
+						}
+						
+						vertexIndexB = vertexIndexC;
+						
+						vertexCount++;
+					}
+					
+					if(vertexCount < 3) {
+						throw new IllegalArgumentException(String.format("The face on line %d has fewer than 3 vertices.", Integer.valueOf(lineNumber)));
+					}
+				}
+			}
+			
+			byteSource.skipLine();
+			
+			lineCount++;
+		}
+		
+		return oBJVertexMap.createTriangleMesh(positions, normals, textureCoordinates, indices);
+	}
+	
+	private static TriangleMesh3D doImportPLY(final ByteSource byteSource) throws IOException {
+		final List<PLYElement> pLYElements = new ArrayList<>();
+		
+		String line = byteSource.readHeaderLine();
+		
+		if(!line.equals("ply")) {
+			throw new IllegalArgumentException("The data is not a PLY file.");
+		}
+		
+		while(!(line = byteSource.readHeaderLine()).equals("end_header")) {
+			final String[] words = line.split("\\s+");
+			
+			if(words[0].equals("format")) {
+				if(words.length < 2) {
+					throw new IllegalArgumentException(String.format("The PLY header line \"%s\" is malformed.", line));
+				} else if(words[1].equals("binary_little_endian")) {
+					byteSource.setByteOrder(ByteOrder.LITTLE_ENDIAN);
+				} else if(words[1].equals("binary_big_endian")) {
+					byteSource.setByteOrder(ByteOrder.BIG_ENDIAN);
+				} else {
+					throw new IllegalArgumentException(String.format("The PLY format \"%s\" is not supported.", words[1]));
+				}
+			} else if(words[0].equals("element")) {
+				if(words.length != 3) {
+					throw new IllegalArgumentException(String.format("The PLY header line \"%s\" is malformed.", line));
+				}
+				
+				pLYElements.add(new PLYElement(words[1], doParseCount(words[2], line)));
+			} else if(words[0].equals("property")) {
+				if(pLYElements.isEmpty()) {
+					throw new IllegalArgumentException(String.format("The PLY header line \"%s\" does not belong to an element.", line));
+				} else if(words.length == 3) {
+					pLYElements.get(pLYElements.size() - 1).addProperty(words[2], doParsePLYType(words[1]), -1);
+				} else if(words.length == 5 && words[1].equals("list")) {
+					pLYElements.get(pLYElements.size() - 1).addProperty(words[4], doParsePLYType(words[3]), doParsePLYType(words[2]));
+				} else {
+					throw new IllegalArgumentException(String.format("The PLY header line \"%s\" is malformed.", line));
+				}
+			} else if(!words[0].equals("comment") && !words[0].equals("obj_info") && !words[0].isEmpty()) {
+				throw new IllegalArgumentException(String.format("The PLY header line \"%s\" is not supported.", line));
+			}
+		}
+		
+		if(byteSource.getByteOrder() == null) {
+			throw new IllegalArgumentException("The PLY header does not contain a format.");
+		}
+		
+		double[] positions = null;
+		
+		float[] normals = new float[0];
+		float[] textureCoordinates = new float[0];
+		
+		final IntArray indices = new IntArray(16);
+		
+		for(final PLYElement pLYElement : pLYElements) {
+			if(pLYElement.getName().equals("vertex") && positions == null) {
+				final int[] roles = pLYElement.getVertexRoles();
+				
+				final boolean hasNormals = pLYElement.hasVertexRoles(roles, 3, 4, 5);
+				final boolean hasTextureCoordinates = pLYElement.hasVertexRoles(roles, 6, 7);
+				
+				if(!pLYElement.hasVertexRoles(roles, 0, 1, 2)) {
+					throw new IllegalArgumentException("The PLY element \"vertex\" does not contain the properties \"x\", \"y\" and \"z\".");
+				}
+				
+				final int count = pLYElement.getCount();
+				
+				positions = new double[doRequireArrayLength(count, 3)];
+				normals = hasNormals ? new float[count * 3] : normals;
+				textureCoordinates = hasTextureCoordinates ? new float[count * 2] : textureCoordinates;
+				
+				final int[] listTypes = pLYElement.getListTypes();
+				final int[] types = pLYElement.getTypes();
+				
+				for(int i = 0; i < count; i++) {
+					for(int j = 0; j < types.length; j++) {
+						if(listTypes[j] >= 0) {
+							byteSource.skip(doReadPLYCount(byteSource, listTypes[j]) * (long)(PLY_TYPE_SIZES[types[j]]));
+						} else if(roles[j] < 0) {
+							byteSource.skip(PLY_TYPE_SIZES[types[j]]);
+						} else if(roles[j] < 3) {
+							positions[i * 3 + roles[j]] = doReadPLYValue(byteSource, types[j]);
+						} else if(roles[j] < 6) {
+							if(hasNormals) {
+								normals[i * 3 + roles[j] - 3] = (float)(doReadPLYValue(byteSource, types[j]));
+							} else {
+								byteSource.skip(PLY_TYPE_SIZES[types[j]]);
+							}
+						} else {
+							if(hasTextureCoordinates) {
+								textureCoordinates[i * 2 + roles[j] - 6] = (float)(doReadPLYValue(byteSource, types[j]));
+							} else {
+								byteSource.skip(PLY_TYPE_SIZES[types[j]]);
+							}
+						}
+					}
+				}
+			} else if(pLYElement.getName().equals("face")) {
+				final int count = pLYElement.getCount();
+				
+				final int[] listTypes = pLYElement.getListTypes();
+				final int[] types = pLYElement.getTypes();
+				
+				final int property = pLYElement.getFaceIndicesProperty();
+				
+				if(property < 0) {
+					throw new IllegalArgumentException("The PLY element \"face\" does not contain the property \"vertex_indices\".");
+				}
+				
+				indices.ensureCapacity(doRequireArrayLength(count, 3));
+				
+				for(int i = 0; i < count; i++) {
+					for(int j = 0; j < types.length; j++) {
+						if(j == property) {
+							final int vertexCount = doReadPLYCount(byteSource, listTypes[j]);
+							
+							int vertexIndexA = -1;
+							int vertexIndexB = -1;
+							
+							for(int k = 0; k < vertexCount; k++) {
+								final int vertexIndexC = doReadPLYIndex(byteSource, types[j]);
+								
+								if(k == 0) {
+									vertexIndexA = vertexIndexC;
+								} else if(k >= 2) {
+									indices.add(vertexIndexA);
+									indices.add(vertexIndexB);
+									indices.add(vertexIndexC);
+								}
+								
+								vertexIndexB = vertexIndexC;
+							}
+						} else if(listTypes[j] >= 0) {
+							byteSource.skip(doReadPLYCount(byteSource, listTypes[j]) * (long)(PLY_TYPE_SIZES[types[j]]));
+						} else {
+							byteSource.skip(PLY_TYPE_SIZES[types[j]]);
+						}
+					}
+				}
+			} else {
+				final int count = pLYElement.getCount();
+				
+				final int[] listTypes = pLYElement.getListTypes();
+				final int[] types = pLYElement.getTypes();
+				
+				for(int i = 0; i < count; i++) {
+					for(int j = 0; j < types.length; j++) {
+						if(listTypes[j] >= 0) {
+							byteSource.skip(doReadPLYCount(byteSource, listTypes[j]) * (long)(PLY_TYPE_SIZES[types[j]]));
+						} else {
+							byteSource.skip(PLY_TYPE_SIZES[types[j]]);
+						}
+					}
+				}
+			}
+		}
+		
+		if(positions == null) {
+			throw new IllegalArgumentException("The PLY file does not contain the element \"vertex\".");
+		}
+		
+		return new TriangleMesh3D(positions, normals, textureCoordinates, indices.toArray(), false);
+	}
+	
+	private static double doParseDouble(final Token token, final ByteSource byteSource, final int lineNumber) throws IOException {
+		if(!token.read(byteSource)) {
+			throw new IllegalArgumentException(String.format("A number is missing on line %d.", Integer.valueOf(lineNumber)));
+		}
+		
+		return token.parseDouble(lineNumber);
+	}
+	
+	private static double doReadPLYValue(final ByteSource byteSource, final int type) throws IOException {
+		switch(type) {
+			case PLY_TYPE_CHAR:
+				return byteSource.getByte();
+			case PLY_TYPE_UCHAR:
+				return byteSource.getByte() & 0xFF;
+			case PLY_TYPE_SHORT:
+				return byteSource.getShort();
+			case PLY_TYPE_USHORT:
+				return byteSource.getShort() & 0xFFFF;
+			case PLY_TYPE_INT:
+				return byteSource.getInt();
+			case PLY_TYPE_UINT:
+				return byteSource.getInt() & 0xFFFFFFFFL;
+			case PLY_TYPE_FLOAT:
+				return byteSource.getFloat();
+			case PLY_TYPE_DOUBLE:
+				return byteSource.getDouble();
+			default:
+				throw new IllegalArgumentException(String.format("The PLY type %d is not supported.", Integer.valueOf(type)));
+		}
+	}
+	
+	private static int doParseCount(final String string, final String line) {
+		try {
+			final int count = Integer.parseInt(string);
+			
+			if(count >= 0) {
+				return count;
+			}
+		} catch(final NumberFormatException e) {
+//			The exception below is thrown instead.
+		}
+		
+		throw new IllegalArgumentException(String.format("The PLY header line \"%s\" contains an invalid count.", line));
+	}
+	
+	private static int doParsePLYType(final String string) {
+		switch(string) {
+			case "char":
+			case "int8":
+				return PLY_TYPE_CHAR;
+			case "uchar":
+			case "uint8":
+				return PLY_TYPE_UCHAR;
+			case "short":
+			case "int16":
+				return PLY_TYPE_SHORT;
+			case "ushort":
+			case "uint16":
+				return PLY_TYPE_USHORT;
+			case "int":
+			case "int32":
+				return PLY_TYPE_INT;
+			case "uint":
+			case "uint32":
+				return PLY_TYPE_UINT;
+			case "float":
+			case "float32":
+				return PLY_TYPE_FLOAT;
+			case "double":
+			case "float64":
+				return PLY_TYPE_DOUBLE;
+			default:
+				throw new IllegalArgumentException(String.format("The PLY type \"%s\" is not supported.", string));
+		}
+	}
+	
+	private static int doReadPLYCount(final ByteSource byteSource, final int type) throws IOException {
+		return doReadPLYIndex(byteSource, type);
+	}
+	
+	private static int doReadPLYIndex(final ByteSource byteSource, final int type) throws IOException {
+		final double value = doReadPLYValue(byteSource, type);
+		
+		if(value < 0.0D || value > Integer.MAX_VALUE || value != (int)(value)) {
+			throw new IllegalArgumentException(String.format("The PLY index or count %s is invalid.", Double.toString(value)));
+		}
+		
+		return (int)(value);
+	}
+	
+	private static int doGrow(final int capacity, final int capacityMinimum) {
+		if(capacityMinimum > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("The data is too large.");
+		}
+		
+		return (int)(Math.max(Math.min(capacity + (capacity >> 1) + 16L, Integer.MAX_VALUE - 8L), capacityMinimum));
+	}
+	
+	private static int doRequireArrayLength(final int count, final int stride) {
+		if(count > (Integer.MAX_VALUE - 8) / stride) {
+			throw new IllegalArgumentException(String.format("The count %d is too large.", Integer.valueOf(count)));
+		}
+		
+		return count * stride;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class ByteSource {
+		private final FileChannel fileChannel;
+		private final ReadableByteChannel readableByteChannel;
+		private ByteBuffer byteBuffer;
+		private ByteOrder byteOrder;
+		private int lineContinuationCount;
+		private long position;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private ByteSource(final FileChannel fileChannel, final ReadableByteChannel readableByteChannel, final ByteBuffer byteBuffer, final long position) {
+			this.fileChannel = fileChannel;
+			this.readableByteChannel = readableByteChannel;
+			this.byteBuffer = byteBuffer;
+			this.byteOrder = null;
+			this.lineContinuationCount = 0;
+			this.position = position;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public ByteOrder getByteOrder() {
+			return this.byteOrder;
+		}
+		
+		public String readHeaderLine() throws IOException {
+			final StringBuilder stringBuilder = new StringBuilder();
+			
+			int b;
+			
+			while((b = read()) != '\n') {
+				if(b == -1) {
+					throw new EOFException();
+				}
+				
+				stringBuilder.append((char)(b));
+			}
+			
+			return stringBuilder.toString().trim();
+		}
+		
+		public boolean skipLineContinuation() throws IOException {
+			final int length = getLineContinuationLength();
+			
+			if(length == 0) {
+				return false;
+			}
+			
+			skip(length);
+			
+			this.lineContinuationCount++;
+			
+			return true;
+		}
+		
+		public boolean hasRemaining() throws IOException {
+			return doRequire(1);
+		}
+		
+		public byte getByte() throws IOException {
+			doRequireOrThrow(Byte.BYTES);
+			
+			return this.byteBuffer.get();
+		}
+		
+		public double getDouble() throws IOException {
+			doRequireOrThrow(Double.BYTES);
+			
+			return this.byteBuffer.getDouble();
+		}
+		
+		public float getFloat() throws IOException {
+			doRequireOrThrow(Float.BYTES);
+			
+			return this.byteBuffer.getFloat();
+		}
+		
+		public int getInt() throws IOException {
+			doRequireOrThrow(Integer.BYTES);
+			
+			return this.byteBuffer.getInt();
+		}
+		
+		public int getLineContinuationCount() {
+			return this.lineContinuationCount;
+		}
+		
+		public int getLineContinuationLength() throws IOException {
+			if(peek() != '\\') {
+				return 0;
+			}
+			
+			final int b = peek(1);
+			
+			return b == '\n' ? 2 : b == '\r' && peek(2) == '\n' ? 3 : 0;
+		}
+		
+		public int peek() throws IOException {
+			return peek(0);
+		}
+		
+		public int peek(final int offset) throws IOException {
+			return doRequire(offset + 1) ? this.byteBuffer.get(this.byteBuffer.position() + offset) & 0xFF : -1;
+		}
+		
+		public int read() throws IOException {
+			return doRequire(1) ? this.byteBuffer.get() & 0xFF : -1;
+		}
+		
+		public short getShort() throws IOException {
+			doRequireOrThrow(Short.BYTES);
+			
+			return this.byteBuffer.getShort();
+		}
+		
+		public void finish() throws IOException {
+			if(this.fileChannel != null) {
+				this.fileChannel.position(this.position + this.byteBuffer.position());
+			}
+		}
+		
+		public void setByteOrder(final ByteOrder byteOrder) {
+			this.byteOrder = byteOrder;
+			this.byteBuffer.order(byteOrder);
+		}
+		
+		public void skip(final long length) throws IOException {
+			long remaining = length;
+			
+			while(remaining > 0L) {
+				final int count = (int)(Math.min(remaining, BUFFER_SIZE));
+				
+				doRequireOrThrow(count);
+				
+				this.byteBuffer.position(this.byteBuffer.position() + count);
+				
+				remaining -= count;
+			}
+		}
+		
+		public void skipLine() throws IOException {
+			int b;
+			
+			while(skipLineContinuation() || (b = read()) != -1 && b != '\n') {
+//				The bytes are skipped.
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public static ByteSource create(final ReadableByteChannel readableByteChannel) throws IOException {
+			if(readableByteChannel instanceof FileChannel) {
+				final FileChannel fileChannel = FileChannel.class.cast(readableByteChannel);
+				
+				return new ByteSource(fileChannel, fileChannel, ByteBuffer.allocate(0), fileChannel.position());
+			}
+			
+			final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			
+			byteBuffer.flip();
+			
+			return new ByteSource(null, readableByteChannel, byteBuffer, 0L);
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private boolean doRequire(final int length) throws IOException {
+			if(this.byteBuffer.remaining() >= length) {
+				return true;
+			}
+			
+			if(this.fileChannel != null) {
+				final long position = this.position + this.byteBuffer.position();
+				final long size = Math.min(Math.max(MAPPING_SIZE, length), this.fileChannel.size() - position);
+				
+				if(size <= this.byteBuffer.remaining()) {
+					return false;
+				}
+				
+				this.byteBuffer = this.fileChannel.map(MapMode.READ_ONLY, position, size);
+				this.position = position;
+			} else {
+				this.byteBuffer.compact();
+				
+				while(this.byteBuffer.position() < length && this.readableByteChannel.read(this.byteBuffer) >= 0) {
+//					The ByteBuffer is filled.
+				}
+				
+				this.byteBuffer.flip();
+			}
+			
+			if(this.byteOrder != null) {
+				this.byteBuffer.order(this.byteOrder);
+			}
+			
+			return this.byteBuffer.remaining() >= length;
+		}
+		
+		private void doRequireOrThrow(final int length) throws IOException {
+			if(!doRequire(length)) {
+				throw new EOFException();
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class DoubleArray {
+		private double[] array;
+		private int size;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public DoubleArray(final int capacity) {
+			this.array = new double[capacity];
+			this.size = 0;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public double get(final int index) {
+			return this.array[index];
+		}
+		
+		public int size() {
+			return this.size;
+		}
+		
+		public void add(final double value) {
+			if(this.size == this.array.length) {
+				this.array = Arrays.copyOf(this.array, doGrow(this.array.length, this.size + 1));
+			}
+			
+			this.array[this.size++] = value;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class FloatArray {
+		private float[] array;
+		private int size;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public FloatArray(final int capacity) {
+			this.array = new float[capacity];
+			this.size = 0;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public float get(final int index) {
+			return this.array[index];
+		}
+		
+		public int size() {
+			return this.size;
+		}
+		
+		public void add(final float value) {
+			if(this.size == this.array.length) {
+				this.array = Arrays.copyOf(this.array, doGrow(this.array.length, this.size + 1));
+			}
+			
+			this.array[this.size++] = value;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class IntArray {
+		private int[] array;
+		private int size;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public IntArray(final int capacity) {
+			this.array = new int[capacity];
+			this.size = 0;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public int get(final int index) {
+			return this.array[index];
+		}
+		
+		public int size() {
+			return this.size;
+		}
+		
+		public int[] toArray() {
+			return this.size == this.array.length ? this.array : Arrays.copyOf(this.array, this.size);
+		}
+		
+		public void add(final int value) {
+			if(this.size == this.array.length) {
+				this.array = Arrays.copyOf(this.array, doGrow(this.array.length, this.size + 1));
+			}
+			
+			this.array[this.size++] = value;
+		}
+		
+		public void ensureCapacity(final int capacity) {
+			if(capacity > this.array.length) {
+				this.array = Arrays.copyOf(this.array, capacity);
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class OBJVertexMap {
+		private final IntArray normalIndices;
+		private final IntArray positionIndices;
+		private final IntArray textureCoordinatesIndices;
+		private int[] table;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public OBJVertexMap() {
+			this.normalIndices = new IntArray(1024);
+			this.positionIndices = new IntArray(1024);
+			this.textureCoordinatesIndices = new IntArray(1024);
+			this.table = new int[2048];
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public TriangleMesh3D createTriangleMesh(final DoubleArray positions, final FloatArray normals, final FloatArray textureCoordinates, final IntArray indices) {
+			final int vertexCount = this.positionIndices.size();
+			
+			boolean hasNormals = vertexCount > 0;
+			boolean hasTextureCoordinates = vertexCount > 0;
+			
+			for(int i = 0; i < vertexCount; i++) {
+				hasNormals &= this.normalIndices.get(i) >= 0;
+				hasTextureCoordinates &= this.textureCoordinatesIndices.get(i) >= 0;
+			}
+			
+			final double[] meshPositions = new double[doRequireArrayLength(vertexCount, 3)];
+			
+			final float[] meshNormals = new float[hasNormals ? vertexCount * 3 : 0];
+			final float[] meshTextureCoordinates = new float[hasTextureCoordinates ? vertexCount * 2 : 0];
+			
+			for(int i = 0; i < vertexCount; i++) {
+				final int positionIndex = this.positionIndices.get(i);
+				
+				meshPositions[i * 3 + 0] = positions.get(positionIndex * 3 + 0);
+				meshPositions[i * 3 + 1] = positions.get(positionIndex * 3 + 1);
+				meshPositions[i * 3 + 2] = positions.get(positionIndex * 3 + 2);
+				
+				if(hasNormals) {
+					final int normalIndex = this.normalIndices.get(i);
+					
+					meshNormals[i * 3 + 0] = normals.get(normalIndex * 3 + 0);
+					meshNormals[i * 3 + 1] = normals.get(normalIndex * 3 + 1);
+					meshNormals[i * 3 + 2] = normals.get(normalIndex * 3 + 2);
+				}
+				
+				if(hasTextureCoordinates) {
+					final int textureCoordinatesIndex = this.textureCoordinatesIndices.get(i);
+					
+					meshTextureCoordinates[i * 2 + 0] = textureCoordinates.get(textureCoordinatesIndex * 2 + 0);
+					meshTextureCoordinates[i * 2 + 1] = textureCoordinates.get(textureCoordinatesIndex * 2 + 1);
+				}
+			}
+			
+			return new TriangleMesh3D(meshPositions, meshNormals, meshTextureCoordinates, indices.toArray(), false);
+		}
+		
+		public int add(final int positionIndex, final int textureCoordinatesIndex, final int normalIndex) {
+			final int mask = this.table.length - 1;
+			
+			int slot = doHash(positionIndex, textureCoordinatesIndex, normalIndex) & mask;
+			
+			while(this.table[slot] != 0) {
+				final int vertexIndex = this.table[slot] - 1;
+				
+				if(this.positionIndices.get(vertexIndex) == positionIndex && this.textureCoordinatesIndices.get(vertexIndex) == textureCoordinatesIndex && this.normalIndices.get(vertexIndex) == normalIndex) {
+					return vertexIndex;
+				}
+				
+				slot = (slot + 1) & mask;
+			}
+			
+			final int vertexIndex = this.positionIndices.size();
+			
+			this.positionIndices.add(positionIndex);
+			this.textureCoordinatesIndices.add(textureCoordinatesIndex);
+			this.normalIndices.add(normalIndex);
+			
+			this.table[slot] = vertexIndex + 1;
+			
+			if(this.positionIndices.size() * 2 > this.table.length) {
+				doRehash();
+			}
+			
+			return vertexIndex;
+		}
+		
+		private void doRehash() {
+			final int[] table = new int[this.table.length * 2];
+			
+			final int mask = table.length - 1;
+			
+			for(int vertexIndex = 0; vertexIndex < this.positionIndices.size(); vertexIndex++) {
+				int slot = doHash(this.positionIndices.get(vertexIndex), this.textureCoordinatesIndices.get(vertexIndex), this.normalIndices.get(vertexIndex)) & mask;
+				
+				while(table[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				
+				table[slot] = vertexIndex + 1;
+			}
+			
+			this.table = table;
+		}
+		
+		private static int doHash(final int positionIndex, final int textureCoordinatesIndex, final int normalIndex) {
+			final int hash = (positionIndex * 0x9E3779B1) ^ (textureCoordinatesIndex * 0x85EBCA77) ^ (normalIndex * 0xC2B2AE3D);
+			
+			return hash ^ (hash >>> 16);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class PLYElement {
+		private final IntArray listTypes;
+		private final IntArray types;
+		private final List<String> names;
+		private final String name;
+		private final int count;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public PLYElement(final String name, final int count) {
+			this.listTypes = new IntArray(8);
+			this.types = new IntArray(8);
+			this.names = new ArrayList<>();
+			this.name = name;
+			this.count = count;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public String getName() {
+			return this.name;
+		}
+		
+		@SuppressWarnings("static-method")
+		public boolean hasVertexRoles(final int[] roles, final int... requiredRoles) {
+			for(final int requiredRole : requiredRoles) {
+				boolean hasRequiredRole = false;
+				
+				for(final int role : roles) {
+					hasRequiredRole |= role == requiredRole;
+				}
+				
+				if(!hasRequiredRole) {
+					return false;
+				}
+			}
+			
+			return true;
+		}
+		
+		public int getCount() {
+			return this.count;
+		}
+		
+		public int getFaceIndicesProperty() {
+			for(int i = 0; i < this.names.size(); i++) {
+				if(this.listTypes.get(i) >= 0 && (this.names.get(i).equals("vertex_indices") || this.names.get(i).equals("vertex_index"))) {
+					return i;
+				}
+			}
+			
+			return -1;
+		}
+		
+		public int[] getListTypes() {
+			return this.listTypes.toArray();
+		}
+		
+		public int[] getTypes() {
+			return this.types.toArray();
+		}
+		
+		public int[] getVertexRoles() {
+			final int[] roles = new int[this.names.size()];
+			
+			for(int i = 0; i < roles.length; i++) {
+				roles[i] = this.listTypes.get(i) >= 0 ? -1 : doGetVertexRole(this.names.get(i));
+			}
+			
+			return roles;
+		}
+		
+		public void addProperty(final String name, final int type, final int listType) {
+			this.names.add(name);
+			this.types.add(type);
+			this.listTypes.add(listType);
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static int doGetVertexRole(final String name) {
+			switch(name) {
+				case "x":
+					return 0;
+				case "y":
+					return 1;
+				case "z":
+					return 2;
+				case "nx":
+					return 3;
+				case "ny":
+					return 4;
+				case "nz":
+					return 5;
+				case "u":
+				case "s":
+				case "texture_u":
+				case "texture_s":
+					return 6;
+				case "v":
+				case "t":
+				case "texture_v":
+				case "texture_t":
+					return 7;
+				default:
+					return -1;
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Token {
+		private static final double[] POWERS_OF_TEN = {1.0e0D, 1.0e1D, 1.0e2D, 1.0e3D, 1.0e4D, 1.0e5D, 1.0e6D, 1.0e7D, 1.0e8D, 1.0e9D, 1.0e10D, 1.0e11D, 1.0e12D, 1.0e13D, 1.0e14D, 1.0e15D, 1.0e16D, 1.0e17D, 1.0e18D, 1.0e19D, 1.0e20D, 1.0e21D, 1.0e22D};
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private byte[] bytes;
+		private int length;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Token() {
+			this.bytes = new byte[64];
+			this.length = 0;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public boolean equals(final char c) {
+			return this.length == 1 && this.bytes[0] == c;
+		}
+		
+		public boolean equals(final char c0, final char c1) {
+			return this.length == 2 && this.bytes[0] == c0 && this.bytes[1] == c1;
+		}
+		
+		public boolean read(final ByteSource byteSource) throws IOException {
+			int b = byteSource.peek();
+			
+			while(b == ' ' || b == '\t' || b == '\r' || b == '\\' && byteSource.getLineContinuationLength() > 0) {
+				if(!byteSource.skipLineContinuation()) {
+					byteSource.read();
+				}
+				
+				b = byteSource.peek();
+			}
+			
+			this.length = 0;
+			
+			if(b == '#') {
+				return false;
+			}
+			
+			while(b != -1 && b != ' ' && b != '\t' && b != '\r' && b != '\n' && !(b == '\\' && byteSource.getLineContinuationLength() > 0)) {
+				if(this.length == this.bytes.length) {
+					this.bytes = Arrays.copyOf(this.bytes, this.bytes.length * 2);
+				}
+				
+				this.bytes[this.length++] = (byte)(byteSource.read());
+				
+				b = byteSource.peek();
+			}
+			
+			return this.length > 0;
+		}
+		
+		public double parseDouble(final int lineNumber) {
+			final byte[] bytes = this.bytes;
+			
+			final int length = this.length;
+			
+			int index = 0;
+			
+			final boolean isNegative = index < length && bytes[index] == '-';
+			
+			if(index < length && (bytes[index] == '-' || bytes[index] == '+')) {
+				index++;
+			}
+			
+			long mantissa = 0L;
+			
+			int digitCount = 0;
+			int exponent = 0;
+			
+			while(index < length && bytes[index] >= '0' && bytes[index] <= '9') {
+				mantissa = mantissa * 10L + (bytes[index++] - '0');
+				
+				digitCount++;
+			}
+			
+			if(index < length && bytes[index] == '.') {
+				index++;
+				
+				while(index < length && bytes[index] >= '0' && bytes[index] <= '9') {
+					mantissa = mantissa * 10L + (bytes[index++] - '0');
+					
+					digitCount++;
+					
+					exponent--;
+				}
+			}
+			
+			if(digitCount > 0 && index < length && (bytes[index] == 'e' || bytes[index] == 'E')) {
+				index++;
+				
+				final boolean isExponentNegative = index < length && bytes[index] == '-';
+				
+				if(index < length && (bytes[index] == '-' || bytes[index] == '+')) {
+					index++;
+				}
+				
+				int explicitExponent = 0;
+				int explicitExponentDigitCount = 0;
+				
+				while(index < length && bytes[index] >= '0' && bytes[index] <= '9' && explicitExponent < 100000) {
+					explicitExponent = explicitExponent * 10 + (bytes[index++] - '0');
+					
+					explicitExponentDigitCount++;
+				}
+				
+				exponent += isExponentNegative ? -explicitExponent : explicitExponent;
+				
+				digitCount = explicitExponentDigitCount > 0 ? digitCount : 0;
+			}
+
+//			The fast path is exact if the mantissa and the power of ten are both exactly representable, because a single multiplication or division is correctly rounded:
+			if(digitCount > 0 && index == length && digitCount <= 15 && exponent >= -22 && exponent <= 22) {
+				final double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+				
+				return isNegative ? -value : value;
+			}
+			
+			try {
+				return Double.parseDouble(new String(bytes, 0, length, StandardCharsets.US_ASCII));
+			} catch(final NumberFormatException e) {
+				throw new IllegalArgumentException(String.format("The number \"%s\" on line %d is invalid.", new String(bytes, 0, length, StandardCharsets.US_ASCII), Integer.valueOf(lineNumber)), e);
+			}
+		}
+		
+		public void parseFaceVertex(final int positionCount, final int textureCoordinatesCount, final int normalCount, final int lineNumber, final int[] faceVertex) {
+			final int slash0 = doIndexOf('/', 0);
+			final int slash1 = slash0 < 0 ? -1 : doIndexOf('/', slash0 + 1);
+			
+			final int positionEnd = slash0 < 0 ? this.length : slash0;
+			final int textureCoordinatesEnd = slash1 < 0 ? this.length : slash1;
+			
+			faceVertex[0] = doParseIndex(0, positionEnd, positionCount, lineNumber);
+			faceVertex[1] = slash0 < 0 || slash0 + 1 == textureCoordinatesEnd ? -1 : doParseIndex(slash0 + 1, textureCoordinatesEnd, textureCoordinatesCount, lineNumber);
+			faceVertex[2] = slash1 < 0 ? -1 : doParseIndex(slash1 + 1, this.length, normalCount, lineNumber);
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private int doIndexOf(final char c, final int fromIndex) {
+			for(int i = fromIndex; i < this.length; i++) {
+				if(this.bytes[i] == c) {
+					return i;
+				}
+			}
+			
+			return -1;
+		}
+		
+		private int doParseIndex(final int start, final int end, final int count, final int lineNumber) {
+			final boolean isNegative = start < end && this.bytes[start] == '-';
+			
+			long value = 0L;
+			
+			for(int i = isNegative ? start + 1 : start; i < end; i++) {
+				final int digit = this.bytes[i] - '0';
+				
+				if(digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+					throw new IllegalArgumentException(String.format("The face on line %d contains an invalid index.", Integer.valueOf(lineNumber)));
+				}
+				
+				value = value * 10L + digit;
+			}
+			
+			final long index = isNegative ? count - value : value - 1L;
+			
+			if(index < 0L || index >= count || end == (isNegative ? start + 1 : start)) {
+				throw new IllegalArgumentException(String.format("The face on line %d contains an invalid index.", Integer.valueOf(lineNumber)));
+			}
+			
+			return (int)(index);
+		}
+	}
+}
\ No newline at end of file
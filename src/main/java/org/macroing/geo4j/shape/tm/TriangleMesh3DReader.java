@@ -0,0 +1,142 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.shape.tm;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;//TODO: Add Unit Tests!
+import java.util.Objects;
+
+import org.macroing.geo4j.shape.Shape3DReader;
+import org.macroing.java.lang.Ints;
+
+/**
+ * A {@code TriangleMesh3DReader} is a {@link Shape3DReader} implementation that reads {@link TriangleMesh3D} instances from a {@code DataInput} instance.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class TriangleMesh3DReader implements Shape3DReader {
+	/**
+	 * Constructs a new {@code TriangleMesh3DReader} instance.
+	 */
+	public TriangleMesh3DReader() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Reads a {@link TriangleMesh3D} instance from {@code dataInput}.
+	 * <p>
+	 * Returns the {@code TriangleMesh3D} instance that was read.
+	 * <p>
+	 * If {@code dataInput} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If the ID is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
+	 * 
+	 * @param dataInput the {@code DataInput} instance to read from
+	 * @return the {@code TriangleMesh3D} instance that was read
+	 * @throws IllegalArgumentException thrown if, and only if, the ID is invalid
+	 * @throws NullPointerException thrown if, and only if, {@code dataInput} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public TriangleMesh3D read(final DataInput dataInput) {
+		try {
+			return read(dataInput, dataInput.readInt());
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Reads a {@link TriangleMesh3D} instance from {@code dataInput}.
+	 * <p>
+	 * Returns the {@code TriangleMesh3D} instance that was read.
+	 * <p>
+	 * If {@code dataInput} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code id} is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * <p>
+	 * If an I/O error occurs, an {@code UncheckedIOException} will be thrown.
+	 * <p>
+	 * The ID of the {@code TriangleMesh3D} instance to read has already been read from {@code dataInput} when this method is called. It is passed to this method as a parameter argument.
+	 * 
+	 * @param dataInput the {@code DataInput} instance to read from
+	 * @param id the ID of the {@code TriangleMesh3D} to read
+	 * @return the {@code TriangleMesh3D} instance that was read
+	 * @throws IllegalArgumentException thrown if, and only if, {@code id} is invalid
+	 * @throws NullPointerException thrown if, and only if, {@code dataInput} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public TriangleMesh3D read(final DataInput dataInput, final int id) {
+		Objects.requireNonNull(dataInput, "dataInput == null");
+		
+		Ints.requireExact(id, TriangleMesh3D.ID, "id");
+		
+		try {
+			final double[] positions = new double[dataInput.readInt()];
+			
+			for(int i = 0; i < positions.length; i++) {
+				positions[i] = dataInput.readDouble();
+			}
+			
+			final float[] normals = new float[dataInput.readInt()];
+			
+			for(int i = 0; i < normals.length; i++) {
+				normals[i] = dataInput.readFloat();
+			}
+			
+			final float[] textureCoordinates = new float[dataInput.readInt()];
+			
+			for(int i = 0; i < textureCoordinates.length; i++) {
+				textureCoordinates[i] = dataInput.readFloat();
+			}
+			
+			final int[] indices = new int[dataInput.readInt()];
+			
+			for(int i = 0; i < indices.length; i++) {
+				indices[i] = dataInput.readInt();
+			}
+			
+			return new TriangleMesh3D(positions, normals, textureCoordinates, indices, false);
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, {@code id == TriangleMesh3D.ID}, {@code false} otherwise.
+	 * 
+	 * @param id the ID to check
+	 * @return {@code true} if, and only if, {@code id == TriangleMesh3D.ID}, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean isSupported(final int id) {
+		return id == TriangleMesh3D.ID;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,4 @@
+/**
+ * Provides the Shape Triangle Mesh API.
+ */
+package org.macroing.geo4j.shape.tm;
\ No newline at end of file
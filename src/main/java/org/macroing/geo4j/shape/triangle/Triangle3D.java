@@ -26,6 +26,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import org.macroing.geo4j.bv.BoundingVolume3D;
 import org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D;
@@ -39,8 +40,10 @@ import org.macroing.geo4j.onb.OrthonormalBasis33D;
 import org.macroing.geo4j.ray.Ray3D;
 import org.macroing.geo4j.shape.Shape3D;
 import org.macroing.geo4j.shape.SurfaceIntersection3D;
+import org.macroing.geo4j.shape.SurfaceIntersector3D;
 import org.macroing.geo4j.shape.SurfaceSample3D;
 import org.macroing.java.lang.Doubles;
+import org.macroing.java.util.LazyReference;
 import org.macroing.java.util.visitor.Node;
 import org.macroing.java.util.visitor.NodeHierarchicalVisitor;
 import org.macroing.java.util.visitor.NodeTraversalException;
@@ -50,6 +53,10 @@ import org.macroing.java.util.visitor.NodeTraversalException;
  * <p>
  * This class is immutable and therefore thread-safe.
  * <p>
+ * A {@code Triangle3D} instance can be precomputed. A precomputed instance stores the position of {@code A}, the edges {@code AB} and {@code CA} and their cross product in a {@code double[]}. The intersection tests then only read the precomputed data, instead of
+ * computing it for each ray. The results are identical to those of an instance that is not precomputed. Because the precomputed data requires additional memory, it has to be requested explicitly by calling
+ * {@link #Triangle3D(Vertex3D, Vertex3D, Vertex3D, boolean, boolean)}.
+ * <p>
  * This {@code Shape3D} implementation is not supported on the GPU.
  * 
  * @since 1.0.0
@@ -74,6 +81,7 @@ public final class Triangle3D implements Shape3D {
 	private final Vertex3D a;
 	private final Vertex3D b;
 	private final Vertex3D c;
+	private final double[] intersectionData;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
@@ -101,6 +109,7 @@ public final class Triangle3D implements Shape3D {
 		this.a = Vertex3D.getCached(new Vertex3D(new Point2D(0.5D, 0.0D), new Point4D(a), this.surfaceNormal));
 		this.b = Vertex3D.getCached(new Vertex3D(new Point2D(1.0D, 1.0D), new Point4D(b), this.surfaceNormal));
 		this.c = Vertex3D.getCached(new Vertex3D(new Point2D(0.0D, 1.0D), new Point4D(c), this.surfaceNormal));
+		this.intersectionData = null;
 	}
 	
 	/**
@@ -119,6 +128,7 @@ public final class Triangle3D implements Shape3D {
 		this.b = Vertex3D.getCached(Objects.requireNonNull(b, "b == null"));
 		this.c = Vertex3D.getCached(Objects.requireNonNull(c, "c == null"));
 		this.surfaceNormal = Vector3D.getCached(Vector3D.normalNormalized(new Point3D(a.getPosition()), new Point3D(b.getPosition()), new Point3D(c.getPosition())));
+		this.intersectionData = null;
 	}
 	
 	/**
@@ -134,10 +144,28 @@ public final class Triangle3D implements Shape3D {
 	 */
 //	TODO: Add Unit Tests!
 	public Triangle3D(final Vertex3D a, final Vertex3D b, final Vertex3D c, final boolean isCached) {
+		this(a, b, c, isCached, false);
+	}
+	
+	/**
+	 * Constructs a new {@code Triangle3D} instance.
+	 * <p>
+	 * If either {@code a}, {@code b} or {@code c} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param a a {@link Vertex3D} instance denoted by {@code A}
+	 * @param b a {@code Vertex3D} instance denoted by {@code B}
+	 * @param c a {@code Vertex3D} instance denoted by {@code C}
+	 * @param isCached {@code true} if, and only if, the cache should be used, {@code false} otherwise
+	 * @param isPrecomputed {@code true} if, and only if, the data used by the intersection tests should be precomputed, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, either {@code a}, {@code b} or {@code c} are {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	public Triangle3D(final Vertex3D a, final Vertex3D b, final Vertex3D c, final boolean isCached, final boolean isPrecomputed) {
 		this.a = isCached ? Vertex3D.getCached(Objects.requireNonNull(a, "a == null")) : Objects.requireNonNull(a, "a == null");
 		this.b = isCached ? Vertex3D.getCached(Objects.requireNonNull(b, "b == null")) : Objects.requireNonNull(b, "b == null");
 		this.c = isCached ? Vertex3D.getCached(Objects.requireNonNull(c, "c == null")) : Objects.requireNonNull(c, "c == null");
 		this.surfaceNormal = isCached ? Vector3D.getCached(Vector3D.normalNormalized(new Point3D(a.getPosition()), new Point3D(b.getPosition()), new Point3D(c.getPosition()))) : null;
+		this.intersectionData = isPrecomputed ? doCreateIntersectionData(a.getPosition(), b.getPosition(), c.getPosition()) : null;
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -195,6 +223,42 @@ public final class Triangle3D implements Shape3D {
 		return Optional.of(new SurfaceSample3D(point, surfaceNormal, probabilityDensityFunctionValue));
 	}
 	
+	/**
+	 * Computes a {@link SurfaceIntersection3D} instance for the current intersection of {@code surfaceIntersector}.
+	 * <p>
+	 * Returns an optional {@code SurfaceIntersection3D} instance.
+	 * <p>
+	 * If {@code surfaceIntersector} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * The {@code SurfaceIntersection3D} instance is created directly from {@code surfaceIntersector.getRay()} and {@code surfaceIntersector.getT()}. If the barycentric coordinates were stored in {@code surfaceIntersector.getU()} and {@code surfaceIntersector.getV()} by
+	 * {@link #intersection(SurfaceIntersector3D)}, they are used as well. The intersection test is not performed again.
+	 * 
+	 * @param surfaceIntersector a {@link SurfaceIntersector3D} instance
+	 * @return an optional {@code SurfaceIntersection3D} instance
+	 * @throws NullPointerException thrown if, and only if, {@code surfaceIntersector} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public Optional<SurfaceIntersection3D> computeSurfaceIntersection(final SurfaceIntersector3D surfaceIntersector) {
+		final Ray3D ray = surfaceIntersector.getRay();
+		
+		final double t = surfaceIntersector.getT();
+		final double u = surfaceIntersector.getU();
+		final double v = surfaceIntersector.getV();
+		
+		if(Doubles.isNaN(t)) {
+			return SurfaceIntersection3D.EMPTY;
+		}
+		
+		if(Doubles.isNaN(u) || Doubles.isNaN(v)) {
+			return Optional.of(doCreateSurfaceIntersection(ray, t));
+		}
+		
+		final Point3D barycentricCoordinates = new Point3D(1.0D - u - v, u, v);
+		
+		return Optional.of(doCreateSurfaceIntersection(ray, t, () -> barycentricCoordinates));
+	}
+	
 	/**
 	 * Performs an intersection test between {@code ray} and this {@code Triangle3D} instance.
 	 * <p>
@@ -211,13 +275,13 @@ public final class Triangle3D implements Shape3D {
 //	TODO: Add Unit Tests!
 	@Override
 	public Optional<SurfaceIntersection3D> intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
-		final double t = intersectionT(ray, tMinimum, tMaximum);
+		final SurfaceIntersector3D surfaceIntersector = new SurfaceIntersector3D(ray, tMinimum, tMaximum);
 		
-		if(Doubles.isNaN(t)) {
-			return SurfaceIntersection3D.EMPTY;
+		if(intersection(surfaceIntersector)) {
+			return computeSurfaceIntersection(surfaceIntersector);
 		}
 		
-		return Optional.of(doCreateSurfaceIntersection(ray, t));
+		return SurfaceIntersection3D.EMPTY;
 	}
 	
 	/**
@@ -466,6 +530,36 @@ public final class Triangle3D implements Shape3D {
 		}
 	}
 	
+	/**
+	 * Performs an intersection test between {@code surfaceIntersector} and this {@code Triangle3D} instance.
+	 * <p>
+	 * Returns {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code Triangle3D} instance, {@code false} otherwise.
+	 * <p>
+	 * If {@code surfaceIntersector} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * The intersection test is performed without creating any objects. If this {@code Triangle3D} instance is the closest intersection so far, the barycentric coordinates of the intersection are stored as the surface parameters {@code u} and {@code v} of
+	 * {@code surfaceIntersector}.
+	 * 
+	 * @param surfaceIntersector a {@link SurfaceIntersector3D} instance
+	 * @return {@code true} if, and only if, {@code surfaceIntersector} intersects this {@code Triangle3D} instance, {@code false} otherwise
+	 * @throws NullPointerException thrown if, and only if, {@code surfaceIntersector} is {@code null}
+	 */
+//	TODO: Add Unit Tests!
+	@Override
+	public boolean intersection(final SurfaceIntersector3D surfaceIntersector) {
+		return !Doubles.isNaN(doIntersectionT(surfaceIntersector.getRay(), surfaceIntersector.getTMinimum(), surfaceIntersector.getTMaximum(), surfaceIntersector));
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the data used by the intersection tests of this {@code Triangle3D} instance is precomputed, {@code false} otherwise.
+	 * 
+	 * @return {@code true} if, and only if, the data used by the intersection tests of this {@code Triangle3D} instance is precomputed, {@code false} otherwise
+	 */
+//	TODO: Add Unit Tests!
+	public boolean isPrecomputed() {
+		return this.intersectionData != null;
+	}
+	
 	/**
 	 * Returns the surface area of this {@code Triangle3D} instance.
 	 * 
@@ -501,49 +595,7 @@ public final class Triangle3D implements Shape3D {
 //	TODO: Add Unit Tests!
 	@Override
 	public double intersectionT(final Ray3D ray, final double tMinimum, final double tMaximum) {
-		final Point4D a = this.a.getPosition();
-		final Point4D b = this.b.getPosition();
-		final Point4D c = this.c.getPosition();
-		
-		final Vector3D edgeAB = Vector3D.direction(a, b);
-		final Vector3D edgeCA = Vector3D.direction(c, a);
-		final Vector3D direction0 = ray.getDirection();
-		final Vector3D direction1 = Vector3D.crossProduct(edgeAB, edgeCA);
-		
-		final double determinant = Vector3D.dotProduct(direction0, direction1);
-		final double determinantReciprocal = 1.0D / determinant;
-		
-		final Point3D origin = ray.getOrigin();
-		
-		final Vector3D direction2 = Vector3D.direction(origin, new Point3D(a));
-		
-		final double t = Vector3D.dotProduct(direction1, direction2) * determinantReciprocal;
-		
-		if(t <= tMinimum || t >= tMaximum) {
-			return Double.NaN;
-		}
-		
-		final Vector3D direction3 = Vector3D.crossProduct(direction2, direction0);
-		
-		final double uScaled = Vector3D.dotProduct(direction3, edgeCA);
-		final double u = uScaled * determinantReciprocal;
-		
-		if(u < 0.0D) {
-			return Double.NaN;
-		}
-		
-		final double vScaled = Vector3D.dotProduct(direction3, edgeAB);
-		final double v = vScaled * determinantReciprocal;
-		
-		if(v < 0.0D) {
-			return Double.NaN;
-		}
-		
-		if((uScaled + vScaled) * determinant > determinant * determinant) {
-			return Double.NaN;
-		}
-		
-		return t;
+		return doIntersectionT(Objects.requireNonNull(ray, "ray == null"), tMinimum, tMaximum, null);
 	}
 	
 	/**
@@ -601,6 +653,8 @@ public final class Triangle3D implements Shape3D {
 	 * Returns a new {@code Triangle3D} instance with the result of the transformation.
 	 * <p>
 	 * If either {@code triangle}, {@code matrix} or {@code matrixInverse} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * The returned {@code Triangle3D} instance is precomputed if, and only if, {@code triangle} is.
 	 * 
 	 * @param triangle the {@code Triangle3D} instance to transform
 	 * @param matrix the {@link Matrix44D} instance to perform the transformation with
@@ -614,7 +668,7 @@ public final class Triangle3D implements Shape3D {
 		final Vertex3D b = Vertex3D.transform(triangle.b, matrix, matrixInverse);
 		final Vertex3D c = Vertex3D.transform(triangle.c, matrix, matrixInverse);
 		
-		return new Triangle3D(a, b, c);
+		return new Triangle3D(a, b, c, true, triangle.isPrecomputed());
 	}
 	
 	/**
@@ -623,6 +677,8 @@ public final class Triangle3D implements Shape3D {
 	 * Returns a new {@code Triangle3D} instance with the result of the transformation.
 	 * <p>
 	 * If either {@code triangle}, {@code matrix} or {@code matrixInverse} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * The returned {@code Triangle3D} instance is precomputed if, and only if, {@code triangle} is.
 	 * 
 	 * @param triangle the {@code Triangle3D} instance to transform
 	 * @param matrix the {@link Matrix44D} instance to perform the transformation with
@@ -636,7 +692,7 @@ public final class Triangle3D implements Shape3D {
 		final Vertex3D b = Vertex3D.transformAndDivide(triangle.b, matrix, matrixInverse);
 		final Vertex3D c = Vertex3D.transformAndDivide(triangle.c, matrix, matrixInverse);
 		
-		return new Triangle3D(a, b, c);
+		return new Triangle3D(a, b, c, true, triangle.isPrecomputed());
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -1043,15 +1099,114 @@ public final class Triangle3D implements Shape3D {
 	}
 	
 	private SurfaceIntersection3D doCreateSurfaceIntersection(final Ray3D ray, final double t) {
-		final Point3D barycentricCoordinates = doCreateBarycentricCoordinates(ray);
+		final LazyReference<Point3D> barycentricCoordinates = new LazyReference<>(() -> doCreateBarycentricCoordinates(ray));
+		
+		return doCreateSurfaceIntersection(ray, t, barycentricCoordinates::getValue);
+	}
+	
+	private SurfaceIntersection3D doCreateSurfaceIntersection(final Ray3D ray, final double t, final Supplier<Point3D> barycentricCoordinatesSupplier) {
 		final Point3D surfaceIntersectionPoint = doCreateSurfaceIntersectionPoint(ray, t);
 		
-		final Point2D textureCoordinates = doCreateTextureCoordinates(barycentricCoordinates);
+		final Supplier<OrthonormalBasis33D> orthonormalBasisGSupplier = () -> doCreateOrthonormalBasisG();
+		final Supplier<OrthonormalBasis33D> orthonormalBasisSSupplier = () -> doCreateOrthonormalBasisS(barycentricCoordinatesSupplier.get());
+		
+		final Supplier<Point2D> textureCoordinatesSupplier = () -> doCreateTextureCoordinates(barycentricCoordinatesSupplier.get());
+		
+		return new SurfaceIntersection3D(orthonormalBasisGSupplier, orthonormalBasisSSupplier, textureCoordinatesSupplier, surfaceIntersectionPoint, ray, this, t);
+	}
+	
+	private double doIntersectionT(final Ray3D ray, final double tMinimum, final double tMaximum, final SurfaceIntersector3D surfaceIntersector) {
+		final double[] intersectionData = this.intersectionData;
+		
+		final double aX;
+		final double aY;
+		final double aZ;
+		final double edgeABX;
+		final double edgeABY;
+		final double edgeABZ;
+		final double edgeCAX;
+		final double edgeCAY;
+		final double edgeCAZ;
+		final double direction1X;
+		final double direction1Y;
+		final double direction1Z;
+		
+		if(intersectionData != null) {
+			aX = intersectionData[ 0];
+			aY = intersectionData[ 1];
+			aZ = intersectionData[ 2];
+			edgeABX = intersectionData[ 3];
+			edgeABY = intersectionData[ 4];
+			edgeABZ = intersectionData[ 5];
+			edgeCAX = intersectionData[ 6];
+			edgeCAY = intersectionData[ 7];
+			edgeCAZ = intersectionData[ 8];
+			direction1X = intersectionData[ 9];
+			direction1Y = intersectionData[10];
+			direction1Z = intersectionData[11];
+		} else {
+			final Point4D a = this.a.getPosition();
+			final Point4D b = this.b.getPosition();
+			final Point4D c = this.c.getPosition();
+			
+			aX = a.x;
+			aY = a.y;
+			aZ = a.z;
+			edgeABX = b.x - a.x;
+			edgeABY = b.y - a.y;
+			edgeABZ = b.z - a.z;
+			edgeCAX = a.x - c.x;
+			edgeCAY = a.y - c.y;
+			edgeCAZ = a.z - c.z;
+			direction1X = edgeABY * edgeCAZ - edgeABZ * edgeCAY;
+			direction1Y = edgeABZ * edgeCAX - edgeABX * edgeCAZ;
+			direction1Z = edgeABX * edgeCAY - edgeABY * edgeCAX;
+		}
+		
+		final Point3D origin = ray.getOrigin();
+		
+		final Vector3D direction = ray.getDirection();
+		
+		final double determinant = direction.x * direction1X + direction.y * direction1Y + direction.z * direction1Z;
+		final double determinantReciprocal = 1.0D / determinant;
+		
+		final double direction2X = aX - origin.x;
+		final double direction2Y = aY - origin.y;
+		final double direction2Z = aZ - origin.z;
+		
+		final double t = (direction1X * direction2X + direction1Y * direction2Y + direction1Z * direction2Z) * determinantReciprocal;
+		
+		if(t <= tMinimum || t >= tMaximum) {
+			return Double.NaN;
+		}
+		
+		final double direction3X = direction2Y * direction.z - direction2Z * direction.y;
+		final double direction3Y = direction2Z * direction.x - direction2X * direction.z;
+		final double direction3Z = direction2X * direction.y - direction2Y * direction.x;
+		
+		final double uScaled = direction3X * edgeCAX + direction3Y * edgeCAY + direction3Z * edgeCAZ;
+		final double u = uScaled * determinantReciprocal;
+		
+		if(u < 0.0D) {
+			return Double.NaN;
+		}
+		
+		final double vScaled = direction3X * edgeABX + direction3Y * edgeABY + direction3Z * edgeABZ;
+		final double v = vScaled * determinantReciprocal;
 		
-		final OrthonormalBasis33D orthonormalBasisG = doCreateOrthonormalBasisG();
-		final OrthonormalBasis33D orthonormalBasisS = doCreateOrthonormalBasisS(barycentricCoordinates);
+		if(v < 0.0D) {
+			return Double.NaN;
+		}
 		
-		return new SurfaceIntersection3D(orthonormalBasisG, orthonormalBasisS, textureCoordinates, surfaceIntersectionPoint, ray, this, t);
+		if((uScaled + vScaled) * determinant > determinant * determinant) {
+			return Double.NaN;
+		}
+		
+		if(surfaceIntersector != null && !surfaceIntersector.intersection(this, t, u, v)) {
+			return Double.NaN;
+		}
+		
+		return t;
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -1059,4 +1214,19 @@ public final class Triangle3D implements Shape3D {
 	private static Point3D doCreateSurfaceIntersectionPoint(final Ray3D ray, final double t) {
 		return Point3D.add(ray.getOrigin(), ray.getDirection(), t);
 	}
+	
+	private static double[] doCreateIntersectionData(final Point4D a, final Point4D b, final Point4D c) {
+		final double edgeABX = b.x - a.x;
+		final double edgeABY = b.y - a.y;
+		final double edgeABZ = b.z - a.z;
+		final double edgeCAX = a.x - c.x;
+		final double edgeCAY = a.y - c.y;
+		final double edgeCAZ = a.z - c.z;
+		
+		final double direction1X = edgeABY * edgeCAZ - edgeABZ * edgeCAY;
+		final double direction1Y = edgeABZ * edgeCAX - edgeABX * edgeCAZ;
+		final double direction1Z = edgeABX * edgeCAY - edgeABY * edgeCAX;
+		
+		return new double[] {a.x, a.y, a.z, edgeABX, edgeABY, edgeABZ, edgeCAX, edgeCAY, edgeCAZ, direction1X, direction1Y, direction1Z};
+	}
 }
\ No newline at end of file
@@ -42,6 +42,7 @@ import org.macroing.geo4j.mock.DataOutputMock;
 import org.macroing.geo4j.mock.NodeHierarchicalVisitorMock;
 import org.macroing.geo4j.mock.NodeVisitorMock;
 import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.ray.TraversalRay3D;
 import org.macroing.java.util.visitor.NodeHierarchicalVisitor;
 import org.macroing.java.util.visitor.NodeTraversalException;
 import org.macroing.java.util.visitor.NodeVisitor;
@@ -294,6 +295,39 @@ public final class AxisAlignedBoundingBox3DUnitTests {
 		assertThrows(NullPointerException.class, () -> axisAlignedBoundingBox.intersection(null, 0.0D, Double.MAX_VALUE));
 	}
 	
+	@Test
+	public void testIntersectionTraversal() {
+		final AxisAlignedBoundingBox3D axisAlignedBoundingBox = new AxisAlignedBoundingBox3D(new Point3D(-5.0D, -5.0D, +5.0D), new Point3D(+5.0D, +5.0D, +10.0D));
+		
+		final TraversalRay3D traversalRayA = new TraversalRay3D(new Ray3D(new Point3D(0.0D, 0.0D, 0.0D), Vector3D.z()));
+		final TraversalRay3D traversalRayB = new TraversalRay3D(new Ray3D(new Point3D(0.0D, 0.0D, 0.0D), Vector3D.x()));
+		final TraversalRay3D traversalRayC = new TraversalRay3D(new Ray3D(new Point3D(0.0D, 0.0D, 20.0D), Vector3D.negate(Vector3D.z())));
+		
+		final double tMinimumA =  0.0D;
+		final double tMinimumB =  5.0D;
+		final double tMinimumC = 10.0D;
+		
+		final double tMaximumA = Double.MAX_VALUE;
+		final double tMaximumB = 5.0D;
+		
+		final double expectedTA =  5.0D;
+		final double expectedTB = 10.0D;
+		final double expectedTC = Double.NaN;
+		
+		assertEquals(expectedTA, axisAlignedBoundingBox.intersectionTraversal(traversalRayA, tMinimumA, tMaximumA));
+		assertEquals(expectedTB, axisAlignedBoundingBox.intersectionTraversal(traversalRayA, tMinimumB, tMaximumA));
+		assertEquals(expectedTC, axisAlignedBoundingBox.intersectionTraversal(traversalRayA, tMinimumC, tMaximumA));
+		assertEquals(expectedTC, axisAlignedBoundingBox.intersectionTraversal(traversalRayA, tMinimumA, tMaximumB));
+		
+		assertEquals(expectedTC, axisAlignedBoundingBox.intersectionTraversal(traversalRayB, tMinimumA, tMaximumA));
+		
+		assertEquals(expectedTB, axisAlignedBoundingBox.intersectionTraversal(traversalRayC, tMinimumA, tMaximumA));
+		
+		assertEquals(axisAlignedBoundingBox.intersection(traversalRayC.getRay(), tMinimumA, tMaximumA), axisAlignedBoundingBox.intersectionTraversal(traversalRayC, tMinimumA, tMaximumA));
+		
+		assertThrows(NullPointerException.class, () -> axisAlignedBoundingBox.intersectionTraversal(null, 0.0D, Double.MAX_VALUE));
+	}
+	
 	@Test
 	public void testMax() {
 		final AxisAlignedBoundingBox3D axisAlignedBoundingBox = new AxisAlignedBoundingBox3D(new Point3D(-1.0D, -1.0D, -1.0D), new Point3D(+1.0D, +1.0D, +1.0D));
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.shape.Shape3D;
+import org.macroing.geo4j.shape.SurfaceIntersector3D;
+import org.macroing.geo4j.shape.triangle.Triangle3D;
+
+@SuppressWarnings("static-method")
+public final class CompiledBVH3DUnitTests {
+	public CompiledBVH3DUnitTests() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Test
+	public void testIntersectionAgainstLinearScan() {
+		final Random random = new Random(1L);
+		
+		final List<Shape3D> shapes = doCreateShapes(random, 500);
+		
+		final List<BVHItem3D<Shape3D>> bVHItems = doCreateBVHItems(shapes);
+		
+		for(final BVHNode3D bVHNode : Arrays.asList(new SAHBVHBuilder3D().build(bVHItems), new SBVHBuilder3D().build(bVHItems), new LBVHBuilder3D().build(bVHItems))) {
+			final CompiledBVH3D compiledBVH = new CompiledBVH3D(bVHNode);
+			
+			for(int i = 0; i < 2000; i++) {
+				final Ray3D ray = doCreateRay(random, i);
+				
+				final double tMaximum = i % 4 == 0 ? 2.0D : 1.0E9D;
+				final double t = doIntersectionT(shapes, ray, tMaximum);
+				
+				final SurfaceIntersector3D surfaceIntersector = new SurfaceIntersector3D(ray, 0.001D, tMaximum);
+				
+				assertEquals(t, bVHNode.intersectionT(ray, 0.001D, tMaximum));
+				assertEquals(t, compiledBVH.intersectionT(ray, 0.001D, tMaximum));
+				assertEquals(Boolean.valueOf(!Double.isNaN(t)), Boolean.valueOf(compiledBVH.intersects(ray, 0.001D, tMaximum)));
+				assertEquals(Boolean.valueOf(!Double.isNaN(t)), Boolean.valueOf(compiledBVH.intersection(surfaceIntersector)));
+				assertTrue(Double.isNaN(t) || Math.abs(surfaceIntersector.getT() - t) <= 1.0E-9D);
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static List<BVHItem3D<Shape3D>> doCreateBVHItems(final List<Shape3D> shapes) {
+		final List<BVHItem3D<Shape3D>> bVHItems = new ArrayList<>();
+		
+		for(final Shape3D shape : shapes) {
+			bVHItems.add(new BVHItem3D<>(shape.getBoundingVolume(), shape));
+		}
+		
+		return bVHItems;
+	}
+	
+	private static List<Shape3D> doCreateShapes(final Random random, final int count) {
+		final List<Shape3D> shapes = new ArrayList<>();
+		
+		for(int i = 0; i < count; i++) {
+			final Point3D a = new Point3D(random.nextDouble() * 10.0D, random.nextDouble() * 10.0D, random.nextDouble() * 10.0D);
+			final Point3D b = new Point3D(a.x + random.nextGaussian(), a.y + random.nextGaussian(), a.z + random.nextGaussian());
+			final Point3D c = new Point3D(a.x + random.nextGaussian(), a.y + random.nextGaussian(), a.z + random.nextGaussian());
+			
+			shapes.add(new Triangle3D(a, b, c));
+		}
+		
+		return shapes;
+	}
+	
+	private static Ray3D doCreateRay(final Random random, final int index) {
+		final Point3D origin = new Point3D(random.nextDouble() * 14.0D - 2.0D, random.nextDouble() * 14.0D - 2.0D, random.nextDouble() * 14.0D - 2.0D);
+		
+		final Vector3D direction = new Vector3D(random.nextGaussian(), index % 5 == 0 ? 0.0D : random.nextGaussian(), random.nextGaussian());
+		
+		return new Ray3D(origin, direction);
+	}
+	
+	private static double doIntersectionT(final List<Shape3D> shapes, final Ray3D ray, final double tMaximum) {
+		double t = Double.NaN;
+		
+		for(final Shape3D shape : shapes) {
+			final double tCurrent = shape.intersectionT(ray, 0.001D, tMaximum);
+			
+			if(!Double.isNaN(tCurrent) && (Double.isNaN(t) || tCurrent < t)) {
+				t = tCurrent;
+			}
+		}
+		
+		return t;
+	}
+}
\ No newline at end of file
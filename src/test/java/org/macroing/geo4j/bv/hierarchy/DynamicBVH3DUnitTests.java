@@ -0,0 +1,133 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.shape.triangle.Triangle3D;
+
+@SuppressWarnings("static-method")
+public final class DynamicBVH3DUnitTests {
+	public DynamicBVH3DUnitTests() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Test
+	public void testAddAndRemoveAfterSetShapeWithoutRefit() {
+		for(int seed = 0; seed < 200; seed++) {
+			final Random random = new Random(seed);
+			
+			final List<Triangle3D> triangles = new ArrayList<>();
+			
+			for(int i = 0; i < 20; i++) {
+				triangles.add(doCreateTriangle(random));
+			}
+			
+			final DynamicBVH3D<Triangle3D> dynamicBVH = new DynamicBVH3D<>(triangles);
+			
+			for(int step = 0; step < 40; step++) {
+				for(int i = 0; i < 3; i++) {
+					final int index = doGetRandomIndex(random, triangles);
+					
+					final Triangle3D triangle = doCreateTriangle(random);
+					
+					dynamicBVH.setShape(index, triangle);
+					
+					triangles.set(index, triangle);
+				}
+				
+				if(random.nextBoolean() || dynamicBVH.getShapeCount() < 3) {
+					final Triangle3D triangle = doCreateTriangle(random);
+					
+					final int index = dynamicBVH.add(triangle);
+					
+					if(index == triangles.size()) {
+						triangles.add(triangle);
+					} else {
+						triangles.set(index, triangle);
+					}
+				} else {
+					final int index = doGetRandomIndex(random, triangles);
+					
+					dynamicBVH.remove(index);
+					
+					triangles.set(index, null);
+				}
+				
+				dynamicBVH.refit(false);
+				
+				for(int i = 0; i < 50; i++) {
+					final Ray3D ray = new Ray3D(new Point3D(random.nextDouble() * 10.0D - 5.0D, random.nextDouble() * 10.0D - 5.0D, -10.0D), new Vector3D(random.nextGaussian() * 0.2D, random.nextGaussian() * 0.2D, 1.0D));
+					
+					final double t = doIntersectionT(triangles, ray);
+					
+					assertEquals(t, dynamicBVH.intersectionT(ray, 0.0001D, 1.0E9D));
+					assertEquals(Boolean.valueOf(!Double.isNaN(t)), Boolean.valueOf(dynamicBVH.intersects(ray, 0.0001D, 1.0E9D)));
+				}
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static Triangle3D doCreateTriangle(final Random random) {
+		final Point3D a = new Point3D(random.nextDouble() * 10.0D - 5.0D, random.nextDouble() * 10.0D - 5.0D, random.nextDouble() * 10.0D - 5.0D);
+		final Point3D b = new Point3D(a.x + random.nextDouble(), a.y, a.z);
+		final Point3D c = new Point3D(a.x, a.y + random.nextDouble(), a.z + random.nextDouble());
+		
+		return new Triangle3D(a, b, c);
+	}
+	
+	private static double doIntersectionT(final List<Triangle3D> triangles, final Ray3D ray) {
+		double t = Double.NaN;
+		
+		for(final Triangle3D triangle : triangles) {
+			if(triangle != null) {
+				final double tCurrent = triangle.intersectionT(ray, 0.0001D, 1.0E9D);
+				
+				if(!Double.isNaN(tCurrent) && (Double.isNaN(t) || tCurrent < t)) {
+					t = tCurrent;
+				}
+			}
+		}
+		
+		return t;
+	}
+	
+	private static int doGetRandomIndex(final Random random, final List<Triangle3D> triangles) {
+		while(true) {
+			final int index = random.nextInt(triangles.size());
+			
+			if(triangles.get(index) != null) {
+				return index;
+			}
+		}
+	}
+}
\ No newline at end of file
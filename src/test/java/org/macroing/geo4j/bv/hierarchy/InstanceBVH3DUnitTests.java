@@ -0,0 +1,138 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.bv.hierarchy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.matrix.Matrix44D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.shape.Shape3D;
+import org.macroing.geo4j.shape.SurfaceIntersection3D;
+import org.macroing.geo4j.shape.triangle.Triangle3D;
+
+@SuppressWarnings("static-method")
+public final class InstanceBVH3DUnitTests {
+	public InstanceBVH3DUnitTests() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Test
+	public void testIntersectionAgainstLinearScan() {
+		final Random random = new Random(1L);
+		
+		final List<Triangle3D> triangles = doCreateTriangles(random, 300);
+		
+		final BVHNode3D bVHNode = new SAHBVHBuilder3D().build(doCreateBVHItems(triangles));
+		
+		final List<BVHInstance3D> instances = new ArrayList<>();
+		
+		final List<Triangle3D> trianglesWorldSpace = new ArrayList<>();
+		
+		for(int i = 0; i < 8; i++) {
+			final Matrix44D objectToWorld = Matrix44D.multiply(Matrix44D.translate(random.nextDouble() * 20.0D - 10.0D, random.nextDouble() * 20.0D - 10.0D, random.nextDouble() * 20.0D - 10.0D), Matrix44D.rotateY(random.nextDouble() * 360.0D));
+			
+			instances.add(new BVHInstance3D(bVHNode, objectToWorld));
+			
+			for(final Triangle3D triangle : triangles) {
+				final Point3D a = objectToWorld.transform(new Point3D(triangle.getA().getPosition()));
+				final Point3D b = objectToWorld.transform(new Point3D(triangle.getB().getPosition()));
+				final Point3D c = objectToWorld.transform(new Point3D(triangle.getC().getPosition()));
+				
+				trianglesWorldSpace.add(new Triangle3D(a, b, c));
+			}
+		}
+		
+		final InstanceBVH3D instanceBVH = new InstanceBVH3D(instances);
+		
+		for(int i = 0; i < 2000; i++) {
+			final Ray3D ray = doCreateRay(random, i);
+			
+			final double t = doIntersectionT(trianglesWorldSpace, ray);
+			final double tInstanceBVH = instanceBVH.intersectionT(ray, 0.001D, 1.0E9D);
+			
+			final Optional<SurfaceIntersection3D> optionalSurfaceIntersection = instanceBVH.intersection(ray, 0.001D, 1.0E9D);
+			
+			assertEquals(Boolean.valueOf(!Double.isNaN(t)), Boolean.valueOf(!Double.isNaN(tInstanceBVH)));
+			assertEquals(Boolean.valueOf(!Double.isNaN(t)), Boolean.valueOf(instanceBVH.intersects(ray, 0.001D, 1.0E9D)));
+			assertEquals(Boolean.valueOf(!Double.isNaN(t)), Boolean.valueOf(optionalSurfaceIntersection.isPresent()));
+			assertTrue(Double.isNaN(t) || Math.abs(tInstanceBVH - t) <= 1.0E-9D);
+			assertTrue(Double.isNaN(t) || Math.abs(optionalSurfaceIntersection.get().getT() - t) <= 1.0E-9D);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static List<BVHItem3D<Shape3D>> doCreateBVHItems(final List<Triangle3D> triangles) {
+		final List<BVHItem3D<Shape3D>> bVHItems = new ArrayList<>();
+		
+		for(final Triangle3D triangle : triangles) {
+			bVHItems.add(new BVHItem3D<>(triangle.getBoundingVolume(), triangle));
+		}
+		
+		return bVHItems;
+	}
+	
+	private static List<Triangle3D> doCreateTriangles(final Random random, final int count) {
+		final List<Triangle3D> triangles = new ArrayList<>();
+		
+		for(int i = 0; i < count; i++) {
+			final Point3D a = new Point3D(random.nextDouble() * 10.0D - 5.0D, random.nextDouble() * 10.0D - 5.0D, random.nextDouble() * 10.0D - 5.0D);
+			final Point3D b = new Point3D(a.x + random.nextGaussian(), a.y + random.nextGaussian(), a.z + random.nextGaussian());
+			final Point3D c = new Point3D(a.x + random.nextGaussian(), a.y + random.nextGaussian(), a.z + random.nextGaussian());
+			
+			triangles.add(new Triangle3D(a, b, c));
+		}
+		
+		return triangles;
+	}
+	
+	private static Ray3D doCreateRay(final Random random, final int index) {
+		final Point3D origin = new Point3D(random.nextDouble() * 30.0D - 15.0D, random.nextDouble() * 30.0D - 15.0D, random.nextDouble() * 30.0D - 15.0D);
+		
+		final Vector3D direction = new Vector3D(random.nextGaussian(), index % 5 == 0 ? 0.0D : random.nextGaussian(), random.nextGaussian());
+		
+		return new Ray3D(origin, direction);
+	}
+	
+	private static double doIntersectionT(final List<Triangle3D> triangles, final Ray3D ray) {
+		double t = Double.NaN;
+		
+		for(final Triangle3D triangle : triangles) {
+			final double tCurrent = triangle.intersectionT(ray, 0.001D, 1.0E9D);
+			
+			if(!Double.isNaN(tCurrent) && (Double.isNaN(t) || tCurrent < t)) {
+				t = tCurrent;
+			}
+		}
+		
+		return t;
+	}
+}
\ No newline at end of file
@@ -91,6 +91,21 @@ public final class Ray3DUnitTests {
 		assertThrows(NullPointerException.class, () -> new Ray3D(null, new Vector3D(1.0D, 0.0D, 0.0D)));
 	}
 	
+	@Test
+	public void testConstructorPoint3DVector3DBoolean() {
+		final Ray3D a = new Ray3D(new Point3D(1.0D, 2.0D, 3.0D), new Vector3D(2.0D, 0.0D, 0.0D), true);
+		final Ray3D b = new Ray3D(new Point3D(1.0D, 2.0D, 3.0D), new Vector3D(2.0D, 0.0D, 0.0D), false);
+		
+		assertEquals(new Point3D(1.0D, 2.0D, 3.0D), a.getOrigin());
+		assertEquals(new Point3D(1.0D, 2.0D, 3.0D), b.getOrigin());
+		
+		assertEquals(new Vector3D(1.0D, 0.0D, 0.0D), a.getDirection());
+		assertEquals(new Vector3D(2.0D, 0.0D, 0.0D), b.getDirection());
+		
+		assertThrows(NullPointerException.class, () -> new Ray3D(new Point3D(1.0D, 2.0D, 3.0D), null, false));
+		assertThrows(NullPointerException.class, () -> new Ray3D(null, new Vector3D(1.0D, 0.0D, 0.0D), false));
+	}
+	
 	@Test
 	public void testEqualsObject() {
 		final Ray3D a = new Ray3D(new Point3D(1.0D, 2.0D, 3.0D), new Vector3D(1.0D, 0.0D, 0.0D));
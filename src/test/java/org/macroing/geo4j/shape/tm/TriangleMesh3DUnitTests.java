@@ -0,0 +1,116 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.geo4j.
+ * 
+ * org.macroing.geo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.geo4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.geo4j. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.geo4j.shape.tm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.geo4j.shape.SurfaceIntersector3D;
+import org.macroing.geo4j.shape.triangle.Triangle3D;
+
+@SuppressWarnings("static-method")
+public final class TriangleMesh3DUnitTests {
+	public TriangleMesh3DUnitTests() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Test
+	public void testIntersectionAgainstLinearScan() {
+		final Random random = new Random(1L);
+		
+		final double[] positions = new double[500 * 9];
+		
+		final int[] indices = new int[500 * 3];
+		
+		final List<Triangle3D> triangles = new ArrayList<>();
+		
+		for(int i = 0; i < 500; i++) {
+			final Point3D a = new Point3D(random.nextDouble() * 10.0D, random.nextDouble() * 10.0D, random.nextDouble() * 10.0D);
+			final Point3D b = new Point3D(a.x + random.nextGaussian(), a.y + random.nextGaussian(), a.z + random.nextGaussian());
+			final Point3D c = new Point3D(a.x + random.nextGaussian(), a.y + random.nextGaussian(), a.z + random.nextGaussian());
+			
+			doSetPosition(positions, i * 3 + 0, a);
+			doSetPosition(positions, i * 3 + 1, b);
+			doSetPosition(positions, i * 3 + 2, c);
+			
+			indices[i * 3 + 0] = i * 3 + 0;
+			indices[i * 3 + 1] = i * 3 + 1;
+			indices[i * 3 + 2] = i * 3 + 2;
+			
+			triangles.add(new Triangle3D(a, b, c));
+		}
+		
+		final TriangleMesh3D triangleMesh = new TriangleMesh3D(positions, indices);
+		
+		assertEquals(500, triangleMesh.getTriangleCount());
+		
+		for(int i = 0; i < 2000; i++) {
+			final Point3D origin = new Point3D(random.nextDouble() * 14.0D - 2.0D, random.nextDouble() * 14.0D - 2.0D, random.nextDouble() * 14.0D - 2.0D);
+			
+			final Vector3D direction = new Vector3D(random.nextGaussian(), i % 5 == 0 ? 0.0D : random.nextGaussian(), random.nextGaussian());
+			
+			final Ray3D ray = new Ray3D(origin, direction);
+			
+			final double tMaximum = i % 4 == 0 ? 2.0D : 1.0E9D;
+			final double t = doIntersectionT(triangles, ray, tMaximum);
+			final double tTriangleMesh = triangleMesh.intersectionT(ray, 0.001D, tMaximum);
+			
+			final SurfaceIntersector3D surfaceIntersector = new SurfaceIntersector3D(ray, 0.001D, tMaximum);
+			
+			assertEquals(Boolean.valueOf(!Double.isNaN(t)), Boolean.valueOf(!Double.isNaN(tTriangleMesh)));
+			assertEquals(Boolean.valueOf(!Double.isNaN(t)), Boolean.valueOf(triangleMesh.intersects(ray, 0.001D, tMaximum)));
+			assertEquals(Boolean.valueOf(!Double.isNaN(t)), Boolean.valueOf(triangleMesh.intersection(surfaceIntersector)));
+			assertTrue(Double.isNaN(t) || Math.abs(tTriangleMesh - t) <= 1.0E-9D);
+			assertTrue(Double.isNaN(t) || Math.abs(surfaceIntersector.getT() - t) <= 1.0E-9D);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static double doIntersectionT(final List<Triangle3D> triangles, final Ray3D ray, final double tMaximum) {
+		double t = Double.NaN;
+		
+		for(final Triangle3D triangle : triangles) {
+			final double tCurrent = triangle.intersectionT(ray, 0.001D, tMaximum);
+			
+			if(!Double.isNaN(tCurrent) && (Double.isNaN(t) || tCurrent < t)) {
+				t = tCurrent;
+			}
+		}
+		
+		return t;
+	}
+	
+	private static void doSetPosition(final double[] positions, final int vertex, final Point3D point) {
+		positions[vertex * 3 + 0] = point.x;
+		positions[vertex * 3 + 1] = point.y;
+		positions[vertex * 3 + 2] = point.z;
+	}
+}
\ No newline at end of file